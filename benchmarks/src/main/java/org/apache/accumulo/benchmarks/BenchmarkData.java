@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.benchmarks;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.util.FastFormat;
+
+/**
+ * Deterministic data generators shared by the benchmarks, so that runs against different builds operate on identical input.
+ */
+public class BenchmarkData {
+
+  public static final long SEED = 42;
+
+  private static final String[] VISIBILITIES = {"", "A", "B", "A&B", "A|C", "(A|B)&C", "(A&B)|(C&D)"};
+
+  private BenchmarkData() {}
+
+  /**
+   * @return a zero padded row that sorts in the same order as the non-negative {@code row}
+   */
+  public static byte[] row(long row) {
+    return FastFormat.toZeroPaddedString(row, 16, 16, new byte[] {'r'});
+  }
+
+  /**
+   * Generates a sorted map of keys in wide rows, varying the column qualifier fastest, which is the typical shape of data in an RFile.
+   *
+   * @param numRows
+   *          number of distinct rows
+   * @param colsPerRow
+   *          number of columns in each row
+   * @param valueSize
+   *          number of random bytes in each value
+   * @param withVisibility
+   *          if true, cycle through a small set of column visibility expressions
+   */
+  public static TreeMap<Key,Value> sortedData(int numRows, int colsPerRow, int valueSize, boolean withVisibility) {
+    Random rand = new Random(SEED);
+    TreeMap<Key,Value> data = new TreeMap<>();
+    for (int r = 0; r < numRows; r++) {
+      byte[] row = row(r);
+      for (int c = 0; c < colsPerRow; c++) {
+        byte[] cf = ("cf" + (c % 4)).getBytes(UTF_8);
+        byte[] cq = FastFormat.toZeroPaddedString(c, 6, 16, new byte[] {'q'});
+        byte[] cv = withVisibility ? VISIBILITIES[rand.nextInt(VISIBILITIES.length)].getBytes(UTF_8) : new byte[0];
+        byte[] val = new byte[valueSize];
+        rand.nextBytes(val);
+        data.put(new Key(row, cf, cq, cv, rand.nextInt(1 << 20)), new Value(val));
+      }
+    }
+    return data;
+  }
+
+  /**
+   * @return the keys of {@code data} in shuffled order, suitable for random seeks
+   */
+  public static Key[] shuffledKeys(TreeMap<Key,Value> data) {
+    Key[] keys = data.keySet().toArray(new Key[data.size()]);
+    Random rand = new Random(SEED);
+    for (int i = keys.length - 1; i > 0; i--) {
+      int j = rand.nextInt(i + 1);
+      Key tmp = keys[i];
+      keys[i] = keys[j];
+      keys[j] = tmp;
+    }
+    return keys;
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.benchmarks.data;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.benchmarks.BenchmarkData;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.PartialKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures {@link Key#compareTo(Key)} and {@link Key#compareTo(Key, PartialKey)} for pairs of keys that differ in the row, the column qualifier, or only the
+ * timestamp, which exercise progressively longer comparison paths. The SHARED_COLQUAL case differs in the column qualifier like COLQUAL, but the keys share the
+ * arrays of their equal fields the way consecutive keys decoded from an RFile do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyCompareBenchmark {
+
+  private static final int NUM_PAIRS = 1024;
+
+  public enum Difference {
+    ROW, COLQUAL, SHARED_COLQUAL, TIMESTAMP
+  }
+
+  @Param({"ROW", "COLQUAL", "SHARED_COLQUAL", "TIMESTAMP"})
+  public Difference difference;
+
+  @Param({"16", "128"})
+  public int fieldLength;
+
+  private Key[] left;
+  private Key[] right;
+
+  @Setup
+  public void setup() {
+    left = new Key[NUM_PAIRS];
+    right = new Key[NUM_PAIRS];
+    for (int i = 0; i < NUM_PAIRS; i++) {
+      byte[] row = pad(BenchmarkData.row(i));
+      byte[] cf = pad("family".getBytes());
+      byte[] cq = pad(BenchmarkData.row(i * 31));
+      byte[] cv = "A&B".getBytes();
+      left[i] = new Key(row, cf, cq, cv, 1000);
+      switch (difference) {
+        case ROW:
+          right[i] = new Key(pad(BenchmarkData.row(i + 1)), cf, cq, cv, 1000);
+          break;
+        case COLQUAL:
+          right[i] = new Key(row.clone(), cf.clone(), pad(BenchmarkData.row(i * 31 + 1)), cv.clone(), 1000);
+          break;
+        case SHARED_COLQUAL:
+          right[i] = new Key(left[i].getRowData().getBackingArray(), left[i].getColumnFamilyData().getBackingArray(), pad(BenchmarkData.row(i * 31 + 1)),
+              left[i].getColumnVisibilityData().getBackingArray(), 1000, false, false);
+          break;
+        case TIMESTAMP:
+          right[i] = new Key(row.clone(), cf.clone(), cq.clone(), cv.clone(), 999);
+          break;
+      }
+    }
+  }
+
+  /**
+   * Pads the given field to {@link #fieldLength} bytes, keeping the distinguishing bytes at the end so comparisons must walk the whole common prefix.
+   */
+  private byte[] pad(byte[] field) {
+    if (field.length >= fieldLength)
+      return field;
+    byte[] padded = new byte[fieldLength];
+    System.arraycopy(field, 0, padded, fieldLength - field.length, field.length);
+    return padded;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_PAIRS)
+  public void compareTo(Blackhole bh) {
+    for (int i = 0; i < NUM_PAIRS; i++) {
+      bh.consume(left[i].compareTo(right[i]));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_PAIRS)
+  public void compareToRowColFam(Blackhole bh) {
+    for (int i = 0; i < NUM_PAIRS; i++) {
+      bh.consume(left[i].compareTo(right[i], PartialKey.ROW_COLFAM));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_PAIRS)
+  public void equalsRowColFamColQualColVis(Blackhole bh) {
+    for (int i = 0; i < NUM_PAIRS; i++) {
+      bh.consume(left[i].equals(right[i], PartialKey.ROW_COLFAM_COLQUAL_COLVIS));
+    }
+  }
+}
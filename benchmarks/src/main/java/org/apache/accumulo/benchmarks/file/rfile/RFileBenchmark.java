@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.benchmarks.file.rfile;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.benchmarks.BenchmarkData;
+import org.apache.accumulo.core.conf.AccumuloConfiguration;
+import org.apache.accumulo.core.conf.DefaultConfiguration;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.file.blockfile.impl.CachableBlockFile;
+import org.apache.accumulo.core.file.rfile.RFile;
+import org.apache.accumulo.core.file.streams.PositionedOutputs;
+import org.apache.accumulo.core.util.CachedConfiguration;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.PositionedReadable;
+import org.apache.hadoop.fs.Seekable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures writing an RFile with {@link RFile.Writer#append(Key, Value)} and reading it back with {@link RFile.Reader#seek(Range, Collection, boolean)}
+ * followed by {@link RFile.Reader#next()}. Files are kept in memory so that the results reflect encoding and decoding cost rather than I/O.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RFileBenchmark {
+
+  private static final Configuration conf = CachedConfiguration.getInstance();
+  private static final AccumuloConfiguration aconf = DefaultConfiguration.getInstance();
+  private static final Collection<ByteSequence> EMPTY_CFS = Collections.emptySet();
+
+  @Param({"none", "gz"})
+  public String compression;
+
+  @Param({"1", "1000"})
+  public int colsPerRow;
+
+  @Param({"100000"})
+  public int entries;
+
+  @Param({"102400"})
+  public int blockSize;
+
+  /**
+   * Serves a file held in memory to the block file reader, which requires a seekable stream.
+   */
+  private static class SeekableByteArrayInputStream extends ByteArrayInputStream implements Seekable, PositionedReadable {
+
+    SeekableByteArrayInputStream(byte[] buf) {
+      super(buf);
+    }
+
+    @Override
+    public long getPos() {
+      return pos;
+    }
+
+    @Override
+    public void seek(long pos) throws IOException {
+      if (pos < 0 || pos > count)
+        throw new IOException("Seek out of range " + pos);
+      this.pos = (int) pos;
+    }
+
+    @Override
+    public boolean seekToNewSource(long targetPos) {
+      return false;
+    }
+
+    @Override
+    public int read(long position, byte[] buffer, int offset, int length) throws IOException {
+      if (position < 0 || position + length > count)
+        throw new IOException("Read out of range " + position + " " + length);
+      System.arraycopy(buf, (int) position, buffer, offset, length);
+      return length;
+    }
+
+    @Override
+    public void readFully(long position, byte[] buffer) throws IOException {
+      read(position, buffer, 0, buffer.length);
+    }
+
+    @Override
+    public void readFully(long position, byte[] buffer, int offset, int length) throws IOException {
+      read(position, buffer, offset, length);
+    }
+  }
+
+  private TreeMap<Key,Value> data;
+  private Key[] seekKeys;
+  private int nextSeek = 0;
+  private byte[] file;
+  private RFile.Reader reader;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    data = BenchmarkData.sortedData(Math.max(1, entries / colsPerRow), colsPerRow, 50, true);
+    seekKeys = BenchmarkData.shuffledKeys(data);
+    file = write();
+    reader = openReader();
+  }
+
+  @TearDown(Level.Trial)
+  public void teardown() throws IOException {
+    reader.close();
+  }
+
+  private byte[] write() throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    FSDataOutputStream dos = new FSDataOutputStream(baos, new FileSystem.Statistics("benchmark"));
+    CachableBlockFile.Writer cbw = new CachableBlockFile.Writer(PositionedOutputs.wrap(dos), compression, conf, aconf);
+    RFile.Writer writer = new RFile.Writer(cbw, blockSize, 128 * 1024, null, null);
+    writer.startDefaultLocalityGroup();
+    for (Entry<Key,Value> entry : data.entrySet()) {
+      writer.append(entry.getKey(), entry.getValue());
+    }
+    writer.close();
+    return baos.toByteArray();
+  }
+
+  private RFile.Reader openReader() throws IOException {
+    FSDataInputStream in = new FSDataInputStream(new SeekableByteArrayInputStream(file));
+    return new RFile.Reader(new CachableBlockFile.Reader(in, file.length, conf, aconf));
+  }
+
+  @Benchmark
+  public byte[] append() throws IOException {
+    return write();
+  }
+
+  @Benchmark
+  public void scan(Blackhole bh) throws IOException {
+    reader.seek(new Range(), EMPTY_CFS, false);
+    while (reader.hasTop()) {
+      bh.consume(reader.getTopKey());
+      bh.consume(reader.getTopValue());
+      reader.next();
+    }
+  }
+
+  @Benchmark
+  public void seekAndNext(Blackhole bh) throws IOException {
+    Key key = seekKeys[nextSeek];
+    nextSeek = (nextSeek + 1) % seekKeys.length;
+    reader.seek(new Range(key, null), EMPTY_CFS, false);
+    for (int i = 0; i < 10 && reader.hasTop(); i++) {
+      bh.consume(reader.getTopKey());
+      reader.next();
+    }
+  }
+}
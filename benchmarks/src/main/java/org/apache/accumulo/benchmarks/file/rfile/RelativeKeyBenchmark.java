@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.benchmarks.file.rfile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.benchmarks.BenchmarkData;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.file.blockfile.impl.SeekableByteArrayInputStream;
+import org.apache.accumulo.core.file.rfile.RelativeKey;
+import org.apache.accumulo.core.util.MutableByteSequence;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures decoding of a single uncompressed RFile data block, either entry by entry with {@link RelativeKey#readFields(java.io.DataInput)} as a scan does,
+ * or with {@link RelativeKey#fastSkip} as a seek within the block does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RelativeKeyBenchmark {
+
+  @Param({"1", "100"})
+  public int colsPerRow;
+
+  @Param({"1000"})
+  public int entries;
+
+  private byte[] block;
+  private int numEntries;
+  private Key lastKey;
+  private Key middleKey;
+
+  @Setup
+  public void setup() throws IOException {
+    TreeMap<Key,Value> data = BenchmarkData.sortedData(Math.max(1, entries / colsPerRow), colsPerRow, 20, true);
+
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(baos);
+    Key prevKey = null;
+    int i = 0;
+    for (Entry<Key,Value> entry : data.entrySet()) {
+      new RelativeKey(prevKey, entry.getKey()).write(out);
+      entry.getValue().write(out);
+      prevKey = entry.getKey();
+      if (i++ == data.size() / 2)
+        middleKey = prevKey;
+    }
+    out.close();
+
+    block = baos.toByteArray();
+    numEntries = data.size();
+    lastKey = prevKey;
+  }
+
+  @Benchmark
+  public void readFields(Blackhole bh) throws IOException {
+    DataInputStream in = new DataInputStream(new SeekableByteArrayInputStream(block));
+    RelativeKey rk = new RelativeKey();
+    Value val = new Value();
+    Key prevKey = null;
+    for (int i = 0; i < numEntries; i++) {
+      rk.setPrevKey(prevKey);
+      rk.readFields(in);
+      val.readFields(in);
+      prevKey = rk.getKey();
+    }
+    bh.consume(prevKey);
+    bh.consume(val);
+  }
+
+  @Benchmark
+  public RelativeKey.SkippR fastSkipToMiddle() throws IOException {
+    return fastSkip(middleKey);
+  }
+
+  @Benchmark
+  public RelativeKey.SkippR fastSkipToEnd() throws IOException {
+    return fastSkip(lastKey);
+  }
+
+  private RelativeKey.SkippR fastSkip(Key seekKey) throws IOException {
+    DataInputStream in = new DataInputStream(new SeekableByteArrayInputStream(block));
+    MutableByteSequence value = new MutableByteSequence(new byte[64], 0, 0);
+    return RelativeKey.fastSkip(in, seekKey, value, null, null, numEntries);
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.benchmarks.iterators;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.benchmarks.BenchmarkData;
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.client.impl.BaseIteratorEnvironment;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.Combiner;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.IteratorUtil.IteratorScope;
+import org.apache.accumulo.core.iterators.LongCombiner;
+import org.apache.accumulo.core.iterators.SortedMapIterator;
+import org.apache.accumulo.core.iterators.user.SummingCombiner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures a {@link SummingCombiner} reducing a configurable number of versions per column, using each of the {@link LongCombiner.Type} encodings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CombinerBenchmark {
+
+  private static final IteratorEnvironment SCAN_ENV = new BaseIteratorEnvironment() {
+    @Override
+    public IteratorScope getIteratorScope() {
+      return IteratorScope.scan;
+    }
+  };
+
+  @Param({"VARLEN", "FIXEDLEN", "STRING"})
+  public LongCombiner.Type encoding;
+
+  @Param({"1", "10", "100"})
+  public int versions;
+
+  @Param({"100000"})
+  public int entries;
+
+  private TreeMap<Key,Value> data;
+  private IteratorSetting setting;
+
+  @Setup
+  public void setup() {
+    setting = new IteratorSetting(10, SummingCombiner.class);
+    LongCombiner.setEncodingType(setting, encoding);
+    Combiner.setCombineAllColumns(setting, true);
+
+    byte[] cf = "cf".getBytes(UTF_8);
+    byte[] cq = "count".getBytes(UTF_8);
+    byte[] cv = new byte[0];
+    data = new TreeMap<>();
+    for (int i = 0; i < entries; i++) {
+      Key k = new Key(BenchmarkData.row(i / versions), cf, cq, cv, i % versions);
+      data.put(k, new Value(encode(i)));
+    }
+  }
+
+  private byte[] encode(long l) {
+    switch (encoding) {
+      case VARLEN:
+        return LongCombiner.VAR_LEN_ENCODER.encode(l);
+      case FIXEDLEN:
+        return LongCombiner.FIXED_LEN_ENCODER.encode(l);
+      default:
+        return LongCombiner.STRING_ENCODER.encode(l);
+    }
+  }
+
+  @Benchmark
+  public void combine(Blackhole bh) throws IOException {
+    SummingCombiner combiner = new SummingCombiner();
+    combiner.init(new SortedMapIterator(data), setting.getOptions(), SCAN_ENV);
+    combiner.seek(new Range(), Collections.emptySet(), false);
+    while (combiner.hasTop()) {
+      bh.consume(combiner.getTopKey());
+      bh.consume(combiner.getTopValue());
+      combiner.next();
+    }
+  }
+}
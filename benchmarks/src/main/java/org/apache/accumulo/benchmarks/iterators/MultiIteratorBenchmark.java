@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.benchmarks.iterators;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.benchmarks.BenchmarkData;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iterators.SortedMapIterator;
+import org.apache.accumulo.core.iterators.system.HeapIterator;
+import org.apache.accumulo.core.iterators.system.MultiIterator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the {@link HeapIterator} merge performed by {@link MultiIterator} over a number of sorted sources, as happens when a tablet with many files is
+ * scanned or compacted. Sources are either interleaved key by key, which forces the heap to change its top on every step, or each cover a disjoint run of
+ * keys, which is the best case for the merge.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MultiIteratorBenchmark {
+
+  @Param({"2", "10", "30"})
+  public int numSources;
+
+  @Param({"true", "false"})
+  public boolean interleaved;
+
+  @Param({"100000"})
+  public int entries;
+
+  private List<TreeMap<Key,Value>> sources;
+
+  @Setup
+  public void setup() {
+    TreeMap<Key,Value> data = BenchmarkData.sortedData(entries / 10, 10, 20, false);
+    sources = new ArrayList<>(numSources);
+    for (int i = 0; i < numSources; i++) {
+      sources.add(new TreeMap<>());
+    }
+
+    int i = 0;
+    int runLength = (data.size() + numSources - 1) / numSources;
+    for (Entry<Key,Value> entry : data.entrySet()) {
+      int source = interleaved ? i % numSources : i / runLength;
+      sources.get(source).put(entry.getKey(), entry.getValue());
+      i++;
+    }
+  }
+
+  @Benchmark
+  public void merge(Blackhole bh) throws IOException {
+    List<SortedKeyValueIterator<Key,Value>> iters = new ArrayList<>(numSources);
+    for (TreeMap<Key,Value> source : sources) {
+      iters.add(new SortedMapIterator(source));
+    }
+
+    MultiIterator mi = new MultiIterator(iters, true);
+    mi.seek(new Range(), Collections.emptySet(), false);
+    while (mi.hasTop()) {
+      bh.consume(mi.getTopKey());
+      mi.next();
+    }
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.benchmarks.iterators;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.benchmarks.BenchmarkData;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iterators.SortedMapIterator;
+import org.apache.accumulo.core.iterators.system.VisibilityFilter;
+import org.apache.accumulo.core.security.Authorizations;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the system {@link VisibilityFilter} over data carrying a configurable number of distinct column visibility expressions. When the number of
+ * distinct expressions exceeds the size of the filter's cache, every lookup misses and the expression is parsed and evaluated again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VisibilityFilterBenchmark {
+
+  private static final Authorizations AUTHS = new Authorizations("A", "B", "C", "L1", "L7", "L42");
+
+  @Param({"10", "5000"})
+  public int distinctLabels;
+
+  @Param({"100000"})
+  public int entries;
+
+  private TreeMap<Key,Value> data;
+
+  @Setup
+  public void setup() {
+    String[] labels = new String[distinctLabels];
+    for (int i = 0; i < distinctLabels; i++) {
+      labels[i] = "(A|L" + i + ")&(B|C|L" + (i * 7) + ")";
+    }
+
+    Random rand = new Random(BenchmarkData.SEED);
+    Value val = new Value(new byte[20]);
+    data = new TreeMap<>();
+    for (int i = 0; i < entries; i++) {
+      byte[] cv = labels[rand.nextInt(distinctLabels)].getBytes(UTF_8);
+      data.put(new Key(BenchmarkData.row(i), "cf".getBytes(UTF_8), "cq".getBytes(UTF_8), cv, 0), val);
+    }
+  }
+
+  @Benchmark
+  public void filter(Blackhole bh) throws IOException {
+    SortedKeyValueIterator<Key,Value> iter = VisibilityFilter.wrap(new SortedMapIterator(data), AUTHS, new byte[0]);
+    iter.seek(new Range(), Collections.emptySet(), false);
+    while (iter.hasTop()) {
+      bh.consume(iter.getTopKey());
+      iter.next();
+    }
+  }
+}
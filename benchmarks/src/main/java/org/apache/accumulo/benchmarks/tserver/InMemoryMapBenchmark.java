@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.benchmarks.tserver;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.accumulo.benchmarks.BenchmarkData;
+import org.apache.accumulo.core.conf.ConfigurationCopy;
+import org.apache.accumulo.core.conf.DefaultConfiguration;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.tserver.InMemoryMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link InMemoryMap#mutate(List)} for a single tablet, both from one writer and from several concurrent writers as happens when many update
+ * sessions write to the same hot tablet. The map is recreated for every iteration and each iteration applies a fixed number of batches, so memory use stays
+ * bounded regardless of how fast the map is.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, batchSize = InMemoryMapBenchmark.BATCHES)
+@Measurement(iterations = 10, batchSize = InMemoryMapBenchmark.BATCHES)
+@Fork(1)
+public class InMemoryMapBenchmark {
+
+  static final int BATCHES = 2000;
+  private static final int MUTATIONS_PER_BATCH = 10;
+  private static final int COLUMNS_PER_MUTATION = 10;
+
+  @Param({"false", "true"})
+  public boolean localityGroups;
+
+  private ConfigurationCopy config;
+  private InMemoryMap map;
+  private final AtomicLong nextRow = new AtomicLong();
+
+  /**
+   * Mutations for one writer thread, generated before each iteration so that only the map insert is measured.
+   */
+  @State(Scope.Thread)
+  public static class Batches {
+    private final Random rand = new Random(BenchmarkData.SEED);
+    private final List<List<Mutation>> batches = new ArrayList<>(BATCHES);
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void generate(InMemoryMapBenchmark benchmark) {
+      byte[] value = new byte[50];
+      batches.clear();
+      next = 0;
+      for (int b = 0; b < BATCHES; b++) {
+        List<Mutation> mutations = new ArrayList<>(MUTATIONS_PER_BATCH);
+        for (int m = 0; m < MUTATIONS_PER_BATCH; m++) {
+          // spread rows across the key space, so inserts do not always append to the end of the map
+          Mutation mutation = new Mutation(BenchmarkData.row(Long.reverse(benchmark.nextRow.getAndIncrement()) >>> 1));
+          for (int c = 0; c < COLUMNS_PER_MUTATION; c++) {
+            rand.nextBytes(value);
+            mutation.put(("cf" + (c % 4)).getBytes(UTF_8), ("cq" + c).getBytes(UTF_8), value);
+          }
+          mutations.add(mutation);
+        }
+        batches.add(mutations);
+      }
+    }
+
+    List<Mutation> next() {
+      return batches.get(next++);
+    }
+  }
+
+  @Setup(Level.Trial)
+  public void setupConfig() {
+    config = new ConfigurationCopy(DefaultConfiguration.getInstance());
+    config.set(Property.TSERV_NATIVEMAP_ENABLED, "false");
+    if (localityGroups) {
+      config.set(Property.TABLE_LOCALITY_GROUPS, "g1,g2");
+      config.set(Property.TABLE_LOCALITY_GROUP_PREFIX.getKey() + "g1", "cf0,cf1");
+      config.set(Property.TABLE_LOCALITY_GROUP_PREFIX.getKey() + "g2", "cf2");
+    }
+  }
+
+  @Setup(Level.Iteration)
+  public void setupMap() throws Exception {
+    map = new InMemoryMap(config);
+  }
+
+  @TearDown(Level.Iteration)
+  public void teardownMap() {
+    map.delete(0);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void mutate(Batches batches) {
+    map.mutate(batches.next());
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void mutateConcurrently(Batches batches) {
+    map.mutate(batches.next());
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.bloomfilter;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import com.google.common.base.Preconditions;
+import com.google.common.hash.Hashing;
+
+/**
+ * A split block bloom filter. The bit vector is divided into 64 byte blocks, the size of a cache line, and each key sets one bit in each of the eight words of
+ * a single block. A membership test therefore only reads one block, which allows a reader to load just the part of a serialized filter that contains the block
+ * instead of the entire filter.
+ * <p>
+ * Keys are added and tested by their {@link #hash(byte[])}, so that a key is only hashed once no matter how many filters it is tested against.
+ */
+public class BlockedBloomFilter {
+
+  public static final int BLOCK_LONGS = 8;
+  public static final int BLOCK_BYTES = BLOCK_LONGS * 8;
+
+  // odd constants used to derive the bit set in each word of a block from one hash
+  private static final int[] SALT = {0x47b6137b, 0x44974d91, 0x8824ad5b, 0xa2b7289d, 0x705495c7, 0x2df1424b, 0x9efc4947, 0x5c6bfb31};
+
+  private final long[] bits;
+  private final int numBlocks;
+
+  public BlockedBloomFilter(int numBlocks) {
+    Preconditions.checkArgument(numBlocks > 0, "numBlocks must be positive");
+    this.numBlocks = numBlocks;
+    this.bits = new long[numBlocks * BLOCK_LONGS];
+  }
+
+  /**
+   * @return the number of blocks needed to hold {@code numKeys} keys with roughly the given false positive rate. Confining each key to one block makes the
+   *         filter less accurate than a standard bloom filter of the same size, so this allows a quarter more bits than a standard filter would need.
+   */
+  public static int numBlocks(long numKeys, double errorRate) {
+    double bitsPerKey = -Math.log(errorRate) / (Math.log(2) * Math.log(2)) * 1.25;
+    long blocks = (long) Math.ceil(Math.max(1, numKeys) * bitsPerKey / (BLOCK_BYTES * 8));
+    return (int) Math.min(Integer.MAX_VALUE / BLOCK_LONGS, Math.max(1, blocks));
+  }
+
+  public static long hash(byte[] key) {
+    return Hashing.murmur3_128().hashBytes(key).asLong();
+  }
+
+  /**
+   * @return the block of a filter with {@code numBlocks} blocks that holds the bits for {@code hash}
+   */
+  public static int blockIndex(long hash, int numBlocks) {
+    return (int) (((hash >>> 32) * numBlocks) >>> 32);
+  }
+
+  private static long mask(long hash, int word) {
+    return 1L << ((((int) hash) * SALT[word]) >>> 26);
+  }
+
+  public int getNumBlocks() {
+    return numBlocks;
+  }
+
+  public void add(long hash) {
+    int offset = blockIndex(hash, numBlocks) * BLOCK_LONGS;
+    for (int i = 0; i < BLOCK_LONGS; i++) {
+      bits[offset + i] |= mask(hash, i);
+    }
+  }
+
+  public boolean membershipTest(long hash) {
+    int offset = blockIndex(hash, numBlocks) * BLOCK_LONGS;
+    for (int i = 0; i < BLOCK_LONGS; i++) {
+      if ((bits[offset + i] & mask(hash, i)) == 0)
+        return false;
+    }
+    return true;
+  }
+
+  /**
+   * Reads {@code count} blocks written by {@link #write(DataOutput, int, int)}.
+   */
+  public static long[] readBlocks(DataInput in, int count) throws IOException {
+    long[] words = new long[count * BLOCK_LONGS];
+    for (int i = 0; i < words.length; i++) {
+      words[i] = in.readLong();
+    }
+    return words;
+  }
+
+  /**
+   * Tests a hash against one block of a part of a filter read by {@link #readBlocks(DataInput, int)}.
+   *
+   * @param block
+   *          the block within {@code words} that corresponds to the block returned by {@link #blockIndex(long, int)} for {@code hash}
+   */
+  public static boolean membershipTest(long hash, long[] words, int block) {
+    int offset = block * BLOCK_LONGS;
+    for (int i = 0; i < BLOCK_LONGS; i++) {
+      if ((words[offset + i] & mask(hash, i)) == 0)
+        return false;
+    }
+    return true;
+  }
+
+  /**
+   * Writes {@code count} blocks, starting at block {@code start}, without any header.
+   */
+  public void write(DataOutput out, int start, int count) throws IOException {
+    Preconditions.checkArgument(start >= 0 && count >= 0 && start + count <= numBlocks, "blocks out of range");
+    for (int i = start * BLOCK_LONGS; i < (start + count) * BLOCK_LONGS; i++) {
+      out.writeLong(bits[i]);
+    }
+  }
+}
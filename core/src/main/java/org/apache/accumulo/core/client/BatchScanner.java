@@ -36,8 +36,8 @@ import org.apache.accumulo.core.data.Range;
  * <li>Running server-side iterators that perform computation, even if few entries are returned from the scan itself</li>
  * </ul>
  *
- * To re-emphasize, only use a BatchScanner when you do not care whether returned data is in sorted order. Use a {@link Scanner} instead when sorted order is
- * important.
+ * To re-emphasize, only use a BatchScanner when you do not care whether returned data is in sorted order, unless ordering is requested with
+ * {@link #setOrdered(boolean)}. Use a {@link Scanner} instead when sorted order is important and the ranges are few.
  *
  * <p>
  * A BatchScanner instance will use no more threads than provided in the construction of the BatchScanner implementation. Multiple invocations of
@@ -65,4 +65,25 @@ public interface BatchScanner extends ScannerBase {
    */
   @Override
   void setTimeout(long timeout, TimeUnit timeUnit);
+
+  /**
+   * Causes iterators created after this call to return entries in sorted order. Ranges are still looked up in parallel, but each tablet is buffered until all
+   * tablets before it have been returned, so a slow tablet delays the results that follow it. Overlapping ranges are merged and their entries returned once.
+   *
+   * <p>
+   * By default a BatchScanner is not ordered.
+   *
+   * @since 2.0.0
+   */
+  void setOrdered(boolean ordered);
+
+  /**
+   * Sets the maximum number of bytes of key/value data buffered for each tablet read ahead of the consumer of an ordered BatchScanner. Once a tablet's buffer
+   * is full, reading that tablet pauses until the buffered entries are consumed. The default is 1MB.
+   *
+   * @param bytes
+   *          buffer size in bytes, must be positive
+   * @since 2.0.0
+   */
+  void setOrderedBufferSize(long bytes);
 }
@@ -0,0 +1,386 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.client.impl;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.Instance;
+import org.apache.accumulo.core.client.SampleNotPresentException;
+import org.apache.accumulo.core.client.TableDeletedException;
+import org.apache.accumulo.core.client.TimedOutException;
+import org.apache.accumulo.core.client.impl.TabletServerBatchReaderIterator.ResultReceiver;
+import org.apache.accumulo.core.client.impl.TabletServerBatchReaderIterator.TimeoutTracker;
+import org.apache.accumulo.core.data.Column;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.data.impl.KeyExtent;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.htrace.wrappers.TraceRunnable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Returns the entries of a batch scan in sorted order.
+ * <p>
+ * The ranges are merged and binned to tablets, and each tablet is read by its own task into its own buffer. Because the tablets are disjoint, consuming the
+ * buffers in tablet order yields sorted output. Up to {@code numThreads} tablets are read ahead of the consumer, and each buffer holds at most
+ * {@code bufferSize} bytes, so a slow consumer stops the tablet servers instead of accumulating results in memory.
+ */
+class OrderedTabletServerBatchReaderIterator implements Iterator<Entry<Key,Value>> {
+
+  private static final Logger log = LoggerFactory.getLogger(OrderedTabletServerBatchReaderIterator.class);
+
+  private static final List<Entry<Key,Value>> LAST_BATCH = new ArrayList<>();
+
+  private final ClientContext context;
+  private final Instance instance;
+  private final Table.ID tableId;
+  private final Authorizations authorizations;
+  private final int numThreads;
+  private final long bufferSize;
+  private final ExecutorService queryThreadPool;
+  private final ScannerOptions options;
+  private final List<Column> columns;
+  private final TabletLocator locator;
+  private final long timeout;
+
+  private final Map<String,TimeoutTracker> timeoutTrackers = Collections.synchronizedMap(new HashMap<String,TimeoutTracker>());
+  private final Set<String> timedoutServers = Collections.synchronizedSet(new HashSet<String>());
+
+  private volatile Throwable fatalException = null;
+
+  private final List<TabletStream> streams = new ArrayList<>();
+  private int nextToStart = 0;
+  private int nextToConsume = 0;
+  private TabletStream current = null;
+
+  private Iterator<Entry<Key,Value>> batchIterator = Collections.emptyIterator();
+  private final Object nextLock = new Object();
+
+  OrderedTabletServerBatchReaderIterator(ClientContext context, Table.ID tableId, Authorizations authorizations, List<Range> ranges, int numThreads,
+      long bufferSize, ExecutorService queryThreadPool, ScannerOptions scannerOptions, long timeout) {
+    this.context = context;
+    this.instance = context.getInstance();
+    this.tableId = tableId;
+    this.authorizations = authorizations;
+    this.numThreads = numThreads;
+    this.bufferSize = bufferSize;
+    this.queryThreadPool = queryThreadPool;
+    this.options = new ScannerOptions(scannerOptions);
+    this.columns = new ArrayList<>(options.fetchedColumns);
+    this.locator = new TimeoutTabletLocator(timeout, context, tableId);
+    this.timeout = timeout;
+
+    if (options.fetchedColumns.size() > 0) {
+      ArrayList<Range> ranges2 = new ArrayList<>(ranges.size());
+      for (Range range : ranges) {
+        ranges2.add(range.bound(options.fetchedColumns.first(), options.fetchedColumns.last()));
+      }
+
+      ranges = ranges2;
+    }
+
+    try {
+      for (List<Range> tabletRanges : binInOrder(Range.mergeOverlapping(ranges)).values()) {
+        streams.add(new TabletStream(tabletRanges));
+      }
+    } catch (RuntimeException re) {
+      throw re;
+    } catch (Exception e) {
+      throw new RuntimeException("Failed to create iterator", e);
+    }
+
+    startStreams();
+  }
+
+  /**
+   * Bins ranges to tablets, clipping each range to its tablet, and orders the tablets by key.
+   */
+  private TreeMap<KeyExtent,List<Range>> binInOrder(List<Range> ranges) throws Exception {
+    Map<String,Map<KeyExtent,List<Range>>> binnedRanges = new HashMap<>();
+    TabletServerBatchReaderIterator.binRanges(context, tableId, locator, ranges, binnedRanges);
+
+    TreeMap<KeyExtent,List<Range>> ordered = new TreeMap<>();
+    for (Map<KeyExtent,List<Range>> tablets : binnedRanges.values()) {
+      for (Entry<KeyExtent,List<Range>> entry : tablets.entrySet()) {
+        ordered.put(entry.getKey(), Range.mergeOverlapping(entry.getValue()));
+      }
+    }
+    return ordered;
+  }
+
+  private TreeMap<KeyExtent,String> locate(Map<String,Map<KeyExtent,List<Range>>> binnedRanges) {
+    TreeMap<KeyExtent,String> locations = new TreeMap<>();
+    for (Entry<String,Map<KeyExtent,List<Range>>> entry : binnedRanges.entrySet()) {
+      for (KeyExtent extent : entry.getValue().keySet()) {
+        locations.put(extent, entry.getKey());
+      }
+    }
+    return locations;
+  }
+
+  private void startStreams() {
+    while (nextToStart < streams.size() && nextToStart < nextToConsume + numThreads) {
+      queryThreadPool.execute(new TraceRunnable(streams.get(nextToStart++)));
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    synchronized (nextLock) {
+      try {
+        while (!batchIterator.hasNext()) {
+          if (current == null) {
+            if (nextToConsume == streams.size())
+              return false;
+            current = streams.get(nextToConsume++);
+            startStreams();
+          }
+
+          List<Entry<Key,Value>> batch = null;
+          while (batch == null && fatalException == null && !queryThreadPool.isShutdown())
+            batch = current.buffer.poll(1, TimeUnit.SECONDS);
+
+          if (fatalException != null)
+            if (fatalException instanceof RuntimeException)
+              throw (RuntimeException) fatalException;
+            else
+              throw new RuntimeException(fatalException);
+
+          if (queryThreadPool.isShutdown()) {
+            String shortMsg = "The BatchScanner was unexpectedly closed while this Iterator was still in use.";
+            log.error("{} Ensure that a reference to the BatchScanner is retained so that it can be closed when this Iterator is exhausted."
+                + " Not retaining a reference to the BatchScanner guarantees that you are leaking threads in your client JVM.", shortMsg);
+            throw new RuntimeException(shortMsg + " Ensure proper handling of the BatchScanner.");
+          }
+
+          if (batch == LAST_BATCH)
+            current = null;
+          else
+            batchIterator = batch.iterator();
+        }
+        return true;
+      } catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+    }
+  }
+
+  @Override
+  public Entry<Key,Value> next() {
+    synchronized (nextLock) {
+      if (hasNext())
+        return batchIterator.next();
+      else
+        throw new NoSuchElementException();
+    }
+  }
+
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Holds the results of one tablet until the consumer reaches it. Blocks the producer once the buffered entries exceed the configured number of bytes, but
+   * always accepts a batch when empty so that a single large batch can not stall the scan.
+   */
+  private class ResultBuffer implements ResultReceiver {
+    private final ArrayDeque<List<Entry<Key,Value>>> batches = new ArrayDeque<>();
+    private final ArrayDeque<Long> sizes = new ArrayDeque<>();
+    private long bytes = 0;
+    private boolean finished = false;
+
+    @Override
+    public void receive(List<Entry<Key,Value>> entries) {
+      long size = 0;
+      for (Entry<Key,Value> entry : entries) {
+        size += entry.getKey().getSize() + entry.getValue().getSize();
+      }
+
+      synchronized (this) {
+        try {
+          while (!batches.isEmpty() && bytes + size > bufferSize)
+            wait();
+        } catch (InterruptedException e) {
+          if (queryThreadPool.isShutdown())
+            log.debug("Failed to add Batch Scan result", e);
+          else
+            log.warn("Failed to add Batch Scan result", e);
+          fatalException = e;
+          throw new RuntimeException(e);
+        }
+        batches.add(entries);
+        sizes.add(size);
+        bytes += size;
+        notifyAll();
+      }
+    }
+
+    synchronized void finish() {
+      finished = true;
+      notifyAll();
+    }
+
+    /**
+     * @return the next batch, {@link #LAST_BATCH} once the tablet is finished, or null if nothing arrived before the timeout
+     */
+    synchronized List<Entry<Key,Value>> poll(long time, TimeUnit unit) throws InterruptedException {
+      if (batches.isEmpty() && !finished)
+        wait(unit.toMillis(time));
+
+      if (!batches.isEmpty()) {
+        bytes -= sizes.remove();
+        notifyAll();
+        return batches.remove();
+      }
+
+      return finished ? LAST_BATCH : null;
+    }
+  }
+
+  /**
+   * Reads the ranges of one tablet in order. If the tablet has split or moved, the remaining ranges are binned again and read one tablet at a time, so the
+   * stream stays sorted.
+   */
+  private class TabletStream implements Runnable {
+
+    private final ResultBuffer buffer = new ResultBuffer();
+    private List<Range> ranges;
+    private long failSleepTime = 100;
+
+    TabletStream(List<Range> ranges) {
+      this.ranges = ranges;
+    }
+
+    @Override
+    public void run() {
+      String threadName = Thread.currentThread().getName();
+      Thread.currentThread().setName(threadName + " looking up " + ranges.size() + " ranges in order");
+      try {
+        while (!ranges.isEmpty() && fatalException == null) {
+          if (!lookupRemaining()) {
+            log.trace("Failed to execute ordered multiscan, retrying...");
+            Thread.sleep(failSleepTime);
+            failSleepTime = Math.min(5000, failSleepTime * 2);
+          }
+        }
+      } catch (AccumuloSecurityException e) {
+        e.setTableInfo(Tables.getPrintableTableInfoFromId(instance, tableId));
+        log.debug("AccumuloSecurityException thrown", e);
+
+        Tables.clearCache(instance);
+        if (!Tables.exists(instance, tableId))
+          fatalException = new TableDeletedException(tableId.canonicalID());
+        else
+          fatalException = e;
+      } catch (SampleNotPresentException e) {
+        fatalException = e;
+      } catch (InterruptedException e) {
+        log.debug("Exiting ordered lookup on interrupt");
+        fatalException = e;
+      } catch (Throwable t) {
+        if (queryThreadPool.isShutdown())
+          log.debug("Caught exception, but queryThreadPool is shutdown", t);
+        else
+          log.warn("Caught exception, but queryThreadPool is not shutdown", t);
+        fatalException = t;
+      } finally {
+        Thread.currentThread().setName(threadName);
+        buffer.finish();
+      }
+    }
+
+    /**
+     * Looks up the remaining ranges one tablet at a time, stopping at the first tablet that fails.
+     *
+     * @return true if all ranges were read
+     */
+    private boolean lookupRemaining() throws Exception {
+      Map<String,Map<KeyExtent,List<Range>>> binnedRanges = new HashMap<>();
+      TabletServerBatchReaderIterator.binRanges(context, tableId, locator, ranges, binnedRanges);
+      TreeMap<KeyExtent,String> locations = locate(binnedRanges);
+
+      List<Range> remaining = new ArrayList<>();
+      boolean failed = false;
+      for (Entry<KeyExtent,String> entry : locations.entrySet()) {
+        KeyExtent extent = entry.getKey();
+        String server = entry.getValue();
+        List<Range> tabletRanges = binnedRanges.get(server).get(extent);
+
+        if (failed) {
+          remaining.addAll(tabletRanges);
+          continue;
+        }
+
+        if (timedoutServers.contains(server)) {
+          // unlike an unordered scan, the remaining tablets can not be read until this one is
+          throw new TimedOutException(timedoutServers);
+        }
+
+        TimeoutTracker timeoutTracker = timeoutTrackers.get(server);
+        if (timeoutTracker == null) {
+          timeoutTracker = new TimeoutTracker(server, timedoutServers, timeout);
+          timeoutTrackers.put(server, timeoutTracker);
+        }
+
+        Map<KeyExtent,List<Range>> failures = new HashMap<>();
+        Map<KeyExtent,List<Range>> unscanned = new HashMap<>();
+        try {
+          TabletServerBatchReaderIterator.doLookup(context, server, Collections.singletonMap(extent, tabletRanges), failures, unscanned, buffer, columns,
+              options, authorizations, timeoutTracker);
+          if (failures.size() > 0) {
+            locator.invalidateCache(failures.keySet());
+            failed = true;
+          }
+        } catch (IOException e) {
+          if (queryThreadPool.isShutdown())
+            throw e;
+          log.debug("IOException thrown", e);
+          locator.invalidateCache(instance, server);
+          failed = true;
+        }
+
+        for (List<Range> failedRanges : failures.values()) {
+          remaining.addAll(failedRanges);
+        }
+        for (List<Range> unscannedRanges : unscanned.values()) {
+          remaining.addAll(unscannedRanges);
+        }
+      }
+
+      ranges = Range.mergeOverlapping(remaining);
+      return !failed;
+    }
+  }
+}
@@ -16,6 +16,7 @@
  */
 package org.apache.accumulo.core.client.impl;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static org.apache.accumulo.fate.util.UtilWaitThread.sleepUninterruptibly;
 
 import java.io.Serializable;
@@ -32,6 +33,10 @@ import java.util.Map.Entry;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -47,6 +52,7 @@ import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.impl.KeyExtent;
 import org.apache.accumulo.core.util.OpTimer;
 import org.apache.accumulo.core.util.Pair;
+import org.apache.accumulo.core.util.SimpleThreadPool;
 import org.apache.accumulo.core.util.TextUtil;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.io.WritableComparator;
@@ -439,6 +445,90 @@ public class TabletLocatorImpl extends TabletLocator {
       log.trace("invalidated all {} cache entries for table={}", invalidatedCount, tableId);
   }
 
+  /**
+   * Reads the locations of all of the table's tablets into the cache, looking up each metadata tablet in parallel. This replaces the many small metadata
+   * lookups a cold cache would otherwise make as the table is used. Tablets that can not be located are skipped and looked up on demand as usual.
+   *
+   * @param numThreads
+   *          maximum number of metadata tablets to read concurrently
+   * @return the number of tablet locations added to the cache
+   */
+  public int prefetch(final ClientContext context, int numThreads) throws AccumuloException, AccumuloSecurityException, TableNotFoundException {
+    checkArgument(numThreads > 0, "numThreads must be positive");
+
+    OpTimer timer = null;
+
+    if (log.isTraceEnabled()) {
+      log.trace("tid={} Prefetching tablet locations for table {}", Thread.currentThread().getId(), tableId);
+      timer = new OpTimer().start();
+    }
+
+    Map<String,Map<KeyExtent,List<Range>>> binnedRanges = new HashMap<>();
+    List<Range> failures = parent.binRanges(context, Collections.singletonList(new KeyExtent(tableId, null, null).toMetadataRange()), binnedRanges);
+    if (!failures.isEmpty())
+      log.debug("Unable to locate all metadata tablets for table {}, prefetching what can be located", tableId);
+
+    List<Callable<List<TabletLocation>>> lookups = new ArrayList<>();
+    for (Entry<String,Map<KeyExtent,List<Range>>> entry : binnedRanges.entrySet()) {
+      final String tserver = entry.getKey();
+      for (Entry<KeyExtent,List<Range>> tabletRanges : entry.getValue().entrySet()) {
+        final Map<KeyExtent,List<Range>> lookup = Collections.singletonMap(tabletRanges.getKey(), tabletRanges.getValue());
+        lookups.add(new Callable<List<TabletLocation>>() {
+          @Override
+          public List<TabletLocation> call() throws Exception {
+            return locationObtainer.lookupTablets(context, tserver, lookup, parent);
+          }
+        });
+      }
+    }
+
+    if (lookups.isEmpty())
+      return 0;
+
+    List<TabletLocation> locations = new ArrayList<>();
+    ExecutorService threadPool = new SimpleThreadPool(Math.min(numThreads, lookups.size()), "tablet locator prefetch");
+    try {
+      for (Future<List<TabletLocation>> future : threadPool.invokeAll(lookups)) {
+        locations.addAll(future.get());
+      }
+    } catch (InterruptedException e) {
+      throw new AccumuloException(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof AccumuloSecurityException)
+        throw (AccumuloSecurityException) e.getCause();
+      if (e.getCause() instanceof AccumuloException)
+        throw (AccumuloException) e.getCause();
+      throw new AccumuloException(e.getCause());
+    } finally {
+      threadPool.shutdownNow();
+    }
+
+    int cached = addToCache(locations);
+
+    if (timer != null) {
+      timer.stop();
+      log.trace("tid={} Prefetched {} tablet locations for table {} from {} metadata tablets in {}", Thread.currentThread().getId(), cached, tableId,
+          lookups.size(), String.format("%.3f secs", timer.scale(TimeUnit.SECONDS)));
+    }
+
+    return cached;
+  }
+
+  private int addToCache(List<TabletLocation> locations) {
+    LockCheckerSession lcSession = new LockCheckerSession();
+    int cached = 0;
+    wLock.lock();
+    try {
+      for (TabletLocation tabletLocation : locations) {
+        if (updateCache(tabletLocation, lcSession))
+          cached++;
+      }
+    } finally {
+      wLock.unlock();
+    }
+    return cached;
+  }
+
   @Override
   public TabletLocation locateTablet(ClientContext context, Text row, boolean skipRow, boolean retry) throws AccumuloException, AccumuloSecurityException,
       TableNotFoundException {
@@ -525,7 +615,7 @@ public class TabletLocatorImpl extends TabletLocator {
 
   }
 
-  private void updateCache(TabletLocation tabletLocation, LockCheckerSession lcSession) {
+  private boolean updateCache(TabletLocation tabletLocation, LockCheckerSession lcSession) {
     if (!tabletLocation.tablet_extent.getTableId().equals(tableId)) {
       // sanity check
       throw new IllegalStateException("Unexpected extent returned " + tableId + "  " + tabletLocation.tablet_extent);
@@ -546,7 +636,7 @@ public class TabletLocatorImpl extends TabletLocator {
 
     // do not add to cache unless lock is held
     if (lcSession.checkLock(tabletLocation) == null)
-      return;
+      return false;
 
     // add it to cache
     Text er = tabletLocation.tablet_extent.getEndRow();
@@ -556,6 +646,8 @@ public class TabletLocatorImpl extends TabletLocator {
 
     if (badExtents.size() > 0)
       removeOverlapping(badExtents, tabletLocation.tablet_extent);
+
+    return true;
   }
 
   static void removeOverlapping(TreeMap<Text,TabletLocation> metaCache, KeyExtent nke) {
@@ -36,6 +36,8 @@ import org.slf4j.LoggerFactory;
 public class TabletServerBatchReader extends ScannerOptions implements BatchScanner {
   private static final Logger log = LoggerFactory.getLogger(TabletServerBatchReader.class);
 
+  static final long DEFAULT_ORDERED_BUFFER_SIZE = 1024 * 1024;
+
   private Table.ID tableId;
   private int numThreads;
   private ExecutorService queryThreadPool;
@@ -43,6 +45,9 @@ public class TabletServerBatchReader extends ScannerOptions implements BatchScan
   private final ClientContext context;
   private ArrayList<Range> ranges;
 
+  private boolean ordered = false;
+  private long orderedBufferSize = DEFAULT_ORDERED_BUFFER_SIZE;
+
   private Authorizations authorizations = Authorizations.EMPTY;
   private Throwable ex = null;
 
@@ -102,6 +107,17 @@ public class TabletServerBatchReader extends ScannerOptions implements BatchScan
 
   }
 
+  @Override
+  public void setOrdered(boolean ordered) {
+    this.ordered = ordered;
+  }
+
+  @Override
+  public void setOrderedBufferSize(long bytes) {
+    checkArgument(bytes > 0, "bytes must be positive");
+    this.orderedBufferSize = bytes;
+  }
+
   @Override
   public Iterator<Entry<Key,Value>> iterator() {
     if (ranges == null) {
@@ -112,6 +128,10 @@ public class TabletServerBatchReader extends ScannerOptions implements BatchScan
       throw new IllegalStateException("batch reader closed");
     }
 
+    if (ordered)
+      return new OrderedTabletServerBatchReaderIterator(context, tableId, authorizations, ranges, numThreads, orderedBufferSize, queryThreadPool, this,
+          timeOut);
+
     return new TabletServerBatchReaderIterator(context, tableId, authorizations, ranges, numThreads, queryThreadPool, this, timeOut);
   }
 }
@@ -219,13 +219,15 @@ public class TabletServerBatchReaderIterator implements Iterator<Entry<Key,Value
 
     Map<String,Map<KeyExtent,List<Range>>> binnedRanges = new HashMap<>();
 
-    binRanges(locator, ranges, binnedRanges);
+    binRanges(context, tableId, locator, ranges, binnedRanges);
 
     doLookups(binnedRanges, receiver, columns);
   }
 
-  private void binRanges(TabletLocator tabletLocator, List<Range> ranges, Map<String,Map<KeyExtent,List<Range>>> binnedRanges) throws AccumuloException,
-      AccumuloSecurityException, TableNotFoundException {
+  static void binRanges(ClientContext context, Table.ID tableId, TabletLocator tabletLocator, List<Range> ranges,
+      Map<String,Map<KeyExtent,List<Range>>> binnedRanges) throws AccumuloException, AccumuloSecurityException, TableNotFoundException {
+
+    Instance instance = context.getInstance();
 
     int lastFailureSize = Integer.MAX_VALUE;
 
@@ -305,7 +307,7 @@ public class TabletServerBatchReaderIterator implements Iterator<Entry<Key,Value
 
     // since the first call to binRanges clipped the ranges to within a tablet, we should not get only
     // bin to the set of failed tablets
-    binRanges(locator, allRanges, binnedRanges);
+    binRanges(context, tableId, locator, allRanges, binnedRanges);
 
     doLookups(binnedRanges, receiver, columns);
   }
@@ -545,7 +547,7 @@ public class TabletServerBatchReaderIterator implements Iterator<Entry<Key,Value
     }
   }
 
-  private static class TimeoutTracker {
+  static class TimeoutTracker {
 
     String server;
     Set<String> badServers;
@@ -78,6 +78,7 @@ import org.apache.thrift.transport.TTransportException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
 
 /*
@@ -116,11 +117,13 @@ public class TabletServerBatchWriter {
 
   // state
   private boolean flushing;
-  private boolean closed;
+  private volatile boolean closed;
   private MutationSet mutations;
 
   // background writer
   private final MutationWriter writer;
+  @VisibleForTesting
+  final SendLimits sendLimits;
 
   // latency timers
   private final Timer jtimer = new Timer("BatchWriterLatencyTimer", true);
@@ -204,6 +207,7 @@ public class TabletServerBatchWriter {
     this.lastProcessingStartTime = System.currentTimeMillis();
     this.durability = config.getDurability();
 
+    this.sendLimits = new SendLimits(maxMem);
     this.writer = new MutationWriter(config.getMaxWriteThreads());
 
     if (this.maxLatency != Long.MAX_VALUE) {
@@ -241,13 +245,27 @@ public class TabletServerBatchWriter {
     this.notifyAll();
   }
 
-  public synchronized void addMutation(Table.ID table, Mutation m) throws MutationsRejectedException {
+  public void addMutation(Table.ID table, Mutation m) throws MutationsRejectedException {
 
     if (closed)
       throw new IllegalStateException("Closed");
     if (m.size() == 0)
       throw new IllegalArgumentException("Can not add empty mutations");
 
+    // create a copy of mutation so that after this method returns the user
+    // is free to reuse the mutation object, like calling readFields... this
+    // is important for the case where a mutation is passed from map to reduce
+    // to batch writer... the map reduce code will keep passing the same mutation
+    // object into the reduce method. The copy is made before acquiring the lock,
+    // so that threads adding mutations concurrently do not serialize on it.
+    addMutationCopy(table, new Mutation(m));
+  }
+
+  private synchronized void addMutationCopy(Table.ID table, Mutation m) throws MutationsRejectedException {
+
+    if (closed)
+      throw new IllegalStateException("Closed");
+
     checkForFailures();
 
     waitRTE(new WaitCondition() {
@@ -278,13 +296,6 @@ public class TabletServerBatchWriter {
       initialSystemLoad = ManagementFactory.getOperatingSystemMXBean().getSystemLoadAverage();
     }
 
-    // create a copy of mutation so that after this method returns the user
-    // is free to reuse the mutation object, like calling readFields... this
-    // is important for the case where a mutation is passed from map to reduce
-    // to batch writer... the map reduce code will keep passing the same mutation
-    // object into the reduce method
-    m = new Mutation(m);
-
     totalMemUsed += m.estimatedMemoryUsed();
     mutations.addMutation(table, m);
     totalAdded++;
@@ -656,6 +667,7 @@ public class TabletServerBatchWriter {
   private class MutationWriter {
 
     private static final int MUTATION_BATCH_SIZE = 1 << 17;
+
     private final ExecutorService sendThreadPool;
     private final SimpleThreadPool binningThreadPool;
     private final Map<String,TabletServerMutations<Mutation>> serversMutations;
@@ -674,7 +686,7 @@ public class TabletServerBatchWriter {
     private synchronized TabletLocator getLocator(Table.ID tableId) {
       TabletLocator ret = locators.get(tableId);
       if (ret == null) {
-        ret = new TimeoutTabletLocator(timeout, context, tableId);
+        ret = createLocator(tableId);
         locators.put(tableId, ret);
       }
 
@@ -802,8 +814,18 @@ public class TabletServerBatchWriter {
 
     private synchronized TabletServerMutations<Mutation> getMutationsToSend(String server) {
       TabletServerMutations<Mutation> tsmuts = serversMutations.remove(server);
-      if (tsmuts == null)
+      if (tsmuts == null) {
         queued.remove(server);
+        return null;
+      }
+
+      Long limit = sendLimits.get(server);
+      if (limit != null) {
+        // leave what is over the limit queued, ahead of anything binned later, so the order of mutations is kept
+        TabletServerMutations<Mutation> remaining = splitOff(tsmuts, limit);
+        if (remaining != null)
+          serversMutations.put(server, remaining);
+      }
 
       return tsmuts;
     }
@@ -875,6 +897,7 @@ public class TabletServerBatchWriter {
                 successBytes += mutation.estimatedMemoryUsed();
               }
             }
+            sendLimits.update(location, successBytes, st2 - st1, false);
 
             if (failures.size() > 0) {
               failedMutations.add(failures);
@@ -898,6 +921,12 @@ public class TabletServerBatchWriter {
           for (Table.ID table : tables)
             getLocator(table).invalidateCache(context.getInstance(), location);
 
+          long bytes = 0;
+          for (List<Mutation> mutations : mutationBatch.values())
+            for (Mutation mutation : mutations)
+              bytes += mutation.estimatedMemoryUsed();
+          sendLimits.update(location, bytes, 0, true);
+
           failedMutations.add(location, tsm);
         } finally {
           Thread.currentThread().setName(oldName);
@@ -916,12 +945,7 @@ public class TabletServerBatchWriter {
 
       try {
         final HostAndPort parsedServer = HostAndPort.fromString(location);
-        final TabletClientService.Iface client;
-
-        if (timeoutTracker.getTimeOut() < context.getClientTimeoutInMillis())
-          client = ThriftUtil.getTServerClient(parsedServer, context, timeoutTracker.getTimeOut());
-        else
-          client = ThriftUtil.getTServerClient(parsedServer, context);
+        final TabletClientService.Iface client = getClient(parsedServer, timeoutTracker.getTimeOut());
 
         try {
           MutationSet allFailures = new MutationSet();
@@ -990,7 +1014,7 @@ public class TabletServerBatchWriter {
           }
           return allFailures;
         } finally {
-          ThriftUtil.returnClient((TServiceClient) client);
+          returnClient(client);
         }
       } catch (TTransportException e) {
         timeoutTracker.errorOccured(e);
@@ -1009,6 +1033,100 @@ public class TabletServerBatchWriter {
     }
   }
 
+  @VisibleForTesting
+  TabletLocator createLocator(Table.ID tableId) {
+    return new TimeoutTabletLocator(timeout, context, tableId);
+  }
+
+  @VisibleForTesting
+  TabletClientService.Iface getClient(HostAndPort server, long timeout) throws TTransportException {
+    if (timeout < context.getClientTimeoutInMillis())
+      return ThriftUtil.getTServerClient(server, context, timeout);
+    else
+      return ThriftUtil.getTServerClient(server, context);
+  }
+
+  @VisibleForTesting
+  void returnClient(TabletClientService.Iface client) {
+    ThriftUtil.returnClient((TServiceClient) client);
+  }
+
+  /**
+   * Removes mutations from {@code tsmuts} once their size exceeds {@code limit}, always leaving at least one.
+   *
+   * @return the removed mutations, or null if nothing was removed
+   */
+  @VisibleForTesting
+  static TabletServerMutations<Mutation> splitOff(TabletServerMutations<Mutation> tsmuts, long limit) {
+    TabletServerMutations<Mutation> remaining = null;
+    long size = 0;
+    Iterator<Entry<KeyExtent,List<Mutation>>> extents = tsmuts.getMutations().entrySet().iterator();
+    while (extents.hasNext()) {
+      Entry<KeyExtent,List<Mutation>> entry = extents.next();
+      List<Mutation> mutations = entry.getValue();
+      int keep = 0;
+      while (keep < mutations.size() && (size == 0 || size < limit)) {
+        size += mutations.get(keep++).estimatedMemoryUsed();
+      }
+
+      if (keep < mutations.size()) {
+        if (remaining == null)
+          remaining = new TabletServerMutations<>(tsmuts.getSession());
+        for (Mutation m : mutations.subList(keep, mutations.size()))
+          remaining.addMutation(entry.getKey(), m);
+        if (keep == 0)
+          extents.remove();
+        else
+          entry.setValue(new ArrayList<>(mutations.subList(0, keep)));
+      }
+    }
+    return remaining;
+  }
+
+  /**
+   * Limits the amount of data sent to each tablet server at once, additively increasing the limit while sends are timely and halving it when they are slow
+   * or fail, so that a slow tablet server is not sent ever larger batches while its mutations pile up. Tablet servers without a limit are sent everything
+   * that is queued for them.
+   */
+  @VisibleForTesting
+  static class SendLimits {
+
+    // a send taking longer than this halves the amount of data sent to that tablet server at once
+    static final long SLOW_SEND_MILLIS = 2000;
+    // the amount the send limit of a tablet server grows by after each timely send
+    static final long INCREMENT = 1 << 20;
+    // a send limit is never halved below this
+    static final long MIN_LIMIT = MutationWriter.MUTATION_BATCH_SIZE;
+
+    private final long maxMem;
+    private final Map<String,Long> limits = new HashMap<>();
+
+    SendLimits(long maxMem) {
+      this.maxMem = maxMem;
+    }
+
+    /**
+     * @return the most to send to {@code server} at once, or null if everything queued for it may be sent
+     */
+    synchronized Long get(String server) {
+      return limits.get(server);
+    }
+
+    synchronized void update(String server, long bytesSent, long sendTime, boolean failed) {
+      Long limit = limits.get(server);
+      if (failed || sendTime > SLOW_SEND_MILLIS) {
+        long current = limit == null ? bytesSent : Math.min(limit, bytesSent);
+        limits.put(server, Math.max(MIN_LIMIT, current / 2));
+      } else if (limit != null) {
+        // once the limit would allow all the memory the batch writer may use, it no longer limits anything
+        if (limit + INCREMENT >= maxMem)
+          limits.remove(server);
+        else
+          limits.put(server, limit + INCREMENT);
+      }
+    }
+  }
+
   // END code for sending mutations to tablet servers using background threads
 
   private static class MutationSet {
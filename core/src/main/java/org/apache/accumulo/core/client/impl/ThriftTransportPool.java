@@ -16,17 +16,19 @@
  */
 package org.apache.accumulo.core.client.impl;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -44,12 +46,13 @@ import com.google.common.annotations.VisibleForTesting;
 public class ThriftTransportPool {
 
   private static final Random random = new Random();
-  private long killTime = 1000 * 3;
+  private volatile long killTime = 1000 * 3;
 
-  private Map<ThriftTransportKey,List<CachedConnection>> cache = new HashMap<>();
-  private Map<ThriftTransportKey,Long> errorCount = new HashMap<>();
-  private Map<ThriftTransportKey,Long> errorTime = new HashMap<>();
-  private Set<ThriftTransportKey> serversWarnedAbout = new HashSet<>();
+  // each server's connections are guarded by their own lock, so threads talking to different servers do not contend
+  private volatile Map<ThriftTransportKey,CachedConnections> cache = new ConcurrentHashMap<>();
+  private Map<ThriftTransportKey,Long> errorCount = new ConcurrentHashMap<>();
+  private Map<ThriftTransportKey,Long> errorTime = new ConcurrentHashMap<>();
+  private Set<ThriftTransportKey> serversWarnedAbout = Collections.newSetFromMap(new ConcurrentHashMap<ThriftTransportKey,Boolean>());
 
   private CountDownLatch closerExitLatch;
 
@@ -77,6 +80,66 @@ public class ThriftTransportPool {
     long lastReturnTime;
   }
 
+  /**
+   * The connections to one server. Unreserved connections are reused most recently returned first, so that when demand drops the surplus connections sit idle
+   * at the end of the queue until they are closed, instead of every connection being kept alive by occasional use.
+   */
+  private static class CachedConnections {
+    private final Deque<CachedConnection> unreserved = new ArrayDeque<>();
+    private final Map<CachedTTransport,CachedConnection> reserved = new HashMap<>();
+
+    synchronized CachedConnection reserveAny() {
+      CachedConnection cachedConnection = unreserved.pollFirst();
+      if (cachedConnection != null) {
+        cachedConnection.setReserved(true);
+        reserved.put(cachedConnection.transport, cachedConnection);
+      }
+      return cachedConnection;
+    }
+
+    synchronized void addReserved(CachedConnection cachedConnection) {
+      reserved.put(cachedConnection.transport, cachedConnection);
+    }
+
+    /**
+     * @return the connection, or null if it is not reserved from this set
+     */
+    synchronized CachedConnection unreserve(CachedTTransport transport) {
+      return reserved.remove(transport);
+    }
+
+    synchronized void returnUnreserved(CachedConnection cachedConnection) {
+      cachedConnection.lastReturnTime = System.currentTimeMillis();
+      cachedConnection.setReserved(false);
+      unreserved.addFirst(cachedConnection);
+    }
+
+    synchronized void removeUnreserved(List<CachedConnection> removed) {
+      removed.addAll(unreserved);
+      unreserved.clear();
+    }
+
+    synchronized void removeIdle(long idleTime, List<CachedConnection> removed) {
+      long now = System.currentTimeMillis();
+      while (!unreserved.isEmpty() && now - unreserved.peekLast().lastReturnTime > idleTime) {
+        removed.add(unreserved.pollLast());
+      }
+    }
+
+    synchronized void checkForStuckIO() {
+      for (CachedConnection cachedConnection : reserved.values()) {
+        cachedConnection.transport.checkForStuckIO(STUCK_THRESHOLD);
+      }
+    }
+
+    synchronized void removeAll(List<CachedConnection> removed) {
+      removed.addAll(unreserved);
+      removed.addAll(reserved.values());
+      unreserved.clear();
+      reserved.clear();
+    }
+  }
+
   public static class TransportPoolShutdownException extends RuntimeException {
     private static final long serialVersionUID = 1L;
   }
@@ -93,42 +156,7 @@ public class ThriftTransportPool {
     private void closeConnections() {
       while (true) {
 
-        ArrayList<CachedConnection> connectionsToClose = new ArrayList<>();
-
-        synchronized (pool) {
-          for (List<CachedConnection> ccl : pool.getCache().values()) {
-            Iterator<CachedConnection> iter = ccl.iterator();
-            while (iter.hasNext()) {
-              CachedConnection cachedConnection = iter.next();
-
-              if (!cachedConnection.isReserved() && System.currentTimeMillis() - cachedConnection.lastReturnTime > pool.killTime) {
-                connectionsToClose.add(cachedConnection);
-                iter.remove();
-              }
-            }
-          }
-
-          for (List<CachedConnection> ccl : pool.getCache().values()) {
-            for (CachedConnection cachedConnection : ccl) {
-              cachedConnection.transport.checkForStuckIO(STUCK_THRESHOLD);
-            }
-          }
-
-          Iterator<Entry<ThriftTransportKey,Long>> iter = pool.errorTime.entrySet().iterator();
-          while (iter.hasNext()) {
-            Entry<ThriftTransportKey,Long> entry = iter.next();
-            long delta = System.currentTimeMillis() - entry.getValue();
-            if (delta >= STUCK_THRESHOLD) {
-              pool.errorCount.remove(entry.getKey());
-              iter.remove();
-            }
-          }
-        }
-
-        // close connections outside of sync block
-        for (CachedConnection cachedConnection : connectionsToClose) {
-          cachedConnection.transport.close();
-        }
+        pool.closeExpiredConnections();
 
         try {
           Thread.sleep(500);
@@ -380,29 +408,52 @@ public class ThriftTransportPool {
 
   }
 
-  private ThriftTransportPool() {}
+  @VisibleForTesting
+  ThriftTransportPool() {}
+
+  /**
+   * Closes connections that have been idle too long, checks for stuck I/O and forgets old errors. The background thread does this periodically.
+   */
+  @VisibleForTesting
+  void closeExpiredConnections() {
+    ArrayList<CachedConnection> connectionsToClose = new ArrayList<>();
+
+    for (CachedConnections connections : getCache().values()) {
+      connections.removeIdle(killTime, connectionsToClose);
+      connections.checkForStuckIO();
+    }
+
+    Iterator<Entry<ThriftTransportKey,Long>> iter = errorTime.entrySet().iterator();
+    while (iter.hasNext()) {
+      Entry<ThriftTransportKey,Long> entry = iter.next();
+      long delta = System.currentTimeMillis() - entry.getValue();
+      if (delta >= STUCK_THRESHOLD) {
+        errorCount.remove(entry.getKey());
+        iter.remove();
+      }
+    }
+
+    // close connections outside of sync block
+    for (CachedConnection cachedConnection : connectionsToClose) {
+      cachedConnection.transport.close();
+    }
+  }
 
   public TTransport getTransport(HostAndPort location, long milliseconds, ClientContext context) throws TTransportException {
     return getTransport(new ThriftTransportKey(location, milliseconds, context));
   }
 
-  private TTransport getTransport(ThriftTransportKey cacheKey) throws TTransportException {
-    synchronized (this) {
-      // atomically reserve location if it exist in cache
-      List<CachedConnection> ccl = getCache().get(cacheKey);
-
-      if (ccl == null) {
-        ccl = new LinkedList<>();
-        getCache().put(cacheKey, ccl);
-      }
+  private CachedConnections getCachedConnections(ThriftTransportKey cacheKey) {
+    return getCache().computeIfAbsent(cacheKey, k -> new CachedConnections());
+  }
 
-      for (CachedConnection cachedConnection : ccl) {
-        if (!cachedConnection.isReserved()) {
-          cachedConnection.setReserved(true);
-          log.trace("Using existing connection to {}", cacheKey.getServer());
-          return cachedConnection.transport;
-        }
-      }
+  @VisibleForTesting
+  TTransport getTransport(ThriftTransportKey cacheKey) throws TTransportException {
+    // atomically reserve location if it exist in cache
+    CachedConnection cachedConnection = getCachedConnections(cacheKey).reserveAny();
+    if (cachedConnection != null) {
+      log.trace("Using existing connection to {}", cacheKey.getServer());
+      return cachedConnection.transport;
     }
 
     return createNewTransport(cacheKey);
@@ -416,24 +467,19 @@ public class ThriftTransportPool {
     if (preferCachedConnection) {
       HashSet<ThriftTransportKey> serversSet = new HashSet<>(servers);
 
-      synchronized (this) {
-
-        // randomly pick a server from the connection cache
-        serversSet.retainAll(getCache().keySet());
+      // randomly pick a server from the connection cache
+      serversSet.retainAll(getCache().keySet());
 
-        if (serversSet.size() > 0) {
-          ArrayList<ThriftTransportKey> cachedServers = new ArrayList<>(serversSet);
-          Collections.shuffle(cachedServers, random);
+      if (serversSet.size() > 0) {
+        ArrayList<ThriftTransportKey> cachedServers = new ArrayList<>(serversSet);
+        Collections.shuffle(cachedServers, random);
 
-          for (ThriftTransportKey ttk : cachedServers) {
-            for (CachedConnection cachedConnection : getCache().get(ttk)) {
-              if (!cachedConnection.isReserved()) {
-                cachedConnection.setReserved(true);
-                final String serverAddr = ttk.getServer().toString();
-                log.trace("Using existing connection to {}", serverAddr);
-                return new Pair<>(serverAddr, cachedConnection.transport);
-              }
-            }
+        for (ThriftTransportKey ttk : cachedServers) {
+          CachedConnection cachedConnection = getCachedConnections(ttk).reserveAny();
+          if (cachedConnection != null) {
+            final String serverAddr = ttk.getServer().toString();
+            log.trace("Using existing connection to {}", serverAddr);
+            return new Pair<>(serverAddr, cachedConnection.transport);
           }
         }
       }
@@ -445,17 +491,13 @@ public class ThriftTransportPool {
       ThriftTransportKey ttk = servers.get(index);
 
       if (preferCachedConnection) {
-        synchronized (this) {
-          List<CachedConnection> cachedConnList = getCache().get(ttk);
-          if (cachedConnList != null) {
-            for (CachedConnection cachedConnection : cachedConnList) {
-              if (!cachedConnection.isReserved()) {
-                cachedConnection.setReserved(true);
-                final String serverAddr = ttk.getServer().toString();
-                log.trace("Using existing connection to {} timeout {}", serverAddr, ttk.getTimeout());
-                return new Pair<>(serverAddr, cachedConnection.transport);
-              }
-            }
+        CachedConnections connections = getCache().get(ttk);
+        if (connections != null) {
+          CachedConnection cachedConnection = connections.reserveAny();
+          if (cachedConnection != null) {
+            final String serverAddr = ttk.getServer().toString();
+            log.trace("Using existing connection to {} timeout {}", serverAddr, ttk.getTimeout());
+            return new Pair<>(serverAddr, cachedConnection.transport);
           }
         }
       }
@@ -472,9 +514,13 @@ public class ThriftTransportPool {
     throw new TTransportException("Failed to connect to a server");
   }
 
+  @VisibleForTesting
+  TTransport createTransport(ThriftTransportKey cacheKey) throws TTransportException {
+    return ThriftUtil.createClientTransport(cacheKey.getServer(), (int) cacheKey.getTimeout(), cacheKey.getSslParams(), cacheKey.getSaslParams());
+  }
+
   private TTransport createNewTransport(ThriftTransportKey cacheKey) throws TTransportException {
-    TTransport transport = ThriftUtil.createClientTransport(cacheKey.getServer(), (int) cacheKey.getTimeout(), cacheKey.getSslParams(),
-        cacheKey.getSaslParams());
+    TTransport transport = createTransport(cacheKey);
 
     log.trace("Creating new connection to connection to {}", cacheKey.getServer());
 
@@ -484,16 +530,9 @@ public class ThriftTransportPool {
     cc.setReserved(true);
 
     try {
-      synchronized (this) {
-        List<CachedConnection> ccl = getCache().get(cacheKey);
-
-        if (ccl == null) {
-          ccl = new LinkedList<>();
-          getCache().put(cacheKey, ccl);
-        }
-
-        ccl.add(cc);
-      }
+      getCachedConnections(cacheKey).addReserved(cc);
+      // shutdown may have closed the pool's connections before this one was added
+      getCache();
     } catch (TransportPoolShutdownException e) {
       cc.transport.close();
       throw e;
@@ -506,83 +545,56 @@ public class ThriftTransportPool {
       return;
     }
 
-    boolean existInCache = false;
     CachedTTransport ctsc = (CachedTTransport) tsc;
 
     ArrayList<CachedConnection> closeList = new ArrayList<>();
 
-    synchronized (this) {
-      List<CachedConnection> ccl = getCache().get(ctsc.getCacheKey());
-      for (Iterator<CachedConnection> iterator = ccl.iterator(); iterator.hasNext();) {
-        CachedConnection cachedConnection = iterator.next();
-        if (cachedConnection.transport == tsc) {
-          if (ctsc.sawError) {
-            closeList.add(cachedConnection);
-            iterator.remove();
-
-            log.trace("Returned connection had error {}", ctsc.getCacheKey());
-
-            Long ecount = errorCount.get(ctsc.getCacheKey());
-            if (ecount == null)
-              ecount = 0l;
-            ecount++;
-            errorCount.put(ctsc.getCacheKey(), ecount);
-
-            Long etime = errorTime.get(ctsc.getCacheKey());
-            if (etime == null) {
-              errorTime.put(ctsc.getCacheKey(), System.currentTimeMillis());
-            }
-
-            if (ecount >= ERROR_THRESHOLD && !serversWarnedAbout.contains(ctsc.getCacheKey())) {
-              log.warn("Server {} had {} failures in a short time period, will not complain anymore", ctsc.getCacheKey(), ecount);
-              serversWarnedAbout.add(ctsc.getCacheKey());
-            }
-
-            cachedConnection.setReserved(false);
-
-          } else {
-            log.trace("Returned connection {} ioCount: {}", ctsc.getCacheKey(), cachedConnection.transport.ioCount);
-
-            cachedConnection.lastReturnTime = System.currentTimeMillis();
-            cachedConnection.setReserved(false);
-          }
-          existInCache = true;
-          break;
-        }
+    CachedConnections connections = getCache().get(ctsc.getCacheKey());
+    CachedConnection cachedConnection = connections == null ? null : connections.unreserve(ctsc);
+
+    if (cachedConnection == null) {
+      log.warn("Returned tablet server connection to cache that did not come from cache");
+      // close outside of sync block
+      tsc.close();
+      return;
+    }
+
+    if (ctsc.sawError) {
+      closeList.add(cachedConnection);
+
+      log.trace("Returned connection had error {}", ctsc.getCacheKey());
+
+      long ecount = errorCount.merge(ctsc.getCacheKey(), 1L, Long::sum);
+      errorTime.putIfAbsent(ctsc.getCacheKey(), System.currentTimeMillis());
+
+      if (ecount >= ERROR_THRESHOLD && serversWarnedAbout.add(ctsc.getCacheKey())) {
+        log.warn("Server {} had {} failures in a short time period, will not complain anymore", ctsc.getCacheKey(), ecount);
       }
 
+      cachedConnection.setReserved(false);
+
       // remove all unreserved cached connection when a sever has an error, not just the connection that was returned
-      if (ctsc.sawError) {
-        for (Iterator<CachedConnection> iterator = ccl.iterator(); iterator.hasNext();) {
-          CachedConnection cachedConnection = iterator.next();
-          if (!cachedConnection.isReserved()) {
-            closeList.add(cachedConnection);
-            iterator.remove();
-          }
-        }
-      }
+      connections.removeUnreserved(closeList);
+    } else {
+      log.trace("Returned connection {} ioCount: {}", ctsc.getCacheKey(), cachedConnection.transport.ioCount);
+
+      connections.returnUnreserved(cachedConnection);
     }
 
     // close outside of sync block
-    for (CachedConnection cachedConnection : closeList) {
+    for (CachedConnection closing : closeList) {
       try {
-        cachedConnection.transport.close();
+        closing.transport.close();
       } catch (Exception e) {
         log.debug("Failed to close connection w/ errors", e);
       }
     }
-
-    if (!existInCache) {
-      log.warn("Returned tablet server connection to cache that did not come from cache");
-      // close outside of sync block
-      tsc.close();
-    }
   }
 
   /**
    * Set the time after which idle connections should be closed
    */
-  public synchronized void setIdleTime(long time) {
+  public void setIdleTime(long time) {
     this.killTime = time;
     log.debug("Set thrift transport pool idle time to {}", time);
   }
@@ -604,27 +616,33 @@ public class ThriftTransportPool {
   }
 
   public void shutdown() {
+    Map<ThriftTransportKey,CachedConnections> connections;
     synchronized (this) {
       if (cache == null)
         return;
 
-      // close any connections in the pool... even ones that are in use
-      for (List<CachedConnection> ccl : getCache().values()) {
-        Iterator<CachedConnection> iter = ccl.iterator();
-        while (iter.hasNext()) {
-          CachedConnection cc = iter.next();
-          try {
-            cc.transport.close();
-          } catch (Exception e) {
-            log.debug("Error closing transport during shutdown", e);
-          }
-        }
-      }
-
       // this will render the pool unusable and cause the background thread to exit
+      connections = cache;
       this.cache = null;
     }
 
+    // close any connections in the pool... even ones that are in use
+    ArrayList<CachedConnection> closeList = new ArrayList<>();
+    for (CachedConnections ccs : connections.values()) {
+      ccs.removeAll(closeList);
+    }
+    for (CachedConnection cc : closeList) {
+      try {
+        cc.transport.close();
+      } catch (Exception e) {
+        log.debug("Error closing transport during shutdown", e);
+      }
+    }
+
+    // a pool created for testing has no background thread
+    if (closerExitLatch == null)
+      return;
+
     try {
       closerExitLatch.await();
     } catch (InterruptedException e) {
@@ -632,7 +650,8 @@ public class ThriftTransportPool {
     }
   }
 
-  private Map<ThriftTransportKey,List<CachedConnection>> getCache() {
+  private Map<ThriftTransportKey,CachedConnections> getCache() {
+    Map<ThriftTransportKey,CachedConnections> cache = this.cache;
     if (cache == null)
       throw new TransportPoolShutdownException();
     return cache;
@@ -55,6 +55,7 @@ import org.apache.accumulo.core.client.impl.ScannerImpl;
 import org.apache.accumulo.core.client.impl.Table;
 import org.apache.accumulo.core.client.impl.Tables;
 import org.apache.accumulo.core.client.impl.TabletLocator;
+import org.apache.accumulo.core.client.impl.TabletLocatorImpl;
 import org.apache.accumulo.core.client.mapred.impl.BatchInputSplit;
 import org.apache.accumulo.core.client.mapreduce.InputTableConfig;
 import org.apache.accumulo.core.client.mapreduce.impl.SplitUtils;
@@ -115,6 +116,33 @@ public abstract class AbstractInputFormat<K,V> implements InputFormat<K,V> {
     return InputConfigurator.getClassLoaderContext(CLASS, job);
   }
 
+  /**
+   * Sets the number of threads used to read the locations of all of a table's tablets before computing splits. This speeds up split computation for jobs
+   * that read much of a large table. By default, this feature is <b>disabled</b>.
+   *
+   * @param job
+   *          the Hadoop job instance to be configured
+   * @param numThreads
+   *          the number of metadata tablets to read concurrently, or 0 to disable prefetching
+   * @since 2.0.0
+   */
+  public static void setTabletLocationPrefetchThreads(JobConf job, int numThreads) {
+    InputConfigurator.setTabletLocationPrefetchThreads(CLASS, job, numThreads);
+  }
+
+  /**
+   * Gets the number of threads used to read tablet locations before computing splits.
+   *
+   * @param job
+   *          the Hadoop job instance to be configured
+   * @return the number of threads, or 0 if prefetching is disabled
+   * @since 2.0.0
+   * @see #setTabletLocationPrefetchThreads(JobConf, int)
+   */
+  public static int getTabletLocationPrefetchThreads(JobConf job) {
+    return InputConfigurator.getTabletLocationPrefetchThreads(CLASS, job);
+  }
+
   /**
    * Sets the connector information needed to communicate with Accumulo in this job.
    *
@@ -703,6 +731,9 @@ public abstract class AbstractInputFormat<K,V> implements InputFormat<K,V> {
 
           ClientContext context = new ClientContext(getInstance(job), new Credentials(getPrincipal(job), getAuthenticationToken(job)),
               getClientConfiguration(job));
+          int prefetchThreads = InputConfigurator.getTabletLocationPrefetchThreads(CLASS, job);
+          if (prefetchThreads > 0 && tl instanceof TabletLocatorImpl)
+            ((TabletLocatorImpl) tl).prefetch(context, prefetchThreads);
           while (!tl.binRanges(context, ranges, binnedRanges).isEmpty()) {
             if (!DeprecationUtil.isMockInstance(instance)) {
               String tableIdStr = tableId.canonicalID();
@@ -55,6 +55,7 @@ import org.apache.accumulo.core.client.impl.ScannerImpl;
 import org.apache.accumulo.core.client.impl.Table;
 import org.apache.accumulo.core.client.impl.Tables;
 import org.apache.accumulo.core.client.impl.TabletLocator;
+import org.apache.accumulo.core.client.impl.TabletLocatorImpl;
 import org.apache.accumulo.core.client.mapreduce.impl.BatchInputSplit;
 import org.apache.accumulo.core.client.mapreduce.impl.SplitUtils;
 import org.apache.accumulo.core.client.mapreduce.lib.impl.ConfiguratorBase;
@@ -118,6 +119,33 @@ public abstract class AbstractInputFormat<K,V> extends InputFormat<K,V> {
     return InputConfigurator.getClassLoaderContext(CLASS, job.getConfiguration());
   }
 
+  /**
+   * Sets the number of threads used to read the locations of all of a table's tablets before computing splits. This speeds up split computation for jobs
+   * that read much of a large table. By default, this feature is <b>disabled</b>.
+   *
+   * @param job
+   *          the Hadoop job instance to be configured
+   * @param numThreads
+   *          the number of metadata tablets to read concurrently, or 0 to disable prefetching
+   * @since 2.0.0
+   */
+  public static void setTabletLocationPrefetchThreads(Job job, int numThreads) {
+    InputConfigurator.setTabletLocationPrefetchThreads(CLASS, job.getConfiguration(), numThreads);
+  }
+
+  /**
+   * Gets the number of threads used to read tablet locations before computing splits.
+   *
+   * @param job
+   *          the Hadoop job instance to be configured
+   * @return the number of threads, or 0 if prefetching is disabled
+   * @since 2.0.0
+   * @see #setTabletLocationPrefetchThreads(Job, int)
+   */
+  public static int getTabletLocationPrefetchThreads(JobContext job) {
+    return InputConfigurator.getTabletLocationPrefetchThreads(CLASS, job.getConfiguration());
+  }
+
   /**
    * Sets the connector information needed to communicate with Accumulo in this job.
    *
@@ -749,6 +777,9 @@ public abstract class AbstractInputFormat<K,V> extends InputFormat<K,V> {
 
           ClientContext clientContext = new ClientContext(getInstance(context), new Credentials(getPrincipal(context), getAuthenticationToken(context)),
               getClientConfiguration(context));
+          int prefetchThreads = InputConfigurator.getTabletLocationPrefetchThreads(CLASS, context.getConfiguration());
+          if (prefetchThreads > 0 && tl instanceof TabletLocatorImpl)
+            ((TabletLocatorImpl) tl).prefetch(clientContext, prefetchThreads);
           while (!tl.binRanges(clientContext, ranges, binnedRanges).isEmpty()) {
             if (!DeprecationUtil.isMockInstance(instance)) {
               String tableIdStr = tableId.canonicalID();
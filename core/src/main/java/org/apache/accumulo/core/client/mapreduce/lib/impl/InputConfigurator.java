@@ -100,7 +100,7 @@ public class InputConfigurator extends ConfiguratorBase {
    * @since 1.6.0
    */
   public static enum Features {
-    AUTO_ADJUST_RANGES, SCAN_ISOLATION, USE_LOCAL_ITERATORS, SCAN_OFFLINE, BATCH_SCANNER, BATCH_SCANNER_THREADS
+    AUTO_ADJUST_RANGES, SCAN_ISOLATION, USE_LOCAL_ITERATORS, SCAN_OFFLINE, BATCH_SCANNER, BATCH_SCANNER_THREADS, LOCATION_PREFETCH_THREADS
   }
 
   /**
@@ -584,6 +584,41 @@ public class InputConfigurator extends ConfiguratorBase {
     return conf.getBoolean(enumToConfKey(implementingClass, Features.BATCH_SCANNER), false);
   }
 
+  /**
+   * Sets the number of threads used to read the locations of all of a table's tablets before computing splits. Reading the metadata tablets in parallel is
+   * faster than locating tablets one range at a time when a job reads much of a large table.
+   *
+   * <p>
+   * By default, this feature is <b>disabled</b>.
+   *
+   * @param implementingClass
+   *          the class whose name will be used as a prefix for the property configuration key
+   * @param conf
+   *          the Hadoop configuration object to configure
+   * @param numThreads
+   *          the number of metadata tablets to read concurrently, or 0 to disable prefetching
+   * @since 2.0.0
+   */
+  public static void setTabletLocationPrefetchThreads(Class<?> implementingClass, Configuration conf, int numThreads) {
+    checkArgument(numThreads >= 0, "numThreads must not be negative");
+    conf.setInt(enumToConfKey(implementingClass, Features.LOCATION_PREFETCH_THREADS), numThreads);
+  }
+
+  /**
+   * Gets the number of threads used to read tablet locations before computing splits.
+   *
+   * @param implementingClass
+   *          the class whose name will be used as a prefix for the property configuration key
+   * @param conf
+   *          the Hadoop configuration object to configure
+   * @return the number of threads, or 0 if prefetching is disabled
+   * @since 2.0.0
+   * @see #setTabletLocationPrefetchThreads(Class, Configuration, int)
+   */
+  public static int getTabletLocationPrefetchThreads(Class<?> implementingClass, Configuration conf) {
+    return conf.getInt(enumToConfKey(implementingClass, Features.LOCATION_PREFETCH_THREADS), 0);
+  }
+
   /**
    * Sets configurations for multiple tables at a time.
    *
@@ -39,6 +39,7 @@ import org.apache.commons.collections.iterators.IteratorChain;
 public class MockBatchScanner extends MockScannerBase implements BatchScanner {
 
   List<Range> ranges = null;
+  boolean ordered = false;
 
   public MockBatchScanner(MockTable mockTable, Authorizations authorizations) {
     super(mockTable, authorizations);
@@ -53,6 +54,18 @@ public class MockBatchScanner extends MockScannerBase implements BatchScanner {
     this.ranges = new ArrayList<>(ranges);
   }
 
+  @Override
+  public void setOrdered(boolean ordered) {
+    this.ordered = ordered;
+  }
+
+  @Override
+  public void setOrderedBufferSize(long bytes) {
+    if (bytes <= 0) {
+      throw new IllegalArgumentException("bytes must be positive");
+    }
+  }
+
   @SuppressWarnings("unchecked")
   @Override
   public Iterator<Entry<Key,Value>> iterator() {
@@ -61,7 +74,7 @@ public class MockBatchScanner extends MockScannerBase implements BatchScanner {
     }
 
     IteratorChain chain = new IteratorChain();
-    for (Range range : ranges) {
+    for (Range range : ordered ? Range.mergeOverlapping(ranges) : ranges) {
       SortedKeyValueIterator<Key,Value> i = new SortedMapIterator(table.table);
       try {
         i = createFilter(i);
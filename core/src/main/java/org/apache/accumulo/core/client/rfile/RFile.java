@@ -401,4 +401,107 @@ public class RFile {
   public static OutputArguments newWriter() {
     return new RFileWriterBuilder();
   }
+
+  /**
+   * This is an intermediate interface in a larger builder pattern. Supports setting the required output directory for a partitioned writer.
+   *
+   * @since 2.0.0
+   */
+  public static interface PartitionedOutputArguments {
+    /**
+     * @param directory
+     *          an empty or non-existent directory to write one RFile per partition to
+     * @return this
+     */
+    public PartitionedWriterFSOptions to(String directory);
+  }
+
+  /**
+   * This is an intermediate interface in a larger builder pattern. Enables optionally setting a FileSystem to write to.
+   *
+   * @since 2.0.0
+   */
+  public static interface PartitionedWriterFSOptions extends PartitionedWriterOptions {
+    /**
+     * Optionally provide a FileSystem to write RFiles and spill files to. If not specified, the FileSystem will be constructed using configuration on the
+     * classpath.
+     *
+     * @param fs
+     *          use this FileSystem to write files.
+     * @return this
+     */
+    PartitionedWriterOptions withFileSystem(FileSystem fs);
+  }
+
+  /**
+   * This is an intermediate interface in a larger builder pattern. Supports setting optional parameters for building a {@link RFilePartitionedWriter}.
+   *
+   * @since 2.0.0
+   */
+  public static interface PartitionedWriterOptions {
+
+    /**
+     * Partition data at these rows, so that each RFile written falls within a single tablet of a table with these splits. Splits for a table can be obtained
+     * by calling {@link TableOperations#listSplits(String)}. If not specified, all data is written to a single RFile.
+     *
+     * @param splits
+     *          table split points, in any order
+     * @return this
+     */
+    public PartitionedWriterOptions withSplits(Collection<Text> splits);
+
+    /**
+     * Create RFiles using the same configuration as an Accumulo table.
+     *
+     * @see WriterOptions#withTableProperties(Iterable)
+     * @return this
+     */
+    public PartitionedWriterOptions withTableProperties(Iterable<Entry<String,String>> props);
+
+    /**
+     * @see #withTableProperties(Iterable)
+     */
+    public PartitionedWriterOptions withTableProperties(Map<String,String> props);
+
+    /**
+     * @see WriterOptions#withSampler(SamplerConfiguration)
+     * @return this
+     */
+    public PartitionedWriterOptions withSampler(SamplerConfiguration samplerConf);
+
+    /**
+     * @see WriterOptions#withSummarizers(SummarizerConfiguration...)
+     * @return this
+     */
+    public PartitionedWriterOptions withSummarizers(SummarizerConfiguration... summarizerConf);
+
+    /**
+     * @param bytes
+     *          the amount of key/value data to buffer in memory before sorting the largest partition and spilling it to a file. Defaults to 64MB.
+     * @return this
+     */
+    public PartitionedWriterOptions withBufferSize(long bytes);
+
+    /**
+     * @param numThreads
+     *          the number of partitions to sort and write concurrently when the writer is closed. Defaults to the number of available processors.
+     * @return this
+     */
+    public PartitionedWriterOptions withThreads(int numThreads);
+
+    /**
+     * @return a new RFilePartitionedWriter created with the options previously specified.
+     */
+    public RFilePartitionedWriter build() throws IOException;
+  }
+
+  /**
+   * Entry point for creating a writer that accepts unsorted data from many threads and writes one sorted RFile per tablet, ready for
+   * {@link TableOperations#importDirectory(String, String, String, boolean)}.
+   *
+   * @since 2.0.0
+   */
+  public static PartitionedOutputArguments newPartitionedWriter() {
+    return new RFilePartitionedWriterBuilder();
+  }
 }
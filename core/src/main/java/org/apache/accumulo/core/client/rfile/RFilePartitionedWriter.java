@@ -0,0 +1,239 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.client.rfile;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.IOException;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.util.SimpleThreadPool;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Text;
+
+/**
+ * Writes key/values appended in any order, from any number of threads, into sorted RFiles. Data is partitioned by a table's split points, and one RFile is
+ * written for each partition that received data, so every file can be bulk imported into a single tablet.
+ *
+ * <p>
+ * Appended data is buffered in memory. When the buffer is full the largest partition is sorted and spilled to a file in a temporary directory next to the
+ * output directory, so that spill files never end up in a directory being bulk imported. When the writer is closed, each partition's spill files and
+ * remaining buffer are merged into its final RFile, several partitions at a time, and the temporary directory is deleted whether or not this succeeds.
+ *
+ * <p>
+ * Identical keys, including timestamps, are written in no defined order, since they may have been appended by different threads or merged from different
+ * spill files.
+ *
+ * <p>
+ * Create instances by calling {@link RFile#newPartitionedWriter()}.
+ *
+ * @since 2.0.0
+ */
+public class RFilePartitionedWriter implements AutoCloseable {
+
+  private static final String SPILL_DIR_SUFFIX = "_spill_";
+
+  private static final Comparator<Entry<Key,Value>> KEY_COMPARATOR = new Comparator<Entry<Key,Value>>() {
+    @Override
+    public int compare(Entry<Key,Value> o1, Entry<Key,Value> o2) {
+      return o1.getKey().compareTo(o2.getKey());
+    }
+  };
+
+  private final RFilePartitionedWriterBuilder builder;
+  private final FileSystem fs;
+  private final Path directory;
+  private final Path spillDir;
+  private final List<Text> splits;
+  private final Partition[] partitions;
+  private final long bufferSize;
+  private final int numThreads;
+
+  private final AtomicLong buffered = new AtomicLong();
+  private volatile boolean closed = false;
+
+  private class Partition {
+    private final int index;
+    private ArrayList<Entry<Key,Value>> buffer = new ArrayList<>();
+    private long bytes = 0;
+    private final List<Path> spills = new ArrayList<>();
+
+    Partition(int index) {
+      this.index = index;
+    }
+
+    synchronized void add(Key key, Value value, long size) {
+      buffer.add(new SimpleImmutableEntry<>(key, value));
+      bytes += size;
+    }
+
+    synchronized long getBytes() {
+      return bytes;
+    }
+
+    private void sortAndWrite(Path file, boolean spill) throws IOException {
+      Collections.sort(buffer, KEY_COMPARATOR);
+      try (RFileWriter writer = builder.newWriter(file, spill)) {
+        writer.append(buffer);
+      }
+      buffer = new ArrayList<>();
+      buffered.addAndGet(-bytes);
+      bytes = 0;
+    }
+
+    synchronized void spill() throws IOException {
+      if (buffer.isEmpty())
+        return;
+      Path file = new Path(spillDir, String.format("part-%05d-%05d.rf", index, spills.size()));
+      sortAndWrite(file, true);
+      spills.add(file);
+    }
+
+    /**
+     * Writes the partition's final RFile, merging any spill files.
+     */
+    synchronized void finish() throws IOException {
+      Path file = new Path(directory, String.format("part-%05d.rf", index));
+      if (spills.isEmpty()) {
+        if (!buffer.isEmpty())
+          sortAndWrite(file, false);
+        return;
+      }
+
+      spill();
+
+      String[] files = new String[spills.size()];
+      for (int i = 0; i < files.length; i++) {
+        files[i] = spills.get(i).toString();
+      }
+
+      try (Scanner merged = RFile.newScanner().from(files).withFileSystem(fs).withoutSystemIterators().build();
+          RFileWriter writer = builder.newWriter(file, false)) {
+        writer.append(merged);
+      }
+
+      for (Path spill : spills) {
+        fs.delete(spill, false);
+      }
+      spills.clear();
+    }
+  }
+
+  RFilePartitionedWriter(RFilePartitionedWriterBuilder builder, FileSystem fs, Path directory, List<Text> splits, long bufferSize, int numThreads) {
+    this.builder = builder;
+    this.fs = fs;
+    this.directory = directory;
+    Path parent = directory.getParent() == null ? directory : directory.getParent();
+    this.spillDir = new Path(parent, directory.getName() + SPILL_DIR_SUFFIX + UUID.randomUUID());
+    this.splits = splits;
+    this.bufferSize = bufferSize;
+    this.numThreads = numThreads;
+
+    partitions = new Partition[splits.size() + 1];
+    for (int i = 0; i < partitions.length; i++) {
+      partitions[i] = new Partition(i);
+    }
+  }
+
+  /**
+   * @return the partition of the tablet containing {@code row}, where a tablet contains its end row
+   */
+  private int partition(Text row) {
+    int index = Collections.binarySearch(splits, row);
+    return index >= 0 ? index : -(index + 1);
+  }
+
+  /**
+   * Appends a key/value. This method may be called concurrently, and keys do not need to be in sorted order. The key and value are copied.
+   */
+  public void append(Key key, Value val) throws IOException {
+    checkState(!closed, "writer is closed");
+
+    long size = key.getSize() + val.getSize();
+    partitions[partition(key.getRow())].add(new Key(key), new Value(val), size);
+
+    if (buffered.addAndGet(size) > bufferSize) {
+      Partition largest = partitions[0];
+      for (Partition partition : partitions) {
+        if (partition.getBytes() > largest.getBytes())
+          largest = partition;
+      }
+      largest.spill();
+    }
+  }
+
+  /**
+   * Appends key/values. This method may be called concurrently, and keys do not need to be in sorted order.
+   */
+  public void append(Iterable<Entry<Key,Value>> keyValues) throws IOException {
+    for (Entry<Key,Value> entry : keyValues) {
+      append(entry.getKey(), entry.getValue());
+    }
+  }
+
+  /**
+   * Writes the final RFiles. Must not be called until all appends have returned.
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed)
+      return;
+    closed = true;
+
+    List<Callable<Void>> tasks = new ArrayList<>();
+    for (final Partition partition : partitions) {
+      tasks.add(new Callable<Void>() {
+        @Override
+        public Void call() throws Exception {
+          partition.finish();
+          return null;
+        }
+      });
+    }
+
+    ExecutorService threadPool = new SimpleThreadPool(numThreads, "partitioned rfile writer");
+    try {
+      for (Future<Void> future : threadPool.invokeAll(tasks)) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      throw new IOException(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException)
+        throw (IOException) e.getCause();
+      throw new IOException(e.getCause());
+    } finally {
+      threadPool.shutdownNow();
+      fs.delete(spillDir, true);
+    }
+  }
+}
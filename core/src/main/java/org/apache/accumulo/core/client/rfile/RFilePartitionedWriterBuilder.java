@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.client.rfile;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.TreeSet;
+
+import org.apache.accumulo.core.client.rfile.RFile.PartitionedWriterFSOptions;
+import org.apache.accumulo.core.client.rfile.RFile.PartitionedWriterOptions;
+import org.apache.accumulo.core.client.rfile.RFile.WriterOptions;
+import org.apache.accumulo.core.client.sample.SamplerConfiguration;
+import org.apache.accumulo.core.client.summary.SummarizerConfiguration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Text;
+
+class RFilePartitionedWriterBuilder implements RFile.PartitionedOutputArguments, RFile.PartitionedWriterFSOptions {
+
+  private final FSConfArgs fsArgs = new FSConfArgs();
+  private Path directory;
+  private List<Text> splits = Collections.emptyList();
+  private Map<String,String> tableConfig = Collections.emptyMap();
+  private SamplerConfiguration samplerConf = null;
+  private SummarizerConfiguration[] summarizerConf = new SummarizerConfiguration[0];
+  private long bufferSize = 64 * 1024 * 1024;
+  private int numThreads = Runtime.getRuntime().availableProcessors();
+
+  @Override
+  public PartitionedWriterFSOptions to(String directory) {
+    Objects.requireNonNull(directory);
+    this.directory = new Path(directory);
+    return this;
+  }
+
+  @Override
+  public PartitionedWriterOptions withFileSystem(FileSystem fs) {
+    Objects.requireNonNull(fs);
+    fsArgs.fs = fs;
+    return this;
+  }
+
+  @Override
+  public PartitionedWriterOptions withSplits(Collection<Text> splits) {
+    Objects.requireNonNull(splits);
+    this.splits = new ArrayList<>(new TreeSet<>(splits));
+    return this;
+  }
+
+  @Override
+  public PartitionedWriterOptions withTableProperties(Iterable<Entry<String,String>> tableConfig) {
+    Objects.requireNonNull(tableConfig);
+    HashMap<String,String> cfg = new HashMap<>();
+    for (Entry<String,String> entry : tableConfig) {
+      cfg.put(entry.getKey(), entry.getValue());
+    }
+    this.tableConfig = cfg;
+    return this;
+  }
+
+  @Override
+  public PartitionedWriterOptions withTableProperties(Map<String,String> tableConfig) {
+    Objects.requireNonNull(tableConfig);
+    return withTableProperties(tableConfig.entrySet());
+  }
+
+  @Override
+  public PartitionedWriterOptions withSampler(SamplerConfiguration samplerConf) {
+    Objects.requireNonNull(samplerConf);
+    this.samplerConf = samplerConf;
+    return this;
+  }
+
+  @Override
+  public PartitionedWriterOptions withSummarizers(SummarizerConfiguration... summarizerConf) {
+    Objects.requireNonNull(summarizerConf);
+    this.summarizerConf = summarizerConf;
+    return this;
+  }
+
+  @Override
+  public PartitionedWriterOptions withBufferSize(long bytes) {
+    checkArgument(bytes > 0, "bytes must be positive");
+    this.bufferSize = bytes;
+    return this;
+  }
+
+  @Override
+  public PartitionedWriterOptions withThreads(int numThreads) {
+    checkArgument(numThreads > 0, "numThreads must be positive");
+    this.numThreads = numThreads;
+    return this;
+  }
+
+  private WriterOptions configure(WriterOptions opts, boolean spill) {
+    opts.withTableProperties(tableConfig);
+    if (!spill) {
+      if (samplerConf != null)
+        opts.withSampler(samplerConf);
+      if (summarizerConf.length > 0)
+        opts.withSummarizers(summarizerConf);
+    }
+    return opts;
+  }
+
+  /**
+   * Creates the writer for a partition's final RFile, or for a spill file. Spill files are only read back by the partitioned writer, so they do not need
+   * samples or summaries.
+   */
+  RFileWriter newWriter(Path file, boolean spill) throws IOException {
+    return configure(RFile.newWriter().to(file.toString()).withFileSystem(fsArgs.getFileSystem()), spill).build();
+  }
+
+  @Override
+  public RFilePartitionedWriter build() throws IOException {
+    // fail on conflicting sampler, summarizer and table properties now, instead of when the first partition is written
+    configure(RFile.newWriter().to(directory.toString()), false);
+
+    FileSystem fs = fsArgs.getFileSystem();
+    if (fs.exists(directory)) {
+      checkArgument(fs.listStatus(directory).length == 0, "Directory %s is not empty", directory);
+    } else {
+      fs.mkdirs(directory);
+    }
+
+    return new RFilePartitionedWriter(this, fs, directory, splits, bufferSize, numThreads);
+  }
+}
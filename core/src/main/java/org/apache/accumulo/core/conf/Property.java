@@ -253,14 +253,21 @@ public enum Property {
       "The number of threads to use when fetching the tablet server status for balancing."),
   MASTER_METADATA_SUSPENDABLE("master.metadata.suspendable", "false", PropertyType.BOOLEAN, "Allow tablets for the " + MetadataTable.NAME
       + " table to be suspended via table.suspend.duration."),
+  MASTER_METADATA_SCAN_THREADS("master.metadata.scan.threads", "4", PropertyType.COUNT,
+      "The number of threads used to scan the metadata table for tablets that need attention. The scan is partitioned by table."),
+  MASTER_METADATA_SCAN_FULL_INTERVAL("master.metadata.scan.full.interval", "5m", PropertyType.TIMEDURATION,
+      "Between full scans of the metadata table, the master only rescans tables that had tablets needing attention or whose state changed. "
+          + "This is the maximum time between full scans."),
 
   // properties that are specific to tablet server behavior
   TSERV_PREFIX("tserver.", null, PropertyType.PREFIX, "Properties in this category affect the behavior of the tablet servers"),
   TSERV_CLIENT_TIMEOUT("tserver.client.timeout", "3s", PropertyType.TIMEDURATION, "Time to wait for clients to continue scans before closing a session."),
   TSERV_DEFAULT_BLOCKSIZE("tserver.default.blocksize", "1M", PropertyType.BYTES, "Specifies a default blocksize for the tserver caches"),
   TSERV_CACHE_MANAGER_IMPL("tserver.cache.manager.class", "org.apache.accumulo.core.file.blockfile.cache.lru.LruBlockCacheManager", PropertyType.STRING,
-      "Specifies the class name of the block cache factory implementation. Alternative implementation is "
-          + "org.apache.accumulo.core.file.blockfile.cache.tinylfu.TinyLfuBlockCacheManager"),
+      "Specifies the class name of the block cache factory implementation. Alternative implementations are "
+          + "org.apache.accumulo.core.file.blockfile.cache.tinylfu.TinyLfuBlockCacheManager and "
+          + "org.apache.accumulo.core.file.blockfile.cache.offheap.OffHeapBlockCacheManager. The off heap implementation stores cached blocks outside of the"
+          + " Java heap, so the JVM option -XX:MaxDirectMemorySize must be at least the sum of the cache sizes."),
   TSERV_DATACACHE_SIZE("tserver.cache.data.size", "10%", PropertyType.MEMORY, "Specifies the size of the cache for RFile data blocks."),
   TSERV_INDEXCACHE_SIZE("tserver.cache.index.size", "25%", PropertyType.MEMORY, "Specifies the size of the cache for RFile index blocks."),
   TSERV_SUMMARYCACHE_SIZE("tserver.cache.summary.size", "10%", PropertyType.MEMORY, "Specifies the size of the cache for summary data on each tablet server."),
@@ -299,6 +306,10 @@ public enum Property {
       + "This setting determines how much time an unused RFile should be kept open until it is closed."),
   TSERV_NATIVEMAP_ENABLED("tserver.memory.maps.native.enabled", "true", PropertyType.BOOLEAN,
       "An in-memory data store for accumulo implemented in c++ that increases the amount of data accumulo can hold in memory and avoids Java GC pauses."),
+  TSERV_MEMORY_MAPS_CONCURRENT_WRITES("tserver.memory.maps.concurrent.writes", "true", PropertyType.BOOLEAN,
+      "When true, multiple writers can insert into a tablet's in-memory map at the same time, and only making their writes visible to scans is serialized."
+          + " This allows ingest into a single tablet to use more than one core. This only has an effect when native maps are disabled, because native maps"
+          + " serialize writes internally."),
   TSERV_MAXMEM("tserver.memory.maps.max", "33%", PropertyType.MEMORY,
       "Maximum amount of memory that can be used to buffer data written to a tablet server. There are two other properties that can effectively limit memory"
           + " usage table.compaction.minor.logs.threshold and tserver.walog.max.size. Ensure that table.compaction.minor.logs.threshold *"
@@ -315,12 +326,25 @@ public enum Property {
           + " limits the number of long running scans that can run concurrently per tserver."),
   TSERV_METADATA_READ_AHEAD_MAXCONCURRENT("tserver.metadata.readahead.concurrent.max", "8", PropertyType.COUNT,
       "The maximum number of concurrent metadata read ahead that will execute."),
+  TSERV_FILE_ACCESS_MAXCONCURRENT("tserver.file.access.concurrent.max", "8", PropertyType.COUNT,
+      "The maximum number of threads used to open a tablet's files in parallel, and to seek them in parallel for lookups of a single row. When all "
+          + "threads are busy, the thread making the request does the work itself. Set to 0 to open and seek files one at a time."),
   TSERV_MIGRATE_MAXCONCURRENT("tserver.migrations.concurrent.max", "1", PropertyType.COUNT,
       "The maximum number of concurrent tablet migrations for a tablet server"),
   TSERV_MAJC_MAXCONCURRENT("tserver.compaction.major.concurrent.max", "3", PropertyType.COUNT,
       "The maximum number of concurrent major compactions for a tablet server"),
   TSERV_MAJC_THROUGHPUT("tserver.compaction.major.throughput", "0B", PropertyType.BYTES,
       "Maximum number of bytes to read or write per second over all major compactions on a TabletServer, or 0B for unlimited."),
+  TSERV_MAJC_EXECUTOR_PREFIX("tserver.compaction.major.executor.", null, PropertyType.PREFIX,
+      "Properties in this category define named executors for major compactions, each with its own threads, queue and throughput budget. An executor "
+          + "named small is defined by tserver.compaction.major.executor.small.threads, which is required, and optionally by "
+          + "tserver.compaction.major.executor.small.size.max and tserver.compaction.major.executor.small.throughput (0B for unlimited). A compaction runs "
+          + "on the executor with the smallest size.max that is at least the number of bytes the table's compaction strategy estimates it will read. "
+          + "Compactions larger than every size.max run on the default executor configured by tserver.compaction.major.concurrent.max and "
+          + "tserver.compaction.major.throughput. Executors are created when the tablet server starts, only their throughput can be changed later."),
+  TSERV_MAJC_PARTITION_THREADS("tserver.compaction.major.partition.threads", "4", PropertyType.COUNT,
+      "The number of threads shared by all partitioned major compactions on a tablet server. A partitioned compaction compacts one of its partitions in "
+          + "its own major compaction thread and the others in these threads. See table.compaction.major.partitions."),
   TSERV_MINC_MAXCONCURRENT("tserver.compaction.minor.concurrent.max", "4", PropertyType.COUNT,
       "The maximum number of concurrent minor compactions for a tablet server"),
   TSERV_MAJC_TRACE_PERCENT("tserver.compaction.major.trace.percent", "0.1", PropertyType.FRACTION, "The percent of major compactions to trace"),
@@ -360,6 +384,8 @@ public enum Property {
   TSERV_RECOVERY_MAX_CONCURRENT("tserver.recovery.concurrent.max", "2", PropertyType.COUNT, "The maximum number of threads to use to sort logs during"
       + " recovery"),
   TSERV_SORT_BUFFER_SIZE("tserver.sort.buffer.size", "10%", PropertyType.MEMORY, "The amount of memory to use when sorting logs during recovery."),
+  TSERV_SORT_THREADS("tserver.sort.threads", "2", PropertyType.COUNT, "The number of threads used to sort and write the runs of a single log during "
+      + "recovery, while the next run is read from the log. The memory set by " + TSERV_SORT_BUFFER_SIZE.getKey() + " is divided among the runs in progress."),
   TSERV_ARCHIVE_WALOGS("tserver.archive.walogs", "false", PropertyType.BOOLEAN, "Keep copies of the WALOGs for debugging purposes"),
   TSERV_WORKQ_THREADS("tserver.workq.threads", "2", PropertyType.COUNT,
       "The number of threads for the distributed work queue. These threads are used for copying failed bulk import RFiles."),
@@ -379,6 +405,10 @@ public enum Property {
       "The number of threads available to load tablets. Recoveries are still performed serially."),
   TSERV_SLOW_FLUSH_MILLIS("tserver.slow.flush.time", "100ms", PropertyType.TIMEDURATION,
       "If a flush to the write-ahead log takes longer than this period of time, debugging information will written, and may result in a log rollover."),
+  TSERV_WAL_SYNC_BATCH_WAIT("tserver.wal.sync.batch.wait", "2ms", PropertyType.TIMEDURATION,
+      "The maximum amount of time the write-ahead log sync thread waits for more writes to arrive before calling hflush or hsync, so that more writes "
+          + "share a single call. The wait only happens when the previous call covered writes from more than one thread, and is never longer than half of "
+          + "the previous call's duration. Set to zero to sync as soon as any write is waiting."),
   TSERV_SUMMARY_PARTITION_THREADS("tserver.summary.partition.threads", "10", PropertyType.COUNT,
       "Summary data must be retrieved from RFiles.  For a large number of RFiles, the files are broken into partitions of 100K files.  This setting determines "
           + "how many of these groups of 100K RFiles will be processed concurrently."),
@@ -398,6 +428,8 @@ public enum Property {
   GC_TRASH_IGNORE("gc.trash.ignore", "false", PropertyType.BOOLEAN, "Do not use the Trash, even if it is configured."),
   GC_FILE_ARCHIVE("gc.file.archive", "false", PropertyType.BOOLEAN, "Archive any files/directories instead of moving to the HDFS trash or deleting."),
   GC_TRACE_PERCENT("gc.trace.percent", "0.01", PropertyType.FRACTION, "Percent of gc cycles to trace"),
+  GC_DELETE_PIPELINE("gc.delete.pipeline", "true", PropertyType.BOOLEAN,
+      "When there are too many deletion candidates to process at once, delete the confirmed candidates of one batch while the next batch is read and confirmed."),
 
   // properties that are specific to the monitor server behavior
   MONITOR_PREFIX("monitor.", null, PropertyType.PREFIX, "Properties in this category affect the behavior of the monitor web server."),
@@ -467,6 +499,12 @@ public enum Property {
           + "of its RFiles compacted into one. There is no guarantee an idle tablet will be compacted. "
           + "Compactions of idle tablets are only started when regular compactions are not running. Idle "
           + "compactions only take place for tablets that have one or more RFiles."),
+  TABLE_MAJC_PARTITIONS("table.compaction.major.partitions", "1", PropertyType.COUNT,
+      "The number of partitions a large major compaction that reads all of a tablet's files in one pass is divided into. The tablet is divided at rows taken "
+          + "from the indexes of its files, each partition is compacted in parallel into its own RFile, and all of the new RFiles replace the old ones "
+          + "together. Each partition holds whole rows, so iterators that operate on entire rows still see them. Set to 1 to compact into a single RFile."),
+  TABLE_MAJC_PARTITION_SIZE_MIN("table.compaction.major.partition.size.min", "1G", PropertyType.BYTES,
+      "The minimum combined size of the RFiles read by a major compaction before it is divided into partitions. See table.compaction.major.partitions."),
   TABLE_SPLIT_THRESHOLD("table.split.threshold", "1G", PropertyType.BYTES, "A tablet is split when the combined size of RFiles exceeds this amount."),
   TABLE_MAX_END_ROW_SIZE("table.split.endrow.size.max", "10K", PropertyType.BYTES, "Maximum size of end row"),
   TABLE_MINC_LOGS_MAX("table.compaction.minor.logs.threshold", "3", PropertyType.COUNT,
@@ -479,15 +517,23 @@ public enum Property {
   TABLE_SCAN_MAXMEM("table.scan.max.memory", "512K", PropertyType.BYTES,
       "The maximum amount of memory that will be used to cache results of a client query/scan. "
           + "Once this limit is reached, the buffered data is sent to the client."),
+  TABLE_SCAN_BATCH_GROWTH_MAX("table.scan.batch.growth.max", "1", PropertyType.COUNT,
+      "Once a scan has returned enough batches to start reading ahead, the memory each further batch may use doubles, up to this multiple of "
+          + TABLE_SCAN_MAXMEM.getKey() + ", so that long sequential scans need fewer round trips. Batches never hold more entries than the client's "
+          + "batch size. Growth is opt-in: the default of 1 disables it, so a table must set this higher for long scans to use fewer round trips."),
   TABLE_FILE_TYPE("table.file.type", RFile.EXTENSION, PropertyType.STRING, "Change the type of file a table writes"),
   TABLE_LOAD_BALANCER("table.balancer", "org.apache.accumulo.server.master.balancer.DefaultLoadBalancer", PropertyType.STRING,
       "This property can be set to allow the LoadBalanceByTable load balancer to change the called Load Balancer for this table"),
   TABLE_FILE_COMPRESSION_TYPE("table.file.compress.type", "gz", PropertyType.STRING,
-      "Compression algorithm used on index and data blocks before they are written. Possible values: gz, snappy, lzo, none"),
+      "Compression algorithm used on index and data blocks before they are written. Possible values: gz, snappy, lzo, zstd, lz4, none"),
   TABLE_FILE_COMPRESSED_BLOCK_SIZE("table.file.compress.blocksize", "100K", PropertyType.BYTES,
       "The maximum size of data blocks in RFiles before they are compressed and written."),
   TABLE_FILE_COMPRESSED_BLOCK_SIZE_INDEX("table.file.compress.blocksize.index", "128K", PropertyType.BYTES,
       "The maximum size of index blocks in RFiles before they are compressed and written."),
+  TABLE_FILE_RESTART_INTERVAL("table.file.restart.interval", "32", PropertyType.COUNT,
+      "The number of key/value pairs between restart points in RFile data blocks. Keys at restart points are stored in full, which allows seeks within a"
+          + " cached block to binary search for the seek key. Smaller values speed up seeks at the cost of larger files. When set to 0, no restart points"
+          + " are written."),
   TABLE_FILE_BLOCK_SIZE("table.file.blocksize", "0B", PropertyType.BYTES,
       "The HDFS block size used when writing RFiles. When set to 0B, the value/defaults of HDFS property 'dfs.block.size' will be used."),
   TABLE_FILE_REPLICATION("table.file.replication", "0", PropertyType.COUNT,
@@ -512,6 +558,13 @@ public enum Property {
           + ",org.apache.accumulo.core.file.keyfunctor.ColumnFamilyFunctor, and org.apache.accumulo.core.file.keyfunctor.ColumnQualifierFunctor are"
           + " allowable values. One can extend any of the above mentioned classes to perform specialized parsing of the key. "),
   TABLE_BLOOM_HASHTYPE("table.bloom.hash.type", "murmur", PropertyType.STRING, "The bloom filter hash type"),
+  TABLE_BLOOM_FORMAT("table.bloom.format", "dynamic", PropertyType.STRING,
+      "The format of bloom filters written to new files, either dynamic or blocked. A dynamic filter is loaded whole before it is used, and uses "
+          + "table.bloom.hash.type. The blocked format is opt-in: it sets all of the bits for a key within one 64 byte block and is stored in partitions "
+          + "that are read on demand, so it filters lookups as soon as a file is opened and table.bloom.load.threshold and "
+          + "tserver.bloom.load.concurrent.max do not apply to it. Versions that do not know the blocked format ignore it, so only enable it once every "
+          + "tablet server and client reading the table's files supports it, and do not downgrade while such files exist. Files keep the format they "
+          + "were written with."),
   TABLE_DURABILITY("table.durability", "sync", PropertyType.DURABILITY, "The durability used to write to the write-ahead log."
       + " Legal values are: none, which skips the write-ahead log; "
       + "log, which sends the data to the write-ahead log, but does nothing to make it durable; " + "flush, which pushes data to the file system; and "
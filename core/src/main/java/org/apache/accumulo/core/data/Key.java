@@ -865,22 +865,22 @@ public class Key implements WritableComparable<Key>, Cloneable {
    */
   public int compareTo(Key other, PartialKey part) {
     // check for matching row
-    int result = WritableComparator.compareBytes(row, 0, row.length, other.row, 0, other.row.length);
+    int result = compareBytes(row, other.row);
     if (result != 0 || part.equals(PartialKey.ROW))
       return result;
 
     // check for matching column family
-    result = WritableComparator.compareBytes(colFamily, 0, colFamily.length, other.colFamily, 0, other.colFamily.length);
+    result = compareBytes(colFamily, other.colFamily);
     if (result != 0 || part.equals(PartialKey.ROW_COLFAM))
       return result;
 
     // check for matching column qualifier
-    result = WritableComparator.compareBytes(colQualifier, 0, colQualifier.length, other.colQualifier, 0, other.colQualifier.length);
+    result = compareBytes(colQualifier, other.colQualifier);
     if (result != 0 || part.equals(PartialKey.ROW_COLFAM_COLQUAL))
       return result;
 
     // check for matching column visibility
-    result = WritableComparator.compareBytes(colVisibility, 0, colVisibility.length, other.colVisibility, 0, other.colVisibility.length);
+    result = compareBytes(colVisibility, other.colVisibility);
     if (result != 0 || part.equals(PartialKey.ROW_COLFAM_COLQUAL_COLVIS))
       return result;
 
@@ -909,6 +909,13 @@ public class Key implements WritableComparable<Key>, Cloneable {
     return compareTo(other, PartialKey.ROW_COLFAM_COLQUAL_COLVIS_TIME_DEL);
   }
 
+  private static int compareBytes(byte[] a, byte[] b) {
+    // keys read from the same file or mutation often share the arrays of fields that did not change, which makes comparing those fields free
+    if (a == b)
+      return 0;
+    return WritableComparator.compareBytes(a, 0, a.length, b, 0, b.length);
+  }
+
   @Override
   public int hashCode() {
     return WritableComparator.hashBytes(row, row.length) + WritableComparator.hashBytes(colFamily, colFamily.length)
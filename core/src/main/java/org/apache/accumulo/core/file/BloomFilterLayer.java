@@ -25,9 +25,11 @@ import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
@@ -37,7 +39,9 @@ import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+import org.apache.accumulo.core.bloomfilter.BlockedBloomFilter;
 import org.apache.accumulo.core.bloomfilter.DynamicBloomFilter;
 import org.apache.accumulo.core.conf.AccumuloConfiguration;
 import org.apache.accumulo.core.conf.ConfigurationCopy;
@@ -66,13 +70,30 @@ import org.slf4j.LoggerFactory;
 
 /**
  * A class that sits on top of different accumulo file formats and provides bloom filter functionality.
- *
+ * <p>
+ * Two formats are supported, selected by {@link Property#TABLE_BLOOM_FORMAT} when a file is written. The dynamic format stores a {@link DynamicBloomFilter}
+ * in a single meta store, which is loaded whole before it is used. The blocked format stores one or more {@link BlockedBloomFilter} segments, each split into
+ * partitions that are stored as separate meta stores. A lookup only reads the partition that holds its block the first time that partition is needed, so a
+ * blocked filter is usable as soon as the file is opened and only the partitions that lookups touch are held in memory. Readers that do not know the blocked
+ * format ignore it, so files written with it are not filtered by older versions.
  */
 public class BloomFilterLayer {
   private static final Logger LOG = LoggerFactory.getLogger(BloomFilterLayer.class);
   public static final String BLOOM_FILE_NAME = "acu_bloom";
+  public static final String BLOCKED_BLOOM_FILE_NAME = "acu_bloom_blocked";
   public static final int HASH_COUNT = 5;
 
+  public static final String DYNAMIC_FORMAT = "dynamic";
+  public static final String BLOCKED_FORMAT = "blocked";
+
+  private static final int BLOCKED_VERSION = 1;
+  // 64K partitions
+  private static final int BLOCKS_PER_PARTITION = 1024;
+
+  private static String partitionName(int segment, int partition) {
+    return BLOCKED_BLOOM_FILE_NAME + "_" + segment + "_" + partition;
+  }
+
   private static ExecutorService loadThreadPool = null;
 
   private static synchronized ExecutorService getLoadThreadPool(int maxLoadThreads) {
@@ -93,6 +114,12 @@ public class BloomFilterLayer {
     private int numKeys;
     private int vectorSize;
 
+    // for the blocked format, the hashes of the keys in the current segment are kept so the segment can be sized for the number of keys it actually holds
+    private double errorRate;
+    private long[] segmentHashes;
+    private int segmentSize = 0;
+    private List<BlockedBloomFilter> segments = new ArrayList<>();
+
     private FileSKVWriter writer;
     private KeyFunctor transformer = null;
     private boolean closed = false;
@@ -111,9 +138,17 @@ public class BloomFilterLayer {
       // <code>n</code> is the number of keys and <code>c</code> is the desired
       // max. error rate.
       // Our desired error rate is by default 0.005, i.e. 0.5%
-      double errorRate = acuconf.getFraction(Property.TABLE_BLOOM_ERRORRATE);
-      vectorSize = (int) Math.ceil(-HASH_COUNT * numKeys / Math.log(1.0 - Math.pow(errorRate, 1.0 / HASH_COUNT)));
-      bloomFilter = new DynamicBloomFilter(vectorSize, HASH_COUNT, Hash.parseHashType(acuconf.get(Property.TABLE_BLOOM_HASHTYPE)), numKeys);
+      errorRate = acuconf.getFraction(Property.TABLE_BLOOM_ERRORRATE);
+      String format = acuconf.get(Property.TABLE_BLOOM_FORMAT);
+      if (BLOCKED_FORMAT.equals(format)) {
+        numKeys = Math.max(1, numKeys);
+        segmentHashes = new long[Math.min(numKeys, 1024)];
+      } else if (DYNAMIC_FORMAT.equals(format)) {
+        vectorSize = (int) Math.ceil(-HASH_COUNT * numKeys / Math.log(1.0 - Math.pow(errorRate, 1.0 / HASH_COUNT)));
+        bloomFilter = new DynamicBloomFilter(vectorSize, HASH_COUNT, Hash.parseHashType(acuconf.get(Property.TABLE_BLOOM_HASHTYPE)), numKeys);
+      } else {
+        throw new IllegalArgumentException("Unknown bloom filter format " + format);
+      }
 
       /**
        * load KeyFunctor
@@ -143,8 +178,59 @@ public class BloomFilterLayer {
     public synchronized void append(org.apache.accumulo.core.data.Key key, Value val) throws IOException {
       writer.append(key, val);
       Key bloomKey = transformer.transform(key);
-      if (bloomKey.getBytes().length > 0)
-        bloomFilter.add(bloomKey);
+      if (bloomKey.getBytes().length > 0) {
+        if (bloomFilter != null)
+          bloomFilter.add(bloomKey);
+        else
+          addBlocked(BlockedBloomFilter.hash(bloomKey.getBytes()));
+      }
+    }
+
+    private void addBlocked(long hash) {
+      // keys are appended in sorted order, so functors like the row functor produce the same bloom key many times in a row
+      if (segmentSize > 0 && segmentHashes[segmentSize - 1] == hash)
+        return;
+
+      if (segmentSize == numKeys)
+        finishSegment();
+
+      if (segmentSize == segmentHashes.length)
+        segmentHashes = Arrays.copyOf(segmentHashes, (int) Math.min(numKeys, segmentHashes.length * 2L));
+
+      segmentHashes[segmentSize++] = hash;
+    }
+
+    private void finishSegment() {
+      BlockedBloomFilter segment = new BlockedBloomFilter(BlockedBloomFilter.numBlocks(segmentSize, errorRate));
+      for (int i = 0; i < segmentSize; i++) {
+        segment.add(segmentHashes[i]);
+      }
+      segments.add(segment);
+      segmentSize = 0;
+    }
+
+    private void writeBlocked() throws IOException {
+      if (segmentSize > 0)
+        finishSegment();
+
+      DataOutputStream out = writer.createMetaStore(BLOCKED_BLOOM_FILE_NAME);
+      out.writeUTF(transformer.getClass().getName());
+      out.writeInt(BLOCKED_VERSION);
+      out.writeInt(BLOCKS_PER_PARTITION);
+      out.writeInt(segments.size());
+      for (BlockedBloomFilter segment : segments) {
+        out.writeInt(segment.getNumBlocks());
+      }
+      out.close();
+
+      for (int s = 0; s < segments.size(); s++) {
+        BlockedBloomFilter segment = segments.get(s);
+        for (int start = 0; start < segment.getNumBlocks(); start += BLOCKS_PER_PARTITION) {
+          out = writer.createMetaStore(partitionName(s, start / BLOCKS_PER_PARTITION));
+          segment.write(out, start, Math.min(BLOCKS_PER_PARTITION, segment.getNumBlocks() - start));
+          out.close();
+        }
+      }
     }
 
     @Override
@@ -153,11 +239,15 @@ public class BloomFilterLayer {
       if (closed)
         return;
 
-      DataOutputStream out = writer.createMetaStore(BLOOM_FILE_NAME);
-      out.writeUTF(transformer.getClass().getName());
-      bloomFilter.write(out);
-      out.flush();
-      out.close();
+      if (bloomFilter != null) {
+        DataOutputStream out = writer.createMetaStore(BLOOM_FILE_NAME);
+        out.writeUTF(transformer.getClass().getName());
+        bloomFilter.write(out);
+        out.flush();
+        out.close();
+      } else {
+        writeBlocked();
+      }
       writer.close();
       length = writer.getLength();
       closed = true;
@@ -193,9 +283,109 @@ public class BloomFilterLayer {
     }
   }
 
+  /**
+   * Reads a blocked bloom filter one partition at a time. Each partition is read through {@link FileSKVIterator#getMetaStore(String)} the first time a lookup
+   * needs it, and kept for the life of the reader, so lookups do not depend on the index cache.
+   */
+  static class BlockedBloomFilterReader {
+
+    private final FileSKVIterator reader;
+    private final KeyFunctor transformer;
+    private final int blocksPerPartition;
+    private final int[] segmentBlocks;
+    // index of the first partition of each segment in partitions
+    private final int[] segmentPartitions;
+    private final AtomicReferenceArray<long[]> partitions;
+
+    private BlockedBloomFilterReader(FileSKVIterator reader, KeyFunctor transformer, int blocksPerPartition, int[] segmentBlocks) {
+      this.reader = reader;
+      this.transformer = transformer;
+      this.blocksPerPartition = blocksPerPartition;
+      this.segmentBlocks = segmentBlocks;
+
+      this.segmentPartitions = new int[segmentBlocks.length];
+      int numPartitions = 0;
+      for (int s = 0; s < segmentBlocks.length; s++) {
+        segmentPartitions[s] = numPartitions;
+        numPartitions += (segmentBlocks[s] + blocksPerPartition - 1) / blocksPerPartition;
+      }
+      this.partitions = new AtomicReferenceArray<>(numPartitions);
+    }
+
+    /**
+     * @return a reader for the blocked bloom filter of the file, or null if the file does not have one
+     */
+    static BlockedBloomFilterReader open(FileSKVIterator reader, String context) throws IOException, ReflectiveOperationException {
+      DataInputStream in;
+      try {
+        in = reader.getMetaStore(BLOCKED_BLOOM_FILE_NAME);
+      } catch (NoSuchMetaStoreException nsme) {
+        return null;
+      }
+
+      try {
+        String className = in.readUTF();
+        int version = in.readInt();
+        if (version != BLOCKED_VERSION)
+          throw new IOException("Unsupported blocked bloom filter version " + version);
+
+        int blocksPerPartition = in.readInt();
+        int[] segmentBlocks = new int[in.readInt()];
+        for (int i = 0; i < segmentBlocks.length; i++) {
+          segmentBlocks[i] = in.readInt();
+        }
+
+        Class<? extends KeyFunctor> clazz;
+        if (context != null && !context.equals(""))
+          clazz = AccumuloVFSClassLoader.getContextManager().loadClass(context, className, KeyFunctor.class);
+        else
+          clazz = AccumuloVFSClassLoader.loadClass(className, KeyFunctor.class);
+
+        return new BlockedBloomFilterReader(reader, clazz.newInstance(), blocksPerPartition, segmentBlocks);
+      } finally {
+        in.close();
+      }
+    }
+
+    boolean probablyHasKey(Range range) throws IOException {
+      Key bloomKey = transformer.transform(range);
+
+      if (bloomKey == null || bloomKey.getBytes().length == 0)
+        return true;
+
+      long hash = BlockedBloomFilter.hash(bloomKey.getBytes());
+      for (int s = 0; s < segmentBlocks.length; s++) {
+        int block = BlockedBloomFilter.blockIndex(hash, segmentBlocks[s]);
+        long[] partition = getPartition(s, block / blocksPerPartition);
+        if (BlockedBloomFilter.membershipTest(hash, partition, block % blocksPerPartition))
+          return true;
+      }
+
+      return false;
+    }
+
+    private long[] getPartition(int segment, int partition) throws IOException {
+      int index = segmentPartitions[segment] + partition;
+      long[] words = partitions.get(index);
+      if (words == null) {
+        // concurrent lookups may both read a partition, which is harmless
+        int numBlocks = Math.min(blocksPerPartition, segmentBlocks[segment] - partition * blocksPerPartition);
+        try (DataInputStream in = reader.getMetaStore(partitionName(segment, partition))) {
+          words = BlockedBloomFilter.readBlocks(in, numBlocks);
+        }
+        partitions.set(index, words);
+      }
+      return words;
+    }
+  }
+
   static class BloomFilterLoader {
 
     private volatile DynamicBloomFilter bloomFilter;
+    private final FileSKVIterator reader;
+    private final String context;
+    private volatile boolean checkedBlocked = false;
+    private volatile BlockedBloomFilterReader blockedFilter;
     private int loadRequest = 0;
     private int loadThreshold = 1;
     private int maxLoadThreads;
@@ -205,11 +395,13 @@ public class BloomFilterLayer {
 
     BloomFilterLoader(final FileSKVIterator reader, AccumuloConfiguration acuconf) {
 
+      this.reader = reader;
+
       maxLoadThreads = acuconf.getCount(Property.TSERV_BLOOM_LOAD_MAXCONCURRENT);
 
       loadThreshold = acuconf.getCount(Property.TABLE_BLOOM_LOAD_THRESHOLD);
 
-      final String context = acuconf.get(Property.TABLE_CLASSPATH);
+      context = acuconf.get(Property.TABLE_CLASSPATH);
 
       loadTask = new Runnable() {
         @Override
@@ -318,6 +510,10 @@ public class BloomFilterLayer {
      * @return false iff key doesn't exist, true if key probably exists.
      */
     boolean probablyHasKey(Range range) throws IOException {
+      BlockedBloomFilterReader blocked = getBlockedFilter();
+      if (blocked != null)
+        return blocked.probablyHasKey(range);
+
       if (bloomFilter == null) {
         initiateLoad(maxLoadThreads);
         if (bloomFilter == null)
@@ -332,6 +528,30 @@ public class BloomFilterLayer {
       return bloomFilter.membershipTest(bloomKey);
     }
 
+    /**
+     * Reads the header of a blocked bloom filter in the foreground the first time it is needed, since it is small and the partitions are read on demand.
+     */
+    private BlockedBloomFilterReader getBlockedFilter() {
+      if (!checkedBlocked) {
+        synchronized (this) {
+          if (!checkedBlocked) {
+            try {
+              blockedFilter = BlockedBloomFilterReader.open(reader, context);
+            } catch (IOException ioe) {
+              if (!closed)
+                LOG.warn("Can't open blocked BloomFilter", ioe);
+              else
+                LOG.debug("Can't open blocked BloomFilter, file closed : {}", ioe.getMessage());
+            } catch (ReflectiveOperationException e) {
+              LOG.error("Failed to load KeyFunctor for blocked BloomFilter", e);
+            }
+            checkedBlocked = true;
+          }
+        }
+      }
+      return blockedFilter;
+    }
+
     public void close() {
       this.closed = true;
     }
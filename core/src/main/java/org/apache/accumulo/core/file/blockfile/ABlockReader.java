@@ -19,6 +19,7 @@ package org.apache.accumulo.core.file.blockfile;
 import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.function.Supplier;
 
 import org.apache.accumulo.core.file.blockfile.cache.CacheEntry.Weighbable;
@@ -55,5 +56,9 @@ public interface ABlockReader extends DataInput {
 
   void indexWeightChanged();
 
-  byte[] getBuffer();
+  /**
+   * Returns the contents of an indexable block. The buffer may be stored outside of the heap, must not be modified, and must not be used after the block is
+   * closed.
+   */
+  ByteBuffer getByteBuffer();
 }
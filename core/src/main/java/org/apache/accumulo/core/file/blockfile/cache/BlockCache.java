@@ -41,7 +41,7 @@ public interface BlockCache {
    *
    * @param blockName
    *          Block name to fetch.
-   * @return Block or null if block is not in the cache.
+   * @return Block or null if block is not in the cache. The caller must call {@link CacheEntry#release()} when it is finished with the block.
    */
   CacheEntry getBlock(String blockName);
 
@@ -71,7 +71,7 @@ public interface BlockCache {
    *          Block name to fetch
    * @param loader
    *          If the block is not present in the cache, the loader can be called to load it.
-   * @return Block or null if block is not in the cache or didn't load.
+   * @return Block or null if block is not in the cache or didn't load. The caller must call {@link CacheEntry#release()} when it is finished with the block.
    */
   CacheEntry getBlock(String blockName, Loader loader);
 
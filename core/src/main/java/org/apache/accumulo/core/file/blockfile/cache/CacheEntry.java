@@ -16,6 +16,7 @@
  */
 package org.apache.accumulo.core.file.blockfile.cache;
 
+import java.nio.ByteBuffer;
 import java.util.function.Supplier;
 
 public interface CacheEntry {
@@ -26,6 +27,21 @@ public interface CacheEntry {
 
   byte[] getBuffer();
 
+  /**
+   * Returns the contents of the block without copying them. The returned buffer must not be modified, and must not be used after {@link #release()} is called.
+   * The default implementation wraps {@link #getBuffer()}. Caches that store blocks outside of the heap override this to return a view of that memory, and
+   * may copy the block when {@link #getBuffer()} is called.
+   */
+  default ByteBuffer getByteBuffer() {
+    return ByteBuffer.wrap(getBuffer());
+  }
+
+  /**
+   * Called when the caller is finished with the contents of this entry. A cache that reuses the memory of evicted blocks must not reuse a block's memory until
+   * every entry referencing it has been released. Calling this more than once has no further effect.
+   */
+  default void release() {}
+
   /**
    * Optionally cache what is returned by the supplier along with this cache entry. If caching what is returned by the supplier is not supported, its ok to
    * return null.
@@ -0,0 +1,644 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache.offheap;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.apache.accumulo.core.file.blockfile.cache.BlockCache;
+import org.apache.accumulo.core.file.blockfile.cache.BlockCacheManager.Configuration;
+import org.apache.accumulo.core.file.blockfile.cache.CacheEntry;
+import org.apache.accumulo.core.file.blockfile.cache.CacheEntry.Weighbable;
+import org.apache.accumulo.core.file.blockfile.cache.CacheType;
+import org.apache.accumulo.core.file.blockfile.cache.impl.ClassSize;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * A block cache that stores block contents outside of the Java heap, so that the size of the cache does not contribute to garbage collection pauses.
+ *
+ * <p>
+ * Memory is allocated lazily as direct {@link ByteBuffer} slabs, up to the configured size of the cache. Slabs are divided into fixed size pages and a block is
+ * stored in a run of contiguous pages within one slab, so that it can be handed to readers as a single buffer. The unused part of the last page of each block
+ * is reported by {@link #getFragmentation()}.
+ *
+ * <p>
+ * Blocks are evicted using the CLOCK algorithm. Each access sets a reference bit on the block, and eviction gives blocks with the bit set a second chance.
+ *
+ * <p>
+ * Lookups return entries whose {@link CacheEntry#getByteBuffer()} is a view of the off heap memory, without copying. Each entry returned by a lookup holds a
+ * reference to the block, and the block's pages are not reused until every such entry has been {@link CacheEntry#release() released}. Indexes built on cached
+ * blocks are kept on the heap, and are dropped when their total weight exceeds the limit set with the {@value #INDEX_SIZE_PROPERTY} property, which defaults
+ * to a tenth of the cache size.
+ * The JVM must be started with a {@code -XX:MaxDirectMemorySize} large enough for all caches using this implementation.
+ */
+public final class OffHeapBlockCache implements BlockCache {
+  private static final Logger log = LoggerFactory.getLogger(OffHeapBlockCache.class);
+  private static final int STATS_PERIOD_SEC = 60;
+
+  public static final String PROPERTY_PREFIX = "offheap";
+
+  public static final String PAGE_SIZE_PROPERTY = "page.size";
+  public static final String SLAB_SIZE_PROPERTY = "slab.size";
+  public static final String INDEX_SIZE_PROPERTY = "index.size";
+
+  public static final int DEFAULT_PAGE_SIZE = 4 * 1024;
+  public static final int DEFAULT_SLAB_SIZE = 64 * 1024 * 1024;
+
+  /** Approximate heap used for each cached block by its name, its handle and the map entry referencing it */
+  private static final long BLOCK_HEAP_OVERHEAD = ClassSize.CONCURRENT_HASHMAP_ENTRY + ClassSize.STRING + 2 * ClassSize.OBJECT + 8 * ClassSize.REFERENCE + 128;
+
+  private final ConcurrentHashMap<String,Block> blocks = new ConcurrentHashMap<>();
+
+  private final int pageSize;
+  private final int pagesPerSlab;
+  private final ByteBuffer[] slabs;
+  private final long maxSize;
+  private final long maxIndexSize;
+  private final long expectedBlockSize;
+
+  // the following are guarded by this
+  private int slabsAllocated = 0;
+  private final BitSet usedPages = new BitSet();
+  private final ArrayDeque<Block> clock = new ArrayDeque<>();
+
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong requestCount = new AtomicLong();
+  private final AtomicLong evictedCount = new AtomicLong();
+  private final AtomicLong uncachedCount = new AtomicLong();
+  private final AtomicLong numUsedPages = new AtomicLong();
+  private final AtomicLong usedBytes = new AtomicLong();
+  private final AtomicLong indexSize = new AtomicLong();
+  private final AtomicLong openEntries = new AtomicLong();
+
+  private final ScheduledExecutorService statsExecutor;
+
+  public OffHeapBlockCache(Configuration conf, CacheType type) {
+    Map<String,String> props = conf.getProperties(PROPERTY_PREFIX, type);
+    long cacheSize = conf.getMaxSize(type);
+
+    this.pageSize = props.containsKey(PAGE_SIZE_PROPERTY) ? Integer.parseInt(props.get(PAGE_SIZE_PROPERTY)) : DEFAULT_PAGE_SIZE;
+    int slabSize = props.containsKey(SLAB_SIZE_PROPERTY) ? Integer.parseInt(props.get(SLAB_SIZE_PROPERTY)) : DEFAULT_SLAB_SIZE;
+
+    if (pageSize <= 0 || slabSize <= 0) {
+      throw new IllegalArgumentException("Page size " + pageSize + " and slab size " + slabSize + " must be positive");
+    }
+
+    // a slab is never larger than the cache, and always holds a whole number of pages
+    this.pagesPerSlab = (int) Math.max(1, Math.min(slabSize, cacheSize) / pageSize);
+    int numSlabs = (int) Math.max(1, Math.min(Integer.MAX_VALUE / pagesPerSlab, cacheSize / ((long) pagesPerSlab * pageSize)));
+
+    this.slabs = new ByteBuffer[numSlabs];
+    this.maxSize = (long) numSlabs * pagesPerSlab * pageSize;
+    this.maxIndexSize = props.containsKey(INDEX_SIZE_PROPERTY) ? Long.parseLong(props.get(INDEX_SIZE_PROPERTY)) : maxSize / 10;
+    this.expectedBlockSize = Math.max(pageSize, conf.getBlockSize());
+
+    statsExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("OffHeapBlockCacheStatsExecutor").setDaemon(true)
+        .build());
+    statsExecutor.scheduleAtFixedRate(this::logStats, STATS_PERIOD_SEC, STATS_PERIOD_SEC, TimeUnit.SECONDS);
+  }
+
+  /**
+   * The contents of the cache are stored off heap, so this is an estimate of the heap used to track the blocks in the cache plus the limit on the heap used by
+   * their indexes.
+   */
+  @Override
+  public long getMaxHeapSize() {
+    return maxSize / expectedBlockSize * BLOCK_HEAP_OVERHEAD + maxIndexSize;
+  }
+
+  @Override
+  public long getMaxSize() {
+    return maxSize;
+  }
+
+  /**
+   * @return number of bytes of off heap memory currently used by cached blocks, including the unused part of the last page of each block
+   */
+  public long getCurrentSize() {
+    return numUsedPages.get() * pageSize;
+  }
+
+  public long getFreeSize() {
+    return getMaxSize() - getCurrentSize();
+  }
+
+  /**
+   * @return the weight of the indexes currently kept on the heap for cached blocks
+   */
+  public long getIndexSize() {
+    return indexSize.get();
+  }
+
+  /**
+   * @return number of entries returned by lookups that have not been released yet. A count that keeps growing indicates a reader that does not release blocks.
+   */
+  public long getOpenEntryCount() {
+    return openEntries.get();
+  }
+
+  public long getBlockCount() {
+    return blocks.size();
+  }
+
+  public long getEvictedCount() {
+    return evictedCount.get();
+  }
+
+  /**
+   * @return number of blocks that could not be cached because there was not enough memory available, even after evicting
+   */
+  public long getUncachedCount() {
+    return uncachedCount.get();
+  }
+
+  /**
+   * @return fraction of the memory held by cached blocks that is wasted in partially filled pages
+   */
+  public double getFragmentation() {
+    long current = getCurrentSize();
+    if (current == 0) {
+      return 0;
+    }
+    return 1.0 - ((double) usedBytes.get() / current);
+  }
+
+  public void shutdown() {
+    statsExecutor.shutdown();
+  }
+
+  @Override
+  public CacheEntry cacheBlock(String blockName, byte[] buf) {
+    Block existing = blocks.get(blockName);
+    if (existing != null && existing.retain()) {
+      // the block is already cached, there is no need to copy it again
+      existing.release();
+      existing.referenced = true;
+      return new OffHeapCacheEntry(buf, existing);
+    }
+
+    Block block = allocate(blockName, buf.length);
+    if (block == null) {
+      uncachedCount.incrementAndGet();
+      return new OffHeapCacheEntry(buf, new Block(blockName, -1, 0, 0));
+    }
+
+    try {
+      block.write(buf);
+
+      Block replaced = blocks.put(blockName, block);
+      if (replaced != null) {
+        evict(replaced);
+      }
+
+      if (block.evicted) {
+        // evicted by another thread before it was added to the map
+        blocks.remove(blockName, block);
+      }
+    } finally {
+      // release the reference allocate() took for this thread, the caller gets the heap copy it passed in
+      block.release();
+    }
+
+    return new OffHeapCacheEntry(buf, block);
+  }
+
+  @Override
+  public CacheEntry getBlock(String blockName) {
+    requestCount.incrementAndGet();
+
+    Block block = blocks.get(blockName);
+    if (block == null || !block.retain()) {
+      return null;
+    }
+
+    // the reference taken above is handed to the entry, and dropped when the entry is released
+    block.referenced = true;
+    hitCount.incrementAndGet();
+    openEntries.incrementAndGet();
+    return new OffHeapCacheEntry(null, block);
+  }
+
+  private byte[] getBuffer(String blockName, Loader loader) {
+    CacheEntry ce = getBlock(blockName, loader);
+    if (ce == null) {
+      return null;
+    }
+    try {
+      return ce.getBuffer();
+    } finally {
+      ce.release();
+    }
+  }
+
+  private Map<String,byte[]> resolveDependencies(Map<String,Loader> deps) {
+    if (deps.size() == 0) {
+      return Collections.emptyMap();
+    } else if (deps.size() == 1) {
+      Entry<String,Loader> entry = deps.entrySet().iterator().next();
+      byte[] buf = getBuffer(entry.getKey(), entry.getValue());
+      if (buf == null) {
+        return null;
+      }
+      return Collections.singletonMap(entry.getKey(), buf);
+    } else {
+      HashMap<String,byte[]> resolvedDeps = new HashMap<>();
+      for (Entry<String,Loader> entry : deps.entrySet()) {
+        byte[] buf = getBuffer(entry.getKey(), entry.getValue());
+        if (buf == null) {
+          return null;
+        }
+        resolvedDeps.put(entry.getKey(), buf);
+      }
+      return resolvedDeps;
+    }
+  }
+
+  @Override
+  public CacheEntry getBlock(String blockName, Loader loader) {
+    CacheEntry ce = getBlock(blockName);
+    if (ce != null) {
+      return ce;
+    }
+
+    Map<String,byte[]> resolvedDeps = resolveDependencies(loader.getDependencies());
+    if (resolvedDeps == null) {
+      return null;
+    }
+
+    byte[] data = loader.load((int) Math.min(Integer.MAX_VALUE, maxSize), resolvedDeps);
+    if (data == null) {
+      return null;
+    }
+
+    return cacheBlock(blockName, data);
+  }
+
+  @Override
+  public BlockCache.Stats getStats() {
+    return new BlockCache.Stats() {
+      @Override
+      public long hitCount() {
+        return hitCount.get();
+      }
+
+      @Override
+      public long requestCount() {
+        return requestCount.get();
+      }
+    };
+  }
+
+  private void logStats() {
+    double maxMB = ((double) getMaxSize()) / ((double) (1024 * 1024));
+    double sizeMB = ((double) getCurrentSize()) / ((double) (1024 * 1024));
+    double freeMB = maxMB - sizeMB;
+    double indexMB = ((double) getIndexSize()) / ((double) (1024 * 1024));
+    long requests = requestCount.get();
+    long hits = hitCount.get();
+    log.debug("Cache Size={}MB, Free={}MB, Max={}MB, Index={}MB, Blocks={}, Open={}, Fragmentation={}", sizeMB, freeMB, maxMB, indexMB, getBlockCount(),
+        getOpenEntryCount(), getFragmentation());
+    log.debug("Cache Stats: Accesses={}, Hits={}, Hit Ratio={}, Evicted={}, Uncached={}", requests, hits, requests == 0 ? 0 : ((double) hits / requests),
+        evictedCount.get(), uncachedCount.get());
+  }
+
+  /**
+   * Reserves a run of contiguous pages to store a block, evicting other blocks if needed.
+   *
+   * @return the new block with an extra reference held for the caller, or null if enough pages could not be freed
+   */
+  private synchronized Block allocate(String blockName, int length) {
+    int numPages = Math.max(1, (length + pageSize - 1) / pageSize);
+    if (numPages > pagesPerSlab) {
+      return null;
+    }
+
+    int start = findFreeRun(numPages);
+    if (start < 0 && slabsAllocated < slabs.length && allocateSlab()) {
+      start = (slabsAllocated - 1) * pagesPerSlab;
+    }
+
+    // Evicted blocks that are being read by other threads release their pages when the read finishes, so more blocks than strictly needed may be evicted.
+    while (start < 0) {
+      Block victim = nextVictim();
+      if (victim == null) {
+        return null;
+      }
+      blocks.remove(victim.name, victim);
+      if (evict(victim)) {
+        start = freeRunAround(victim.firstPage, victim.numPages, numPages);
+      }
+    }
+
+    usedPages.set(start, start + numPages);
+    numUsedPages.addAndGet(numPages);
+    usedBytes.addAndGet(length);
+
+    Block block = new Block(blockName, start, numPages, length);
+    block.retain();
+    clock.add(block);
+    return block;
+  }
+
+  /**
+   * Advances the clock hand to the next block that has not been referenced since the hand last passed it, clearing reference bits on the way. Every block in
+   * the clock is visited at most twice, once to clear its reference bit and once to select it.
+   *
+   * @return the selected block, which has been removed from the clock, or null if the clock is empty
+   */
+  private Block nextVictim() {
+    int visitsLeft = 2 * clock.size();
+    while (visitsLeft-- > 0) {
+      Block candidate = clock.poll();
+      if (candidate.evicted) {
+        continue;
+      }
+      if (candidate.referenced) {
+        candidate.referenced = false;
+        clock.add(candidate);
+      } else {
+        return candidate;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return the first page of a run of at least numPages free pages within one slab, or -1 if there is none
+   */
+  private int findFreeRun(int numPages) {
+    for (int slab = 0; slab < slabsAllocated; slab++) {
+      int slabEnd = (slab + 1) * pagesPerSlab;
+      int start = usedPages.nextClearBit(slab * pagesPerSlab);
+      while (start + numPages <= slabEnd) {
+        int end = usedPages.nextSetBit(start);
+        if (end < 0 || end > slabEnd) {
+          end = slabEnd;
+        }
+        if (end - start >= numPages) {
+          return start;
+        }
+        start = usedPages.nextClearBit(end);
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @return the first page of the run of free pages that contains the given pages, if it is at least numPages long, or -1 otherwise
+   */
+  private int freeRunAround(int firstPage, int length, int numPages) {
+    int slabStart = firstPage / pagesPerSlab * pagesPerSlab;
+    int slabEnd = slabStart + pagesPerSlab;
+    int start = Math.max(slabStart, usedPages.previousSetBit(firstPage - 1) + 1);
+    int end = usedPages.nextSetBit(firstPage + length);
+    if (end < 0 || end > slabEnd) {
+      end = slabEnd;
+    }
+    return end - start >= numPages ? start : -1;
+  }
+
+  private boolean allocateSlab() {
+    ByteBuffer slab;
+    try {
+      slab = ByteBuffer.allocateDirect(pagesPerSlab * pageSize);
+    } catch (OutOfMemoryError e) {
+      log.warn("Unable to allocate off heap memory for block cache, cache will be limited to {} bytes. Consider increasing -XX:MaxDirectMemorySize.",
+          (long) slabsAllocated * pagesPerSlab * pageSize, e);
+      return false;
+    }
+
+    slabs[slabsAllocated++] = slab;
+    return true;
+  }
+
+  private synchronized void free(Block block) {
+    usedPages.clear(block.firstPage, block.firstPage + block.numPages);
+    numUsedPages.addAndGet(-block.numPages);
+    usedBytes.addAndGet(-block.length);
+  }
+
+  /**
+   * @return true if the pages of the block were freed, false if they are still held by readers or the block was already evicted
+   */
+  private synchronized boolean evict(Block block) {
+    if (block.evicted) {
+      return false;
+    }
+    block.evicted = true;
+    evictedCount.incrementAndGet();
+    block.dropIndex();
+    // release the reference held by the cache, the pages are freed once no reader holds the block
+    return block.release();
+  }
+
+  /**
+   * Drops the indexes of blocks, in clock order, until the weight of the remaining indexes is within the limit.
+   */
+  private synchronized void evictIndexes() {
+    int visitsLeft = 2 * clock.size();
+    while (indexSize.get() > maxIndexSize && visitsLeft-- > 0) {
+      Block candidate = clock.poll();
+      if (candidate.evicted) {
+        continue;
+      }
+      clock.add(candidate);
+      if (candidate.referenced) {
+        candidate.referenced = false;
+      } else {
+        candidate.dropIndex();
+      }
+    }
+  }
+
+  private final class Block {
+
+    private final String name;
+    private final int firstPage;
+    private final int numPages;
+    private final int length;
+
+    /** One reference is held by the cache, and one by each thread writing the block or entry reading it */
+    private final AtomicInteger refCount = new AtomicInteger(1);
+    private volatile boolean referenced = false;
+    private volatile boolean evicted = false;
+
+    // the following are guarded by this
+    private Weighbable index;
+    private long recordedIndexSize = 0;
+
+    /**
+     * @param firstPage
+     *          the first of the block's pages, or -1 for a block that is not stored in the cache
+     */
+    Block(String name, int firstPage, int numPages, int length) {
+      this.name = name;
+      this.firstPage = firstPage;
+      this.numPages = numPages;
+      this.length = length;
+    }
+
+    boolean retain() {
+      while (true) {
+        int refs = refCount.get();
+        if (refs == 0) {
+          return false;
+        }
+        if (refCount.compareAndSet(refs, refs + 1)) {
+          return true;
+        }
+      }
+    }
+
+    /**
+     * @return true if this released the last reference and freed the block's pages
+     */
+    boolean release() {
+      if (refCount.decrementAndGet() == 0 && firstPage >= 0) {
+        free(this);
+        return true;
+      }
+      return false;
+    }
+
+    /**
+     * @return a read only view of the block's pages, only valid while a reference to the block is held
+     */
+    ByteBuffer view() {
+      ByteBuffer bb = slabs[firstPage / pagesPerSlab].duplicate();
+      int offset = (firstPage % pagesPerSlab) * pageSize;
+      bb.limit(offset + length);
+      bb.position(offset);
+      return bb.slice().asReadOnlyBuffer();
+    }
+
+    void write(byte[] buf) {
+      ByteBuffer bb = slabs[firstPage / pagesPerSlab].duplicate();
+      bb.position((firstPage % pagesPerSlab) * pageSize);
+      bb.put(buf, 0, length);
+    }
+
+    byte[] read() {
+      byte[] buf = new byte[length];
+      view().get(buf);
+      return buf;
+    }
+
+    @SuppressWarnings("unchecked")
+    synchronized <T extends Weighbable> T getIndex(Supplier<T> supplier) {
+      if (index == null) {
+        index = supplier.get();
+      }
+
+      return (T) index;
+    }
+
+    /**
+     * @return the total weight of indexes after recording the weight of this block's index. Indexes of blocks that are not cached are not counted.
+     */
+    synchronized long recordIndexSize() {
+      long newSize = (index == null || evicted || firstPage < 0) ? 0 : index.weight();
+      long delta = newSize - recordedIndexSize;
+      recordedIndexSize = newSize;
+      return indexSize.addAndGet(delta);
+    }
+
+    synchronized void dropIndex() {
+      indexSize.addAndGet(-recordedIndexSize);
+      recordedIndexSize = 0;
+      index = null;
+    }
+  }
+
+  /**
+   * An entry is either backed by a heap copy of the block, when it was created by caching that copy, or holds a reference to the off heap block until it is
+   * released.
+   */
+  private final class OffHeapCacheEntry implements CacheEntry {
+
+    private final byte[] buffer;
+    private final Block block;
+    private final AtomicBoolean released = new AtomicBoolean(false);
+
+    OffHeapCacheEntry(byte[] buffer, Block block) {
+      this.buffer = buffer;
+      this.block = block;
+    }
+
+    private void checkNotReleased() {
+      if (released.get()) {
+        throw new IllegalStateException("Cache entry for " + block.name + " was already released");
+      }
+    }
+
+    /**
+     * Off heap entries copy the block, prefer {@link #getByteBuffer()}.
+     */
+    @Override
+    public byte[] getBuffer() {
+      if (buffer != null) {
+        return buffer;
+      }
+      checkNotReleased();
+      return block.read();
+    }
+
+    @Override
+    public ByteBuffer getByteBuffer() {
+      if (buffer != null) {
+        return ByteBuffer.wrap(buffer);
+      }
+      checkNotReleased();
+      return block.view();
+    }
+
+    @Override
+    public void release() {
+      if (buffer == null && released.compareAndSet(false, true)) {
+        openEntries.decrementAndGet();
+        block.release();
+      }
+    }
+
+    @Override
+    public <T extends Weighbable> T getIndex(Supplier<T> supplier) {
+      return block.getIndex(supplier);
+    }
+
+    @Override
+    public void indexWeightChanged() {
+      if (block.recordIndexSize() > maxIndexSize) {
+        evictIndexes();
+      }
+    }
+  }
+}
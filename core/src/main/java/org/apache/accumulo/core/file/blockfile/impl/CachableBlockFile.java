@@ -22,6 +22,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
@@ -202,7 +203,11 @@ public class CachableBlockFile {
       if (_iCache != null) {
         CacheEntry mce = _iCache.getBlock(cacheId + ROOT_BLOCK_NAME, new BCFileLoader());
         if (mce != null) {
-          return getBCFile(mce.getBuffer());
+          try {
+            return getBCFile(mce.getBuffer());
+          } finally {
+            mce.release();
+          }
         }
       }
 
@@ -399,7 +404,7 @@ public class CachableBlockFile {
         try {
           CacheEntry ce = _iCache.getBlock(_lookup, new MetaBlockLoader(blockName));
           if (ce != null) {
-            return new CachedBlockRead(ce, ce.getBuffer());
+            return new CachedBlockRead(ce);
           }
         } catch (UncheckedIOException uioe) {
           if (uioe.getCause() instanceof MetaBlockDoesNotExist) {
@@ -421,7 +426,7 @@ public class CachableBlockFile {
         String _lookup = this.cacheId + "R" + offset;
         CacheEntry ce = _iCache.getBlock(_lookup, new RawBlockLoader(offset, compressedSize, rawSize, true));
         if (ce != null) {
-          return new CachedBlockRead(ce, ce.getBuffer());
+          return new CachedBlockRead(ce);
         }
       }
 
@@ -443,7 +448,7 @@ public class CachableBlockFile {
         String _lookup = this.cacheId + "O" + blockIndex;
         CacheEntry ce = _dCache.getBlock(_lookup, new OffsetBlockLoader(blockIndex, false));
         if (ce != null) {
-          return new CachedBlockRead(ce, ce.getBuffer());
+          return new CachedBlockRead(ce);
         }
       }
 
@@ -457,7 +462,7 @@ public class CachableBlockFile {
         String _lookup = this.cacheId + "R" + offset;
         CacheEntry ce = _dCache.getBlock(_lookup, new RawBlockLoader(offset, compressedSize, rawSize, false));
         if (ce != null) {
-          return new CachedBlockRead(ce, ce.getBuffer());
+          return new CachedBlockRead(ce);
         }
       }
 
@@ -487,27 +492,50 @@ public class CachableBlockFile {
   }
 
   public static class CachedBlockRead extends BlockRead {
-    private SeekableByteArrayInputStream seekableInput;
+    // exactly one of these is set, depending on whether the cache stores the block on the heap
+    private final SeekableByteArrayInputStream seekableInput;
+    private final SeekableByteBufferInputStream seekableBufferInput;
     private final CacheEntry cb;
+    private ByteBuffer byteBuffer;
 
     public CachedBlockRead(CacheEntry cb, byte buf[]) {
-      this(new SeekableByteArrayInputStream(buf), buf.length, cb);
+      this(new SeekableByteArrayInputStream(buf), cb);
+    }
+
+    public CachedBlockRead(CacheEntry cb) {
+      this(cb, cb.getByteBuffer());
     }
 
-    private CachedBlockRead(SeekableByteArrayInputStream seekableInput, long size, CacheEntry cb) {
-      super(seekableInput, size);
-      this.seekableInput = seekableInput;
+    private CachedBlockRead(CacheEntry cb, ByteBuffer bb) {
+      this(bb.hasArray() && bb.arrayOffset() == 0 && bb.position() == 0 && bb.limit() == bb.array().length ? new SeekableByteArrayInputStream(bb.array())
+          : new SeekableByteBufferInputStream(bb.duplicate()), cb);
+      this.byteBuffer = bb;
+    }
+
+    private CachedBlockRead(InputStream seekableInput, CacheEntry cb) {
+      super(seekableInput, 0);
+      if (seekableInput instanceof SeekableByteArrayInputStream) {
+        this.seekableInput = (SeekableByteArrayInputStream) seekableInput;
+        this.seekableBufferInput = null;
+      } else {
+        this.seekableInput = null;
+        this.seekableBufferInput = (SeekableByteBufferInputStream) seekableInput;
+      }
       this.cb = cb;
     }
 
     @Override
     public void seek(int position) {
-      seekableInput.seek(position);
+      if (seekableInput != null) {
+        seekableInput.seek(position);
+      } else {
+        seekableBufferInput.seek(position);
+      }
     }
 
     @Override
     public int getPosition() {
-      return seekableInput.getPosition();
+      return seekableInput != null ? seekableInput.getPosition() : seekableBufferInput.getPosition();
     }
 
     @Override
@@ -516,8 +544,11 @@ public class CachableBlockFile {
     }
 
     @Override
-    public byte[] getBuffer() {
-      return seekableInput.getBuffer();
+    public ByteBuffer getByteBuffer() {
+      if (byteBuffer == null) {
+        byteBuffer = ByteBuffer.wrap(seekableInput.getBuffer());
+      }
+      return byteBuffer;
     }
 
     @Override
@@ -529,6 +560,18 @@ public class CachableBlockFile {
     public void indexWeightChanged() {
       cb.indexWeightChanged();
     }
+
+    /**
+     * Releases the cache entry, after which the contents of the block may be reused by the cache.
+     */
+    @Override
+    public void close() throws IOException {
+      try {
+        super.close();
+      } finally {
+        cb.release();
+      }
+    }
   }
 
   /**
@@ -573,11 +616,8 @@ public class CachableBlockFile {
       throw new UnsupportedOperationException();
     }
 
-    /**
-     * The byte array returned by this method is only for read optimizations, it should not be modified.
-     */
     @Override
-    public byte[] getBuffer() {
+    public ByteBuffer getByteBuffer() {
       throw new UnsupportedOperationException();
     }
 
@@ -310,15 +310,15 @@ public class MultiLevelIndex {
 
     public void readFields(DataInput in, int version) throws IOException {
 
-      if (version == RFile.RINDEX_VER_6 || version == RFile.RINDEX_VER_7 || version == RFile.RINDEX_VER_8) {
+      if (version == RFile.RINDEX_VER_6 || version == RFile.RINDEX_VER_7 || version == RFile.RINDEX_VER_8 || version == RFile.RINDEX_VER_9) {
         level = in.readInt();
         offset = in.readInt();
         hasNext = in.readBoolean();
 
         ABlockReader abr = (ABlockReader) in;
-        if (abr.isIndexable()) {
-          // this block is cahced, so avoid copy
-          data = abr.getBuffer();
+        if (abr.isIndexable() && abr.getByteBuffer().hasArray()) {
+          // this block is cached on the heap, so avoid copy. Blocks cached off heap are copied, because the index outlives the block reader.
+          data = abr.getByteBuffer().array();
           // use offset data in serialized form and avoid copy
           numOffsets = abr.readInt();
           offsetsOffset = abr.getPosition();
@@ -811,7 +811,7 @@ public class MultiLevelIndex {
 
       size = 0;
 
-      if (version == RFile.RINDEX_VER_6 || version == RFile.RINDEX_VER_7 || version == RFile.RINDEX_VER_8) {
+      if (version == RFile.RINDEX_VER_6 || version == RFile.RINDEX_VER_7 || version == RFile.RINDEX_VER_8 || version == RFile.RINDEX_VER_9) {
         size = in.readInt();
       }
 
@@ -90,6 +90,9 @@ public class RFile {
 
   private static final int RINDEX_MAGIC = 0x20637474;
 
+  static final int RINDEX_VER_9 = 9; // Added restart points to data blocks. Every Nth key in a data block is written in full instead of relative to the
+                                     // previous key, and the offsets of these keys are stored at the end of the block. This allows a seek within a block that
+                                     // is in memory to binary search the restart points instead of decoding every key before the seek key.
   static final int RINDEX_VER_8 = 8; // Added sample storage. There is a sample locality group for each locality group. Sample are built using a Sampler and
                                      // sampler configuration. The Sampler and its configuration are stored in RFile. Persisting the method of producing the
                                      // sample allows a user of RFile to determine if the sample is useful.
@@ -393,6 +396,7 @@ public class RFile {
     private final long blockSize;
     private final long maxBlockSize;
     private int entries = 0;
+    private final RestartPoints restartPoints;
 
     private LocalityGroupMetadata currentLocalityGroup = null;
 
@@ -406,11 +410,12 @@ public class RFile {
     private RollingStats keyLenStats = new RollingStats(2017);
     private double averageKeySize = 0;
 
-    LocalityGroupWriter(BlockFileWriter fileWriter, long blockSize, long maxBlockSize, LocalityGroupMetadata currentLocalityGroup,
+    LocalityGroupWriter(BlockFileWriter fileWriter, long blockSize, long maxBlockSize, int restartInterval, LocalityGroupMetadata currentLocalityGroup,
         SampleLocalityGroupWriter sample) {
       this.fileWriter = fileWriter;
       this.blockSize = blockSize;
       this.maxBlockSize = maxBlockSize;
+      this.restartPoints = new RestartPoints(restartInterval);
       this.currentLocalityGroup = currentLocalityGroup;
       this.sample = sample;
     }
@@ -466,7 +471,13 @@ public class RFile {
         }
       }
 
-      RelativeKey rk = new RelativeKey(lastKeyInBlock, key);
+      RelativeKey rk;
+      if (restartPoints.isRestart(entries)) {
+        restartPoints.add(blockWriter.getRawSize());
+        rk = new RelativeKey(null, key);
+      } else {
+        rk = new RelativeKey(lastKeyInBlock, key);
+      }
 
       rk.write(blockWriter);
       value.write(blockWriter);
@@ -480,6 +491,7 @@ public class RFile {
     }
 
     private void closeBlock(Key key, boolean lastBlock) throws IOException {
+      restartPoints.write(blockWriter);
       blockWriter.close();
 
       if (lastBlock)
@@ -517,6 +529,7 @@ public class RFile {
     private final long blockSize;
     private final long maxBlockSize;
     private final int indexBlockSize;
+    private final int restartInterval;
 
     private ArrayList<LocalityGroupMetadata> localityGroups = new ArrayList<>();
     private ArrayList<LocalityGroupMetadata> sampleGroups = new ArrayList<>();
@@ -540,9 +553,16 @@ public class RFile {
     }
 
     public Writer(BlockFileWriter bfw, int blockSize, int indexBlockSize, SamplerConfigurationImpl samplerConfig, Sampler sampler) throws IOException {
+      this(bfw, blockSize, indexBlockSize, DefaultConfiguration.getInstance().getCount(Property.TABLE_FILE_RESTART_INTERVAL), samplerConfig, sampler);
+    }
+
+    public Writer(BlockFileWriter bfw, int blockSize, int indexBlockSize, int restartInterval, SamplerConfigurationImpl samplerConfig, Sampler sampler)
+        throws IOException {
+      Preconditions.checkArgument(restartInterval >= 0, "restart interval must not be negative");
       this.blockSize = blockSize;
       this.maxBlockSize = (long) (blockSize * MAX_BLOCK_MULTIPLIER);
       this.indexBlockSize = indexBlockSize;
+      this.restartInterval = restartInterval;
       this.fileWriter = bfw;
       previousColumnFamilies = new HashSet<>();
       this.samplerConfig = samplerConfig;
@@ -561,7 +581,7 @@ public class RFile {
       ABlockWriter mba = fileWriter.prepareMetaBlock("RFile.index");
 
       mba.writeInt(RINDEX_MAGIC);
-      mba.writeInt(RINDEX_VER_8);
+      mba.writeInt(RINDEX_VER_9);
 
       if (currentLocalityGroup != null) {
         localityGroups.add(currentLocalityGroup);
@@ -658,9 +678,9 @@ public class RFile {
 
       SampleLocalityGroupWriter sampleWriter = null;
       if (sampler != null) {
-        sampleWriter = new SampleLocalityGroupWriter(new LocalityGroupWriter(fileWriter, blockSize, maxBlockSize, sampleLocalityGroup, null), sampler);
+        sampleWriter = new SampleLocalityGroupWriter(new LocalityGroupWriter(fileWriter, blockSize, maxBlockSize, restartInterval, sampleLocalityGroup, null), sampler);
       }
-      lgWriter = new LocalityGroupWriter(fileWriter, blockSize, maxBlockSize, currentLocalityGroup, sampleWriter);
+      lgWriter = new LocalityGroupWriter(fileWriter, blockSize, maxBlockSize, restartInterval, currentLocalityGroup, sampleWriter);
     }
 
     @Override
@@ -900,11 +920,26 @@ public class RFile {
           // because if only forward seeks are being done, then there is no benefit to building
           // and index for the block... could consider using the index if it exist but not
           // causing the build of an index... doing this could slow down some use cases and
-          // and speed up others.
+          // and speed up others. Restart points are part of the block, so they are used when present.
 
-          MutableByteSequence valbs = new MutableByteSequence(new byte[64], 0, 0);
-          SkippR skippr = RelativeKey.fastSkip(currBlock, startKey, valbs, prevKey, getTopKey(), entriesLeft);
-          if (skippr.skipped > 0) {
+          RestartPoints.Position restart = null;
+          if (version == RINDEX_VER_9 && currBlock.isIndexable()) {
+            int numEntries = iiter.peekPrevious().getNumEntries();
+            restart = RestartPoints.seek(currBlock, startKey, numEntries, numEntries - entriesLeft);
+          }
+
+          MutableByteSequence valbs;
+          SkippR skippr;
+          if (restart != null) {
+            valbs = new MutableByteSequence(restart.getValue().get(), 0, restart.getValue().getSize());
+            entriesLeft = restart.getEntriesLeft();
+            skippr = RelativeKey.fastSkip(currBlock, startKey, valbs, restart.getPrevKey(), restart.getKey(), entriesLeft);
+          } else {
+            valbs = new MutableByteSequence(new byte[64], 0, 0);
+            skippr = RelativeKey.fastSkip(currBlock, startKey, valbs, prevKey, getTopKey(), entriesLeft);
+          }
+
+          if (skippr.skipped > 0 || restart != null) {
             entriesLeft -= skippr.skipped;
             val = new Value(valbs.toArray());
             prevKey = skippr.prevKey;
@@ -960,7 +995,16 @@ public class RFile {
 
           Key currKey = null;
 
-          if (currBlock.isIndexable()) {
+          if (currBlock.isIndexable() && version == RINDEX_VER_9 && RestartPoints.hasRestarts(currBlock)) {
+            RestartPoints.Position restart = RestartPoints.seek(currBlock, startKey, indexEntry.getNumEntries(), 0);
+            if (restart != null) {
+              val = restart.getValue();
+              valbs = new MutableByteSequence(val.get(), 0, val.getSize());
+              entriesLeft = restart.getEntriesLeft();
+              prevKey = restart.getPrevKey();
+              currKey = restart.getKey();
+            }
+          } else if (currBlock.isIndexable()) {
             BlockIndex blockIndex = BlockIndex.getIndex(currBlock, indexEntry);
             if (blockIndex != null) {
               BlockIndexEntry bie = blockIndex.seekBlock(startKey, currBlock);
@@ -1092,7 +1136,7 @@ public class RFile {
 
         if (magic != RINDEX_MAGIC)
           throw new IOException("Did not see expected magic number, saw " + magic);
-        if (ver != RINDEX_VER_8 && ver != RINDEX_VER_7 && ver != RINDEX_VER_6 && ver != RINDEX_VER_4 && ver != RINDEX_VER_3)
+        if (ver != RINDEX_VER_9 && ver != RINDEX_VER_8 && ver != RINDEX_VER_7 && ver != RINDEX_VER_6 && ver != RINDEX_VER_4 && ver != RINDEX_VER_3)
           throw new IOException("Did not see expected version, saw " + ver);
 
         int size = mb.readInt();
@@ -1110,7 +1154,7 @@ public class RFile {
 
         readers = currentReaders;
 
-        if (ver == RINDEX_VER_8 && mb.readBoolean()) {
+        if ((ver == RINDEX_VER_9 || ver == RINDEX_VER_8) && mb.readBoolean()) {
           sampleReaders = new LocalityGroupReader[size];
 
           for (int i = 0; i < size; i++) {
@@ -127,7 +127,9 @@ public class RFileOperations extends FileOperations {
     CachableBlockFile.Writer _cbw = new CachableBlockFile.Writer(new RateLimitedOutputStream(outputStream, options.getRateLimiter()), compression, conf,
         acuconf);
 
-    RFile.Writer writer = new RFile.Writer(_cbw, (int) blockSize, (int) indexBlockSize, samplerConfig, sampler);
+    int restartInterval = acuconf.getCount(Property.TABLE_FILE_RESTART_INTERVAL);
+
+    RFile.Writer writer = new RFile.Writer(_cbw, (int) blockSize, (int) indexBlockSize, restartInterval, samplerConfig, sampler);
     return writer;
   }
 }
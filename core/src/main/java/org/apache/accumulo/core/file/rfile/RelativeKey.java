@@ -175,7 +175,7 @@ public class RelativeKey implements Writable {
     long ts;
 
     if ((fieldsSame & ROW_SAME) == ROW_SAME) {
-      row = prevKey.getRowData().toArray();
+      row = share(prevKey.getRowData());
     } else if ((fieldsPrefixed & ROW_COMMON_PREFIX) == ROW_COMMON_PREFIX) {
       row = readPrefix(in, prevKey.getRowData());
     } else {
@@ -183,7 +183,7 @@ public class RelativeKey implements Writable {
     }
 
     if ((fieldsSame & CF_SAME) == CF_SAME) {
-      cf = prevKey.getColumnFamilyData().toArray();
+      cf = share(prevKey.getColumnFamilyData());
     } else if ((fieldsPrefixed & CF_COMMON_PREFIX) == CF_COMMON_PREFIX) {
       cf = readPrefix(in, prevKey.getColumnFamilyData());
     } else {
@@ -191,7 +191,7 @@ public class RelativeKey implements Writable {
     }
 
     if ((fieldsSame & CQ_SAME) == CQ_SAME) {
-      cq = prevKey.getColumnQualifierData().toArray();
+      cq = share(prevKey.getColumnQualifierData());
     } else if ((fieldsPrefixed & CQ_COMMON_PREFIX) == CQ_COMMON_PREFIX) {
       cq = readPrefix(in, prevKey.getColumnQualifierData());
     } else {
@@ -199,7 +199,7 @@ public class RelativeKey implements Writable {
     }
 
     if ((fieldsSame & CV_SAME) == CV_SAME) {
-      cv = prevKey.getColumnVisibilityData().toArray();
+      cv = share(prevKey.getColumnVisibilityData());
     } else if ((fieldsPrefixed & CV_COMMON_PREFIX) == CV_COMMON_PREFIX) {
       cv = readPrefix(in, prevKey.getColumnVisibilityData());
     } else {
@@ -218,6 +218,17 @@ public class RelativeKey implements Writable {
     this.prevKey = this.key;
   }
 
+  /**
+   * Returns the array backing a field of the previous key, so that a field that is the same as in the previous key is not copied. Keys treat their arrays as
+   * immutable, so sharing them is safe and lets {@link Key#compareTo(Key)} skip comparing the shared fields.
+   */
+  private static byte[] share(ByteSequence field) {
+    byte[] array = field.getBackingArray();
+    if (field.offset() == 0 && field.length() == array.length)
+      return array;
+    return field.toArray();
+  }
+
   public static class SkippR {
     RelativeKey rk;
     int skipped;
@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.file.rfile;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.file.blockfile.ABlockReader;
+
+/**
+ * Restart points allow a seek within a data block to binary search instead of decoding every key that precedes the seek key.
+ * <p>
+ * Starting with {@link RFile#RINDEX_VER_9}, every Nth key in a data block is written in full instead of relative to the previous key. The offsets of these
+ * keys are appended to the end of the block, after the last key/value pair, in the following format.
+ *
+ * <pre>
+ *   int offset[count]  offset within the block of each restart point, the first is always 0
+ *   int interval       number of key/value pairs between restart points
+ *   int count          number of restart points, 0 when restart points were disabled
+ * </pre>
+ *
+ * Readers that decode a block sequentially never see this trailer, because they stop after the number of entries recorded in the block's index entry. Only
+ * blocks that are fully in memory ({@link ABlockReader#isIndexable()}) are searched.
+ */
+class RestartPoints {
+
+  private static final int TRAILER_SIZE = 8;
+
+  private final int interval;
+  private int[] offsets = new int[16];
+  private int count = 0;
+
+  RestartPoints(int interval) {
+    this.interval = interval;
+  }
+
+  /**
+   * @param entries
+   *          number of entries already written to the current block
+   * @return true if the next key should be written in full as a restart point
+   */
+  boolean isRestart(int entries) {
+    return interval > 0 && entries % interval == 0;
+  }
+
+  void add(long offset) {
+    if (count == offsets.length)
+      offsets = Arrays.copyOf(offsets, count * 2);
+    offsets[count++] = (int) offset;
+  }
+
+  /**
+   * Writes the restart points of the current block and resets for the next block.
+   */
+  void write(DataOutput out) throws IOException {
+    for (int i = 0; i < count; i++) {
+      out.writeInt(offsets[i]);
+    }
+    out.writeInt(interval);
+    out.writeInt(count);
+    count = 0;
+  }
+
+  /**
+   * The position of a block after a successful {@link RestartPoints#seek(ABlockReader, Key, int, int)}.
+   */
+  static class Position {
+    private final Key prevKey;
+    private final Key key;
+    private final Value value;
+    private final int entriesLeft;
+
+    Position(Key prevKey, Key key, Value value, int entriesLeft) {
+      this.prevKey = prevKey;
+      this.key = key;
+      this.value = value;
+      this.entriesLeft = entriesLeft;
+    }
+
+    /**
+     * @return the key immediately before {@link #getKey()}, which is the key at the restart point
+     */
+    Key getPrevKey() {
+      return prevKey;
+    }
+
+    Key getKey() {
+      return key;
+    }
+
+    Value getValue() {
+      return value;
+    }
+
+    /**
+     * @return the number of entries in the block after {@link #getKey()}
+     */
+    int getEntriesLeft() {
+      return entriesLeft;
+    }
+  }
+
+  /**
+   * @return true if the block, which must be indexable, was written with restart points
+   */
+  static boolean hasRestarts(ABlockReader block) {
+    ByteBuffer buf = block.getByteBuffer();
+    return buf.limit() >= TRAILER_SIZE && buf.getInt(buf.limit() - 4) > 0;
+  }
+
+  /**
+   * Positions an indexable block using its restart points. The block is left positioned after the key that follows the last restart point whose key is less
+   * than {@code startKey}, so that {@link RelativeKey#fastSkip} can continue from there. At least one entry always remains to be read after that key.
+   *
+   * @param numEntries
+   *          number of entries in the block
+   * @param firstUnread
+   *          index of the first entry in the block that has not been read yet. Only restart points at or after this entry are considered.
+   * @return the new position, or null if no restart point could be used. When null is returned the position of the block is unchanged.
+   */
+  static Position seek(ABlockReader block, Key startKey, int numEntries, int firstUnread) throws IOException {
+    ByteBuffer buf = block.getByteBuffer();
+    int count = buf.getInt(buf.limit() - 4);
+    int interval = buf.getInt(buf.limit() - 8);
+    if (count == 0 || interval <= 0 || numEntries < 3)
+      return null;
+
+    int offsetsStart = buf.limit() - TRAILER_SIZE - 4 * count;
+
+    // only use restart points that have at least two entries after them, one to return and one for fastSkip() to read
+    int low = (firstUnread + interval - 1) / interval;
+    int high = Math.min(count - 1, (numEntries - 3) / interval);
+    if (low > high)
+      return null;
+
+    int origPos = block.getPosition();
+
+    // find the last restart point whose key is less than the start key
+    int found = -1;
+    RelativeKey rk = new RelativeKey();
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      block.seek(buf.getInt(offsetsStart + 4 * mid));
+      rk.setPrevKey(null);
+      rk.readFields(block);
+      if (rk.getKey().compareTo(startKey) < 0) {
+        found = mid;
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+
+    if (found == -1) {
+      block.seek(origPos);
+      return null;
+    }
+
+    block.seek(buf.getInt(offsetsStart + 4 * found));
+    Value val = new Value();
+    rk.setPrevKey(null);
+    rk.readFields(block);
+    val.readFields(block);
+    Key restartKey = rk.getKey();
+
+    rk.readFields(block);
+    val.readFields(block);
+
+    return new Position(restartKey, rk.getKey(), val, numEntries - found * interval - 2);
+  }
+}
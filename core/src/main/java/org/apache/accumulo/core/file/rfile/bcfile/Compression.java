@@ -82,6 +82,10 @@ public final class Compression {
   public static final String COMPRESSION_GZ = "gz";
   /** compression: lzo */
   public static final String COMPRESSION_LZO = "lzo";
+  /** compression: zstandard */
+  public static final String COMPRESSION_ZSTD = "zstd";
+  /** compression: lz4 */
+  public static final String COMPRESSION_LZ4 = "lz4";
   /** compression: none */
   public static final String COMPRESSION_NONE = "none";
 
@@ -111,6 +115,9 @@ public final class Compression {
    *
    * Snappy will use the default Snappy codec with the default buffer size of 64k for the compression stream, but will use a cached codec if the buffer size
    * differs from the default.
+   *
+   * ZStandard and LZ4 follow the same model as Snappy, with default buffer sizes of 256k. Both are only supported when the Hadoop version on the classpath
+   * provides the codec. The ZStandard compression level is read from {@value #CONF_ZSTD_LEVEL} in the Hadoop configuration or system properties.
    */
   public static enum Algorithm {
 
@@ -429,6 +436,204 @@ public final class Compression {
 
         return snappyCodec != null;
       }
+    },
+
+    ZSTANDARD(COMPRESSION_ZSTD) {
+      // Use base type to avoid compile-time dependencies.
+      private transient CompressionCodec zstdCodec = null;
+      /**
+       * determines if we've checked the codec status. ensures we don't recreate the default codec
+       */
+      private final AtomicBoolean checked = new AtomicBoolean(false);
+      private static final String defaultClazz = "org.apache.hadoop.io.compress.ZStandardCodec";
+
+      /**
+       * Buffer size option
+       */
+      private static final String BUFFER_SIZE_OPT = "io.compression.codec.zstd.buffersize";
+
+      /**
+       * Default buffer size value
+       */
+      private static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+
+      @Override
+      public CompressionCodec getCodec() throws IOException {
+        return zstdCodec;
+      }
+
+      @Override
+      public void initializeDefaultCodec() {
+        if (!checked.get()) {
+          checked.set(true);
+          zstdCodec = createNewCodec(DEFAULT_BUFFER_SIZE);
+        }
+      }
+
+      /**
+       * Creates a new zstandard codec.
+       *
+       * @param bufferSize
+       *          incoming buffer size
+       * @return new codec or null, depending on if installed
+       */
+      @Override
+      protected CompressionCodec createNewCodec(final int bufferSize) {
+        String clazz = getCodecClass(CONF_ZSTD_CLASS, defaultClazz);
+        try {
+          log.info("Trying to load zstandard codec class: {}", clazz);
+
+          Configuration myConf = new Configuration(conf);
+          // only use the buffersize if > 0, otherwise we'll use
+          // the default defined within the codec
+          if (bufferSize > 0)
+            myConf.setInt(BUFFER_SIZE_OPT, bufferSize);
+
+          String level = conf.get(CONF_ZSTD_LEVEL);
+          if (level == null)
+            level = System.getProperty(CONF_ZSTD_LEVEL);
+          if (level != null)
+            myConf.setInt(CONF_ZSTD_LEVEL, parseZstdLevel(level));
+
+          return (CompressionCodec) ReflectionUtils.newInstance(Class.forName(clazz), myConf);
+
+        } catch (ClassNotFoundException e) {
+          // that is okay
+        }
+
+        return null;
+      }
+
+      @Override
+      public OutputStream createCompressionStream(OutputStream downStream, Compressor compressor, int downStreamBufferSize) throws IOException {
+        if (!isSupported()) {
+          throw new IOException("ZStandard codec class not found. Hadoop 2.9 or later is required, or set property " + CONF_ZSTD_CLASS);
+        }
+        return createBufferedCompressionStream(zstdCodec, downStream, compressor, downStreamBufferSize);
+      }
+
+      @Override
+      public InputStream createDecompressionStream(InputStream downStream, Decompressor decompressor, int downStreamBufferSize) throws IOException {
+        if (!isSupported()) {
+          throw new IOException("ZStandard codec class not found. Hadoop 2.9 or later is required, or set property " + CONF_ZSTD_CLASS);
+        }
+
+        CompressionCodec decomCodec = zstdCodec;
+        // if we're not using the same buffer size, we'll pull the codec from the loading cache
+        if (DEFAULT_BUFFER_SIZE != downStreamBufferSize) {
+          Entry<Algorithm,Integer> sizeOpt = Maps.immutableEntry(ZSTANDARD, downStreamBufferSize);
+          try {
+            decomCodec = codecCache.get(sizeOpt);
+          } catch (ExecutionException e) {
+            throw new IOException(e);
+          }
+        }
+
+        CompressionInputStream cis = decomCodec.createInputStream(downStream, decompressor);
+        BufferedInputStream bis2 = new BufferedInputStream(cis, DATA_IBUF_SIZE);
+        return bis2;
+      }
+
+      @Override
+      public boolean isSupported() {
+        return zstdCodec != null;
+      }
+    },
+
+    LZ4(COMPRESSION_LZ4) {
+      // Use base type to avoid compile-time dependencies.
+      private transient CompressionCodec lz4Codec = null;
+      /**
+       * determines if we've checked the codec status. ensures we don't recreate the default codec
+       */
+      private final AtomicBoolean checked = new AtomicBoolean(false);
+      private static final String defaultClazz = "org.apache.hadoop.io.compress.Lz4Codec";
+
+      /**
+       * Buffer size option
+       */
+      private static final String BUFFER_SIZE_OPT = "io.compression.codec.lz4.buffersize";
+
+      /**
+       * Default buffer size value
+       */
+      private static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+
+      @Override
+      public CompressionCodec getCodec() throws IOException {
+        return lz4Codec;
+      }
+
+      @Override
+      public void initializeDefaultCodec() {
+        if (!checked.get()) {
+          checked.set(true);
+          lz4Codec = createNewCodec(DEFAULT_BUFFER_SIZE);
+        }
+      }
+
+      /**
+       * Creates a new lz4 codec.
+       *
+       * @param bufferSize
+       *          incoming buffer size
+       * @return new codec or null, depending on if installed
+       */
+      @Override
+      protected CompressionCodec createNewCodec(final int bufferSize) {
+        String clazz = getCodecClass(CONF_LZ4_CLASS, defaultClazz);
+        try {
+          log.info("Trying to load lz4 codec class: {}", clazz);
+
+          Configuration myConf = new Configuration(conf);
+          // only use the buffersize if > 0, otherwise we'll use
+          // the default defined within the codec
+          if (bufferSize > 0)
+            myConf.setInt(BUFFER_SIZE_OPT, bufferSize);
+
+          return (CompressionCodec) ReflectionUtils.newInstance(Class.forName(clazz), myConf);
+
+        } catch (ClassNotFoundException e) {
+          // that is okay
+        }
+
+        return null;
+      }
+
+      @Override
+      public OutputStream createCompressionStream(OutputStream downStream, Compressor compressor, int downStreamBufferSize) throws IOException {
+        if (!isSupported()) {
+          throw new IOException("LZ4 codec class not found. Did you forget to set property " + CONF_LZ4_CLASS + "?");
+        }
+        return createBufferedCompressionStream(lz4Codec, downStream, compressor, downStreamBufferSize);
+      }
+
+      @Override
+      public InputStream createDecompressionStream(InputStream downStream, Decompressor decompressor, int downStreamBufferSize) throws IOException {
+        if (!isSupported()) {
+          throw new IOException("LZ4 codec class not found. Did you forget to set property " + CONF_LZ4_CLASS + "?");
+        }
+
+        CompressionCodec decomCodec = lz4Codec;
+        // if we're not using the same buffer size, we'll pull the codec from the loading cache
+        if (DEFAULT_BUFFER_SIZE != downStreamBufferSize) {
+          Entry<Algorithm,Integer> sizeOpt = Maps.immutableEntry(LZ4, downStreamBufferSize);
+          try {
+            decomCodec = codecCache.get(sizeOpt);
+          } catch (ExecutionException e) {
+            throw new IOException(e);
+          }
+        }
+
+        CompressionInputStream cis = decomCodec.createInputStream(downStream, decompressor);
+        BufferedInputStream bis2 = new BufferedInputStream(cis, DATA_IBUF_SIZE);
+        return bis2;
+      }
+
+      @Override
+      public boolean isSupported() {
+        return lz4Codec != null;
+      }
     };
 
     /**
@@ -469,6 +674,11 @@ public final class Compression {
     private static final int DATA_OBUF_SIZE = 4 * 1024;
     public static final String CONF_LZO_CLASS = "io.compression.codec.lzo.class";
     public static final String CONF_SNAPPY_CLASS = "io.compression.codec.snappy.class";
+    public static final String CONF_ZSTD_CLASS = "io.compression.codec.zstd.class";
+    public static final String CONF_ZSTD_LEVEL = "io.compression.codec.zstd.level";
+    static final int MIN_ZSTD_LEVEL = 1;
+    static final int MAX_ZSTD_LEVEL = 22;
+    public static final String CONF_LZ4_CLASS = "io.compression.codec.lz4.class";
 
     Algorithm(String name) {
       this.compressName = name;
@@ -476,6 +686,47 @@ public final class Compression {
 
     abstract CompressionCodec getCodec() throws IOException;
 
+    /**
+     * @return the codec class set in the Hadoop configuration or system properties, or the default class if neither is set
+     */
+    static String getCodecClass(String classOpt, String defaultClazz) {
+      String clazz = conf.get(classOpt);
+      if (clazz == null)
+        clazz = System.getProperty(classOpt);
+      return clazz == null ? defaultClazz : clazz;
+    }
+
+    /**
+     * @return the ZStandard compression level
+     * @throws IllegalArgumentException
+     *           if the level is not an integer from {@value #MIN_ZSTD_LEVEL} to {@value #MAX_ZSTD_LEVEL}
+     */
+    static int parseZstdLevel(String level) {
+      try {
+        int parsed = Integer.parseInt(level.trim());
+        if (parsed >= MIN_ZSTD_LEVEL && parsed <= MAX_ZSTD_LEVEL)
+          return parsed;
+      } catch (NumberFormatException e) {
+        // reported below
+      }
+      throw new IllegalArgumentException(
+          "Invalid value for " + CONF_ZSTD_LEVEL + ": '" + level + "', expected an integer from " + MIN_ZSTD_LEVEL + " to " + MAX_ZSTD_LEVEL);
+    }
+
+    static OutputStream createBufferedCompressionStream(CompressionCodec codec, OutputStream downStream, Compressor compressor, int downStreamBufferSize)
+        throws IOException {
+      OutputStream bos1 = null;
+      if (downStreamBufferSize > 0) {
+        bos1 = new BufferedOutputStream(downStream, downStreamBufferSize);
+      } else {
+        bos1 = downStream;
+      }
+      // use the default codec
+      CompressionOutputStream cos = codec.createOutputStream(bos1, compressor);
+      BufferedOutputStream bos2 = new BufferedOutputStream(new FinishOnFlushCompressionStream(cos), DATA_OBUF_SIZE);
+      return bos2;
+    }
+
     /**
      * function to create the default codec object.
      */
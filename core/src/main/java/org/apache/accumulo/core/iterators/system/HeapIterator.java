@@ -17,117 +17,198 @@
 package org.apache.accumulo.core.iterators.system;
 
 import java.io.IOException;
-import java.util.Comparator;
-import java.util.PriorityQueue;
+import java.util.Arrays;
 
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 
 /**
- * Constructs a {@link PriorityQueue} of multiple SortedKeyValueIterators. Provides a simple way to interact with multiple SortedKeyValueIterators in sorted
- * order.
+ * Merges multiple SortedKeyValueIterators using a loser tree. Provides a simple way to interact with multiple SortedKeyValueIterators in sorted order.
+ * <p>
+ * Each internal node of the tree holds the source that lost the match played at that node, so when the top source advances only the matches on its path to
+ * the root are replayed, which takes at most log(n) key comparisons instead of the 2·log(n) a binary heap needs to remove and re-add the source. The
+ * smallest key among the other sources is also tracked, so while the same source stays on top each step costs a single comparison, and when it does not the
+ * new top is already known and only the matches below the node where it lost need to be replayed.
+ * <p>
+ * Sources that run out stay in the tree and lose every match, and the tree is only rebuilt when sources are added.
  */
 public abstract class HeapIterator implements SortedKeyValueIterator<Key,Value> {
-  private PriorityQueue<SortedKeyValueIterator<Key,Value>> heap;
-  private SortedKeyValueIterator<Key,Value> topIdx = null;
-  private Key nextKey;
-
-  private static class SKVIComparator implements Comparator<SortedKeyValueIterator<Key,Value>> {
+  private SortedKeyValueIterator<Key,Value>[] sources;
+  // the top key of each source, or null when the source has no top
+  private Key[] keys;
+  // losers[p] is the index of the source that lost the match at internal node p, for 1 <= p < numSources. Leaf i is node numSources + i.
+  private int[] losers;
+  // scratch space used to build the tree
+  private int[] winners;
+  private int numSources = 0;
+  private boolean needsBuild = false;
 
-    @Override
-    public int compare(SortedKeyValueIterator<Key,Value> o1, SortedKeyValueIterator<Key,Value> o2) {
-      return o1.getTopKey().compareTo(o2.getTopKey());
-    }
-  }
+  private SortedKeyValueIterator<Key,Value> topIdx = null;
+  private int top;
+  // the source with the smallest key other than the top, or -1 if no other source has a top
+  private int runnerUp = -1;
+  // the node on the path of the top source where the runner up lost to it
+  private int runnerUpNode;
 
-  protected HeapIterator() {
-    heap = null;
-  }
+  protected HeapIterator() {}
 
   protected HeapIterator(int maxSize) {
     createHeap(maxSize);
   }
 
   protected void createHeap(int maxSize) {
-    if (heap != null)
+    if (sources != null)
       throw new IllegalStateException("heap already exist");
 
-    heap = new PriorityQueue<>(maxSize == 0 ? 1 : maxSize, new SKVIComparator());
+    allocate(Math.max(1, maxSize));
+  }
+
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private void allocate(int capacity) {
+    sources = sources == null ? new SortedKeyValueIterator[capacity] : Arrays.copyOf(sources, capacity);
+    keys = keys == null ? new Key[capacity] : Arrays.copyOf(keys, capacity);
+    losers = new int[capacity];
+    winners = new int[capacity * 2];
   }
 
   @Override
   final public Key getTopKey() {
+    if (needsBuild)
+      build();
     return topIdx.getTopKey();
   }
 
   @Override
   final public Value getTopValue() {
+    if (needsBuild)
+      build();
     return topIdx.getTopValue();
   }
 
   @Override
   final public boolean hasTop() {
+    if (needsBuild)
+      build();
     return topIdx != null;
   }
 
   @Override
   final public void next() throws IOException {
+    if (needsBuild)
+      build();
+
     if (topIdx == null) {
       throw new IllegalStateException("Called next() when there is no top");
     }
 
     topIdx.next();
-    if (!topIdx.hasTop()) {
-      if (nextKey == null) {
-        // No iterators left
-        topIdx = null;
-        return;
-      }
+    Key key = topIdx.hasTop() ? topIdx.getTopKey() : null;
+    keys[top] = key;
+
+    if (key != null && (runnerUp < 0 || keys[runnerUp].compareTo(key) >= 0)) {
+      // the top source is still the minimum, which is the common case when sources hold long runs of adjacent keys
+      return;
+    }
 
-      pullReferencesFromHeap();
-    } else {
-      if (nextKey == null) {
-        // topIdx is the only iterator
-        return;
+    if (runnerUp < 0) {
+      // No iterators left
+      topIdx = null;
+      return;
+    }
+
+    // The runner up is the new top. Replay the matches on the path from the top source's leaf up to the node where the runner up lost, where the runner up
+    // now wins. It also wins every match above that node, so those do not change.
+    int winner = top;
+    int p = (numSources + top) >>> 1;
+    for (; p != runnerUpNode; p >>>= 1) {
+      if (beats(losers[p], winner)) {
+        int loser = winner;
+        winner = losers[p];
+        losers[p] = loser;
       }
+    }
+    losers[p] = winner;
 
-      if (nextKey.compareTo(topIdx.getTopKey()) < 0) {
-        // Grab the next top iterator and put the current top iterator back on the heap
-        // This updating of references is special-cased to save on percolation on edge cases
-        // since the current top is guaranteed to not be the minimum
-        SortedKeyValueIterator<Key,Value> nextTopIdx = heap.remove();
-        heap.add(topIdx);
+    setTop(runnerUp);
+  }
+
+  /**
+   * @return true if source a sorts before source b. A source without a top loses to every source that has one.
+   */
+  private boolean beats(int a, int b) {
+    Key ka = keys[a];
+    if (ka == null)
+      return false;
+    Key kb = keys[b];
+    return kb == null || ka.compareTo(kb) < 0;
+  }
+
+  private void build() {
+    needsBuild = false;
 
-        topIdx = nextTopIdx;
-        nextKey = heap.peek().getTopKey();
+    int n = numSources;
+    for (int i = 0; i < n; i++) {
+      winners[n + i] = i;
+    }
+
+    for (int p = n - 1; p >= 1; p--) {
+      int a = winners[2 * p];
+      int b = winners[2 * p + 1];
+      if (beats(b, a)) {
+        winners[p] = b;
+        losers[p] = a;
+      } else {
+        winners[p] = a;
+        losers[p] = b;
       }
     }
+
+    // with a single source, its leaf is node 1
+    setTop(winners[1]);
   }
 
-  private void pullReferencesFromHeap() {
-    topIdx = heap.remove();
-    if (!heap.isEmpty()) {
-      nextKey = heap.peek().getTopKey();
-    } else {
-      nextKey = null;
+  private void setTop(int winner) {
+    top = winner;
+    runnerUp = -1;
+
+    if (keys[winner] == null) {
+      topIdx = null;
+      return;
+    }
+
+    topIdx = sources[winner];
+
+    // the runner up must have lost a match directly to the winner
+    for (int p = (numSources + winner) >>> 1; p >= 1; p >>>= 1) {
+      int loser = losers[p];
+      if (keys[loser] != null && (runnerUp < 0 || keys[loser].compareTo(keys[runnerUp]) < 0)) {
+        runnerUp = loser;
+        runnerUpNode = p;
+      }
     }
   }
 
   final protected void clear() {
-    heap.clear();
+    if (sources != null) {
+      Arrays.fill(sources, 0, numSources, null);
+      Arrays.fill(keys, 0, numSources, null);
+    }
+    numSources = 0;
+    needsBuild = false;
     topIdx = null;
-    nextKey = null;
+    runnerUp = -1;
   }
 
   final protected void addSource(SortedKeyValueIterator<Key,Value> source) {
     if (source.hasTop()) {
-      heap.add(source);
-      if (topIdx != null) {
-        heap.add(topIdx);
-      }
+      if (sources == null || numSources == sources.length)
+        allocate(sources == null ? 1 : sources.length * 2);
 
-      pullReferencesFromHeap();
+      sources[numSources] = source;
+      keys[numSources] = source.getTopKey();
+      numSources++;
+      needsBuild = true;
     }
   }
 }
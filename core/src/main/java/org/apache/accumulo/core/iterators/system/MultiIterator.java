@@ -21,6 +21,10 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Key;
@@ -30,6 +34,8 @@ import org.apache.accumulo.core.data.impl.KeyExtent;
 import org.apache.accumulo.core.iterators.IteratorEnvironment;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 
+import com.google.common.util.concurrent.Uninterruptibles;
+
 /**
  * An iterator capable of iterating over other iterators in sorted order.
  *
@@ -41,6 +47,7 @@ public class MultiIterator extends HeapIterator {
 
   private List<SortedKeyValueIterator<Key,Value>> iters;
   private Range fence;
+  private ExecutorService seekExecutor;
 
   // deep copy with no seek/scan state
   @Override
@@ -52,6 +59,7 @@ public class MultiIterator extends HeapIterator {
     super(other.iters.size());
     this.iters = new ArrayList<>();
     this.fence = other.fence;
+    this.seekExecutor = other.seekExecutor;
     for (SortedKeyValueIterator<Key,Value> iter : other.iters) {
       iters.add(iter.deepCopy(env));
     }
@@ -88,6 +96,16 @@ public class MultiIterator extends HeapIterator {
     this(iters2, new Range(extent.getPrevEndRow(), false, extent.getEndRow(), true), false);
   }
 
+  /**
+   * @param seekExecutor
+   *          used to seek the sources in parallel when seeking to a single row, so that each source can find and read its blocks at the same time. The
+   *          sources must not be used by any other thread during a seek. May be null.
+   */
+  public MultiIterator(List<SortedKeyValueIterator<Key,Value>> iters2, KeyExtent extent, ExecutorService seekExecutor) {
+    this(iters2, extent);
+    this.seekExecutor = seekExecutor;
+  }
+
   public MultiIterator(List<SortedKeyValueIterator<Key,Value>> readers, boolean init) {
     this(readers, (Range) null, init);
   }
@@ -102,12 +120,76 @@ public class MultiIterator extends HeapIterator {
         return;
     }
 
+    if (seekExecutor != null && iters.size() > 1 && isSingleRow(range)) {
+      seekInParallel(range, columnFamilies, inclusive);
+    } else {
+      for (SortedKeyValueIterator<Key,Value> skvi : iters) {
+        skvi.seek(range, columnFamilies, inclusive);
+      }
+    }
+
     for (SortedKeyValueIterator<Key,Value> skvi : iters) {
-      skvi.seek(range, columnFamilies, inclusive);
       addSource(skvi);
     }
   }
 
+  /**
+   * @return true if the range only covers keys in one row, including a range for an entire row, which ends at the first key of the following row
+   */
+  static boolean isSingleRow(Range range) {
+    Key start = range.getStartKey();
+    Key end = range.getEndKey();
+    if (start == null || end == null)
+      return false;
+
+    ByteSequence startRow = start.getRowData();
+    ByteSequence endRow = end.getRowData();
+    if (startRow.equals(endRow))
+      return true;
+
+    return !range.isEndKeyInclusive() && endRow.length() == startRow.length() + 1 && endRow.byteAt(startRow.length()) == 0
+        && endRow.subSequence(0, startRow.length()).equals(startRow) && end.getColumnFamilyData().length() == 0
+        && end.getColumnQualifierData().length() == 0 && end.getColumnVisibilityData().length() == 0;
+  }
+
+  private void seekInParallel(final Range range, final Collection<ByteSequence> columnFamilies, final boolean inclusive) throws IOException {
+    List<Future<?>> futures = new ArrayList<>(iters.size() - 1);
+    Throwable failure = null;
+    try {
+      for (final SortedKeyValueIterator<Key,Value> skvi : iters.subList(1, iters.size())) {
+        futures.add(seekExecutor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws IOException {
+            skvi.seek(range, columnFamilies, inclusive);
+            return null;
+          }
+        }));
+      }
+      iters.get(0).seek(range, columnFamilies, inclusive);
+    } catch (IOException | RuntimeException e) {
+      failure = e;
+    } finally {
+      // all seeks must finish before returning, even on failure, since the caller may release the sources
+      for (Future<?> future : futures) {
+        try {
+          Uninterruptibles.getUninterruptibly(future);
+        } catch (ExecutionException e) {
+          if (failure == null)
+            failure = e.getCause();
+        }
+      }
+    }
+
+    if (failure instanceof IOException)
+      throw (IOException) failure;
+    if (failure instanceof RuntimeException)
+      throw (RuntimeException) failure;
+    if (failure instanceof Error)
+      throw (Error) failure;
+    if (failure != null)
+      throw new IOException(failure);
+  }
+
   @Override
   public void init(SortedKeyValueIterator<Key,Value> source, Map<String,String> options, IteratorEnvironment env) throws IOException {
     throw new UnsupportedOperationException();
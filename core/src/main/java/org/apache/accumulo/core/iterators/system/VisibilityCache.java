@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.iterators.system;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.security.Authorizations;
+
+/**
+ * Caches the result of evaluating column visibility expressions, shared by every {@link VisibilityFilter} in the process so that scans with the same
+ * authorizations benefit from each other's work.
+ * <p>
+ * Results are keyed by the expression and an id assigned to each distinct set of authorizations. The cache is a fixed size direct mapped table of immutable
+ * entries, so a lookup takes no locks and allocates nothing, and a new result simply replaces whatever was in its slot.
+ */
+final class VisibilityCache {
+
+  private static final int SLOTS = 1 << 16;
+  private static final int MAX_AUTHS_IDS = 10000;
+
+  private static final ConcurrentHashMap<Authorizations,Integer> authsIds = new ConcurrentHashMap<>();
+  private static final AtomicInteger nextAuthsId = new AtomicInteger();
+
+  private static class Entry {
+    final byte[] expression;
+    final int authsId;
+    final int hash;
+    final boolean visible;
+
+    Entry(byte[] expression, int authsId, int hash, boolean visible) {
+      this.expression = expression;
+      this.authsId = authsId;
+      this.hash = hash;
+      this.visible = visible;
+    }
+
+    boolean matches(ByteSequence expr, int authsId, int hash) {
+      if (this.hash != hash || this.authsId != authsId || expression.length != expr.length())
+        return false;
+
+      byte[] data = expr.getBackingArray();
+      int offset = expr.offset();
+      for (int i = 0; i < expression.length; i++) {
+        if (expression[i] != data[offset + i])
+          return false;
+      }
+      return true;
+    }
+  }
+
+  // entries are immutable and only contain final fields, so they are safely published without synchronization
+  private static final Entry[] table = new Entry[SLOTS];
+
+  private VisibilityCache() {}
+
+  /**
+   * @return an id that is the same for equal authorizations. Ids are never reused, so results cached for an id that was dropped are simply never found.
+   */
+  static int getAuthsId(Authorizations authorizations) {
+    Integer id = authsIds.get(authorizations);
+    if (id == null) {
+      if (authsIds.size() >= MAX_AUTHS_IDS)
+        authsIds.clear();
+      id = nextAuthsId.getAndIncrement();
+      Integer existing = authsIds.putIfAbsent(authorizations, id);
+      if (existing != null)
+        id = existing;
+    }
+    return id;
+  }
+
+  static int hash(ByteSequence expression, int authsId) {
+    byte[] data = expression.getBackingArray();
+    int hash = authsId;
+    int end = expression.offset() + expression.length();
+    for (int i = expression.offset(); i < end; i++) {
+      hash = 31 * hash + data[i];
+    }
+    // spread the high bits into the bits used to pick a slot
+    return hash ^ (hash >>> 16);
+  }
+
+  /**
+   * @return the cached result, or null if it is not cached. The expression must be backed by an array.
+   */
+  static Boolean get(ByteSequence expression, int authsId, int hash) {
+    Entry entry = table[hash & (SLOTS - 1)];
+    if (entry != null && entry.matches(expression, authsId, hash))
+      return entry.visible ? Boolean.TRUE : Boolean.FALSE;
+    return null;
+  }
+
+  static void put(ByteSequence expression, int authsId, int hash, boolean visible) {
+    table[hash & (SLOTS - 1)] = new Entry(expression.toArray(), authsId, hash, visible);
+  }
+}
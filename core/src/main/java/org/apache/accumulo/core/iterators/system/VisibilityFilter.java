@@ -28,7 +28,6 @@ import org.apache.accumulo.core.security.ColumnVisibility;
 import org.apache.accumulo.core.security.VisibilityEvaluator;
 import org.apache.accumulo.core.security.VisibilityParseException;
 import org.apache.accumulo.core.util.BadArgumentException;
-import org.apache.commons.collections.map.LRUMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,12 +36,19 @@ import org.slf4j.LoggerFactory;
  * {@link org.apache.accumulo.core.iterators.Filter} and all system iterators where wrapped with a <code>SynchronizedIterator</code> during creation of the
  * iterator stack in {@link org.apache.accumulo.core.iterators.IteratorUtil} .loadIterators(). For performance reasons, the synchronization was pushed down the
  * stack to this class.
+ * <p>
+ * Results are cached in a {@link VisibilityCache} shared by all instances, since a scan of a table with many distinct visibilities would otherwise evaluate
+ * the same expressions over and over.
  */
 public class VisibilityFilter extends SynchronizedServerFilter {
   protected VisibilityEvaluator ve;
   protected ByteSequence defaultVisibility;
-  protected LRUMap cache;
   protected Authorizations authorizations;
+  private final int authsId;
+
+  // neighboring keys usually have the same visibility, so remember the last result
+  private ByteSequence lastVisibility;
+  private boolean lastVisible;
 
   private static final Logger log = LoggerFactory.getLogger(VisibilityFilter.class);
 
@@ -51,7 +57,7 @@ public class VisibilityFilter extends SynchronizedServerFilter {
     this.ve = new VisibilityEvaluator(authorizations);
     this.authorizations = authorizations;
     this.defaultVisibility = new ArrayByteSequence(defaultVisibility);
-    this.cache = new LRUMap(1000);
+    this.authsId = VisibilityCache.getAuthsId(authorizations);
   }
 
   @Override
@@ -68,18 +74,24 @@ public class VisibilityFilter extends SynchronizedServerFilter {
     else if (testVis.length() == 0)
       testVis = defaultVisibility;
 
-    Boolean b = (Boolean) cache.get(testVis);
-    if (b != null)
-      return b;
-
-    try {
-      Boolean bb = ve.evaluate(new ColumnVisibility(testVis.toArray()));
-      cache.put(testVis, bb);
-      return bb;
-    } catch (VisibilityParseException | BadArgumentException e) {
-      log.error("Parse Error", e);
-      return false;
+    if (lastVisibility != null && lastVisibility.equals(testVis))
+      return lastVisible;
+
+    int hash = VisibilityCache.hash(testVis, authsId);
+    Boolean b = VisibilityCache.get(testVis, authsId, hash);
+    if (b == null) {
+      try {
+        b = ve.evaluate(new ColumnVisibility(testVis.toArray()));
+        VisibilityCache.put(testVis, authsId, hash, b);
+      } catch (VisibilityParseException | BadArgumentException e) {
+        log.error("Parse Error", e);
+        return false;
+      }
     }
+
+    lastVisibility = testVis;
+    lastVisible = b;
+    return b;
   }
 
   private static class EmptyAuthsVisibilityFilter extends SynchronizedServerFilter {
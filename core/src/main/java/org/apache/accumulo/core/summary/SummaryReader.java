@@ -79,24 +79,30 @@ public class SummaryReader {
     public CacheEntry getBlock(String blockName, Loader loader) {
       Loader idxLoader = new Loader() {
 
-        CacheEntry idxCacheEntry;
+        byte[] idxData;
 
         @Override
         public Map<String,Loader> getDependencies() {
-          idxCacheEntry = indexCache.getBlock(blockName);
+          CacheEntry idxCacheEntry = indexCache.getBlock(blockName);
           if (idxCacheEntry == null) {
             return loader.getDependencies();
           } else {
+            // the load may not happen, so do not hold on to the entry
+            try {
+              idxData = idxCacheEntry.getBuffer();
+            } finally {
+              idxCacheEntry.release();
+            }
             return Collections.emptyMap();
           }
         }
 
         @Override
         public byte[] load(int maxSize, Map<String,byte[]> dependencies) {
-          if (idxCacheEntry == null) {
+          if (idxData == null) {
             return loader.load(maxSize, dependencies);
           } else {
-            return idxCacheEntry.getBuffer();
+            return idxData;
           }
         }
       };
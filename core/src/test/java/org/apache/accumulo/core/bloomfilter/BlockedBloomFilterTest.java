@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.bloomfilter;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class BlockedBloomFilterTest {
+
+  private static long hash(String key) {
+    return BlockedBloomFilter.hash(key.getBytes(UTF_8));
+  }
+
+  @Test
+  public void testMembership() throws IOException {
+    int numKeys = 100000;
+    BlockedBloomFilter filter = new BlockedBloomFilter(BlockedBloomFilter.numBlocks(numKeys, .005));
+    for (int i = 0; i < numKeys; i++) {
+      filter.add(hash("row" + i));
+    }
+
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    filter.write(new DataOutputStream(baos), 0, filter.getNumBlocks());
+    byte[] serialized = baos.toByteArray();
+    assertEquals(filter.getNumBlocks() * BlockedBloomFilter.BLOCK_BYTES, serialized.length);
+    long[] words = BlockedBloomFilter.readBlocks(new DataInputStream(new ByteArrayInputStream(serialized)), filter.getNumBlocks());
+
+    for (int i = 0; i < numKeys; i++) {
+      long hash = hash("row" + i);
+      assertTrue(filter.membershipTest(hash));
+
+      // the serialized filter must give the same answer
+      assertTrue(BlockedBloomFilter.membershipTest(hash, words, BlockedBloomFilter.blockIndex(hash, filter.getNumBlocks())));
+    }
+
+    int falsePositives = 0;
+    for (int i = 0; i < numKeys; i++) {
+      if (filter.membershipTest(hash("other" + i)))
+        falsePositives++;
+    }
+
+    // sized for .5%, allow some slack
+    assertTrue("false positives " + falsePositives, falsePositives < numKeys * .01);
+  }
+}
@@ -1443,4 +1443,23 @@ public class TabletLocatorImplTest {
     runTest(null, ranges, metaCache, expected);
   }
 
+  @Test
+  public void testPrefetch() throws Exception {
+    KeyExtent ke1 = nke("foo", "g", null);
+    KeyExtent ke2 = nke("foo", "r", "g");
+    KeyExtent ke3 = nke("foo", null, "r");
+
+    TServers tservers = new TServers();
+    TabletLocatorImpl metaCache = createLocators(tservers, "tserver1", "tserver2", "foo", ke1, "l1", ke2, "l2", ke3, "l1");
+
+    assertEquals(3, metaCache.prefetch(context, 4));
+
+    // everything should now be served from the cache
+    deleteServer(tservers, "tserver2");
+
+    List<Range> ranges = nrl(new Range(new Text("a")), nr("h", "s"));
+    Map<String,Map<KeyExtent,List<Range>>> expected = createExpectedBinnings("l1", nol(ke1, nrl(new Range(new Text("a"))), ke3, nrl(nr("h", "s"))), "l2",
+        nol(ke2, nrl(nr("h", "s"))));
+    runTest(new Text("foo"), ranges, metaCache, expected);
+  }
 }
@@ -0,0 +1,378 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.client.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.accumulo.core.client.BatchWriterConfig;
+import org.apache.accumulo.core.client.Instance;
+import org.apache.accumulo.core.client.impl.TabletLocator.TabletServerMutations;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.impl.KeyExtent;
+import org.apache.accumulo.core.data.thrift.TMutation;
+import org.apache.accumulo.core.data.thrift.UpdateErrors;
+import org.apache.accumulo.core.tabletserver.thrift.TabletClientService;
+import org.apache.accumulo.core.util.HostAndPort;
+import org.apache.hadoop.io.Text;
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TabletServerBatchWriterTest {
+
+  private static final String SERVER = "localhost:9997";
+  private static final Table.ID TABLE = Table.ID.of("1");
+  private static final KeyExtent EXTENT = new KeyExtent(TABLE, null, null);
+  private static final long MB = 1 << 20;
+
+  private ClientContext context;
+
+  @Before
+  public void setup() {
+    context = EasyMock.createNiceMock(ClientContext.class);
+    EasyMock.replay(context);
+  }
+
+  @Test
+  public void testLimitHalves() {
+    TabletServerBatchWriter.SendLimits limits = new TabletServerBatchWriter.SendLimits(100 * MB);
+
+    // timely sends do not limit a tablet server that has none
+    limits.update(SERVER, 8 * MB, 0, false);
+    assertNull(limits.get(SERVER));
+
+    limits.update(SERVER, 8 * MB, TabletServerBatchWriter.SendLimits.SLOW_SEND_MILLIS + 1, false);
+    assertEquals(4 * MB, (long) limits.get(SERVER));
+
+    // halves the smaller of the limit and what was sent
+    limits.update(SERVER, 2 * MB, 0, true);
+    assertEquals(MB, (long) limits.get(SERVER));
+    limits.update(SERVER, 8 * MB, TabletServerBatchWriter.SendLimits.SLOW_SEND_MILLIS + 1, false);
+    assertEquals(MB / 2, (long) limits.get(SERVER));
+
+    // a send that takes exactly the threshold is still timely
+    limits.update(SERVER, MB / 2, TabletServerBatchWriter.SendLimits.SLOW_SEND_MILLIS, false);
+    assertEquals(MB / 2 + TabletServerBatchWriter.SendLimits.INCREMENT, (long) limits.get(SERVER));
+
+    assertNull(limits.get("otherserver:9997"));
+  }
+
+  @Test
+  public void testLimitFloor() {
+    TabletServerBatchWriter.SendLimits limits = new TabletServerBatchWriter.SendLimits(100 * MB);
+
+    limits.update(SERVER, 1000, 0, true);
+    assertEquals(TabletServerBatchWriter.SendLimits.MIN_LIMIT, (long) limits.get(SERVER));
+
+    limits.update(SERVER, 8 * MB, 0, true);
+    for (int i = 0; i < 10; i++) {
+      limits.update(SERVER, 8 * MB, 0, true);
+    }
+    assertEquals(TabletServerBatchWriter.SendLimits.MIN_LIMIT, (long) limits.get(SERVER));
+  }
+
+  @Test
+  public void testLimitIncreases() {
+    TabletServerBatchWriter.SendLimits limits = new TabletServerBatchWriter.SendLimits(100 * MB);
+
+    limits.update(SERVER, 8 * MB, 0, true);
+    assertEquals(4 * MB, (long) limits.get(SERVER));
+
+    for (int i = 1; i <= 5; i++) {
+      limits.update(SERVER, MB, 10, false);
+      assertEquals(4 * MB + i * TabletServerBatchWriter.SendLimits.INCREMENT, (long) limits.get(SERVER));
+    }
+  }
+
+  @Test
+  public void testLimitRemoved() {
+    TabletServerBatchWriter.SendLimits limits = new TabletServerBatchWriter.SendLimits(10 * MB);
+
+    limits.update(SERVER, 8 * MB, 0, true);
+    for (long expected = 5 * MB; expected < 10 * MB; expected += TabletServerBatchWriter.SendLimits.INCREMENT) {
+      limits.update(SERVER, MB, 10, false);
+      assertEquals(expected, (long) limits.get(SERVER));
+    }
+
+    // the next increase would allow all of the batch writer's memory, so the limit goes away
+    limits.update(SERVER, MB, 10, false);
+    assertNull(limits.get(SERVER));
+  }
+
+  @Test
+  public void testSplitOff() {
+    TabletServerMutations<Mutation> tsmuts = new TabletServerMutations<>("session");
+    List<Mutation> added = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      Mutation m = newMutation("row", i, 100);
+      added.add(m);
+      tsmuts.addMutation(EXTENT, m);
+    }
+
+    // nothing is split off when everything fits
+    assertNull(TabletServerBatchWriter.splitOff(tsmuts, 100 * MB));
+    assertEquals(added, tsmuts.getMutations().get(EXTENT));
+
+    long size = added.get(0).estimatedMemoryUsed();
+    TabletServerMutations<Mutation> remaining = TabletServerBatchWriter.splitOff(tsmuts, 3 * size - 1);
+    assertEquals(added.subList(0, 3), tsmuts.getMutations().get(EXTENT));
+    assertEquals(added.subList(3, 5), remaining.getMutations().get(EXTENT));
+    assertEquals("session", remaining.getSession());
+
+    // at least one mutation is always sent, even if it is over the limit
+    TabletServerMutations<Mutation> rest = TabletServerBatchWriter.splitOff(remaining, 1);
+    assertEquals(added.subList(3, 4), remaining.getMutations().get(EXTENT));
+    assertEquals(added.subList(4, 5), rest.getMutations().get(EXTENT));
+  }
+
+  @Test
+  public void testSplitOffExtents() {
+    KeyExtent extent1 = new KeyExtent(TABLE, new Text("m"), null);
+    KeyExtent extent2 = new KeyExtent(TABLE, null, new Text("m"));
+    TabletServerMutations<Mutation> tsmuts = new TabletServerMutations<>("session");
+    for (int i = 0; i < 4; i++) {
+      tsmuts.addMutation(extent1, newMutation("a", i, 100));
+      tsmuts.addMutation(extent2, newMutation("z", i, 100));
+    }
+
+    // only the first extent fits, so all of the second is split off and no empty list is left behind for it
+    long size = tsmuts.getMutations().get(extent1).get(0).estimatedMemoryUsed();
+    TabletServerMutations<Mutation> remaining = TabletServerBatchWriter.splitOff(tsmuts, 4 * size);
+    assertEquals(1, tsmuts.getMutations().size());
+    assertEquals(1, remaining.getMutations().size());
+    KeyExtent kept = tsmuts.getMutations().keySet().iterator().next();
+    assertEquals(4, tsmuts.getMutations().get(kept).size());
+    assertEquals(4, remaining.getMutations().get(kept.equals(extent1) ? extent2 : extent1).size());
+  }
+
+  @Test(timeout = 60000)
+  public void testFlushSendsLeftovers() throws Exception {
+    FakeServer server = new FakeServer(null);
+    TestWriter bw = new TestWriter(4 * MB, server);
+    // a failed send leaves the server with the minimum limit
+    bw.sendLimits.update(SERVER, 0, 0, true);
+
+    for (int i = 0; i < 100; i++) {
+      bw.addMutation(TABLE, newMutation("row", i, 10000));
+    }
+
+    // the 1MB of mutations is over the limit, so flush has to wait for what is left queued after the first send
+    bw.flush();
+    assertTrue(server.batches.size() > 1);
+    server.assertReceivedInOrder(100);
+
+    bw.close();
+  }
+
+  @Test(timeout = 60000)
+  public void testCloseSendsLeftovers() throws Exception {
+    FakeServer server = new FakeServer(null);
+    TestWriter bw = new TestWriter(4 * MB, server);
+    bw.sendLimits.update(SERVER, 0, 0, true);
+
+    for (int i = 0; i < 100; i++) {
+      bw.addMutation(TABLE, newMutation("row", i, 10000));
+    }
+
+    bw.close();
+    assertTrue(server.batches.size() > 1);
+    server.assertReceivedInOrder(100);
+  }
+
+  @Test(timeout = 60000)
+  public void testOrderKeptAcrossSplitBatches() throws Exception {
+    CountDownLatch firstSend = new CountDownLatch(1);
+    FakeServer server = new FakeServer(firstSend);
+    TestWriter bw = new TestWriter(4 * MB, server);
+    bw.sendLimits.update(SERVER, 0, 0, true);
+
+    // reaching half of the memory starts sending, and the first send blocks with most of these left queued
+    for (int i = 0; i < 100; i++) {
+      bw.addMutation(TABLE, newMutation("row", i, 25000));
+    }
+    while (server.batches.isEmpty()) {
+      Thread.sleep(10);
+    }
+
+    // the same row again, binned while what was left of the first mutations is still queued
+    AtomicReference<Exception> error = new AtomicReference<>();
+    Thread flusher = new Thread(() -> {
+      try {
+        for (int i = 100; i < 150; i++) {
+          bw.addMutation(TABLE, newMutation("row", i, 25000));
+        }
+        bw.flush();
+      } catch (Exception e) {
+        error.set(e);
+      }
+    });
+    flusher.start();
+    while (bw.locator.binned.get() < 150) {
+      Thread.sleep(10);
+    }
+
+    firstSend.countDown();
+    flusher.join();
+    assertNull(error.get());
+
+    assertTrue(server.batches.size() > 2);
+    server.assertReceivedInOrder(150);
+
+    bw.close();
+  }
+
+  private static Mutation newMutation(String row, int seq, int valueSize) {
+    Mutation m = new Mutation(row);
+    m.put("f", String.format("%06d", seq), new String(new char[valueSize]).replace('\0', 'v'));
+    return m;
+  }
+
+  /**
+   * Records the mutations sent to it, in the order they arrive, grouped by the send they were part of.
+   */
+  private static class FakeServer {
+
+    final List<List<Mutation>> batches = Collections.synchronizedList(new ArrayList<List<Mutation>>());
+    private final CountDownLatch firstSend;
+
+    FakeServer(CountDownLatch firstSend) {
+      this.firstSend = firstSend;
+    }
+
+    TabletClientService.Iface newClient() {
+      return (TabletClientService.Iface) Proxy.newProxyInstance(TabletClientService.Iface.class.getClassLoader(),
+          new Class<?>[] {TabletClientService.Iface.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+              case "startUpdate":
+                batches.add(new ArrayList<Mutation>());
+                if (batches.size() == 1 && firstSend != null)
+                  firstSend.await();
+                return (long) batches.size();
+              case "applyUpdates":
+                for (Object tm : (List<?>) args[3])
+                  batches.get(batches.size() - 1).add(new Mutation((TMutation) tm));
+                return null;
+              case "closeUpdate":
+                return new UpdateErrors(Collections.emptyMap(), Collections.emptyList(), Collections.emptyMap());
+              case "update":
+                batches.add(new ArrayList<>(Collections.singletonList(new Mutation((TMutation) args[3]))));
+                return null;
+              default:
+                throw new UnsupportedOperationException(method.getName());
+            }
+          });
+    }
+
+    void assertReceivedInOrder(int count) {
+      List<String> expected = new ArrayList<>();
+      List<String> received = new ArrayList<>();
+      for (int i = 0; i < count; i++) {
+        expected.add(String.format("%06d", i));
+      }
+      synchronized (batches) {
+        for (List<Mutation> batch : batches) {
+          for (Mutation m : batch) {
+            received.add(new String(m.getUpdates().get(0).getColumnQualifier(), UTF_8));
+          }
+        }
+      }
+      assertEquals(expected, received);
+    }
+  }
+
+  /**
+   * Places all of a table on one tablet server.
+   */
+  private static class FakeLocator extends TabletLocator {
+
+    final AtomicInteger binned = new AtomicInteger();
+
+    @Override
+    public TabletLocation locateTablet(ClientContext context, Text row, boolean skipRow, boolean retry) {
+      return new TabletLocation(EXTENT, SERVER, "session");
+    }
+
+    @Override
+    public <T extends Mutation> void binMutations(ClientContext context, List<T> mutations, Map<String,TabletServerMutations<T>> binnedMutations,
+        List<T> failures) {
+      TabletServerMutations<T> tsmuts = binnedMutations.get(SERVER);
+      if (tsmuts == null) {
+        tsmuts = new TabletServerMutations<>("session");
+        binnedMutations.put(SERVER, tsmuts);
+      }
+      for (T m : mutations)
+        tsmuts.addMutation(EXTENT, m);
+      binned.addAndGet(mutations.size());
+    }
+
+    @Override
+    public List<Range> binRanges(ClientContext context, List<Range> ranges, Map<String,Map<KeyExtent,List<Range>>> binnedRanges) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void invalidateCache(KeyExtent failedExtent) {}
+
+    @Override
+    public void invalidateCache(Collection<KeyExtent> keySet) {}
+
+    @Override
+    public void invalidateCache() {}
+
+    @Override
+    public void invalidateCache(Instance instance, String server) {}
+  }
+
+  private class TestWriter extends TabletServerBatchWriter {
+
+    final FakeLocator locator = new FakeLocator();
+    private final FakeServer server;
+
+    TestWriter(long maxMem, FakeServer server) {
+      super(context, new BatchWriterConfig().setMaxMemory(maxMem));
+      this.server = server;
+    }
+
+    @Override
+    TabletLocator createLocator(Table.ID tableId) {
+      return locator;
+    }
+
+    @Override
+    TabletClientService.Iface getClient(HostAndPort address, long timeout) {
+      assertEquals(SERVER, address.toString());
+      return server.newClient();
+    }
+
+    @Override
+    void returnClient(TabletClientService.Iface client) {}
+  }
+}
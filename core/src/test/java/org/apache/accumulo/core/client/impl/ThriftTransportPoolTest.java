@@ -0,0 +1,315 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.client.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.client.impl.ThriftTransportPool.TransportPoolShutdownException;
+import org.apache.accumulo.core.util.HostAndPort;
+import org.apache.thrift.transport.TTransport;
+import org.apache.thrift.transport.TTransportException;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ThriftTransportPoolTest {
+
+  private static final ThriftTransportKey SERVER1 = new ThriftTransportKey(HostAndPort.fromParts("server1", 9997), 1000, null, null);
+  private static final ThriftTransportKey SERVER2 = new ThriftTransportKey(HostAndPort.fromParts("server2", 9997), 1000, null, null);
+
+  private List<FakeTransport> created;
+  private TestPool pool;
+
+  @Before
+  public void setup() {
+    created = Collections.synchronizedList(new ArrayList<FakeTransport>());
+    pool = new TestPool();
+  }
+
+  @Test
+  public void testReuseMostRecentlyReturned() throws Exception {
+    TTransport t1 = pool.getTransport(SERVER1);
+    TTransport t2 = pool.getTransport(SERVER1);
+    assertNotSame(t1, t2);
+    assertEquals(2, created.size());
+
+    pool.returnTransport(t1);
+    pool.returnTransport(t2);
+    assertSame(t2, pool.getTransport(SERVER1));
+    assertSame(t1, pool.getTransport(SERVER1));
+
+    // connections are not shared between servers
+    assertNotSame(t1, pool.getTransport(SERVER2));
+    assertEquals(3, created.size());
+  }
+
+  @Test(timeout = 60000)
+  public void testReserveAndReturnAcrossThreads() throws Exception {
+    final int numThreads = 8;
+    final Set<TTransport> inUse = Collections.newSetFromMap(new ConcurrentHashMap<TTransport,Boolean>());
+    final CyclicBarrier start = new CyclicBarrier(numThreads);
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < numThreads; i++) {
+        final ThriftTransportKey key = i % 2 == 0 ? SERVER1 : SERVER2;
+        futures.add(executor.submit(() -> {
+          start.await();
+          for (int j = 0; j < 1000; j++) {
+            TTransport transport = pool.getTransport(key);
+            assertEquals(key, ((ThriftTransportPool.CachedTTransport) transport).getCacheKey());
+            // no other thread may be using a reserved connection
+            assertTrue(inUse.add(transport));
+            assertTrue(inUse.remove(transport));
+            pool.returnTransport(transport);
+          }
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // never more connections than threads wanting one at the same time, and all of them returned to the pool
+    assertTrue(created.size() <= numThreads);
+    for (FakeTransport transport : created) {
+      assertFalse(transport.closed);
+    }
+  }
+
+  @Test
+  public void testEvictionAfterError() throws Exception {
+    TTransport t1 = pool.getTransport(SERVER1);
+    TTransport t2 = pool.getTransport(SERVER1);
+    TTransport t3 = pool.getTransport(SERVER1);
+    TTransport other = pool.getTransport(SERVER2);
+    pool.returnTransport(t2);
+    pool.returnTransport(t3);
+    pool.returnTransport(other);
+
+    created.get(0).failWrites = true;
+    try {
+      t1.write(new byte[1]);
+      fail("write should have failed");
+    } catch (TTransportException e) {
+      // expected
+    }
+    pool.returnTransport(t1);
+
+    // an error closes the failed connection and every idle connection to the same server
+    assertTrue(created.get(0).closed);
+    assertTrue(created.get(1).closed);
+    assertTrue(created.get(2).closed);
+    assertFalse(created.get(3).closed);
+
+    pool.getTransport(SERVER1);
+    assertEquals(5, created.size());
+    assertSame(other, pool.getTransport(SERVER2));
+  }
+
+  @Test
+  public void testEvictionLeavesReservedConnections() throws Exception {
+    TTransport t1 = pool.getTransport(SERVER1);
+    TTransport t2 = pool.getTransport(SERVER1);
+
+    created.get(0).failWrites = true;
+    try {
+      t1.write(new byte[1]);
+      fail("write should have failed");
+    } catch (TTransportException e) {
+      // expected
+    }
+    pool.returnTransport(t1);
+
+    // a connection in use when another had an error is closed by neither, and is reused once returned
+    assertFalse(created.get(1).closed);
+    pool.returnTransport(t2);
+    assertSame(t2, pool.getTransport(SERVER1));
+    assertEquals(2, created.size());
+  }
+
+  @Test
+  public void testCloseIdleConnections() throws Exception {
+    TTransport t1 = pool.getTransport(SERVER1);
+    TTransport t2 = pool.getTransport(SERVER1);
+    TTransport t3 = pool.getTransport(SERVER1);
+
+    pool.returnTransport(t1);
+    Thread.sleep(500);
+    pool.returnTransport(t2);
+
+    // only the connection idle for longer than the idle time is closed
+    pool.setIdleTime(250);
+    pool.closeExpiredConnections();
+    assertTrue(created.get(0).closed);
+    assertFalse(created.get(1).closed);
+    // connections in use are never idle
+    assertFalse(created.get(2).closed);
+
+    // the closed connection is no longer pooled, so another one has to be created once t2 is reused
+    assertSame(t2, pool.getTransport(SERVER1));
+    TTransport t4 = pool.getTransport(SERVER1);
+    assertEquals(4, created.size());
+
+    pool.returnTransport(t2);
+    pool.returnTransport(t3);
+    pool.returnTransport(t4);
+    Thread.sleep(10);
+    pool.setIdleTime(0);
+    pool.closeExpiredConnections();
+    for (FakeTransport transport : created) {
+      assertTrue(transport.closed);
+    }
+    pool.getTransport(SERVER1);
+    assertEquals(5, created.size());
+  }
+
+  @Test
+  public void testShutdownClosesAll() throws Exception {
+    pool.getTransport(SERVER1);
+    TTransport t2 = pool.getTransport(SERVER2);
+    pool.returnTransport(t2);
+
+    pool.shutdown();
+    assertTrue(created.get(0).closed);
+    assertTrue(created.get(1).closed);
+
+    try {
+      pool.getTransport(SERVER1);
+      fail("pool should be shut down");
+    } catch (TransportPoolShutdownException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testShutdownDuringCreate() throws Exception {
+    // shut down after the new connection is opened but before the pool tracks it
+    pool.beforeCreate = () -> pool.shutdown();
+    try {
+      pool.getTransport(SERVER1);
+      fail("pool should be shut down");
+    } catch (TransportPoolShutdownException e) {
+      // expected
+    }
+
+    assertEquals(1, created.size());
+    assertTrue(created.get(0).closed);
+  }
+
+  @Test(timeout = 60000)
+  public void testShutdownRacingCreate() throws Exception {
+    final int numThreads = 8;
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < numThreads; i++) {
+        final ThriftTransportKey key = i % 2 == 0 ? SERVER1 : SERVER2;
+        futures.add(executor.submit(() -> {
+          try {
+            // hold on to every connection, so each request creates a new one
+            while (true) {
+              pool.getTransport(key);
+            }
+          } catch (TransportPoolShutdownException e) {
+            return null;
+          }
+        }));
+      }
+
+      while (created.size() < 100) {
+        Thread.sleep(1);
+      }
+      pool.shutdown();
+
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // whether shutdown found a connection in the pool or its creator saw the shutdown, nothing is left open
+    synchronized (created) {
+      for (FakeTransport transport : created) {
+        assertTrue(transport.closed);
+      }
+    }
+  }
+
+  private class TestPool extends ThriftTransportPool {
+
+    volatile Runnable beforeCreate;
+
+    @Override
+    TTransport createTransport(ThriftTransportKey cacheKey) throws TTransportException {
+      FakeTransport transport = new FakeTransport();
+      created.add(transport);
+      if (beforeCreate != null)
+        beforeCreate.run();
+      return transport;
+    }
+  }
+
+  private static class FakeTransport extends TTransport {
+
+    volatile boolean closed = false;
+    volatile boolean failWrites = false;
+
+    @Override
+    public boolean isOpen() {
+      return !closed;
+    }
+
+    @Override
+    public void open() {}
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+
+    @Override
+    public int read(byte[] buf, int off, int len) throws TTransportException {
+      throw new TTransportException("unsupported");
+    }
+
+    @Override
+    public void write(byte[] buf, int off, int len) throws TTransportException {
+      if (failWrites)
+        throw new TTransportException("failed");
+    }
+  }
+}
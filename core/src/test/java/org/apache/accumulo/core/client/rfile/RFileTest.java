@@ -18,6 +18,7 @@
 package org.apache.accumulo.core.client.rfile;
 
 import java.io.File;
+import java.io.FilenameFilter;
 import java.io.IOException;
 import java.util.AbstractMap;
 import java.util.ArrayList;
@@ -801,4 +802,118 @@ public class RFileTest {
     Assert.assertEquals(testData, toMap(scanner));
     scanner.close();
   }
+
+  @Test
+  public void testPartitionedWriter() throws Exception {
+    SortedMap<Key,Value> testData = createTestData(200, 5, 5);
+    List<Text> splits = Arrays.asList(new Text(rowStr(150)), new Text(rowStr(50)), new Text(rowStr(100)));
+
+    final List<Entry<Key,Value>> shuffled = new ArrayList<>(testData.entrySet());
+    Collections.shuffle(shuffled, new Random(42));
+
+    LocalFileSystem localFs = FileSystem.getLocal(new Configuration());
+    String dir = createTmpTestFile().replace(".rf", "");
+
+    // a small buffer, so that every partition is spilled and merged
+    final RFilePartitionedWriter writer = RFile.newPartitionedWriter().to(dir).withFileSystem(localFs).withSplits(splits).withBufferSize(10000)
+        .withThreads(2).build();
+
+    List<Thread> threads = new ArrayList<>();
+    final List<Exception> errors = Collections.synchronizedList(new ArrayList<Exception>());
+    for (int t = 0; t < 4; t++) {
+      final int offset = t;
+      Thread thread = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            for (int i = offset; i < shuffled.size(); i += 4) {
+              writer.append(shuffled.get(i).getKey(), shuffled.get(i).getValue());
+            }
+          } catch (Exception e) {
+            errors.add(e);
+          }
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    writer.close();
+    Assert.assertEquals(Collections.emptyList(), errors);
+
+    List<String> files = new ArrayList<>();
+    for (File file : new File(dir).listFiles()) {
+      if (!file.getName().startsWith("."))
+        files.add(file.getName());
+    }
+    Collections.sort(files);
+    Assert.assertEquals(Arrays.asList("part-00000.rf", "part-00001.rf", "part-00002.rf", "part-00003.rf"), files);
+    assertNoSpillDirs(dir);
+
+    String[] bounds = {null, rowStr(50), rowStr(100), rowStr(150), null};
+    for (int i = 0; i < files.size(); i++) {
+      Range tablet = new Range(bounds[i], false, bounds[i + 1], true);
+      SortedMap<Key,Value> expected = new TreeMap<>();
+      for (Entry<Key,Value> entry : testData.entrySet()) {
+        if (tablet.contains(entry.getKey()))
+          expected.put(entry.getKey(), entry.getValue());
+      }
+
+      Scanner scanner = RFile.newScanner().from(dir + "/" + files.get(i)).withFileSystem(localFs).build();
+      Assert.assertEquals(expected, toMap(scanner));
+      scanner.close();
+    }
+  }
+
+  @Test
+  public void testPartitionedWriterFailure() throws Exception {
+    SortedMap<Key,Value> testData = createTestData(200, 5, 5);
+    List<Text> splits = Arrays.asList(new Text(rowStr(100)));
+
+    LocalFileSystem localFs = FileSystem.getLocal(new Configuration());
+    String dir = createTmpTestFile().replace(".rf", "");
+
+    RFilePartitionedWriter writer = RFile.newPartitionedWriter().to(dir).withFileSystem(localFs).withSplits(splits).withBufferSize(10000).withThreads(2)
+        .build();
+    for (Entry<Key,Value> entry : testData.entrySet()) {
+      writer.append(entry.getKey(), entry.getValue());
+    }
+
+    // spill files go next to the output directory, not into it
+    final String name = new File(dir).getName();
+    File[] spillDirs = new File(dir).getParentFile().listFiles(new FilenameFilter() {
+      @Override
+      public boolean accept(File parent, String file) {
+        return file.startsWith(name + "_spill_");
+      }
+    });
+    Assert.assertEquals(1, spillDirs.length);
+    Assert.assertTrue(spillDirs[0].list().length > 0);
+
+    // a directory where the first partition's RFile should go makes writing it fail
+    Assert.assertTrue(new File(dir, "part-00000.rf").mkdirs());
+    try {
+      writer.close();
+      Assert.fail("Expected close to fail");
+    } catch (IOException e) {
+      // expected
+    }
+
+    assertNoSpillDirs(dir);
+    for (File file : new File(dir).listFiles()) {
+      Assert.assertTrue(file.getName(), file.getName().startsWith("part-") || file.getName().startsWith("."));
+    }
+  }
+
+  private void assertNoSpillDirs(String dir) {
+    File directory = new File(dir);
+    for (File file : directory.getParentFile().listFiles()) {
+      Assert.assertFalse("Spill directory left behind: " + file, file.getName().startsWith(directory.getName() + "_spill"));
+    }
+    for (File file : directory.listFiles()) {
+      Assert.assertFalse("Spill file left in output directory: " + file, file.isDirectory() && !file.getName().startsWith("part-"));
+    }
+  }
 }
@@ -20,10 +20,13 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.accumulo.core.conf.ConfigurationCopy;
 import org.apache.accumulo.core.conf.DefaultConfiguration;
@@ -59,6 +62,15 @@ public class BloomFilterLayerLookupTest {
 
   @Test
   public void test() throws IOException {
+    test(BloomFilterLayer.BLOCKED_FORMAT);
+  }
+
+  @Test
+  public void testDynamic() throws IOException {
+    test(BloomFilterLayer.DYNAMIC_FORMAT);
+  }
+
+  private void test(String format) throws IOException {
     HashSet<Integer> valsSet = new HashSet<>();
     for (int i = 0; i < 100000; i++) {
       valsSet.add(random.nextInt(Integer.MAX_VALUE));
@@ -73,6 +85,7 @@ public class BloomFilterLayerLookupTest {
     acuconf.set(Property.TABLE_FILE_TYPE, RFile.EXTENSION);
     acuconf.set(Property.TABLE_BLOOM_LOAD_THRESHOLD, "1");
     acuconf.set(Property.TSERV_BLOOM_LOAD_MAXCONCURRENT, "1");
+    acuconf.set(Property.TABLE_BLOOM_FORMAT, format);
 
     Configuration conf = CachedConfiguration.getInstance();
     FileSystem fs = FileSystem.get(conf);
@@ -136,6 +149,53 @@ public class BloomFilterLayerLookupTest {
     assertTrue(rate1 > rate2);
   }
 
+  @Test
+  public void testBlockedPartitionsReadOnce() throws Exception {
+    ConfigurationCopy acuconf = new ConfigurationCopy(DefaultConfiguration.getInstance());
+    acuconf.set(Property.TABLE_BLOOM_ENABLED, "true");
+    acuconf.set(Property.TABLE_FILE_TYPE, RFile.EXTENSION);
+    acuconf.set(Property.TABLE_BLOOM_FORMAT, BloomFilterLayer.BLOCKED_FORMAT);
+
+    Configuration conf = CachedConfiguration.getInstance();
+    FileSystem fs = FileSystem.get(conf);
+    String fname = new File(tempDir.getRoot(), testName.getMethodName() + "." + FileOperations.getNewFileExtension(acuconf)).getAbsolutePath();
+    FileSKVWriter writer = FileOperations.getInstance().newWriterBuilder().forFile(fname, fs, conf).withTableConfiguration(acuconf).build();
+    writer.startDefaultLocalityGroup();
+    for (int i = 0; i < 100000; i++) {
+      writer.append(new Key(new Text(String.format("r%08d", i))), new Value(new byte[0]));
+    }
+    writer.close();
+
+    // read the filter through a plain reader, without any cache, counting the meta stores it opens
+    acuconf.set(Property.TABLE_BLOOM_ENABLED, "false");
+    FileSKVIterator reader = FileOperations.getInstance().newReaderBuilder().forFile(fname, fs, conf).withTableConfiguration(acuconf).build();
+    AtomicInteger metaReads = new AtomicInteger();
+    FileSKVIterator counting = (FileSKVIterator) Proxy.newProxyInstance(FileSKVIterator.class.getClassLoader(), new Class<?>[] {FileSKVIterator.class},
+        (proxy, method, args) -> {
+          if (method.getName().equals("getMetaStore"))
+            metaReads.incrementAndGet();
+          try {
+            return method.invoke(reader, args);
+          } catch (InvocationTargetException e) {
+            throw e.getCause();
+          }
+        });
+
+    BloomFilterLayer.BlockedBloomFilterReader bloom = BloomFilterLayer.BlockedBloomFilterReader.open(counting, null);
+    int headerReads = metaReads.get();
+
+    for (int pass = 0; pass < 2; pass++) {
+      for (int i = 0; i < 100000; i += 7) {
+        assertTrue(bloom.probablyHasKey(Range.exact(String.format("r%08d", i))));
+      }
+    }
+
+    // the filter has several partitions, each read once no matter how many lookups touch it
+    int partitionReads = metaReads.get() - headerReads;
+    assertTrue("partition reads " + partitionReads, partitionReads > 1 && partitionReads < 10);
+    reader.close();
+  }
+
   private void seek(FileSKVIterator bmfr, int row) throws IOException {
     String fi = String.format("%010d", row);
     // bmfr.seek(new Range(new Text("r"+fi)));
@@ -0,0 +1,284 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.accumulo.core.conf.ConfigurationCopy;
+import org.apache.accumulo.core.conf.DefaultConfiguration;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.file.blockfile.cache.CacheEntry.Weighbable;
+import org.apache.accumulo.core.file.blockfile.cache.impl.BlockCacheConfiguration;
+import org.apache.accumulo.core.file.blockfile.cache.impl.BlockCacheManagerFactory;
+import org.apache.accumulo.core.file.blockfile.cache.offheap.OffHeapBlockCache;
+import org.apache.accumulo.core.file.blockfile.cache.offheap.OffHeapBlockCacheManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestOffHeapBlockCache {
+
+  private BlockCacheManager manager;
+  private OffHeapBlockCache cache;
+
+  @Before
+  public void setup() throws Exception {
+    ConfigurationCopy cc = new ConfigurationCopy(DefaultConfiguration.getInstance());
+    cc.set(Property.TSERV_CACHE_MANAGER_IMPL, OffHeapBlockCacheManager.class.getName());
+    cc.set(Property.TSERV_DEFAULT_BLOCKSIZE, Long.toString(1024));
+    cc.set(Property.TSERV_DATACACHE_SIZE, Long.toString(100 * 1024));
+    cc.set(BlockCacheManager.getFullyQualifiedPropertyPrefix(OffHeapBlockCache.PROPERTY_PREFIX) + OffHeapBlockCache.PAGE_SIZE_PROPERTY, "1024");
+    cc.set(BlockCacheManager.getFullyQualifiedPropertyPrefix(OffHeapBlockCache.PROPERTY_PREFIX) + OffHeapBlockCache.SLAB_SIZE_PROPERTY, "8192");
+    cc.set(BlockCacheManager.getFullyQualifiedPropertyPrefix(OffHeapBlockCache.PROPERTY_PREFIX) + OffHeapBlockCache.INDEX_SIZE_PROPERTY, "1000");
+    manager = BlockCacheManagerFactory.getInstance(cc);
+    manager.start(new BlockCacheConfiguration(cc));
+    cache = (OffHeapBlockCache) manager.getBlockCache(CacheType.DATA);
+  }
+
+  @After
+  public void teardown() {
+    manager.stop();
+  }
+
+  private static byte[] randomBlock(Random rand, int size) {
+    byte[] block = new byte[size];
+    rand.nextBytes(block);
+    return block;
+  }
+
+  /**
+   * Copies the contents of an entry and releases it.
+   */
+  private static byte[] contents(CacheEntry ce) {
+    try {
+      ByteBuffer bb = ce.getByteBuffer();
+      byte[] copy = new byte[bb.remaining()];
+      bb.duplicate().get(copy);
+      return copy;
+    } finally {
+      ce.release();
+    }
+  }
+
+  @Test
+  public void testCacheBlock() {
+    // 96K of cache, as 12 slabs of 8 pages
+    assertEquals(96 * 1024, cache.getMaxSize());
+    assertEquals(0, cache.getCurrentSize());
+
+    Random rand = new Random(5);
+    byte[] b1 = randomBlock(rand, 3000);
+    byte[] b2 = randomBlock(rand, 1024);
+
+    assertNull(cache.getBlock("b1"));
+    cache.cacheBlock("b1", b1);
+    cache.cacheBlock("b2", b2);
+
+    CacheEntry ce = cache.getBlock("b1");
+    assertNotNull(ce);
+    // cached blocks are read in place, without copying them to the heap
+    assertTrue(ce.getByteBuffer().isDirect());
+    assertArrayEquals(b1, contents(ce));
+    assertArrayEquals(b2, contents(cache.getBlock("b2")));
+
+    assertEquals(2, cache.getBlockCount());
+    assertEquals(4 * 1024, cache.getCurrentSize());
+    assertEquals(1.0 - 4024.0 / 4096.0, cache.getFragmentation(), 0.0001);
+
+    assertEquals(3, cache.getStats().requestCount());
+    assertEquals(2, cache.getStats().hitCount());
+
+    // caching the same block again should not use more memory
+    cache.cacheBlock("b1", b1);
+    assertEquals(4 * 1024, cache.getCurrentSize());
+  }
+
+  @Test
+  public void testEviction() {
+    Random rand = new Random(7);
+    List<byte[]> blocks = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      byte[] block = randomBlock(rand, 2000 + rand.nextInt(3000));
+      blocks.add(block);
+      cache.cacheBlock("b" + i, block);
+      assertTrue(cache.getCurrentSize() <= cache.getMaxSize());
+
+      // keep accessing the first block, so that it is never evicted
+      assertArrayEquals(blocks.get(0), contents(cache.getBlock("b0")));
+    }
+
+    assertTrue(cache.getEvictedCount() > 0);
+    assertEquals(0, cache.getUncachedCount());
+
+    int cached = 0;
+    for (int i = 0; i < 100; i++) {
+      CacheEntry ce = cache.getBlock("b" + i);
+      if (ce != null) {
+        assertArrayEquals(blocks.get(i), contents(ce));
+        cached++;
+      }
+    }
+    assertEquals(cache.getBlockCount(), cached);
+    assertTrue(cached < 100);
+
+    // a block larger than the cache is returned, but not cached
+    byte[] large = randomBlock(rand, 200 * 1024);
+    assertSame(large, cache.cacheBlock("large", large).getBuffer());
+    assertNull(cache.getBlock("large"));
+    assertEquals(1, cache.getUncachedCount());
+  }
+
+  private static class TestIndex implements Weighbable {
+    @Override
+    public int weight() {
+      return 10;
+    }
+  }
+
+  @Test
+  public void testLoaderAndIndex() {
+    byte[] data = randomBlock(new Random(11), 1500);
+
+    BlockCache.Loader loader = new BlockCache.Loader() {
+      @Override
+      public Map<String,BlockCache.Loader> getDependencies() {
+        return Collections.emptyMap();
+      }
+
+      @Override
+      public byte[] load(int maxSize, Map<String,byte[]> dependencies) {
+        return data;
+      }
+    };
+
+    CacheEntry ce = cache.getBlock("b1", loader);
+    assertArrayEquals(data, ce.getBuffer());
+    TestIndex index = ce.getIndex(TestIndex::new);
+    ce.indexWeightChanged();
+    ce.release();
+    assertEquals(10, cache.getIndexSize());
+
+    // the second lookup should come from the cache, along with the index built on the first lookup
+    ce = cache.getBlock("b1", loader);
+    assertSame(index, ce.getIndex(TestIndex::new));
+    assertArrayEquals(data, contents(ce));
+    assertEquals(1, cache.getStats().hitCount());
+  }
+
+  @Test
+  public void testReleaseAfterEviction() {
+    Random rand = new Random(13);
+    byte[] b0 = randomBlock(rand, 4000);
+    cache.cacheBlock("b0", b0);
+
+    // hold on to the block while the rest of the cache is filled, which evicts it
+    CacheEntry held = cache.getBlock("b0");
+    for (int i = 1; i < 100; i++) {
+      cache.cacheBlock("b" + i, randomBlock(rand, 4000));
+    }
+    assertNull(cache.getBlock("b0"));
+
+    // the pages of an evicted block are not reused until it is released
+    assertEquals(1, cache.getOpenEntryCount());
+    assertArrayEquals(b0, contents(held));
+    assertEquals(0, cache.getOpenEntryCount());
+    for (int i = 100; i < 200; i++) {
+      cache.cacheBlock("b" + i, randomBlock(rand, 4000));
+    }
+    assertTrue(cache.getCurrentSize() <= cache.getMaxSize());
+
+    // releasing again has no effect
+    held.release();
+    assertEquals(cache.getBlockCount() * 4 * 1024, cache.getCurrentSize());
+  }
+
+  private static class HeavyIndex implements Weighbable {
+    @Override
+    public int weight() {
+      return 300;
+    }
+  }
+
+  @Test
+  public void testIndexSizeLimit() {
+    Random rand = new Random(17);
+    for (int i = 0; i < 20; i++) {
+      cache.cacheBlock("b" + i, randomBlock(rand, 1000));
+      CacheEntry ce = cache.getBlock("b" + i);
+      assertNotNull(ce.getIndex(HeavyIndex::new));
+      ce.indexWeightChanged();
+      ce.release();
+      assertTrue(cache.getIndexSize() <= 1000);
+    }
+
+    // indexes are dropped without evicting the blocks they were built on
+    assertEquals(20, cache.getBlockCount());
+    assertEquals(0, cache.getEvictedCount());
+    assertTrue(cache.getIndexSize() > 0);
+    assertTrue(cache.getMaxHeapSize() >= 1000);
+  }
+
+  @Test
+  public void testConcurrentAccess() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        int seed = t;
+        futures.add(executor.submit(() -> {
+          Random rand = new Random(seed);
+          for (int i = 0; i < 2000; i++) {
+            // the contents of each block are derived from its name, so any reader can verify them
+            int id = rand.nextInt(200);
+            byte[] expected = randomBlock(new Random(id), 500 + id * 20);
+            CacheEntry ce = cache.getBlock("b" + id);
+            if (ce == null) {
+              ce = cache.cacheBlock("b" + id, expected);
+            }
+            assertArrayEquals(expected, contents(ce));
+          }
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertTrue(cache.getCurrentSize() <= cache.getMaxSize());
+    assertTrue(cache.getFragmentation() >= 0 && cache.getFragmentation() < 1);
+    // every entry was released, so only the blocks still in the cache hold pages
+    assertTrue(cache.getCurrentSize() > 0);
+  }
+}
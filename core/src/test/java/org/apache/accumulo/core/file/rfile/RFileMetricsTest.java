@@ -550,7 +550,7 @@ public class RFileMetricsTest {
     Map<String,Long> expectedBlocks = new HashMap<>();
     for (String v : vis) {
       expected.put(v, 1000l);
-      expectedBlocks.put(v, 71l);
+      expectedBlocks.put(v, 72l);
     }
     assertEquals(expected, vmg.metric.get(null).asMap());
     assertEquals(expectedBlocks, vmg.blocks.get(null).asMap());
@@ -559,8 +559,8 @@ public class RFileMetricsTest {
     expectedBlocks.clear();
     expected.put("A", 1100l);
     expected.put("A|B", 1100l);
-    expectedBlocks.put("A", 32l);
-    expectedBlocks.put("A|B", 32l);
+    expectedBlocks.put("A", 33l);
+    expectedBlocks.put("A|B", 33l);
     assertEquals(expected, vmg.metric.get("lg1").asMap());
     assertEquals(expectedBlocks, vmg.blocks.get("lg1").asMap());
 
@@ -64,6 +64,8 @@ import org.apache.accumulo.core.file.blockfile.cache.impl.BlockCacheConfiguratio
 import org.apache.accumulo.core.file.blockfile.cache.impl.BlockCacheManagerFactory;
 import org.apache.accumulo.core.file.blockfile.cache.lru.LruBlockCache;
 import org.apache.accumulo.core.file.blockfile.cache.lru.LruBlockCacheManager;
+import org.apache.accumulo.core.file.blockfile.cache.offheap.OffHeapBlockCache;
+import org.apache.accumulo.core.file.blockfile.cache.offheap.OffHeapBlockCacheManager;
 import org.apache.accumulo.core.file.blockfile.impl.CachableBlockFile;
 import org.apache.accumulo.core.file.rfile.RFile.Reader;
 import org.apache.accumulo.core.file.streams.PositionedOutputs;
@@ -235,7 +237,8 @@ public class RFileTest {
         sampler = SamplerFactory.newSampler(samplerConfig, accumuloConfiguration);
       }
 
-      writer = new RFile.Writer(_cbw, blockSize, 1000, samplerConfig, sampler);
+      int restartInterval = accumuloConfiguration.getCount(Property.TABLE_FILE_RESTART_INTERVAL);
+      writer = new RFile.Writer(_cbw, blockSize, 1000, restartInterval, samplerConfig, sampler);
 
       if (startDLG)
         writer.startDefaultLocalityGroup();
@@ -526,7 +529,7 @@ public class RFileTest {
       count++;
       iiter.next();
     }
-    Assert.assertEquals(20, count);
+    Assert.assertEquals(21, count);
 
     trf.closeReader();
   }
@@ -1621,6 +1624,61 @@ public class RFileTest {
     trf.closeReader();
   }
 
+  @Test
+  public void testRestartPoints() throws Exception {
+    // compare seeks against files written with and without restart points, using several versions of each row and column so that seeks land between keys
+    // that only differ in visibility or timestamp
+    for (int restartInterval : new int[] {0, 1, 2, 5, 32}) {
+      ConfigurationCopy cc = new ConfigurationCopy(DefaultConfiguration.getInstance());
+      cc.set(Property.TABLE_FILE_RESTART_INTERVAL, restartInterval + "");
+      TestRFile trf = new TestRFile(cc);
+
+      trf.openWriter(8000);
+
+      ArrayList<Key> expectedKeys = new ArrayList<>();
+      for (int r = 0; r < 300; r++) {
+        for (int c = 0; c < 3; c++) {
+          for (String cv : new String[] {"A", "B"}) {
+            for (int ts = 3; ts > 0; ts--) {
+              Key k = newKey(formatString("r_", r), "cf1", formatString("cq_", c), cv, ts);
+              trf.writer.append(k, newValue(k.hashCode() + ""));
+              expectedKeys.add(k);
+            }
+          }
+        }
+      }
+
+      trf.closeWriter();
+      trf.openReader();
+
+      Set<ByteSequence> cfs = Collections.emptySet();
+      Random rand = new Random(restartInterval);
+
+      for (int count = 0; count < 500; count++) {
+        int start = rand.nextInt(expectedKeys.size());
+        int end = Math.min(expectedKeys.size() - 1, start + rand.nextInt(40));
+
+        trf.reader.seek(new Range(expectedKeys.get(start), expectedKeys.get(end)), cfs, false);
+        for (int i = start; i <= end; i++) {
+          assertTrue(trf.reader.hasTop());
+          assertEquals(expectedKeys.get(i), trf.reader.getTopKey());
+          assertEquals(newValue(expectedKeys.get(i).hashCode() + ""), trf.reader.getTopValue());
+          trf.reader.next();
+        }
+        assertFalse(trf.reader.hasTop());
+
+        // seek forward within the same block, which uses the restart points after the current position
+        int start2 = Math.min(expectedKeys.size() - 1, end + rand.nextInt(60));
+        trf.reader.seek(new Range(expectedKeys.get(start2), null), cfs, false);
+        assertTrue(trf.reader.hasTop());
+        assertEquals(expectedKeys.get(start2), trf.reader.getTopKey());
+        assertEquals(newValue(expectedKeys.get(start2).hashCode() + ""), trf.reader.getTopValue());
+      }
+
+      trf.closeReader();
+    }
+  }
+
   @Test(expected = NullPointerException.class)
   public void testMissingUnreleasedVersions() throws Exception {
     runVersionTest(5);
@@ -2271,4 +2329,65 @@ public class RFileTest {
 
     conf = null;
   }
+
+  @Test
+  public void testOffHeapCache() throws IOException {
+    TestRFile trf = new TestRFile(conf);
+    trf.openWriter();
+    for (int i = 0; i < 10000; i++) {
+      trf.writer.append(newKey(formatString("r_", i), "cf", "cq", "", 1), newValue("v" + i));
+    }
+    trf.closeWriter();
+    byte[] data = trf.baos.toByteArray();
+
+    ConfigurationCopy cc = new ConfigurationCopy(DefaultConfiguration.getInstance());
+    cc.set(Property.TSERV_CACHE_MANAGER_IMPL, OffHeapBlockCacheManager.class.getName());
+    cc.set(Property.TSERV_DEFAULT_BLOCKSIZE, Long.toString(100000));
+    // small enough that data blocks are evicted while scans still hold them
+    cc.set(Property.TSERV_DATACACHE_SIZE, Long.toString(20000));
+    cc.set(Property.TSERV_INDEXCACHE_SIZE, Long.toString(1000000));
+    BlockCacheManager manager;
+    try {
+      manager = BlockCacheManagerFactory.getInstance(cc);
+    } catch (Exception e) {
+      throw new RuntimeException("Error creating BlockCacheManager", e);
+    }
+    manager.start(new BlockCacheConfiguration(cc));
+    OffHeapBlockCache dataCache = (OffHeapBlockCache) manager.getBlockCache(CacheType.DATA);
+    OffHeapBlockCache indexCache = (OffHeapBlockCache) manager.getBlockCache(CacheType.INDEX);
+
+    try {
+      for (int pass = 0; pass < 2; pass++) {
+        FSDataInputStream in = new FSDataInputStream(new SeekableByteArrayInputStream(data));
+        CachableBlockFile.Reader cbr = new CachableBlockFile.Reader("source-1", in, data.length, CachedConfiguration.getInstance(), dataCache, indexCache,
+            DefaultConfiguration.getInstance());
+        Reader reader = new RFile.Reader(cbr);
+
+        Random rand = new Random(pass);
+        for (int i = 0; i < 200; i++) {
+          int row = rand.nextInt(10000);
+          reader.seek(new Range(new Key(formatString("r_", row)), null), EMPTY_COL_FAMS, false);
+          for (int j = row; j < Math.min(10000, row + 50); j++) {
+            assertTrue(reader.hasTop());
+            assertEquals(newKey(formatString("r_", j), "cf", "cq", "", 1), reader.getTopKey());
+            assertEquals(newValue("v" + j), reader.getTopValue());
+            reader.next();
+          }
+        }
+
+        reader.close();
+        in.close();
+
+        // every block read through the caches was released
+        assertEquals(0, dataCache.getOpenEntryCount());
+        assertEquals(0, indexCache.getOpenEntryCount());
+      }
+
+      assertTrue(dataCache.getStats().hitCount() > 0);
+      assertTrue(dataCache.getEvictedCount() > 0);
+      assertTrue(indexCache.getStats().hitCount() > 0);
+    } finally {
+      manager.stop();
+    }
+  }
 }
@@ -17,6 +17,8 @@
 package org.apache.accumulo.core.file.rfile;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -93,6 +95,26 @@ public class RelativeKeyTest {
     return RelativeKey.getCommonPrefix(new ArrayByteSequence(a), new ArrayByteSequence(b));
   }
 
+  @Test
+  public void testReadSharesSameFields() throws IOException {
+    Key prevKey = new Key("row1", "columnfamily1", "columnqualifier1", "columnvisibility1", 1000);
+    Key newKey = new Key("row1", "columnfamily1", "columnqualifier2", "columnvisibility1", 1000);
+
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    new RelativeKey(prevKey, newKey).write(new DataOutputStream(baos));
+
+    RelativeKey actual = new RelativeKey();
+    actual.setPrevKey(prevKey);
+    actual.readFields(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+
+    Key key = actual.getKey();
+    assertEquals(newKey, key);
+    assertSame(prevKey.getRowData().getBackingArray(), key.getRowData().getBackingArray());
+    assertSame(prevKey.getColumnFamilyData().getBackingArray(), key.getColumnFamilyData().getBackingArray());
+    assertNotSame(prevKey.getColumnQualifierData().getBackingArray(), key.getColumnQualifierData().getBackingArray());
+    assertSame(prevKey.getColumnVisibilityData().getBackingArray(), key.getColumnVisibilityData().getBackingArray());
+  }
+
   @Test
   public void testReadWritePrefix() throws IOException {
     Key prevKey = new Key("row1", "columnfamily1", "columnqualifier1", "columnvisibility1", 1000);
@@ -71,6 +71,32 @@ public class CompressionTest {
       // that is okay
     }
 
+    extClazz = System.getProperty(Compression.Algorithm.CONF_ZSTD_CLASS);
+    clazz = (extClazz != null) ? extClazz : "org.apache.hadoop.io.compress.ZStandardCodec";
+    try {
+      CompressionCodec codec = (CompressionCodec) ReflectionUtils.newInstance(Class.forName(clazz), myConf);
+
+      Assert.assertNotNull(codec);
+
+      isSupported.put(Compression.Algorithm.ZSTANDARD, true);
+
+    } catch (ClassNotFoundException e) {
+      // that is okay
+    }
+
+    extClazz = System.getProperty(Compression.Algorithm.CONF_LZ4_CLASS);
+    clazz = (extClazz != null) ? extClazz : "org.apache.hadoop.io.compress.Lz4Codec";
+    try {
+      CompressionCodec codec = (CompressionCodec) ReflectionUtils.newInstance(Class.forName(clazz), myConf);
+
+      Assert.assertNotNull(codec);
+
+      isSupported.put(Compression.Algorithm.LZ4, true);
+
+    } catch (ClassNotFoundException e) {
+      // that is okay
+    }
+
   }
 
   @Test
@@ -243,4 +269,19 @@ public class CompressionTest {
     }
   }
 
+  @Test
+  public void testZstdLevel() {
+    Assert.assertEquals(1, Algorithm.parseZstdLevel("1"));
+    Assert.assertEquals(22, Algorithm.parseZstdLevel(" 22 "));
+
+    for (String level : new String[] {"0", "23", "-1", "three", ""}) {
+      try {
+        Algorithm.parseZstdLevel(level);
+        Assert.fail("Expected level '" + level + "' to be rejected");
+      } catch (IllegalArgumentException e) {
+        Assert.assertTrue(e.getMessage(), e.getMessage().contains(Algorithm.CONF_ZSTD_LEVEL));
+        Assert.assertTrue(e.getMessage(), e.getMessage().contains("1 to 22"));
+      }
+    }
+  }
 }
@@ -19,8 +19,12 @@ package org.apache.accumulo.core.iterators.system;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.accumulo.core.client.impl.Table;
 import org.apache.accumulo.core.data.ByteSequence;
@@ -401,4 +405,93 @@ public class MultiIteratorTest extends TestCase {
     mi.seek(r7, EMPTY_COL_FAMS, false);
     assertFalse(mi.hasTop());
   }
+
+  public void testIsSingleRow() {
+    assertTrue(MultiIterator.isSingleRow(new Range(newRow(1))));
+    assertTrue(MultiIterator.isSingleRow(Range.exact(newRow(1), new Text("cf"))));
+    assertTrue(MultiIterator.isSingleRow(new Range(newKey(1, 5), true, newKey(1, 1), true)));
+    assertFalse(MultiIterator.isSingleRow(new Range(newRow(1), newRow(2))));
+    assertFalse(MultiIterator.isSingleRow(new Range(newRow(1), true, null, true)));
+    assertFalse(MultiIterator.isSingleRow(new Range()));
+  }
+
+  public void testParallelSeek() throws IOException {
+    List<SortedKeyValueIterator<Key,Value>> iters = new ArrayList<>();
+    for (int m = 0; m < 4; m++) {
+      TreeMap<Key,Value> tm = new TreeMap<>();
+      for (int row = 0; row < 10; row++) {
+        newKeyValue(tm, row, m, false, row + "_" + m);
+      }
+      iters.add(new SortedMapIterator(tm));
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      KeyExtent extent = new KeyExtent(Table.ID.of("1"), null, null);
+      MultiIterator mi = new MultiIterator(iters, extent, executor);
+
+      mi.seek(new Range(newRow(4)), EMPTY_COL_FAMS, false);
+      for (int m = 3; m >= 0; m--) {
+        assertTrue(mi.hasTop());
+        assertEquals(newKey(4, m), mi.getTopKey());
+        assertEquals("4_" + m, mi.getTopValue().toString());
+        mi.next();
+      }
+      assertFalse(mi.hasTop());
+
+      // a seek spanning rows does not use the executor, but must still work
+      mi.seek(new Range(newRow(8), null), EMPTY_COL_FAMS, false);
+      int count = 0;
+      while (mi.hasTop()) {
+        count++;
+        mi.next();
+      }
+      assertEquals(8, count);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  public void testRandomMerge() throws IOException {
+    Random rand = new Random(42);
+    for (int numSources : new int[] {1, 2, 3, 5, 8, 13, 33}) {
+      List<SortedKeyValueIterator<Key,Value>> iters = new ArrayList<>();
+      List<Key> expected = new ArrayList<>();
+      for (int s = 0; s < numSources; s++) {
+        TreeMap<Key,Value> tm = new TreeMap<>();
+        // some sources are empty, some have long runs of adjacent keys, and keys may repeat across sources
+        int size = rand.nextInt(4) == 0 ? 0 : rand.nextInt(200);
+        int row = rand.nextInt(50);
+        for (int i = 0; i < size; i++) {
+          if (rand.nextInt(10) == 0)
+            row += rand.nextInt(20);
+          tm.put(newKey(row, rand.nextInt(1000)), new Value(("" + s).getBytes()));
+        }
+        expected.addAll(tm.keySet());
+        iters.add(new SortedMapIterator(tm));
+      }
+      Collections.sort(expected);
+
+      MultiIterator mi = new MultiIterator(iters, false);
+      mi.seek(new Range(), EMPTY_COL_FAMS, false);
+      List<Key> actual = new ArrayList<>();
+      while (mi.hasTop()) {
+        actual.add(mi.getTopKey());
+        mi.next();
+      }
+      assertEquals("numSources=" + numSources, expected, actual);
+
+      // seek into the middle, which rebuilds the merge from the sources that have a top after seeking
+      if (!expected.isEmpty()) {
+        Key start = expected.get(expected.size() / 2);
+        mi.seek(new Range(start, true, null, true), EMPTY_COL_FAMS, false);
+        actual.clear();
+        while (mi.hasTop()) {
+          actual.add(mi.getTopKey());
+          mi.next();
+        }
+        assertEquals(expected.subList(expected.indexOf(start), expected.size()), actual);
+      }
+    }
+  }
 }
@@ -67,4 +67,30 @@ public class VisibilityFilterTest extends TestCase {
     filter.next();
     assertFalse(filter.hasTop());
   }
+
+  public void testCacheSharedAcrossAuths() throws IOException {
+    TreeMap<Key,Value> tm = new TreeMap<>();
+
+    tm.put(new Key("r1", "cf1", "cq1", "A"), new Value(new byte[0]));
+    tm.put(new Key("r1", "cf1", "cq2", "A|B"), new Value(new byte[0]));
+    tm.put(new Key("r1", "cf1", "cq3", "B"), new Value(new byte[0]));
+    tm.put(new Key("r1", "cf1", "cq4", "A"), new Value(new byte[0]));
+
+    // results cached for one set of authorizations must not be used for another
+    for (int i = 0; i < 2; i++) {
+      assertEquals(3, count(VisibilityFilter.wrap(new SortedMapIterator(tm), new Authorizations("A"), "".getBytes())));
+      assertEquals(2, count(VisibilityFilter.wrap(new SortedMapIterator(tm), new Authorizations("B"), "".getBytes())));
+      assertEquals(0, count(VisibilityFilter.wrap(new SortedMapIterator(tm), new Authorizations("C"), "".getBytes())));
+    }
+  }
+
+  private int count(SortedKeyValueIterator<Key,Value> filter) throws IOException {
+    filter.seek(new Range(), new HashSet<ByteSequence>(), false);
+    int count = 0;
+    while (filter.hasTop()) {
+      count++;
+      filter.next();
+    }
+    return count;
+  }
 }
@@ -16,9 +16,12 @@
  */
 package org.apache.accumulo.server.master.state;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeSet;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.accumulo.core.client.BatchWriter;
@@ -26,12 +29,20 @@ import org.apache.accumulo.core.client.BatchWriterConfig;
 import org.apache.accumulo.core.client.MutationsRejectedException;
 import org.apache.accumulo.core.client.TableNotFoundException;
 import org.apache.accumulo.core.client.impl.ClientContext;
+import org.apache.accumulo.core.client.impl.Table;
+import org.apache.accumulo.core.client.impl.Tables;
+import org.apache.accumulo.core.conf.Property;
 import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.metadata.MetadataTable;
 import org.apache.accumulo.core.metadata.schema.MetadataSchema;
 import org.apache.accumulo.core.tabletserver.log.LogEntry;
 import org.apache.accumulo.server.AccumuloServerContext;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Text;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
 
 public class MetaDataStateStore extends TabletStateStore {
 
@@ -63,7 +74,68 @@ public class MetaDataStateStore extends TabletStateStore {
 
   @Override
   public ClosableIterator<TabletLocationState> iterator() {
-    return new MetaDataTableScanner(context, MetadataSchema.TabletsSection.getRange(), state, targetTableName);
+    int threads = context.getConfiguration().getCount(Property.MASTER_METADATA_SCAN_THREADS);
+    if (threads <= 1) {
+      return new MetaDataTableScanner(context, MetadataSchema.TabletsSection.getRange(), state, targetTableName);
+    }
+    return scan(partitionSection(Tables.getIdToNameMap(context.getInstance()).keySet(), threads));
+  }
+
+  @Override
+  public ClosableIterator<TabletLocationState> iterator(Collection<Table.ID> tables) {
+    Preconditions.checkArgument(!tables.isEmpty(), "no tables to scan");
+    return scan(partitionTables(tables, context.getConfiguration().getCount(Property.MASTER_METADATA_SCAN_THREADS)));
+  }
+
+  private ClosableIterator<TabletLocationState> scan(List<List<Range>> partitions) {
+    if (partitions.size() == 1) {
+      return new MetaDataTableScanner(context, partitions.get(0), state, targetTableName);
+    }
+    return new ParallelMetaDataTableScanner(context, partitions, state, targetTableName);
+  }
+
+  /**
+   * Splits the tablets section at table boundaries into at most {@code threads} partitions. The partitions cover all of the section, even if the list of tables
+   * is stale.
+   */
+  @VisibleForTesting
+  static List<List<Range>> partitionSection(Collection<Table.ID> tableIds, int threads) {
+    TreeSet<Text> tableStarts = new TreeSet<>();
+    for (Table.ID tableId : tableIds) {
+      tableStarts.add(MetadataSchema.TabletsSection.getRange(tableId).getStartKey().getRow());
+    }
+    List<Text> splits = new ArrayList<>(tableStarts);
+    int numPartitions = Math.min(threads, splits.size());
+    Range section = MetadataSchema.TabletsSection.getRange();
+    if (numPartitions <= 1) {
+      return Collections.singletonList(Collections.singletonList(section));
+    }
+
+    List<List<Range>> partitions = new ArrayList<>(numPartitions);
+    Text start = null;
+    for (int i = 1; i <= numPartitions; i++) {
+      Text end = i == numPartitions ? null : splits.get(i * splits.size() / numPartitions);
+      partitions.add(Collections.singletonList(section.clip(new Range(start, true, end, false))));
+      start = end;
+    }
+    return partitions;
+  }
+
+  /**
+   * Deals the tablets of the given tables out to at most {@code threads} partitions.
+   */
+  @VisibleForTesting
+  static List<List<Range>> partitionTables(Collection<Table.ID> tables, int threads) {
+    threads = Math.max(1, Math.min(threads, tables.size()));
+    List<List<Range>> partitions = new ArrayList<>(threads);
+    for (int i = 0; i < threads; i++) {
+      partitions.add(new ArrayList<>());
+    }
+    int i = 0;
+    for (Table.ID tableId : tables) {
+      partitions.get(i++ % threads).add(MetadataSchema.TabletsSection.getRange(tableId));
+    }
+    return partitions;
   }
 
   @Override
@@ -57,12 +57,16 @@ public class MetaDataTableScanner implements ClosableIterator<TabletLocationStat
   }
 
   MetaDataTableScanner(ClientContext context, Range range, CurrentState state, String tableName) {
+    this(context, Collections.singletonList(range), state, tableName);
+  }
+
+  MetaDataTableScanner(ClientContext context, Collection<Range> ranges, CurrentState state, String tableName) {
     // scan over metadata table, looking for tablets in the wrong state based on the live servers and online tables
     try {
       Connector connector = context.getConnector();
       mdScanner = connector.createBatchScanner(tableName, Authorizations.EMPTY, 8);
       configureScanner(mdScanner, state);
-      mdScanner.setRanges(Collections.singletonList(range));
+      mdScanner.setRanges(ranges);
       iter = mdScanner.iterator();
     } catch (Exception ex) {
       if (mdScanner != null)
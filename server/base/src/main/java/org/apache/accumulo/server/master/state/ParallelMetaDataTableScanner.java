@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.server.master.state;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.client.impl.ClientContext;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.util.SimpleThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * Scans partitions of a metadata table concurrently, using one {@link MetaDataTableScanner} per partition. Tablets are returned as soon as any partition reads
+ * them, so tablets from different partitions are interleaved in no particular order.
+ */
+public class ParallelMetaDataTableScanner implements ClosableIterator<TabletLocationState> {
+
+  private static final Logger log = LoggerFactory.getLogger(ParallelMetaDataTableScanner.class);
+
+  private static final int QUEUE_SIZE = 1000;
+
+  // marks the end of a partition in the queue
+  private static final Object END = new Object();
+
+  private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+  private final List<? extends ClosableIterator<TabletLocationState>> scanners;
+  private final ExecutorService executor;
+  private volatile boolean closed = false;
+  private int running;
+  private TabletLocationState next = null;
+
+  /**
+   * @param partitions
+   *          the ranges scanned by each partition
+   */
+  ParallelMetaDataTableScanner(ClientContext context, List<? extends Collection<Range>> partitions, CurrentState state, String tableName) {
+    this(createScanners(context, partitions, state, tableName));
+  }
+
+  /**
+   * @param scanners
+   *          the scanners to read concurrently, which are closed when this is closed
+   */
+  @VisibleForTesting
+  ParallelMetaDataTableScanner(List<? extends ClosableIterator<TabletLocationState>> scanners) {
+    this.scanners = scanners;
+    executor = new SimpleThreadPool(scanners.size(), "metadata scan");
+
+    running = scanners.size();
+    for (ClosableIterator<TabletLocationState> scanner : scanners) {
+      executor.execute(() -> {
+        try {
+          while (!closed && scanner.hasNext()) {
+            TabletLocationState tls = scanner.next();
+            if (tls != null)
+              put(tls);
+          }
+          put(END);
+        } catch (RuntimeException | Error e) {
+          // the watcher inspects the cause of the exception, so pass on the original
+          put(e);
+        }
+      });
+    }
+  }
+
+  private static List<MetaDataTableScanner> createScanners(ClientContext context, List<? extends Collection<Range>> partitions, CurrentState state,
+      String tableName) {
+    List<MetaDataTableScanner> scanners = new ArrayList<>(partitions.size());
+    try {
+      for (Collection<Range> ranges : partitions) {
+        scanners.add(new MetaDataTableScanner(context, ranges, state, tableName));
+      }
+    } catch (RuntimeException e) {
+      for (MetaDataTableScanner scanner : scanners) {
+        scanner.close();
+      }
+      throw e;
+    }
+    return scanners;
+  }
+
+  private void put(Object o) {
+    try {
+      while (!closed && !queue.offer(o, 100, TimeUnit.MILLISECONDS)) {}
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (next == null && running > 0) {
+      Object o;
+      try {
+        o = queue.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException(e);
+      }
+      if (o == END) {
+        running--;
+      } else if (o instanceof RuntimeException) {
+        close();
+        throw (RuntimeException) o;
+      } else if (o instanceof Error) {
+        close();
+        throw (Error) o;
+      } else {
+        next = (TabletLocationState) o;
+      }
+    }
+    if (next == null)
+      close();
+    return next != null;
+  }
+
+  @Override
+  public TabletLocationState next() {
+    if (!hasNext())
+      throw new NoSuchElementException();
+    TabletLocationState result = next;
+    next = null;
+    return result;
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    running = 0;
+    executor.shutdownNow();
+    queue.clear();
+    for (ClosableIterator<TabletLocationState> scanner : scanners) {
+      try {
+        scanner.close();
+      } catch (IOException e) {
+        log.warn("Failed to close metadata scanner", e);
+      }
+    }
+  }
+}
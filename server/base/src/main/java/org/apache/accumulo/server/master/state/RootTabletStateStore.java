@@ -16,7 +16,10 @@
  */
 package org.apache.accumulo.server.master.state;
 
+import java.util.Collection;
+
 import org.apache.accumulo.core.client.impl.ClientContext;
+import org.apache.accumulo.core.client.impl.Table;
 import org.apache.accumulo.core.metadata.RootTable;
 import org.apache.accumulo.core.metadata.schema.MetadataSchema;
 import org.apache.accumulo.server.AccumuloServerContext;
@@ -36,6 +39,12 @@ public class RootTabletStateStore extends MetaDataStateStore {
     return new MetaDataTableScanner(context, MetadataSchema.TabletsSection.getRange(), state, RootTable.NAME);
   }
 
+  @Override
+  public ClosableIterator<TabletLocationState> iterator(Collection<Table.ID> tables) {
+    // the root table only holds the few metadata tablets, so always scan all of them
+    return iterator();
+  }
+
   @Override
   public String name() {
     return "Metadata Tablets";
@@ -21,6 +21,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.accumulo.core.client.impl.Table;
 import org.apache.accumulo.core.data.impl.KeyExtent;
 import org.apache.accumulo.server.AccumuloServerContext;
 import org.apache.hadoop.fs.Path;
@@ -45,6 +46,13 @@ public abstract class TabletStateStore implements Iterable<TabletLocationState>
   @Override
   abstract public ClosableIterator<TabletLocationState> iterator();
 
+  /**
+   * Scan the information about the tablets of the given tables. Stores that can not limit a scan to some tables scan all the tablets they cover.
+   */
+  public ClosableIterator<TabletLocationState> iterator(Collection<Table.ID> tables) {
+    return iterator();
+  }
+
   /**
    * Store the assigned locations in the data store.
    */
@@ -360,6 +360,48 @@ public class FileUtil {
     }
   }
 
+  /**
+   * Uses the indexes of the given files to choose rows that divide the data between {@code prevEndRow} and {@code endRow} into partitions of roughly equal
+   * size. Each partition ends with, and includes, one of the returned rows, and the last partition ends with {@code endRow}.
+   *
+   * @return at most {@code numPartitions - 1} sorted, distinct rows that are greater than {@code prevEndRow} and less than {@code endRow}. Fewer rows are
+   *         returned when the indexes do not contain enough distinct rows.
+   */
+  public static List<Text> findPartitionRows(VolumeManager fs, AccumuloConfiguration acuConf, Text prevEndRow, Text endRow, Collection<String> mapFiles,
+      int numPartitions) throws IOException {
+    ArrayList<FileSKVIterator> readers = new ArrayList<>(mapFiles.size());
+    try {
+      List<Text> rows = new ArrayList<>();
+
+      long numKeys = countIndexEntries(acuConf, prevEndRow, endRow, mapFiles, true, CachedConfiguration.getInstance(), fs, readers);
+      if (numKeys < numPartitions)
+        return rows;
+
+      List<SortedKeyValueIterator<Key,Value>> iters = new ArrayList<>(readers);
+      MultiIterator mmfi = new MultiIterator(iters, true);
+
+      while (prevEndRow != null && mmfi.hasTop() && mmfi.getTopKey().compareRow(prevEndRow) <= 0)
+        mmfi.next();
+
+      long keysRead = 0;
+      while (mmfi.hasTop() && rows.size() < numPartitions - 1) {
+        Key key = mmfi.getTopKey();
+        if (endRow != null && key.compareRow(endRow) >= 0)
+          break;
+
+        keysRead++;
+        if (keysRead >= numKeys * (rows.size() + 1) / numPartitions && (rows.isEmpty() || key.compareRow(rows.get(rows.size() - 1)) > 0))
+          rows.add(key.getRow());
+
+        mmfi.next();
+      }
+
+      return rows;
+    } finally {
+      cleanupIndexOp(null, fs, readers);
+    }
+  }
+
   protected static void cleanupIndexOp(Path tmpDir, VolumeManager fs, ArrayList<FileSKVIterator> readers) throws IOException {
     // close all of the index sequence files
     for (FileSKVIterator r : readers) {
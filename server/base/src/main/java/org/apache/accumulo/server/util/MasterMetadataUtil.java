@@ -22,6 +22,7 @@ import static org.apache.accumulo.fate.util.UtilWaitThread.sleepUninterruptibly;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -211,6 +212,19 @@ public class MasterMetadataUtil {
 
   public static void replaceDatafiles(ClientContext context, KeyExtent extent, Set<FileRef> datafilesToDelete, Set<FileRef> scanFiles, FileRef path,
       Long compactionId, DataFileValue size, String address, TServerInstance lastLocation, ZooLock zooLock, boolean insertDeleteFlags) throws IOException {
+    replaceDatafiles(context, extent, datafilesToDelete, scanFiles, Collections.singletonMap(path, size), compactionId, address, lastLocation, zooLock,
+        insertDeleteFlags);
+  }
+
+  /**
+   * Replaces a tablet's data files with any number of new files in a single metadata mutation, so the new files become visible together.
+   *
+   * @param newFiles
+   *          the new data files and their sizes, files without entries are not added
+   */
+  public static void replaceDatafiles(ClientContext context, KeyExtent extent, Set<FileRef> datafilesToDelete, Set<FileRef> scanFiles,
+      Map<FileRef,DataFileValue> newFiles, Long compactionId, String address, TServerInstance lastLocation, ZooLock zooLock, boolean insertDeleteFlags)
+      throws IOException {
 
     if (insertDeleteFlags) {
       // add delete flags for those paths before the data file reference is removed
@@ -226,8 +240,9 @@ public class MasterMetadataUtil {
     for (FileRef scanFile : scanFiles)
       m.put(ScanFileColumnFamily.NAME, scanFile.meta(), new Value(new byte[0]));
 
-    if (size.getNumEntries() > 0)
-      m.put(DataFileColumnFamily.NAME, path.meta(), new Value(size.encode()));
+    for (Entry<FileRef,DataFileValue> entry : newFiles.entrySet())
+      if (entry.getValue().getNumEntries() > 0)
+        m.put(DataFileColumnFamily.NAME, entry.getKey().meta(), new Value(entry.getValue().encode()));
 
     if (compactionId != null)
       TabletsSection.ServerColumnFamily.COMPACT_COLUMN.put(m, new Value(("" + compactionId).getBytes()));
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.server.master.state;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.accumulo.core.client.impl.Table;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.metadata.schema.MetadataSchema.TabletsSection;
+import org.junit.Test;
+
+public class MetaDataStateStoreTest {
+
+  private static List<Table.ID> ids(String... ids) {
+    List<Table.ID> result = new ArrayList<>();
+    for (String id : ids)
+      result.add(Table.ID.of(id));
+    return result;
+  }
+
+  private static int countContaining(List<List<Range>> partitions, String row) {
+    int count = 0;
+    for (List<Range> partition : partitions) {
+      for (Range range : partition) {
+        if (range.contains(new Key(row)))
+          count++;
+      }
+    }
+    return count;
+  }
+
+  private static int countContaining(List<List<Range>> partitions, Range tableRange) {
+    int count = 0;
+    for (List<Range> partition : partitions) {
+      for (Range range : partition) {
+        Range clipped = range.clip(tableRange, true);
+        if (clipped != null && clipped.equals(tableRange))
+          count++;
+      }
+    }
+    return count;
+  }
+
+  @Test
+  public void testPartitionSection() {
+    // the metadata rows of table 10 sort before those of table 1
+    List<Table.ID> tables = ids("1", "10", "2", "3", "!0");
+    for (int threads = 2; threads <= 6; threads++) {
+      List<List<Range>> partitions = MetaDataStateStore.partitionSection(tables, threads);
+      assertEquals(Math.min(threads, tables.size()), partitions.size());
+
+      for (Table.ID table : tables) {
+        assertEquals("table " + table + " with " + threads + " threads", 1, countContaining(partitions, TabletsSection.getRange(table)));
+      }
+
+      // every row of the tablets section is scanned once, including the rows of tables that are not in the list
+      for (String row : Arrays.asList("!0;a", "!0<", "1;", "1;a", "1<", "10;", "10;a", "10<", "11;a", "15<", "2;zzz", "2<", "4;a", "9<")) {
+        assertEquals("row " + row + " with " + threads + " threads", 1, countContaining(partitions, row));
+      }
+      assertEquals(0, countContaining(partitions, "~del"));
+    }
+  }
+
+  @Test
+  public void testPartitionSectionOneThread() {
+    List<List<Range>> partitions = MetaDataStateStore.partitionSection(ids("1", "10", "2"), 1);
+    assertEquals(1, partitions.size());
+    assertEquals(Arrays.asList(TabletsSection.getRange()), partitions.get(0));
+
+    partitions = MetaDataStateStore.partitionSection(ids("1"), 4);
+    assertEquals(1, partitions.size());
+    assertEquals(Arrays.asList(TabletsSection.getRange()), partitions.get(0));
+  }
+
+  @Test
+  public void testPartitionTables() {
+    List<Table.ID> tables = ids("1", "10", "2", "3", "4");
+    for (int threads = 1; threads <= 6; threads++) {
+      List<List<Range>> partitions = MetaDataStateStore.partitionTables(tables, threads);
+      assertEquals(Math.min(threads, tables.size()), partitions.size());
+      for (List<Range> partition : partitions) {
+        assertFalse(partition.isEmpty());
+      }
+
+      for (Table.ID table : tables) {
+        assertEquals(1, countContaining(partitions, TabletsSection.getRange(table)));
+      }
+
+      // only the rows of the given tables are scanned, and the rows of table 10 are not mistaken for rows of table 1
+      assertEquals(1, countContaining(partitions, "1;a"));
+      assertEquals(1, countContaining(partitions, "10;a"));
+      assertEquals(1, countContaining(partitions, "10<"));
+      assertEquals(0, countContaining(partitions, "11;a"));
+      assertEquals(0, countContaining(partitions, "5<"));
+    }
+  }
+
+  @Test
+  public void testPartitionTablesCount() {
+    Collection<Table.ID> tables = ids("1", "2");
+    assertEquals(1, MetaDataStateStore.partitionTables(tables, 0).size());
+    assertEquals(2, MetaDataStateStore.partitionTables(tables, 8).size());
+  }
+}
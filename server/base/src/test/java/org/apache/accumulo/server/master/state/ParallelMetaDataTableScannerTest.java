@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.server.master.state;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.accumulo.core.client.impl.Table;
+import org.apache.accumulo.core.data.impl.KeyExtent;
+import org.apache.accumulo.server.master.state.TabletLocationState.BadLocationStateException;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+
+public class ParallelMetaDataTableScannerTest {
+
+  /**
+   * Returns tablets of one table, optionally failing after some of them, and records when it is closed.
+   */
+  private static class TestScanner implements ClosableIterator<TabletLocationState> {
+    private final String tableId;
+    private final int count;
+    private final RuntimeException failure;
+    final AtomicInteger returned = new AtomicInteger();
+    volatile boolean closed = false;
+
+    TestScanner(String tableId, int count, RuntimeException failure) {
+      this.tableId = tableId;
+      this.count = count;
+      this.failure = failure;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (closed)
+        throw new IllegalStateException("closed");
+      if (returned.get() == count && failure != null)
+        throw failure;
+      return returned.get() < count;
+    }
+
+    @Override
+    public TabletLocationState next() {
+      int i = returned.getAndIncrement();
+      try {
+        return new TabletLocationState(new KeyExtent(Table.ID.of(tableId), new Text(String.format("%06d", i)), null), null, null, null, null,
+            Collections.<Collection<String>> emptyList(), false);
+      } catch (BadLocationStateException e) {
+        throw new AssertionError(e);
+      }
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+
+  private static Set<KeyExtent> read(ParallelMetaDataTableScanner scanner) {
+    Set<KeyExtent> extents = new HashSet<>();
+    while (scanner.hasNext()) {
+      assertTrue(extents.add(scanner.next().extent));
+    }
+    return extents;
+  }
+
+  @Test(timeout = 60000)
+  public void testAllPartitionsRead() {
+    // more tablets than fit in the queue
+    List<TestScanner> sources = Arrays.asList(new TestScanner("1", 3000, null), new TestScanner("2", 0, null), new TestScanner("3", 10, null));
+    ParallelMetaDataTableScanner scanner = new ParallelMetaDataTableScanner(sources);
+    Set<KeyExtent> extents = read(scanner);
+    assertEquals(3010, extents.size());
+    assertFalse(scanner.hasNext());
+    for (TestScanner source : sources) {
+      assertTrue(source.closed);
+    }
+  }
+
+  @Test(timeout = 60000)
+  public void testProducerException() {
+    IllegalStateException failure = new IllegalStateException("metadata scan failed");
+    List<TestScanner> sources = Arrays.asList(new TestScanner("1", 100, null), new TestScanner("2", 5, failure));
+    ParallelMetaDataTableScanner scanner = new ParallelMetaDataTableScanner(sources);
+    try {
+      read(scanner);
+      fail("the failure of a partition was not reported");
+    } catch (IllegalStateException e) {
+      // the original exception is passed on, so callers can inspect it
+      assertSame(failure, e);
+    }
+    for (TestScanner source : sources) {
+      assertTrue(source.closed);
+    }
+    assertFalse(scanner.hasNext());
+  }
+
+  @Test(timeout = 60000)
+  public void testProducerError() {
+    AssertionError failure = new AssertionError("metadata scan failed");
+    List<ClosableIterator<TabletLocationState>> sources = new ArrayList<>();
+    sources.add(new TestScanner("1", 100, null));
+    sources.add(new ClosableIterator<TabletLocationState>() {
+      @Override
+      public boolean hasNext() {
+        throw failure;
+      }
+
+      @Override
+      public TabletLocationState next() {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void close() {}
+    });
+
+    // an Error must reach the caller instead of leaving it waiting for a partition that will never finish
+    ParallelMetaDataTableScanner scanner = new ParallelMetaDataTableScanner(sources);
+    try {
+      read(scanner);
+      fail("the failure of a partition was not reported");
+    } catch (AssertionError e) {
+      assertSame(failure, e);
+    }
+  }
+
+  @Test(timeout = 60000)
+  public void testEarlyClose() throws Exception {
+    // the producers block once the queue is full
+    List<TestScanner> sources = Arrays.asList(new TestScanner("1", Integer.MAX_VALUE, null), new TestScanner("2", Integer.MAX_VALUE, null));
+    ParallelMetaDataTableScanner scanner = new ParallelMetaDataTableScanner(sources);
+    for (int i = 0; i < 10; i++) {
+      assertTrue(scanner.hasNext());
+      scanner.next();
+    }
+    scanner.close();
+    assertFalse(scanner.hasNext());
+    for (TestScanner source : sources) {
+      assertTrue(source.closed);
+    }
+
+    // the producers stop reading once closed, give any that were already reading a tablet time to finish it
+    Thread.sleep(100);
+    int returned = sources.get(0).returned.get() + sources.get(1).returned.get();
+    Thread.sleep(500);
+    assertEquals(returned, sources.get(0).returned.get() + sources.get(1).returned.get());
+  }
+}
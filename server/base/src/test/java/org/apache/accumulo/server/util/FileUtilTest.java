@@ -27,13 +27,22 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 
+import org.apache.accumulo.core.conf.ConfigurationCopy;
+import org.apache.accumulo.core.conf.DefaultConfiguration;
 import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.file.FileOperations;
 import org.apache.accumulo.core.file.FileSKVIterator;
+import org.apache.accumulo.core.file.FileSKVWriter;
 import org.apache.accumulo.server.fs.FileRef;
 import org.apache.accumulo.server.fs.VolumeManager;
 import org.apache.accumulo.server.fs.VolumeManagerImpl;
+import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Text;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Rule;
@@ -212,4 +221,42 @@ public class FileUtilTest {
 
     Assert.assertFalse("Expected " + tmp2 + " to be cleaned up but it wasn't", tmp2.exists());
   }
+
+  @Test
+  public void testFindPartitionRows() throws IOException {
+    ConfigurationCopy conf = new ConfigurationCopy(DefaultConfiguration.getInstance());
+    // a small block size, so that the index has an entry for every few rows
+    conf.set(Property.TABLE_FILE_COMPRESSED_BLOCK_SIZE, "256");
+
+    VolumeManager fs = VolumeManagerImpl.getLocal(accumuloDir.getAbsolutePath());
+    List<String> files = new ArrayList<>();
+    for (int f = 0; f < 2; f++) {
+      String file = new File(accumuloDir, "f" + f + ".rf").getAbsolutePath();
+      FileSystem ns = fs.getVolumeByPath(new Path(file)).getFileSystem();
+      FileSKVWriter writer = FileOperations.getInstance().newWriterBuilder().forFile(file, ns, ns.getConf()).withTableConfiguration(conf).build();
+      writer.startDefaultLocalityGroup();
+      for (int r = f; r < 1000; r += 2) {
+        writer.append(new Key(String.format("r%04d", r), "cf", "cq"), new Value(new byte[64]));
+      }
+      writer.close();
+      files.add(file);
+    }
+
+    List<Text> rows = FileUtil.findPartitionRows(fs, conf, null, null, files, 4);
+    Assert.assertEquals(3, rows.size());
+    for (int i = 0; i < rows.size(); i++) {
+      int row = Integer.parseInt(rows.get(i).toString().substring(1));
+      Assert.assertTrue("Unexpected partition row " + rows.get(i), Math.abs(row - (i + 1) * 250) < 50);
+    }
+
+    rows = FileUtil.findPartitionRows(fs, conf, new Text("r0500"), new Text("r0600"), files, 3);
+    Assert.assertEquals(2, rows.size());
+    Assert.assertTrue(rows.get(0).compareTo(new Text("r0500")) > 0);
+    Assert.assertTrue(rows.get(0).compareTo(rows.get(1)) < 0);
+    Assert.assertTrue(rows.get(1).compareTo(new Text("r0600")) < 0);
+
+    // there are not enough index entries for this many partitions
+    rows = FileUtil.findPartitionRows(fs, conf, new Text("r0500"), new Text("r0501"), files, 3);
+    Assert.assertEquals(0, rows.size());
+  }
 }
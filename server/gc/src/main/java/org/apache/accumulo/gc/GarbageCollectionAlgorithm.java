@@ -27,6 +27,11 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.accumulo.core.Constants;
 import org.apache.accumulo.core.client.AccumuloException;
@@ -41,6 +46,7 @@ import org.apache.accumulo.core.metadata.schema.MetadataSchema.TabletsSection.Da
 import org.apache.accumulo.core.metadata.schema.MetadataSchema.TabletsSection.ScanFileColumnFamily;
 import org.apache.accumulo.core.trace.Span;
 import org.apache.accumulo.core.trace.Trace;
+import org.apache.accumulo.core.util.NamingThreadFactory;
 import org.apache.accumulo.server.ServerConstants;
 import org.apache.accumulo.server.replication.StatusUtil;
 import org.apache.accumulo.server.replication.proto.Replication.Status;
@@ -48,6 +54,7 @@ import org.apache.hadoop.io.Text;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.PeekingIterator;
 
@@ -58,6 +65,22 @@ public class GarbageCollectionAlgorithm {
 
   private static final Logger log = LoggerFactory.getLogger(GarbageCollectionAlgorithm.class);
 
+  private final boolean pipelined;
+
+  public GarbageCollectionAlgorithm() {
+    this(false);
+  }
+
+  /**
+   * @param pipelined
+   *          if true, the confirmed deletes of a batch of candidates are deleted in the background while the next batch is read and confirmed. At most one
+   *          batch is deleted at a time, so the environment's {@link GarbageCollectionEnvironment#delete(SortedMap)} may be called concurrently with the
+   *          other methods, but not with itself.
+   */
+  public GarbageCollectionAlgorithm(boolean pipelined) {
+    this.pipelined = pipelined;
+  }
+
   private String makeRelative(String path, int expectedLen) {
     String relPath = path;
 
@@ -304,26 +327,73 @@ public class GarbageCollectionAlgorithm {
 
     String lastCandidate = "";
 
-    boolean outOfMemory = true;
-    while (outOfMemory) {
-      List<String> candidates = new ArrayList<>();
-
-      outOfMemory = getCandidates(gce, lastCandidate, candidates);
-
-      if (candidates.size() == 0)
-        break;
-      else
-        lastCandidate = candidates.get(candidates.size() - 1);
-
-      long origSize = candidates.size();
-      gce.incrementCandidatesStat(origSize);
+    ExecutorService deleter = pipelined ? Executors.newSingleThreadExecutor(new NamingThreadFactory("gc batch delete")) : null;
+    Future<Void> pendingDeletes = null;
 
-      SortedMap<String,String> candidateMap = makeRelative(candidates);
+    try {
+      boolean outOfMemory = true;
+      while (outOfMemory) {
+        List<String> candidates = new ArrayList<>();
+
+        outOfMemory = getCandidates(gce, lastCandidate, candidates);
+
+        if (candidates.size() == 0)
+          break;
+        else
+          lastCandidate = candidates.get(candidates.size() - 1);
+
+        long origSize = candidates.size();
+        gce.incrementCandidatesStat(origSize);
+
+        SortedMap<String,String> candidateMap = makeRelative(candidates);
+
+        confirmDeletesTrace(gce, candidateMap);
+        gce.incrementInUseStat(origSize - candidateMap.size());
+
+        if (deleter == null) {
+          deleteConfirmed(gce, candidateMap);
+        } else {
+          // only keep one batch of deletes in flight, which bounds the memory used by batches to about twice that of the sequential algorithm
+          waitForDeletes(pendingDeletes);
+          pendingDeletes = deleter.submit(Trace.wrap(() -> {
+            try {
+              deleteConfirmed(gce, candidateMap);
+            } catch (IOException | AccumuloException | AccumuloSecurityException | TableNotFoundException e) {
+              throw new CompletionException(e);
+            }
+          }), null);
+        }
+      }
 
-      confirmDeletesTrace(gce, candidateMap);
-      gce.incrementInUseStat(origSize - candidateMap.size());
+      waitForDeletes(pendingDeletes);
+    } finally {
+      if (deleter != null)
+        deleter.shutdownNow();
+    }
+  }
 
-      deleteConfirmed(gce, candidateMap);
+  private void waitForDeletes(Future<Void> deletes) throws TableNotFoundException, AccumuloException, AccumuloSecurityException, IOException {
+    if (deletes == null)
+      return;
+    try {
+      deletes.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof CompletionException)
+        cause = cause.getCause();
+      if (cause instanceof TableNotFoundException)
+        throw (TableNotFoundException) cause;
+      if (cause instanceof AccumuloException)
+        throw (AccumuloException) cause;
+      if (cause instanceof AccumuloSecurityException)
+        throw (AccumuloSecurityException) cause;
+      if (cause instanceof IOException)
+        throw (IOException) cause;
+      Throwables.propagateIfPossible(cause);
+      throw new RuntimeException(cause);
     }
   }
 }
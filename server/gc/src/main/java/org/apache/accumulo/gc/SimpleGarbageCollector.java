@@ -185,6 +185,7 @@ public class SimpleGarbageCollector extends AccumuloServerContext implements Ifa
     log.info("verbose: {}", opts.verbose);
     log.info("memory threshold: {} of bytes", CANDIDATE_MEMORY_PERCENTAGE, Runtime.getRuntime().maxMemory());
     log.info("delete threads: {}", getNumDeleteThreads());
+    log.info("pipeline deletes: {}", isPipeliningDeletes());
   }
 
   /**
@@ -230,6 +231,15 @@ public class SimpleGarbageCollector extends AccumuloServerContext implements Ifa
     return getConfiguration().getCount(Property.GC_DELETE_THREADS);
   }
 
+  /**
+   * Checks if the confirmed deletes of one batch of candidates are deleted while the next batch is processed.
+   *
+   * @return true if deletes are pipelined
+   */
+  boolean isPipeliningDeletes() {
+    return getConfiguration().getBoolean(Property.GC_DELETE_PIPELINE);
+  }
+
   /**
    * Should files be archived (as opposed to preserved in trash)
    *
@@ -531,8 +541,8 @@ public class SimpleGarbageCollector extends AccumuloServerContext implements Ifa
 
         status.current.started = System.currentTimeMillis();
 
-        new GarbageCollectionAlgorithm().collect(new GCEnv(RootTable.NAME));
-        new GarbageCollectionAlgorithm().collect(new GCEnv(MetadataTable.NAME));
+        new GarbageCollectionAlgorithm(isPipeliningDeletes()).collect(new GCEnv(RootTable.NAME));
+        new GarbageCollectionAlgorithm(isPipeliningDeletes()).collect(new GCEnv(MetadataTable.NAME));
 
         log.info("Number of data file candidates for deletion: {}", status.current.candidates);
         log.info("Number of data file candidates still in use: {}", status.current.inUse);
@@ -189,6 +189,37 @@ public class GarbageCollectionTest {
 
   }
 
+  @Test
+  public void testPipelined() throws Exception {
+    // deletes happen on another thread while the next batch of candidates is read
+    TestGCE gce = new TestGCE() {
+      @Override
+      public synchronized boolean getCandidates(String continuePoint, List<String> ret) {
+        return super.getCandidates(continuePoint, ret);
+      }
+
+      @Override
+      public synchronized void delete(SortedMap<String,String> candidateMap) {
+        super.delete(candidateMap);
+      }
+    };
+
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      String file = String.format("hdfs://foo.com:6000/accumulo/tables/4/t0/F%03d.rf", i);
+      gce.candidates.add(file);
+      if (i % 4 == 0)
+        gce.addFileReference("4", null, file);
+      else
+        expected.add(file);
+    }
+
+    GarbageCollectionAlgorithm gca = new GarbageCollectionAlgorithm(true);
+    gca.collect(gce);
+    assertRemoved(gce, expected.toArray(new String[expected.size()]));
+    Assert.assertEquals(5, gce.candidates.size());
+  }
+
   @Test
   public void testRelative() throws Exception {
     TestGCE gce = new TestGCE();
@@ -118,6 +118,7 @@ public class SimpleGarbageCollectorTest {
     conf.put(Property.GC_DELETE_THREADS.getKey(), "2");
     conf.put(Property.GC_TRASH_IGNORE.getKey(), "false");
     conf.put(Property.GC_FILE_ARCHIVE.getKey(), "false");
+    conf.put(Property.GC_DELETE_PIPELINE.getKey(), "true");
 
     return new ConfigurationCopy(conf);
   }
@@ -130,6 +131,7 @@ public class SimpleGarbageCollectorTest {
     assertTrue(gc.isUsingTrash());
     assertEquals(1000L, gc.getStartDelay());
     assertEquals(2, gc.getNumDeleteThreads());
+    assertTrue(gc.isPipeliningDeletes());
   }
 
   @Test
@@ -32,6 +32,7 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -193,7 +194,7 @@ public class Master extends AccumuloServerContext implements LiveTServerSet.List
   final private String hostname;
   final private Object balancedNotifier = new Object();
   final LiveTServerSet tserverSet;
-  final private List<TabletGroupWatcher> watchers = new ArrayList<>();
+  final private List<TabletGroupWatcher> watchers = new CopyOnWriteArrayList<>();
   final SecurityOperation security;
   final Map<TServerInstance,AtomicInteger> badServers = Collections.synchronizedMap(new DefaultMap<TServerInstance,AtomicInteger>(new AtomicInteger()));
   final Set<TServerInstance> serversToShutdown = Collections.synchronizedSet(new HashSet<TServerInstance>());
@@ -520,6 +521,15 @@ public class Master extends AccumuloServerContext implements LiveTServerSet.List
     }
   }
 
+  /**
+   * Called when a tablet server reports a change to a tablet, so that the watchers rescan its table even if it needed no attention before.
+   */
+  void tabletStatusReported(KeyExtent extent) {
+    for (TabletGroupWatcher watcher : watchers) {
+      watcher.tableChanged(extent.getTableId());
+    }
+  }
+
   private int assignedOrHosted(Table.ID tableId) {
     int result = 0;
     for (TabletGroupWatcher watcher : watchers) {
@@ -365,6 +365,7 @@ public class MasterClientServiceHandler extends FateServiceHandler implements Ma
         master.nextEvent.event("tablet %s chopped", tablet);
         break;
     }
+    master.tabletStatusReported(tablet);
   }
 
   @Override
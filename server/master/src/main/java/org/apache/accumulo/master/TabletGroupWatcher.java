@@ -21,8 +21,10 @@ import static org.apache.accumulo.fate.util.UtilWaitThread.sleepUninterruptibly;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -32,6 +34,7 @@ import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.accumulo.core.Constants;
@@ -45,6 +48,7 @@ import org.apache.accumulo.core.client.RowIterator;
 import org.apache.accumulo.core.client.Scanner;
 import org.apache.accumulo.core.client.TableNotFoundException;
 import org.apache.accumulo.core.client.impl.Table;
+import org.apache.accumulo.core.client.impl.Tables;
 import org.apache.accumulo.core.conf.Property;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Mutation;
@@ -112,6 +116,13 @@ abstract class TabletGroupWatcher extends Daemon {
   final TableStats stats = new TableStats();
   private SortedSet<TServerInstance> lastScanServers = ImmutableSortedSet.of();
 
+  // tables that had no tablets needing attention in the last scan, along with what that decision was based on
+  private Set<Table.ID> quietTables = Collections.emptySet();
+  private Map<Table.ID,TableState> lastTableStates = Collections.emptyMap();
+  private List<Object> lastScanInputs = null;
+  private long lastFullScan = 0;
+  private final Set<Table.ID> changedTables = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
   TabletGroupWatcher(Master master, TabletStateStore store, TabletGroupWatcher dependentWatcher) {
     this.master = master;
     this.store = store;
@@ -134,6 +145,11 @@ abstract class TabletGroupWatcher extends Daemon {
     return stats.getLast(tableId);
   }
 
+  /** Rescan the tablets of a table on the next pass, even if none of them needed attention in the last pass. */
+  void tableChanged(Table.ID tableId) {
+    changedTables.add(tableId);
+  }
+
   /** True if the collection of live tservers specified in 'candidates' hasn't changed since the last time an assignment scan was started. */
   public synchronized boolean isSameTserversAsLastScan(Set<TServerInstance> candidates) {
     return candidates.equals(lastScanServers);
@@ -191,15 +207,56 @@ abstract class TabletGroupWatcher extends Daemon {
 
         MasterState masterState = master.getMasterState();
         int[] counts = new int[TabletState.values().length];
+
+        // Tablets that are in their expected state are filtered out by the store, so a table that returned nothing last time only needs to be scanned again
+        // if something that filter depends on has changed. Tablet servers can still change a tablet on their own, so do a full scan once in a while.
+        Map<Table.ID,TableState> tableStates = new HashMap<>();
+        for (Table.ID tableId : Tables.getIdToNameMap(master.getInstance()).keySet()) {
+          tableStates.put(tableId, TableManager.getInstance().getTableState(tableId));
+        }
+        List<Object> scanInputs = Arrays.asList(ImmutableSortedSet.copyOf(currentTServers.keySet()), ImmutableSortedSet.copyOf(master.serversToShutdown),
+            masterState);
+        long fullScanInterval = master.getConfiguration().getTimeInMillis(Property.MASTER_METADATA_SCAN_FULL_INTERVAL);
+        Set<Table.ID> tablesToScan = null;
+        if (scanInputs.equals(lastScanInputs) && System.currentTimeMillis() - lastFullScan < fullScanInterval) {
+          tablesToScan = new HashSet<>();
+          for (Entry<Table.ID,TableState> entry : tableStates.entrySet()) {
+            Table.ID tableId = entry.getKey();
+            if (!quietTables.contains(tableId) || currentMerges.containsKey(tableId) || entry.getValue() != lastTableStates.get(tableId))
+              tablesToScan.add(tableId);
+          }
+          for (KeyExtent extent : master.migrationsSnapshot()) {
+            tablesToScan.add(extent.getTableId());
+          }
+        }
+        for (Iterator<Table.ID> changed = changedTables.iterator(); changed.hasNext();) {
+          Table.ID tableId = changed.next();
+          changed.remove();
+          if (tablesToScan != null)
+            tablesToScan.add(tableId);
+        }
+        if (tablesToScan == null) {
+          lastFullScan = System.currentTimeMillis();
+        } else {
+          Master.log.debug("[{}]: scanning {} of {} tables", store.name(), tablesToScan.size(), tableStates.size());
+        }
+        Set<Table.ID> tablesSeen = new HashSet<>();
+
         stats.begin();
         // Walk through the tablets in our store, and work tablets
         // towards their goal
-        iter = store.iterator();
-        while (iter.hasNext()) {
+        if (tablesToScan == null)
+          iter = store.iterator();
+        else if (tablesToScan.isEmpty())
+          iter = null;
+        else
+          iter = store.iterator(tablesToScan);
+        while (iter != null && iter.hasNext()) {
           TabletLocationState tls = iter.next();
           if (tls == null) {
             continue;
           }
+          tablesSeen.add(tls.extent.getTableId());
           Master.log.debug("{} location State: {}", store.name(), tls);
           // ignore entries for tables that do not exist in zookeeper
           if (TableManager.getInstance().getTableState(tls.extent.getTableId()) == null)
@@ -371,6 +428,11 @@ abstract class TabletGroupWatcher extends Daemon {
 
         updateMergeState(mergeStatsCache);
 
+        quietTables = new HashSet<>(tableStates.keySet());
+        quietTables.removeAll(tablesSeen);
+        lastTableStates = tableStates;
+        lastScanInputs = scanInputs;
+
         synchronized (this) {
           lastScanServers = ImmutableSortedSet.copyOf(currentTServers.keySet());
         }
@@ -382,6 +444,8 @@ abstract class TabletGroupWatcher extends Daemon {
         }
       } catch (Exception ex) {
         Master.log.error("Error processing table state for store " + store.name(), ex);
+        // do a full scan next time
+        lastScanInputs = null;
         if (ex.getCause() != null && ex.getCause() instanceof BadLocationStateException) {
           repairMetadata(((BadLocationStateException) ex.getCause()).getEncodedEndRow());
         } else {
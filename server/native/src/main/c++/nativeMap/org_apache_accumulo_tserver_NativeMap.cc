@@ -107,6 +107,93 @@ JNIEXPORT jboolean JNICALL Java_org_apache_accumulo_tserver_NativeMap_nmiNext(JN
 	return true;
 }
 
+static void putInt(uint8_t *&p, int32_t v) {
+	memcpy(p, &v, sizeof(v));
+	p += sizeof(v);
+}
+
+static void putLong(uint8_t *&p, int64_t v) {
+	memcpy(p, &v, sizeof(v));
+	p += sizeof(v);
+}
+
+static void putField(uint8_t *&p, const Field &f) {
+	memcpy(p, f.field, f.length());
+	p += f.length();
+}
+
+/*
+ * Copies as many entries as fit, up to maxEntries, from the iterator into a direct byte buffer and advances past them. Writing stops after the entry that
+ * brings the total written past maxBytes. The buffer starts with an int that is 1 if the iterator has more entries, followed by the entries. Each entry is
+ * seven ints (row length or -1 if the row is the same as the previous entry in the buffer, cf length, cq length, cv length, deleted, value length and
+ * mutation count) and a long timestamp, followed by the row, cf, cq, cv and value. Everything is in native byte order.
+ *
+ * Returns the number of entries written. If not even one entry fits, nothing is written and the negated buffer size needed is returned.
+ */
+JNIEXPORT jint JNICALL Java_org_apache_accumulo_tserver_NativeMap_nmiNextBatch(JNIEnv *env, jclass cls, jlong ip, jobject buffer, jint maxEntries, jint maxBytes, jintArray lens) {
+	Iterator &iter = *((Iterator *)ip);
+
+	uint8_t *start = (uint8_t *)env->GetDirectBufferAddress(buffer);
+	jlong capacity = env->GetDirectBufferCapacity(buffer);
+	uint8_t *p = start + sizeof(int32_t);
+
+	int count = 0;
+	bool rowChanged = true;
+	int32_t ia[7];
+
+	while(!iter.atEnd() && count < maxEntries && (p - start) <= maxBytes) {
+		const Field &row = iter.rowIter->first;
+		const SubKey &sk = iter.colIter->first;
+		const Field &val = iter.colIter->second;
+
+		jlong entrySize = 7 * sizeof(int32_t) + sizeof(int64_t) + (rowChanged ? row.length() : 0) + sk.getCFLen() + sk.getCQLen() + sk.getCVLen() + val.length();
+		if((p - start) + entrySize > capacity) {
+			if(count == 0) {
+				return -(jint)(entrySize + sizeof(int32_t));
+			}
+			break;
+		}
+
+		putInt(p, rowChanged ? row.length() : -1);
+		putInt(p, sk.getCFLen());
+		putInt(p, sk.getCQLen());
+		putInt(p, sk.getCVLen());
+		putInt(p, sk.isDeleted() ? 1 : 0);
+		putInt(p, val.length());
+		putInt(p, sk.getMC());
+		putLong(p, sk.getTimestamp());
+		if(rowChanged) {
+			putField(p, row);
+		}
+		putField(p, sk.getCF());
+		putField(p, sk.getCQ());
+		putField(p, sk.getCV());
+		putField(p, val);
+		count++;
+
+		RowMap::iterator prevRow = iter.rowIter;
+		iter.advance(ia);
+		rowChanged = iter.rowIter != prevRow;
+	}
+
+	int32_t hasNext = iter.atEnd() ? 0 : 1;
+	memcpy(start, &hasNext, sizeof(hasNext));
+
+	if(hasNext) {
+		// keep the lengths of the current entry up to date for nmiGetData(), always including the row
+		ia[0] = iter.rowIter->first.length();
+		ia[1] = iter.colIter->first.getCFLen();
+		ia[2] = iter.colIter->first.getCQLen();
+		ia[3] = iter.colIter->first.getCVLen();
+		ia[4] = iter.colIter->first.isDeleted() ? 1 : 0;
+		ia[5] = iter.colIter->second.length();
+		ia[6] = iter.colIter->first.getMC();
+		env->SetIntArrayRegion(lens, 0, 7, ia);
+	}
+
+	return count;
+}
+
 JNIEXPORT void JNICALL Java_org_apache_accumulo_tserver_NativeMap_nmiGetData(JNIEnv *env, jclass cls, jlong ip, jbyteArray r, jbyteArray cf, jbyteArray cq, jbyteArray cv, jbyteArray val) {
 	Iterator &iter = *((Iterator *)ip);
 	if(r != NULL) {
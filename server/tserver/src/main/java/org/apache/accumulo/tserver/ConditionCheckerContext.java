@@ -103,7 +103,13 @@ public class ConditionCheckerContext {
     return IteratorUtil.loadIterators(systemIter, mic.mergedIters, mic.mergedItersOpts, tie, true, context, classCache);
   }
 
-  boolean checkConditions(SortedKeyValueIterator<Key,Value> systemIter, ServerConditionalMutation scm) throws IOException {
+  /**
+   * @param iterators
+   *          iterator stacks already built on {@code systemIter}, keyed by the compressed iterator configuration of the condition. Stacks are seeked for every
+   *          condition, so one stack can check all of a tablet's conditions that use the same iterators.
+   */
+  boolean checkConditions(SortedKeyValueIterator<Key,Value> systemIter, ServerConditionalMutation scm,
+      Map<ByteSequence,SortedKeyValueIterator<Key,Value>> iterators) throws IOException {
     boolean add = true;
 
     for (TCondition tc : scm.getConditions()) {
@@ -114,7 +120,12 @@ public class ConditionCheckerContext {
       else
         range = Range.exact(new Text(scm.getRow()), new Text(tc.getCf()), new Text(tc.getCq()), new Text(tc.getCv()));
 
-      SortedKeyValueIterator<Key,Value> iter = buildIterator(systemIter, tc);
+      ByteSequence iterConfig = new ArrayByteSequence(tc.iterators);
+      SortedKeyValueIterator<Key,Value> iter = iterators.get(iterConfig);
+      if (iter == null) {
+        iter = buildIterator(systemIter, tc);
+        iterators.put(iterConfig, iter);
+      }
 
       ByteSequence cf = new ArrayByteSequence(tc.getCf());
       iter.seek(range, Collections.singleton(cf), true);
@@ -148,8 +159,11 @@ public class ConditionCheckerContext {
       checkArgument(!checked, "check() method should only be called once");
       checked = true;
 
+      // building an iterator stack loads and initializes every table and condition iterator, so build each distinct stack once per tablet
+      Map<ByteSequence,SortedKeyValueIterator<Key,Value>> iterators = new HashMap<>();
+
       for (ServerConditionalMutation scm : conditionsToCheck) {
-        if (checkConditions(systemIter, scm)) {
+        if (checkConditions(systemIter, scm, iterators)) {
           okMutations.add(scm);
         } else {
           results.add(new TCMResult(scm.getID(), TCMStatus.REJECTED));
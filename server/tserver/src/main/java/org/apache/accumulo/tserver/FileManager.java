@@ -26,6 +26,11 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -58,6 +63,8 @@ import org.apache.hadoop.fs.Path;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.util.concurrent.Uninterruptibles;
+
 public class FileManager {
 
   private static final Logger log = LoggerFactory.getLogger(FileManager.class);
@@ -114,6 +121,8 @@ public class FileManager {
   private BlockCache dataCache = null;
   private BlockCache indexCache = null;
 
+  private final ExecutorService fileAccessPool;
+
   private long maxIdleTime;
 
   private final AccumuloServerContext context;
@@ -163,14 +172,17 @@ public class FileManager {
    *          : underlying file can and should be able to handle a null cache
    * @param indexCache
    *          : underlying file can and should be able to handle a null cache
+   * @param fileAccessPool
+   *          : used to open files and seek them in parallel, may be null
    */
-  public FileManager(AccumuloServerContext context, VolumeManager fs, int maxOpen, BlockCache dataCache, BlockCache indexCache) {
+  public FileManager(AccumuloServerContext context, VolumeManager fs, int maxOpen, BlockCache dataCache, BlockCache indexCache, ExecutorService fileAccessPool) {
 
     if (maxOpen <= 0)
       throw new IllegalArgumentException("maxOpen <= 0");
     this.context = context;
     this.dataCache = dataCache;
     this.indexCache = indexCache;
+    this.fileAccessPool = fileAccessPool;
 
     this.filePermits = new Semaphore(maxOpen, true);
     this.maxOpen = maxOpen;
@@ -308,17 +320,28 @@ public class FileManager {
     // limitations
     closeReaders(filesToClose);
 
-    // open any files that need to be opened
+    // open any files that need to be opened, in parallel when there are several
+    List<Future<FileSKVIterator>> opened = new ArrayList<>(filesToOpen.size());
     for (String file : filesToOpen) {
+      opened.add(openReader(tablet, file, filesToOpen.size() > 1));
+    }
+
+    int permitsReleased = 0;
+    for (int i = 0; i < filesToOpen.size(); i++) {
+      String file = filesToOpen.get(i);
       try {
-        if (!file.contains(":"))
-          throw new IllegalArgumentException("Expected uri, got : " + file);
-        Path path = new Path(file);
-        FileSystem ns = fs.getVolumeByPath(path).getFileSystem();
-        // log.debug("Opening "+file + " path " + path);
-        FileSKVIterator reader = FileOperations.getInstance().newReaderBuilder().forFile(path.toString(), ns, ns.getConf())
-            .withTableConfiguration(context.getServerConfigurationFactory().getTableConfiguration(tablet.getTableId())).withBlockCache(dataCache, indexCache)
-            .build();
+        FileSKVIterator reader;
+        try {
+          reader = Uninterruptibles.getUninterruptibly(opened.get(i));
+        } catch (ExecutionException ee) {
+          Throwable cause = ee.getCause();
+          if (cause instanceof Error) {
+            // errors are not handled like a file that failed to open, but the readers opened so far are still closed
+            closeAfterFailure(tablet, reservedFiles, opened.subList(i + 1, opened.size()), files.size() - permitsReleased);
+            throw (Error) cause;
+          }
+          throw cause instanceof Exception ? (Exception) cause : ee;
+        }
         reservedFiles.add(reader);
         readersReserved.put(reader, file);
       } catch (Exception e) {
@@ -330,14 +353,11 @@ public class FileManager {
           if (!tablet.isMeta()) {
             filePermits.release(1);
           }
+          permitsReleased++;
           log.warn("Failed to open file {} {} continuing...", file, e.getMessage(), e);
         } else {
-          // close whatever files were opened
-          closeReaders(reservedFiles);
-
-          if (!tablet.isMeta()) {
-            filePermits.release(files.size());
-          }
+          // close whatever files were opened, including those opened after the failed one
+          closeAfterFailure(tablet, reservedFiles, opened.subList(i + 1, opened.size()), files.size());
 
           log.error("Failed to open file {} {}", file, e.getMessage());
           throw new IOException("Failed to open " + file, e);
@@ -353,6 +373,47 @@ public class FileManager {
     return reservedFiles;
   }
 
+  /**
+   * Closes the readers reserved so far and those still being opened, and releases the permits held for them.
+   */
+  private void closeAfterFailure(KeyExtent tablet, List<FileSKVIterator> reservedFiles, List<Future<FileSKVIterator>> pending, int permits) {
+    for (Future<FileSKVIterator> future : pending) {
+      try {
+        reservedFiles.add(Uninterruptibles.getUninterruptibly(future));
+      } catch (ExecutionException ee) {
+        // already reporting a failure
+      }
+    }
+    closeReaders(reservedFiles);
+
+    if (!tablet.isMeta()) {
+      filePermits.release(permits);
+    }
+  }
+
+  private Future<FileSKVIterator> openReader(final KeyExtent tablet, final String file, boolean parallel) {
+    Callable<FileSKVIterator> open = new Callable<FileSKVIterator>() {
+      @Override
+      public FileSKVIterator call() throws Exception {
+        if (!file.contains(":"))
+          throw new IllegalArgumentException("Expected uri, got : " + file);
+        Path path = new Path(file);
+        FileSystem ns = fs.getVolumeByPath(path).getFileSystem();
+        // log.debug("Opening "+file + " path " + path);
+        return FileOperations.getInstance().newReaderBuilder().forFile(path.toString(), ns, ns.getConf())
+            .withTableConfiguration(context.getServerConfigurationFactory().getTableConfiguration(tablet.getTableId())).withBlockCache(dataCache, indexCache)
+            .build();
+      }
+    };
+
+    if (parallel && fileAccessPool != null)
+      return fileAccessPool.submit(open);
+
+    FutureTask<FileSKVIterator> task = new FutureTask<>(open);
+    task.run();
+    return task;
+  }
+
   private void releaseReaders(KeyExtent tablet, List<FileSKVIterator> readers, boolean sawIOException) {
     // put files in openFiles
 
@@ -594,6 +655,13 @@ public class FileManager {
     public synchronized int getNumOpenFiles() {
       return tabletReservedReaders.size();
     }
+
+    /**
+     * @return the pool used to seek files in parallel, or null if files are seeked one at a time
+     */
+    public ExecutorService getFileAccessPool() {
+      return fileAccessPool;
+    }
   }
 
   public ScanFileManager newScanFileManager(KeyExtent tablet) {
@@ -91,6 +91,8 @@ public class InMemoryMap {
 
   private Map<String,Set<ByteSequence>> lggroups;
 
+  private final boolean concurrentWrites;
+
   private static Pair<SamplerConfigurationImpl,Sampler> getSampler(AccumuloConfiguration config) {
     try {
       SamplerConfigurationImpl sampleConfig = SamplerConfigurationImpl.newSamplerConfig(config);
@@ -130,6 +132,7 @@ public class InMemoryMap {
   public InMemoryMap(AccumuloConfiguration config) throws LocalityGroupConfigurationError {
 
     boolean useNativeMap = config.getBoolean(Property.TSERV_NATIVEMAP_ENABLED);
+    this.concurrentWrites = config.getBoolean(Property.TSERV_MEMORY_MAPS_CONCURRENT_WRITES);
 
     this.memDumpDir = config.get(Property.TSERV_MEMDUMP_DIR);
     this.lggroups = LocalityGroupUtil.getLocalityGroups(config);
@@ -289,12 +292,10 @@ public class InMemoryMap {
     // the last map in the array is the default locality group
     private SimpleMap maps[];
     private Partitioner partitioner;
-    private PreAllocatedArray<List<Mutation>> partitioned;
 
     LocalityGroupMap(Map<String,Set<ByteSequence>> groups, boolean useNativeMap) {
       this.groupFams = new PreAllocatedArray<>(groups.size());
       this.maps = new SimpleMap[groups.size() + 1];
-      this.partitioned = new PreAllocatedArray<>(groups.size() + 1);
 
       for (int i = 0; i < maps.length; i++) {
         maps[i] = newMap(useNativeMap);
@@ -309,10 +310,6 @@ public class InMemoryMap {
       }
 
       partitioner = new LocalityGroupUtil.Partitioner(this.groupFams);
-
-      for (int i = 0; i < partitioned.length; i++) {
-        partitioned.set(i, new ArrayList<Mutation>());
-      }
     }
 
     @Override
@@ -364,25 +361,20 @@ public class InMemoryMap {
     }
 
     @Override
-    public synchronized void mutate(List<Mutation> mutations, int kvCount) {
-      // this method is synchronized because it reuses objects to avoid allocation,
-      // currently, the method that calls this is synchronized so there is no
-      // loss in parallelism.... synchronization was added here for future proofing
+    public void mutate(List<Mutation> mutations, int kvCount) {
+      // the partitioned lists are allocated per call so that concurrent writers do not need to synchronize
+      PreAllocatedArray<List<Mutation>> partitioned = new PreAllocatedArray<>(maps.length);
+      for (int i = 0; i < partitioned.length; i++) {
+        partitioned.set(i, new ArrayList<Mutation>());
+      }
 
-      try {
-        partitioner.partition(mutations, partitioned);
+      partitioner.partition(mutations, partitioned);
 
-        for (int i = 0; i < partitioned.length; i++) {
-          if (partitioned.get(i).size() > 0) {
-            maps[i].mutate(partitioned.get(i), kvCount);
-            for (Mutation m : partitioned.get(i))
-              kvCount += m.getUpdates().size();
-          }
-        }
-      } finally {
-        // clear immediately so mutations can be garbage collected
-        for (List<Mutation> list : partitioned) {
-          list.clear();
+      for (int i = 0; i < partitioned.length; i++) {
+        if (partitioned.get(i).size() > 0) {
+          maps[i].mutate(partitioned.get(i), kvCount);
+          for (Mutation m : partitioned.get(i))
+            kvCount += m.getUpdates().size();
         }
       }
     }
@@ -528,13 +520,49 @@ public class InMemoryMap {
     // wait for writes that started before to finish.
     //
     // using separate lock from this map, to allow read/write in parallel
+    if (!concurrentWrites) {
+      synchronized (writeSerializer) {
+        int kv = nextKVCount.getAndAdd(numKVs);
+        try {
+          map.mutate(mutations, kv);
+        } finally {
+          kvCount.set(kv + numKVs - 1);
+        }
+      }
+      return;
+    }
+
+    // Each writer reserves a range of kv counts and writes to the map in parallel with other writers. The underlying maps are concurrent and keys written by
+    // different writers never collide because they have different kv counts. Only updating the mutation count is serialized, in the order the ranges were
+    // reserved.
+    int kv = nextKVCount.getAndAdd(numKVs);
+    try {
+      map.mutate(mutations, kv);
+    } finally {
+      publish(kv, numKVs);
+    }
+  }
+
+  /**
+   * Makes a range of kv counts visible to readers, after waiting for all ranges reserved before it to be made visible.
+   */
+  private void publish(int kv, int numKVs) {
+    boolean interrupted = false;
     synchronized (writeSerializer) {
-      int kv = nextKVCount.getAndAdd(numKVs);
-      try {
-        map.mutate(mutations, kv);
-      } finally {
-        kvCount.set(kv + numKVs - 1);
+      while (kvCount.get() != kv - 1) {
+        try {
+          writeSerializer.wait();
+        } catch (InterruptedException e) {
+          // the write is already in the map, so it must be published regardless
+          interrupted = true;
+        }
       }
+      kvCount.set(kv + numKVs - 1);
+      writeSerializer.notifyAll();
+    }
+
+    if (interrupted) {
+      Thread.currentThread().interrupt();
     }
   }
 
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.tserver;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.apache.accumulo.core.util.ratelimit.RateLimiter;
+import org.apache.accumulo.core.util.ratelimit.SharedRateLimiterFactory;
+import org.apache.accumulo.core.util.ratelimit.SharedRateLimiterFactory.RateProvider;
+
+/**
+ * A named pool of threads that runs the major compactions of one size class. Each executor orders its own queue of compactions and has its own read and write
+ * throughput budget, so that compactions of small files are not stuck behind, or throttled by, long running compactions of large files.
+ */
+public class MajorCompactionExecutor {
+
+  public static final String DEFAULT_NAME = "default";
+
+  private final String name;
+  private final long maxSize;
+  private final ThreadPoolExecutor threadPool;
+  private final ExecutorService executor;
+  private final String limiterKey;
+  private final RateProvider rateProvider;
+
+  /**
+   * @param maxSize
+   *          the largest estimated compaction input, in bytes, this executor runs
+   * @param threadPool
+   *          the pool that runs the compactions, used for metrics
+   * @param executor
+   *          the service compactions are submitted to, which wraps {@code threadPool}
+   * @param limiterKey
+   *          the prefix of the keys of this executor's shared rate limiters
+   */
+  MajorCompactionExecutor(String name, long maxSize, ThreadPoolExecutor threadPool, ExecutorService executor, String limiterKey, RateProvider rateProvider) {
+    this.name = name;
+    this.maxSize = maxSize;
+    this.threadPool = threadPool;
+    this.executor = executor;
+    this.limiterKey = limiterKey;
+    this.rateProvider = rateProvider;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public long getMaxSize() {
+    return maxSize;
+  }
+
+  void execute(Runnable compactionTask) {
+    executor.execute(compactionTask);
+  }
+
+  /**
+   * @return the limiter shared by reads of all compactions running on this executor
+   */
+  public RateLimiter getReadLimiter() {
+    return SharedRateLimiterFactory.getInstance().create(limiterKey + "_read", rateProvider);
+  }
+
+  /**
+   * @return the limiter shared by writes of all compactions running on this executor
+   */
+  public RateLimiter getWriteLimiter() {
+    return SharedRateLimiterFactory.getInstance().create(limiterKey + "_write", rateProvider);
+  }
+
+  public int getRunning() {
+    return threadPool.getActiveCount();
+  }
+
+  public int getQueued() {
+    return threadPool.getQueue().size();
+  }
+
+  public long getCompleted() {
+    return threadPool.getCompletedTaskCount();
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
@@ -18,6 +18,8 @@ package org.apache.accumulo.tserver;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -247,6 +249,20 @@ public class NativeMap implements Iterable<Map.Entry<Key,Value>> {
 
   private static native void deleteNMI(long nmiPointer);
 
+  private static native int nmiNextBatch(long nmiPointer, ByteBuffer buffer, int maxEntries, int maxBytes, int fieldLens[]);
+
+  // Direct buffers are expensive to allocate, so each reading thread reuses one. Entries are copied out of the buffer before the read lock is released.
+  private static final ThreadLocal<ByteBuffer> batchBuffers = new ThreadLocal<ByteBuffer>() {
+    @Override
+    protected ByteBuffer initialValue() {
+      return allocateBatchBuffer(16 * 1024);
+    }
+  };
+
+  private static ByteBuffer allocateBatchBuffer(int size) {
+    return ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder());
+  }
+
   private class ConcurrentIterator implements Iterator<Map.Entry<Key,Value>> {
 
     // in order to get good performance when there are multiple threads reading, need to read a lot while the
@@ -290,20 +306,12 @@ public class NativeMap implements Iterable<Map.Entry<Key,Value>> {
       if (source.hasNext())
         source.doNextPreCheck();
 
-      int amountRead = 0;
-
       // as we keep filling, increase the read ahead buffer
       if (nextEntries.length < MAX_READ_AHEAD_ENTRIES)
         nextEntries = new PreAllocatedArray<>(Math.min(nextEntries.length * 2, MAX_READ_AHEAD_ENTRIES));
 
-      while (source.hasNext() && end < nextEntries.length) {
-        Entry<Key,Value> ne = source.next();
-        nextEntries.set(end++, ne);
-        amountRead += ne.getKey().getSize() + ne.getValue().getSize();
-
-        if (amountRead > READ_AHEAD_BYTES)
-          break;
-      }
+      if (source.hasNext())
+        end = source.nextBatch(nextEntries, READ_AHEAD_BYTES);
     }
 
     @Override
@@ -451,6 +459,61 @@ public class NativeMap implements Iterable<Map.Entry<Key,Value>> {
       return new SimpleImmutableEntry<>(k, v);
     }
 
+    /**
+     * Reads up to {@code entries.length} entries with a single call into the native map, stopping after the entry that brings the amount read past
+     * {@code maxBytes}. This avoids the three JNI calls per entry that {@link #next()} makes.
+     *
+     * @return the number of entries placed in {@code entries}
+     */
+    // It is assumed that this method is called w/ the read lock held and
+    // that doNextPreCheck() is called prior to calling this method
+    synchronized int nextBatch(PreAllocatedArray<Entry<Key,Value>> entries, int maxBytes) {
+      if (!hasNext) {
+        throw new NoSuchElementException();
+      }
+
+      if (nmiPointer == 0) {
+        throw new IllegalStateException("Native Map Iterator Deleted");
+      }
+
+      ByteBuffer buffer = batchBuffers.get();
+      int count = nmiNextBatch(nmiPointer, buffer, entries.length, maxBytes, fieldsLens);
+      if (count < 0) {
+        // the next entry is larger than the buffer, so grow it and try again
+        buffer = allocateBatchBuffer(Math.max(-count, buffer.capacity() * 2));
+        batchBuffers.set(buffer);
+        count = nmiNextBatch(nmiPointer, buffer, entries.length, maxBytes, fieldsLens);
+      }
+
+      buffer.clear();
+      hasNext = buffer.getInt() != 0;
+
+      for (int i = 0; i < count; i++) {
+        int rowLen = buffer.getInt();
+        byte cf[] = new byte[buffer.getInt()];
+        byte cq[] = new byte[buffer.getInt()];
+        byte cv[] = new byte[buffer.getInt()];
+        boolean deleted = buffer.getInt() != 0;
+        byte val[] = new byte[buffer.getInt()];
+        int mutationCount = buffer.getInt();
+        long ts = buffer.getLong();
+
+        if (rowLen >= 0) {
+          lastRow = new byte[rowLen];
+          buffer.get(lastRow);
+        }
+        buffer.get(cf);
+        buffer.get(cq);
+        buffer.get(cv);
+        buffer.get(val);
+
+        Key k = new MemKey(lastRow, cf, cq, cv, ts, deleted, false, mutationCount);
+        entries.set(i, new SimpleImmutableEntry<Key,Value>(k, new Value(val, false)));
+      }
+
+      return count;
+    }
+
     @Override
     public void remove() {
       throw new UnsupportedOperationException();
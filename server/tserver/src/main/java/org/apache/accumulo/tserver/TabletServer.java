@@ -160,8 +160,6 @@ import org.apache.accumulo.core.util.Pair;
 import org.apache.accumulo.core.util.ServerServices;
 import org.apache.accumulo.core.util.ServerServices.Service;
 import org.apache.accumulo.core.util.SimpleThreadPool;
-import org.apache.accumulo.core.util.ratelimit.RateLimiter;
-import org.apache.accumulo.core.util.ratelimit.SharedRateLimiterFactory;
 import org.apache.accumulo.core.zookeeper.ZooUtil;
 import org.apache.accumulo.fate.util.LoggingRunnable;
 import org.apache.accumulo.fate.zookeeper.IZooReaderWriter;
@@ -296,6 +294,10 @@ public class TabletServer extends AccumuloServerContext implements Runnable {
   private final Metrics scanMetrics;
   private final Metrics mincMetrics;
 
+  public Metrics getUpdateMetrics() {
+    return updateMetrics;
+  }
+
   public Metrics getScanMetrics() {
     return scanMetrics;
   }
@@ -618,7 +620,8 @@ public class TabletServer extends AccumuloServerContext implements Runnable {
 
       if (scanResult.more && scanSession.batchCount > scanSession.readaheadThreshold) {
         // start reading next batch while current batch is transmitted
-        // to client
+        // to client, reading more at a time the longer the scan runs
+        scanSession.scanner.growBatchSize();
         scanSession.nextBatchTask = new NextBatchTask(TabletServer.this, scanID, scanSession.interruptFlag);
         resourceManager.executeReadAhead(scanSession.extent, scanSession.nextBatchTask);
       }
@@ -3268,28 +3271,10 @@ public class TabletServer extends AccumuloServerContext implements Runnable {
     bulkImportStatus.removeBulkImportStatus(files);
   }
 
-  private static final String MAJC_READ_LIMITER_KEY = "tserv_majc_read";
-  private static final String MAJC_WRITE_LIMITER_KEY = "tserv_majc_write";
-  private final SharedRateLimiterFactory.RateProvider rateProvider = new SharedRateLimiterFactory.RateProvider() {
-    @Override
-    public long getDesiredRate() {
-      return getConfiguration().getAsBytes(Property.TSERV_MAJC_THROUGHPUT);
-    }
-  };
-
-  /**
-   * Get the {@link RateLimiter} for reads during major compactions on this tserver. All writes performed during major compactions are throttled to conform to
-   * this RateLimiter.
-   */
-  public final RateLimiter getMajorCompactionReadLimiter() {
-    return SharedRateLimiterFactory.getInstance().create(MAJC_READ_LIMITER_KEY, rateProvider);
-  }
-
   /**
-   * Get the RateLimiter for writes during major compations on this tserver. All reads performed during major compactions are throttled to conform to this
-   * RateLimiter.
+   * @return the executors that run major compactions of user tablets on this tserver
    */
-  public final RateLimiter getMajorCompactionWriteLimiter() {
-    return SharedRateLimiterFactory.getInstance().create(MAJC_WRITE_LIMITER_KEY, rateProvider);
+  public List<MajorCompactionExecutor> getMajorCompactionExecutors() {
+    return resourceManager.getMajorCompactionExecutors();
   }
 }
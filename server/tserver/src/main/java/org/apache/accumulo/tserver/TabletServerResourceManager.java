@@ -22,21 +22,27 @@ import static org.apache.accumulo.fate.util.UtilWaitThread.sleepUninterruptibly;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.accumulo.core.conf.AccumuloConfiguration;
+import org.apache.accumulo.core.conf.ConfigurationTypeHelper;
 import org.apache.accumulo.core.conf.Property;
 import org.apache.accumulo.core.data.impl.KeyExtent;
 import org.apache.accumulo.core.file.blockfile.cache.BlockCache;
@@ -47,6 +53,7 @@ import org.apache.accumulo.core.file.blockfile.cache.impl.BlockCacheManagerFacto
 import org.apache.accumulo.core.metadata.schema.DataFileValue;
 import org.apache.accumulo.core.util.Daemon;
 import org.apache.accumulo.core.util.NamingThreadFactory;
+import org.apache.accumulo.core.util.ratelimit.SharedRateLimiterFactory.RateProvider;
 import org.apache.accumulo.fate.util.LoggingRunnable;
 import org.apache.accumulo.server.conf.ServerConfigurationFactory;
 import org.apache.accumulo.server.fs.FileRef;
@@ -77,9 +84,11 @@ public class TabletServerResourceManager {
   private static final Logger log = LoggerFactory.getLogger(TabletServerResourceManager.class);
 
   private final ExecutorService minorCompactionThreadPool;
-  private final ExecutorService majorCompactionThreadPool;
+  private final MajorCompactionExecutor defaultMajorCompactionExecutor;
+  private final List<MajorCompactionExecutor> majorCompactionExecutors;
   private final ExecutorService rootMajorCompactionThreadPool;
   private final ExecutorService defaultMajorCompactionThreadPool;
+  private final ExecutorService majorCompactionPartitionPool;
   private final ExecutorService splitThreadPool;
   private final ExecutorService defaultSplitThreadPool;
   private final ExecutorService defaultMigrationPool;
@@ -164,6 +173,59 @@ public class TabletServerResourceManager {
     return addEs(name, new ThreadPoolExecutor(min, max, timeout, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new NamingThreadFactory(name)));
   }
 
+  /**
+   * Creates the executors configured with {@link Property#TSERV_MAJC_EXECUTOR_PREFIX}, sorted by the size of the compactions they run.
+   */
+  private List<MajorCompactionExecutor> createMajorCompactionExecutors(AccumuloConfiguration acuConf) {
+    String prefix = Property.TSERV_MAJC_EXECUTOR_PREFIX.getKey();
+
+    Set<String> names = new TreeSet<>();
+    for (String key : acuConf.getAllPropertiesWithPrefix(Property.TSERV_MAJC_EXECUTOR_PREFIX).keySet()) {
+      String suffix = key.substring(prefix.length());
+      int dot = suffix.indexOf('.');
+      names.add(dot < 0 ? suffix : suffix.substring(0, dot));
+    }
+
+    List<MajorCompactionExecutor> executors = new ArrayList<>();
+    for (String name : names) {
+      if (name.equals(MajorCompactionExecutor.DEFAULT_NAME))
+        throw new IllegalArgumentException("Major compaction executor name " + name + " is reserved");
+
+      String threads = acuConf.get(prefix + name + ".threads");
+      if (threads == null)
+        throw new IllegalArgumentException("Major compaction executor " + name + " does not set " + prefix + name + ".threads");
+      int numThreads = Integer.parseInt(threads);
+      if (numThreads <= 0)
+        throw new IllegalArgumentException("Major compaction executor " + name + " must have at least one thread");
+
+      String maxSize = acuConf.get(prefix + name + ".size.max");
+      final String throughputKey = prefix + name + ".throughput";
+
+      ThreadPoolExecutor tp = new ThreadPoolExecutor(numThreads, numThreads, 0L, TimeUnit.MILLISECONDS, new CompactionQueue().asBlockingQueueOfRunnable(),
+          new NamingThreadFactory("major compactor " + name));
+      executors.add(new MajorCompactionExecutor(name, maxSize == null ? Long.MAX_VALUE : ConfigurationTypeHelper.getFixedMemoryAsBytes(maxSize), tp, addEs(
+          "major compactor " + name, tp), "tserv_majc_" + name, new RateProvider() {
+        @Override
+        public long getDesiredRate() {
+          String throughput = tserver.getConfiguration().get(throughputKey);
+          return throughput == null ? 0 : ConfigurationTypeHelper.getFixedMemoryAsBytes(throughput);
+        }
+      }));
+    }
+
+    Collections.sort(executors, new Comparator<MajorCompactionExecutor>() {
+      @Override
+      public int compare(MajorCompactionExecutor e1, MajorCompactionExecutor e2) {
+        return Long.compare(e1.getMaxSize(), e2.getMaxSize());
+      }
+    });
+
+    if (!executors.isEmpty())
+      log.info("Created major compaction executors {}", executors);
+
+    return executors;
+  }
+
   public TabletServerResourceManager(TabletServer tserver, VolumeManager fs) {
     this.tserver = tserver;
     this.conf = tserver.getServerConfigurationFactory();
@@ -212,11 +274,22 @@ public class TabletServerResourceManager {
 
     minorCompactionThreadPool = createEs(Property.TSERV_MINC_MAXCONCURRENT, "minor compactor");
 
-    // make this thread pool have a priority queue... and execute tablets with the most
+    // make the major compaction thread pools have a priority queue... and execute tablets with the most
     // files first!
-    majorCompactionThreadPool = createEs(Property.TSERV_MAJC_MAXCONCURRENT, "major compactor", new CompactionQueue().asBlockingQueueOfRunnable());
+    int majcThreads = acuConf.getCount(Property.TSERV_MAJC_MAXCONCURRENT);
+    ThreadPoolExecutor majcPool = new ThreadPoolExecutor(majcThreads, majcThreads, 0L, TimeUnit.MILLISECONDS, new CompactionQueue().asBlockingQueueOfRunnable(),
+        new NamingThreadFactory("major compactor"));
+    defaultMajorCompactionExecutor = new MajorCompactionExecutor(MajorCompactionExecutor.DEFAULT_NAME, Long.MAX_VALUE, majcPool, addEs(
+        Property.TSERV_MAJC_MAXCONCURRENT, "major compactor", majcPool), "tserv_majc", new RateProvider() {
+      @Override
+      public long getDesiredRate() {
+        return tserver.getConfiguration().getAsBytes(Property.TSERV_MAJC_THROUGHPUT);
+      }
+    });
+    majorCompactionExecutors = createMajorCompactionExecutors(acuConf);
     rootMajorCompactionThreadPool = createEs(0, 1, 300, "md root major compactor");
     defaultMajorCompactionThreadPool = createEs(0, 1, 300, "md major compactor");
+    majorCompactionPartitionPool = createIdlingEs(Property.TSERV_MAJC_PARTITION_THREADS, "major compaction partition", 60, TimeUnit.SECONDS);
 
     splitThreadPool = createEs(1, "splitter");
     defaultSplitThreadPool = createEs(0, 1, 60, "md splitter");
@@ -242,7 +315,16 @@ public class TabletServerResourceManager {
 
     int maxOpenFiles = acuConf.getCount(Property.TSERV_SCAN_MAX_OPENFILES);
 
-    fileManager = new FileManager(tserver, fs, maxOpenFiles, _dCache, _iCache);
+    // when all file access threads are busy the scan thread opens or seeks the file itself, so this pool never queues
+    ExecutorService fileAccessPool = null;
+    int maxFileAccessThreads = acuConf.getCount(Property.TSERV_FILE_ACCESS_MAXCONCURRENT);
+    if (maxFileAccessThreads > 0) {
+      ThreadPoolExecutor tp = new ThreadPoolExecutor(0, maxFileAccessThreads, 60, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), new NamingThreadFactory(
+          "file access"), new ThreadPoolExecutor.CallerRunsPolicy());
+      fileAccessPool = addEs("file access", tp);
+    }
+
+    fileManager = new FileManager(tserver, fs, maxOpenFiles, _dCache, _iCache, fileAccessPool);
 
     memoryManager = Property.createInstanceFromPropertyName(acuConf, Property.TSERV_MEM_MGMT, MemoryManager.class, new LargestFirstMemoryManager());
     memoryManager.init(tserver.getServerConfigurationFactory());
@@ -583,6 +665,9 @@ public class TabletServerResourceManager {
 
     private final AccumuloConfiguration tableConf;
 
+    private CompactionStrategy estimatingStrategy = null;
+    private long estimatingStrategyUpdateCount;
+
     TabletResourceManager(KeyExtent extent, AccumuloConfiguration tableConf) {
       requireNonNull(extent, "extent is null");
       requireNonNull(tableConf, "tableConf is null");
@@ -656,7 +741,7 @@ public class TabletServerResourceManager {
     // BEGIN methods that Tablets call to make decisions about major compaction
     // when too many files are open, we may want tablets to compact down
     // to one map file
-    public boolean needsMajorCompaction(SortedMap<FileRef,DataFileValue> tabletFiles, MajorCompactionReason reason) {
+    public boolean needsMajorCompaction(SortedMap<FileRef,DataFileValue> tabletFiles, List<Set<FileRef>> disjointFiles, MajorCompactionReason reason) {
       if (closed)
         return false;// throw new IOException("closed");
 
@@ -680,11 +765,10 @@ public class TabletServerResourceManager {
           return false;
         }
       }
-      CompactionStrategy strategy = Property.createTableInstanceFromPropertyName(tableConf, Property.TABLE_COMPACTION_STRATEGY, CompactionStrategy.class,
-          new DefaultCompactionStrategy());
-      strategy.init(Property.getCompactionStrategyOptions(tableConf));
+      CompactionStrategy strategy = createCompactionStrategy();
       MajorCompactionRequest request = new MajorCompactionRequest(extent, reason, tableConf);
       request.setFiles(tabletFiles);
+      request.setDisjointFiles(disjointFiles);
       try {
         return strategy.shouldCompact(request);
       } catch (IOException e) {
@@ -692,6 +776,57 @@ public class TabletServerResourceManager {
       }
     }
 
+    private CompactionStrategy createCompactionStrategy() {
+      CompactionStrategy strategy = Property.createTableInstanceFromPropertyName(tableConf, Property.TABLE_COMPACTION_STRATEGY, CompactionStrategy.class,
+          new DefaultCompactionStrategy());
+      strategy.init(Property.getCompactionStrategyOptions(tableConf));
+      return strategy;
+    }
+
+    /**
+     * @return the instance of the table's compaction strategy used to estimate compaction sizes, created again only when the table's configuration changes
+     */
+    private synchronized CompactionStrategy getEstimatingCompactionStrategy() {
+      long updateCount = tableConf.getUpdateCount();
+      if (estimatingStrategy == null || estimatingStrategyUpdateCount != updateCount) {
+        estimatingStrategy = createCompactionStrategy();
+        estimatingStrategyUpdateCount = updateCount;
+      }
+      return estimatingStrategy;
+    }
+
+    /**
+     * Chooses the executor for a major compaction of this tablet by the size the table's compaction strategy estimates the compaction will read. User and
+     * chop compactions are sized by all of the tablet's files.
+     */
+    public MajorCompactionExecutor getMajorCompactionExecutor(SortedMap<FileRef,DataFileValue> tabletFiles, List<Set<FileRef>> disjointFiles,
+        MajorCompactionReason reason) {
+      if (extent.isMeta() || majorCompactionExecutors.isEmpty())
+        return defaultMajorCompactionExecutor;
+
+      long estimatedSize = 0;
+      if (reason == MajorCompactionReason.NORMAL || reason == MajorCompactionReason.IDLE) {
+        MajorCompactionRequest request = new MajorCompactionRequest(extent, reason, tableConf);
+        request.setFiles(tabletFiles);
+        request.setDisjointFiles(disjointFiles);
+        try {
+          estimatedSize = getEstimatingCompactionStrategy().estimateInputSize(request);
+        } catch (IOException e) {
+          log.warn("Failed to estimate the size of a major compaction of {}, using the default executor", extent, e);
+          return defaultMajorCompactionExecutor;
+        }
+      } else {
+        for (DataFileValue dfv : tabletFiles.values())
+          estimatedSize += dfv.getSize();
+      }
+
+      for (MajorCompactionExecutor executor : majorCompactionExecutors) {
+        if (estimatedSize <= executor.getMaxSize())
+          return executor;
+      }
+      return defaultMajorCompactionExecutor;
+    }
+
     // END methods that Tablets call to make decisions about major compaction
 
     // tablets call this method to run minor compactions,
@@ -722,8 +857,8 @@ public class TabletServerResourceManager {
       return TabletServerResourceManager.this;
     }
 
-    public void executeMajorCompaction(KeyExtent tablet, Runnable compactionTask) {
-      TabletServerResourceManager.this.executeMajorCompaction(tablet, compactionTask);
+    public void executeMajorCompaction(KeyExtent tablet, MajorCompactionExecutor executor, Runnable compactionTask) {
+      TabletServerResourceManager.this.executeMajorCompaction(tablet, executor, compactionTask);
     }
 
   }
@@ -740,16 +875,26 @@ public class TabletServerResourceManager {
     }
   }
 
-  public void executeMajorCompaction(KeyExtent tablet, Runnable compactionTask) {
+  public void executeMajorCompaction(KeyExtent tablet, MajorCompactionExecutor executor, Runnable compactionTask) {
     if (tablet.isRootTablet()) {
       rootMajorCompactionThreadPool.execute(compactionTask);
     } else if (tablet.isMeta()) {
       defaultMajorCompactionThreadPool.execute(compactionTask);
     } else {
-      majorCompactionThreadPool.execute(compactionTask);
+      executor.execute(compactionTask);
     }
   }
 
+  /**
+   * @return the default major compaction executor followed by the configured executors, from smallest to largest size class
+   */
+  public List<MajorCompactionExecutor> getMajorCompactionExecutors() {
+    List<MajorCompactionExecutor> executors = new ArrayList<>(majorCompactionExecutors.size() + 1);
+    executors.add(defaultMajorCompactionExecutor);
+    executors.addAll(majorCompactionExecutors);
+    return executors;
+  }
+
   public void executeReadAhead(KeyExtent tablet, Runnable task) {
     if (tablet.isRootTablet()) {
       task.run();
@@ -794,6 +939,10 @@ public class TabletServerResourceManager {
     return summaryRetrievalPool;
   }
 
+  public ExecutorService getMajorCompactionPartitionExecutor() {
+    return majorCompactionPartitionPool;
+  }
+
   public ExecutorService getSummaryPartitionExecutor() {
     return summaryParitionPool;
   }
@@ -19,6 +19,8 @@ package org.apache.accumulo.tserver.compaction;
 import java.io.IOException;
 import java.util.Map;
 
+import org.apache.accumulo.core.metadata.schema.DataFileValue;
+
 /**
  * The interface for customizing major compactions.
  * <p>
@@ -73,4 +75,22 @@ public abstract class CompactionStrategy {
    */
   abstract public CompactionPlan getCompactionPlan(MajorCompactionRequest request) throws IOException;
 
+  /**
+   * Estimates the number of bytes a compaction would read, which the tablet server uses to choose the executor that runs the compaction. Called while
+   * queuing a compaction, holding the tablet lock, on an instance that is reused across compactions of the tablet and that
+   * {@link #gatherInformation(MajorCompactionRequest)} is never called on. So it should not block, and it should not rely on state set by
+   * {@link #gatherInformation(MajorCompactionRequest)} or {@link #getCompactionPlan(MajorCompactionRequest)}. If it throws, the compaction runs on the
+   * default executor.
+   *
+   * @param request
+   *          basic details about the tablet
+   * @return the estimated size of the compaction's input files. The default is the size of all of the tablet's files.
+   */
+  public long estimateInputSize(MajorCompactionRequest request) throws IOException {
+    long size = 0;
+    for (DataFileValue dfv : request.getFiles().values())
+      size += dfv.getSize();
+    return size;
+  }
+
 }
@@ -17,9 +17,12 @@
 package org.apache.accumulo.tserver.compaction;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
 
@@ -46,14 +49,36 @@ public class DefaultCompactionStrategy extends CompactionStrategy {
     return result;
   }
 
+  @Override
+  public long estimateInputSize(MajorCompactionRequest request) {
+    // use the file selection directly rather than getCompactionPlan, which subclasses may override with logic that depends on gatherInformation
+    List<FileRef> toCompact = findMapFilesToCompact(request);
+    if (toCompact == null)
+      return 0;
+    long size = 0;
+    for (FileRef file : toCompact) {
+      DataFileValue dfv = request.getFiles().get(file);
+      if (dfv != null)
+        size += dfv.getSize();
+    }
+    return size;
+  }
+
   private static class CompactionFile {
     public FileRef file;
     public long size;
+    // the files this candidate stands for, more than one when it is a run of files whose key ranges do not overlap
+    public List<FileRef> files;
 
     public CompactionFile(FileRef file, long size) {
+      this(file, size, Collections.singletonList(file));
+    }
+
+    public CompactionFile(FileRef file, long size, List<FileRef> files) {
       super();
       this.file = file;
       this.size = size;
+      this.files = files;
     }
   }
 
@@ -86,8 +111,28 @@ public class DefaultCompactionStrategy extends CompactionStrategy {
     int maxFilesToCompact = Integer.parseInt(request.getTableConfig(Property.TSERV_MAJC_THREAD_MAXOPEN.getKey()));
     int maxFilesPerTablet = request.getMaxFilesPerTablet();
 
+    // Files with disjoint key ranges, like the output of a partitioned compaction, together act like one file. Weighing them separately would make
+    // equally sized partitions satisfy the ratio and compact again forever.
+    Set<FileRef> inRuns = new HashSet<>();
+    for (Set<FileRef> disjoint : request.getDisjointFiles()) {
+      List<FileRef> run = new ArrayList<>();
+      long runSize = 0;
+      for (FileRef file : new TreeSet<>(disjoint)) {
+        DataFileValue dfv = request.getFiles().get(file);
+        if (dfv != null && !inRuns.contains(file)) {
+          run.add(file);
+          runSize += dfv.getSize();
+        }
+      }
+      if (run.size() > 1) {
+        inRuns.addAll(run);
+        candidateFiles.add(new CompactionFile(run.get(0), runSize, run));
+      }
+    }
+
     for (Entry<FileRef,DataFileValue> entry : request.getFiles().entrySet()) {
-      candidateFiles.add(new CompactionFile(entry.getKey(), entry.getValue().getSize()));
+      if (!inRuns.contains(entry.getKey()))
+        candidateFiles.add(new CompactionFile(entry.getKey(), entry.getValue().getSize()));
     }
 
     long totalSize = 0;
@@ -102,7 +147,7 @@ public class DefaultCompactionStrategy extends CompactionStrategy {
       if (max.size * ratio <= totalSize) {
         files.clear();
         for (CompactionFile mfi : candidateFiles) {
-          files.add(mfi.file);
+          files.addAll(mfi.files);
           if (files.size() >= maxFilesToCompact)
             break;
         }
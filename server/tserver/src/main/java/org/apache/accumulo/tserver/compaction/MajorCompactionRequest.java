@@ -21,6 +21,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Predicate;
 
 import org.apache.accumulo.core.client.admin.TableOperations;
@@ -64,6 +65,7 @@ public class MajorCompactionRequest implements Cloneable {
   final private BlockCache indexCache;
   final private BlockCache summaryCache;
   private Map<FileRef,DataFileValue> files;
+  private List<Set<FileRef>> disjointFiles;
 
   public MajorCompactionRequest(KeyExtent extent, MajorCompactionReason reason, VolumeManager manager, AccumuloConfiguration tabletConfig,
       BlockCache summaryCache, BlockCache indexCache) {
@@ -72,6 +74,7 @@ public class MajorCompactionRequest implements Cloneable {
     this.volumeManager = manager;
     this.tableConfig = tabletConfig;
     this.files = Collections.emptyMap();
+    this.disjointFiles = Collections.emptyList();
     this.summaryCache = summaryCache;
     this.indexCache = indexCache;
   }
@@ -84,6 +87,7 @@ public class MajorCompactionRequest implements Cloneable {
     this(mcr.extent, mcr.reason, mcr.volumeManager, mcr.tableConfig, mcr.summaryCache, mcr.indexCache);
     // know this is already unmodifiable, no need to wrap again
     this.files = mcr.files;
+    this.disjointFiles = mcr.disjointFiles;
   }
 
   public TabletId getTabletId() {
@@ -150,6 +154,18 @@ public class MajorCompactionRequest implements Cloneable {
     this.files = Collections.unmodifiableMap(update);
   }
 
+  /**
+   * Returns groups of files whose key ranges do not overlap each other, such as the files written by one partitioned major compaction. A group may name files
+   * that are not in {@link #getFiles()}, so callers should only consider the members that are.
+   */
+  public List<Set<FileRef>> getDisjointFiles() {
+    return disjointFiles;
+  }
+
+  public void setDisjointFiles(List<Set<FileRef>> update) {
+    this.disjointFiles = Collections.unmodifiableList(update);
+  }
+
   public FileSKVIterator openReader(FileRef ref) throws IOException {
     Preconditions.checkState(volumeManager != null,
         "Opening files is not supported at this time.  Its only supported when CompactionStrategy.gatherInformation() is called.");
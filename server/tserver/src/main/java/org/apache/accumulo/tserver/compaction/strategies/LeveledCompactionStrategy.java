@@ -0,0 +1,333 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.tserver.compaction.strategies;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.TabletId;
+import org.apache.accumulo.core.file.FileSKVIterator;
+import org.apache.accumulo.core.metadata.schema.DataFileValue;
+import org.apache.accumulo.server.fs.FileRef;
+import org.apache.accumulo.tserver.compaction.CompactionPlan;
+import org.apache.accumulo.tserver.compaction.CompactionStrategy;
+import org.apache.accumulo.tserver.compaction.MajorCompactionReason;
+import org.apache.accumulo.tserver.compaction.MajorCompactionRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * A compaction strategy that uses the key range of each file to only compact files that overlap. Files whose key ranges do not overlap form a sorted run, so a
+ * tablet's files can be viewed as a set of levels where a read of any key touches at most one file per level. The number of levels at a key is the number of
+ * files whose key range contains it.
+ *
+ * <p>
+ * When more than {@value #LEVELS_MAX_OPT} files overlap at some key, the files containing the most overlapped key are candidates for compaction. From those
+ * candidates the largest files are dropped while the largest remaining file times {@value #RATIO_OPT} exceeds the total size of the remaining files, the same
+ * rule used by the {@link org.apache.accumulo.tserver.compaction.DefaultCompactionStrategy}. This bounds the write amplification of each compaction, the bytes
+ * written divided by the bytes that were not already in the largest input file, to {@code ratio / (ratio - 1)}. If the ratio rule selects fewer than two files,
+ * the smallest files needed to get back under the level limit are compacted instead. The write amplification of every compaction is logged at debug.
+ *
+ * <p>
+ * Files that do not overlap any other file are left alone, which makes this strategy a good fit for tables where new data mostly appends to the end of the key
+ * space, such as time series. Those tables end up with many disjoint files and few levels, instead of repeatedly rewriting old data. When a tablet has more
+ * than {@code table.file.max} files, adjacent files with the smallest total size are compacted together so that files stay disjoint.
+ *
+ * <p>
+ * The key range of a file is read when the compaction is dequeued, because reading files is not allowed when deciding whether to queue a compaction. The ranges
+ * are cached per tablet, holding exactly the files the tablet had at its last {@link #gatherInformation(MajorCompactionRequest)}, so the cache grows with the
+ * number of files the tablet server hosts. Only a file added since then makes the tablet queue a compaction without knowing its range, and that compaction
+ * may then decide not to compact. The ranges of a tablet that is not checked for an hour, such as one that was unloaded, are dropped.
+ *
+ * <p>
+ * This strategy has two options. The {@value #LEVELS_MAX_OPT} option is the maximum number of files allowed to overlap at any key and defaults to
+ * {@value #LEVELS_MAX_OPT_DEFAULT}. The {@value #RATIO_OPT} option defaults to the value of {@code table.compaction.major.ratio}.
+ *
+ * @since 2.0.0
+ */
+public class LeveledCompactionStrategy extends CompactionStrategy {
+
+  private static final Logger log = LoggerFactory.getLogger(LeveledCompactionStrategy.class);
+
+  public static final String LEVELS_MAX_OPT = "levels.max";
+
+  public static final String LEVELS_MAX_OPT_DEFAULT = "4";
+
+  public static final String RATIO_OPT = "ratio";
+
+  // the key ranges of each tablet's files as of its last gatherInformation. Hosted tablets are checked every tserver.compaction.major.delay, so only the
+  // ranges of tablets that are no longer hosted expire.
+  private static final Cache<TabletId,Map<String,KeyRange>> tabletKeyRanges = CacheBuilder.newBuilder().expireAfterAccess(1, TimeUnit.HOURS).build();
+
+  private int maxLevels;
+  private Double ratio = null;
+
+  private static class KeyRange {
+    // both are null for an empty file
+    final Key first;
+    final Key last;
+
+    KeyRange(Key first, Key last) {
+      this.first = first;
+      this.last = last;
+    }
+
+    boolean isEmpty() {
+      return first == null || last == null;
+    }
+  }
+
+  private static class FileInfo {
+    final FileRef ref;
+    final long size;
+    final KeyRange range;
+
+    FileInfo(FileRef ref, long size, KeyRange range) {
+      this.ref = ref;
+      this.size = size;
+      this.range = range;
+    }
+  }
+
+  private static final Comparator<FileInfo> BY_SIZE = Comparator.<FileInfo> comparingLong(fi -> fi.size).thenComparing(fi -> fi.ref);
+
+  private static final Comparator<FileInfo> BY_FIRST_KEY = Comparator.<FileInfo,Key> comparing(fi -> fi.range.first).thenComparing(fi -> fi.ref);
+
+  @Override
+  public void init(Map<String,String> options) {
+    maxLevels = Integer.parseInt(options.getOrDefault(LEVELS_MAX_OPT, LEVELS_MAX_OPT_DEFAULT));
+    if (maxLevels < 1) {
+      throw new IllegalArgumentException(LEVELS_MAX_OPT + " must be at least 1, saw : " + maxLevels);
+    }
+    if (options.containsKey(RATIO_OPT)) {
+      ratio = Double.parseDouble(options.get(RATIO_OPT));
+      if (ratio <= 1.0) {
+        throw new IllegalArgumentException(RATIO_OPT + " must be greater than 1, saw : " + ratio);
+      }
+    }
+  }
+
+  @Override
+  public boolean shouldCompact(MajorCompactionRequest request) {
+    if (isCompactAll(request.getReason()))
+      return true;
+    if (request.getFiles().size() <= 1)
+      return false;
+
+    List<FileInfo> files = getFileInfo(request);
+    if (files == null) {
+      // a file was added since the last gatherInformation, which is the only place its key range can be read
+      return true;
+    }
+    return !selectFiles(request, files).isEmpty();
+  }
+
+  @Override
+  public void gatherInformation(MajorCompactionRequest request) throws IOException {
+    if (isCompactAll(request.getReason()))
+      return;
+
+    Map<String,KeyRange> previous = tabletKeyRanges.getIfPresent(request.getTabletId());
+    // only keep the ranges of the tablet's current files, the first and last key of a file never change so those can be reused
+    Map<String,KeyRange> ranges = new HashMap<>();
+    for (FileRef ref : request.getFiles().keySet()) {
+      String name = ref.path().toString();
+      KeyRange range = previous == null ? null : previous.get(name);
+      if (range == null) {
+        FileSKVIterator reader = request.openReader(ref);
+        try {
+          range = new KeyRange(reader.getFirstKey(), reader.getLastKey());
+        } finally {
+          reader.close();
+        }
+      }
+      ranges.put(name, range);
+    }
+    tabletKeyRanges.put(request.getTabletId(), Collections.unmodifiableMap(ranges));
+  }
+
+  @Override
+  public CompactionPlan getCompactionPlan(MajorCompactionRequest request) {
+    CompactionPlan plan = new CompactionPlan();
+    if (isCompactAll(request.getReason())) {
+      plan.inputFiles.addAll(request.getFiles().keySet());
+      return plan;
+    }
+
+    List<FileInfo> files = getFileInfo(request);
+    if (files == null) {
+      // a file was added since gatherInformation, the next compaction will read its range
+      return plan;
+    }
+
+    List<FileInfo> selected = selectFiles(request, files);
+    if (!selected.isEmpty() && log.isDebugEnabled()) {
+      long total = 0;
+      long largest = 0;
+      for (FileInfo fi : selected) {
+        total += fi.size;
+        largest = Math.max(largest, fi.size);
+      }
+      double writeAmp = total == largest ? Double.POSITIVE_INFINITY : total / (double) (total - largest);
+      log.debug("{} compacting {} of {} files, {} bytes, write amplification {}", request.getTabletId(), selected.size(), files.size(), total,
+          String.format("%.2f", writeAmp));
+    }
+
+    for (FileInfo fi : selected)
+      plan.inputFiles.add(fi.ref);
+    return plan;
+  }
+
+  private static boolean isCompactAll(MajorCompactionReason reason) {
+    return reason == MajorCompactionReason.USER || reason == MajorCompactionReason.CHOP;
+  }
+
+  /**
+   * @return the size and key range of every file in the request, or null if the key range of any file is not cached
+   */
+  private static List<FileInfo> getFileInfo(MajorCompactionRequest request) {
+    Map<String,KeyRange> ranges = tabletKeyRanges.getIfPresent(request.getTabletId());
+    if (ranges == null)
+      return null;
+    List<FileInfo> files = new ArrayList<>(request.getFiles().size());
+    for (Entry<FileRef,DataFileValue> entry : request.getFiles().entrySet()) {
+      KeyRange range = ranges.get(entry.getKey().path().toString());
+      if (range == null)
+        return null;
+      files.add(new FileInfo(entry.getKey(), entry.getValue().getSize(), range));
+    }
+    return files;
+  }
+
+  private List<FileInfo> selectFiles(MajorCompactionRequest request, List<FileInfo> files) {
+    double ratio = this.ratio != null ? this.ratio : Double.parseDouble(request.getTableConfig(Property.TABLE_MAJC_RATIO.getKey()));
+    int maxFilesToCompact = Integer.parseInt(request.getTableConfig(Property.TSERV_MAJC_THREAD_MAXOPEN.getKey()));
+    int maxFilesPerTablet = request.getMaxFilesPerTablet();
+
+    List<FileInfo> empty = new ArrayList<>();
+    List<FileInfo> nonEmpty = new ArrayList<>();
+    for (FileInfo fi : files) {
+      (fi.range.isEmpty() ? empty : nonEmpty).add(fi);
+    }
+    nonEmpty.sort(BY_FIRST_KEY);
+
+    List<FileInfo> selected = new ArrayList<>();
+
+    List<FileInfo> overlapping = findMostOverlapping(nonEmpty);
+    if (overlapping.size() > maxLevels) {
+      overlapping.sort(BY_SIZE);
+      long total = 0;
+      for (FileInfo fi : overlapping)
+        total += fi.size;
+      int end = overlapping.size();
+      while (end > 1 && overlapping.get(end - 1).size * ratio > total) {
+        end--;
+        total -= overlapping.get(end).size;
+      }
+      // the ratio rule may not leave enough files to reduce the number of levels, so compact the smallest files needed
+      end = Math.max(end, overlapping.size() - maxLevels + 1);
+      selected.addAll(overlapping.subList(0, Math.min(end, maxFilesToCompact)));
+    }
+
+    int filesNeeded = Math.min(files.size() - maxFilesPerTablet + 1, maxFilesToCompact);
+    if (selected.isEmpty() && filesNeeded > 1) {
+      // empty files can be merged with anything, after that merge the cheapest adjacent files so that files stay disjoint
+      List<FileInfo> candidates = new ArrayList<>(empty);
+      int adjacent = filesNeeded - candidates.size();
+      if (adjacent > 0 && adjacent <= nonEmpty.size()) {
+        candidates.addAll(findSmallestWindow(nonEmpty, adjacent));
+      }
+      selected.addAll(candidates.subList(0, Math.min(filesNeeded, candidates.size())));
+    } else if (!selected.isEmpty()) {
+      for (FileInfo fi : empty) {
+        if (selected.size() >= maxFilesToCompact)
+          break;
+        selected.add(fi);
+      }
+    }
+
+    if (selected.size() < 2)
+      selected.clear();
+    return selected;
+  }
+
+  /**
+   * @param files
+   *          non empty files sorted by first key
+   * @return the files whose key range contains the key contained in the most files
+   */
+  private static List<FileInfo> findMostOverlapping(List<FileInfo> files) {
+    Key deepest = null;
+    int maxDepth = 0;
+
+    // the number of files containing a key only increases at the first key of a file, so only those keys need to be checked
+    for (FileInfo fi : files) {
+      int depth = 0;
+      for (FileInfo other : files) {
+        if (other.range.first.compareTo(fi.range.first) > 0)
+          break;
+        if (other.range.last.compareTo(fi.range.first) >= 0)
+          depth++;
+      }
+      if (depth > maxDepth) {
+        maxDepth = depth;
+        deepest = fi.range.first;
+      }
+    }
+
+    List<FileInfo> overlapping = new ArrayList<>(maxDepth);
+    for (FileInfo fi : files) {
+      if (fi.range.first.compareTo(deepest) <= 0 && fi.range.last.compareTo(deepest) >= 0)
+        overlapping.add(fi);
+    }
+    return overlapping;
+  }
+
+  /**
+   * @param files
+   *          non empty files sorted by first key
+   * @return the {@code count} consecutive files with the smallest total size
+   */
+  private static List<FileInfo> findSmallestWindow(List<FileInfo> files, int count) {
+    long windowSize = 0;
+    for (int i = 0; i < count; i++)
+      windowSize += files.get(i).size;
+
+    long best = windowSize;
+    int bestStart = 0;
+    for (int i = count; i < files.size(); i++) {
+      windowSize += files.get(i).size - files.get(i - count).size;
+      if (windowSize < best) {
+        best = windowSize;
+        bestStart = i - count + 1;
+      }
+    }
+    return files.subList(bestStart, bestStart + count);
+  }
+}
@@ -23,6 +23,7 @@ import static org.apache.accumulo.tserver.logger.LogEvents.DEFINE_TABLET;
 import static org.apache.accumulo.tserver.logger.LogEvents.MANY_MUTATIONS;
 import static org.apache.accumulo.tserver.logger.LogEvents.OPEN;
 
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.EOFException;
@@ -39,6 +40,7 @@ import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.accumulo.core.client.Durability;
@@ -58,9 +60,11 @@ import org.apache.accumulo.server.ServerConstants;
 import org.apache.accumulo.server.fs.VolumeChooserEnvironment;
 import org.apache.accumulo.server.fs.VolumeChooserEnvironment.ChooserScope;
 import org.apache.accumulo.server.fs.VolumeManager;
+import org.apache.accumulo.server.metrics.Metrics;
 import org.apache.accumulo.tserver.TabletMutations;
 import org.apache.accumulo.tserver.logger.LogFileKey;
 import org.apache.accumulo.tserver.logger.LogFileValue;
+import org.apache.accumulo.tserver.metrics.TabletServerUpdateMetricsKeys;
 import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.Path;
@@ -145,8 +149,71 @@ public class DfsLogger implements Comparable<DfsLogger> {
 
   private boolean closed = false;
 
+  /**
+   * A reusable buffer that log entries are serialized into before the log lock is acquired, so that writers only hold the lock while copying bytes.
+   */
+  private static class EncodeBuffer extends ByteArrayOutputStream {
+    // do not hold on to the buffer of an unusually large batch of mutations
+    private static final int MAX_RETAINED_SIZE = 1 << 20;
+
+    private final DataOutputStream out = new DataOutputStream(this);
+
+    EncodeBuffer() {
+      super(4096);
+    }
+
+    void encode(List<Pair<LogFileKey,LogFileValue>> keys) throws IOException {
+      reset();
+      for (Pair<LogFileKey,LogFileValue> pair : keys) {
+        pair.getFirst().write(out);
+        pair.getSecond().write(out);
+      }
+    }
+
+    void release() {
+      if (buf.length > MAX_RETAINED_SIZE)
+        buf = new byte[4096];
+      reset();
+    }
+  }
+
+  private static final ThreadLocal<EncodeBuffer> encodeBuffers = new ThreadLocal<EncodeBuffer>() {
+    @Override
+    protected EncodeBuffer initialValue() {
+      return new EncodeBuffer();
+    }
+  };
+
   private class LogSyncingTask implements Runnable {
     private int expectedReplication = 0;
+    private long lastSyncNanos = 0;
+    private int lastBatchSize = 0;
+
+    /**
+     * Gives other writers a chance to join the batch before it is synced. Waiting only pays off when writes are arriving concurrently, so it only happens
+     * when the previous batch had more than one write, and never for longer than half of the previous sync.
+     */
+    private void waitForBatch(ArrayList<DfsLogger.LogWork> work) {
+      long waitNanos = Math.min(maxBatchWaitNanos, lastSyncNanos / 2);
+      if (lastBatchSize <= 1 || waitNanos <= 0)
+        return;
+
+      long deadline = System.nanoTime() + waitNanos;
+      long remaining = waitNanos;
+      try {
+        while (remaining > 0) {
+          DfsLogger.LogWork next = workQueue.poll(remaining, TimeUnit.NANOSECONDS);
+          if (next == null)
+            break;
+          work.add(next);
+          if (next == CLOSED_MARKER)
+            break;
+          remaining = deadline - System.nanoTime();
+        }
+      } catch (InterruptedException ex) {
+        // sync what has been gathered so far
+      }
+    }
 
     @Override
     public void run() {
@@ -161,6 +228,8 @@ public class DfsLogger implements Comparable<DfsLogger> {
           continue;
         }
         workQueue.drainTo(work);
+        if (!work.contains(CLOSED_MARKER))
+          waitForBatch(work);
 
         Method durabilityMethod = null;
         loop: for (LogWork logWork : work) {
@@ -181,7 +250,7 @@ public class DfsLogger implements Comparable<DfsLogger> {
           }
         }
 
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
           if (durabilityMethod != null) {
             durabilityMethod.invoke(logFile);
@@ -194,7 +263,13 @@ public class DfsLogger implements Comparable<DfsLogger> {
         } catch (Exception ex) {
           fail(work, ex, "synching");
         }
-        long duration = System.currentTimeMillis() - start;
+        lastSyncNanos = System.nanoTime() - start;
+        lastBatchSize = work.size();
+        long duration = TimeUnit.NANOSECONDS.toMillis(lastSyncNanos);
+        if (durabilityMethod != null) {
+          updateMetrics(TabletServerUpdateMetricsKeys.WALOG_SYNC_TIME, TimeUnit.NANOSECONDS.toMicros(lastSyncNanos));
+          updateMetrics(TabletServerUpdateMetricsKeys.WALOG_SYNC_BATCH_SIZE, lastBatchSize);
+        }
         if (duration > slowFlushMillis) {
           String msg = new StringBuilder(128).append("Slow sync cost: ").append(duration).append(" ms, current pipeline: ")
               .append(Arrays.toString(getPipeLine())).toString();
@@ -313,17 +388,21 @@ public class DfsLogger implements Comparable<DfsLogger> {
   private String metaReference;
   private AtomicLong syncCounter;
   private AtomicLong flushCounter;
+  private Metrics updateMetrics;
   private final long slowFlushMillis;
+  private final long maxBatchWaitNanos;
 
   private DfsLogger(ServerResources conf) {
     this.conf = conf;
     this.slowFlushMillis = conf.getConfiguration().getTimeInMillis(Property.TSERV_SLOW_FLUSH_MILLIS);
+    this.maxBatchWaitNanos = TimeUnit.MILLISECONDS.toNanos(conf.getConfiguration().getTimeInMillis(Property.TSERV_WAL_SYNC_BATCH_WAIT));
   }
 
-  public DfsLogger(ServerResources conf, AtomicLong syncCounter, AtomicLong flushCounter) throws IOException {
+  public DfsLogger(ServerResources conf, AtomicLong syncCounter, AtomicLong flushCounter, Metrics updateMetrics) throws IOException {
     this(conf);
     this.syncCounter = syncCounter;
     this.flushCounter = flushCounter;
+    this.updateMetrics = updateMetrics;
   }
 
   /**
@@ -603,20 +682,35 @@ public class DfsLogger implements Comparable<DfsLogger> {
     return logManyTablets(Collections.singletonList(new TabletMutations(tid, seq, Collections.singletonList(mutation), durability)));
   }
 
+  private void updateMetrics(String name, long value) {
+    if (updateMetrics != null && updateMetrics.isEnabled())
+      updateMetrics.add(name, value);
+  }
+
   private LoggerOperation logFileData(List<Pair<LogFileKey,LogFileValue>> keys, Durability durability) throws IOException {
     DfsLogger.LogWork work = new DfsLogger.LogWork(new CountDownLatch(1), durability);
-    synchronized (DfsLogger.this) {
-      try {
-        for (Pair<LogFileKey,LogFileValue> pair : keys) {
-          write(pair.getFirst(), pair.getSecond());
-        }
-      } catch (ClosedChannelException ex) {
-        throw new LogClosedException();
-      } catch (Exception e) {
-        log.error("Failed to write log entries", e);
-        work.exception = e;
+    // serialize outside of the lock, so that concurrent writers only contend on appending the bytes
+    EncodeBuffer buffer = encodeBuffers.get();
+    long start = System.nanoTime();
+    long encoded = start;
+    try {
+      buffer.encode(keys);
+      encoded = System.nanoTime();
+      synchronized (DfsLogger.this) {
+        buffer.writeTo(encryptingLogFile);
+        encryptingLogFile.flush();
       }
+    } catch (ClosedChannelException ex) {
+      throw new LogClosedException();
+    } catch (Exception e) {
+      log.error("Failed to write log entries", e);
+      work.exception = e;
+    } finally {
+      buffer.release();
     }
+    long appended = System.nanoTime();
+    updateMetrics(TabletServerUpdateMetricsKeys.WALOG_ENCODE_TIME, TimeUnit.NANOSECONDS.toMicros(encoded - start));
+    updateMetrics(TabletServerUpdateMetricsKeys.WALOG_APPEND_TIME, TimeUnit.NANOSECONDS.toMicros(appended - encoded));
 
     if (durability == Durability.LOG)
       return NO_WAIT_LOGGER_OP;
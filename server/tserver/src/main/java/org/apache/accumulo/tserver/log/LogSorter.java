@@ -26,6 +26,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadPoolExecutor;
 
 import org.apache.accumulo.core.Constants;
@@ -52,6 +56,8 @@ import org.apache.zookeeper.KeeperException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.annotations.VisibleForTesting;
+
 /**
  *
  */
@@ -129,25 +135,38 @@ public class LogSorter {
         this.input = inputStreams.getOriginalInput();
         this.decryptingInput = inputStreams.getDecryptingInputStream();
 
-        final long bufferSize = conf.getAsBytes(Property.TSERV_SORT_BUFFER_SIZE);
+        // each run being sorted and written, plus the run being read, gets an equal share of the sort buffer
+        final int sortThreads = Math.max(1, conf.getCount(Property.TSERV_SORT_THREADS));
+        final long bufferSize = conf.getAsBytes(Property.TSERV_SORT_BUFFER_SIZE) / (sortThreads + 1);
         Thread.currentThread().setName("Sorting " + name + " for recovery");
-        while (true) {
-          final ArrayList<Pair<LogFileKey,LogFileValue>> buffer = new ArrayList<>();
-          try {
-            long start = input.getPos();
-            while (input.getPos() - start < bufferSize) {
-              LogFileKey key = new LogFileKey();
-              LogFileValue value = new LogFileValue();
-              key.readFields(decryptingInput);
-              value.readFields(decryptingInput);
-              buffer.add(new Pair<>(key, value));
+        ExecutorService writers = new SimpleThreadPool(sortThreads, "Sorting " + name + " for recovery");
+        List<Future<?>> pending = new ArrayList<>();
+        try {
+          boolean eof = false;
+          while (!eof) {
+            final ArrayList<Pair<LogFileKey,LogFileValue>> buffer = new ArrayList<>();
+            try {
+              long start = input.getPos();
+              while (input.getPos() - start < bufferSize) {
+                LogFileKey key = new LogFileKey();
+                LogFileValue value = new LogFileValue();
+                key.readFields(decryptingInput);
+                value.readFields(decryptingInput);
+                buffer.add(new Pair<>(key, value));
+              }
+            } catch (EOFException ex) {
+              eof = true;
             }
-            writeBuffer(destPath, buffer, part++);
-            buffer.clear();
-          } catch (EOFException ex) {
-            writeBuffer(destPath, buffer, part++);
-            break;
+
+            // bound the memory in use by waiting for the oldest run before starting another
+            if (pending.size() == sortThreads)
+              waitFor(pending.remove(0));
+            pending.add(submitBuffer(writers, destPath, buffer, part++));
           }
+          for (Future<?> future : pending)
+            waitFor(future);
+        } finally {
+          writers.shutdownNow();
         }
         fs.create(new Path(destPath, "finished")).close();
         log.info("Finished log sort {} {} bytes {} parts in {}ms", name, getBytesCopied(), part, getSortTime());
@@ -173,7 +192,28 @@ public class LogSorter {
       }
     }
 
-    private void writeBuffer(String destPath, List<Pair<LogFileKey,LogFileValue>> buffer, int part) throws IOException {
+    private Future<?> submitBuffer(ExecutorService writers, final String destPath, final List<Pair<LogFileKey,LogFileValue>> buffer, final int part) {
+      return writers.submit(new Callable<Void>() {
+        @Override
+        public Void call() throws IOException {
+          writeBuffer(destPath, buffer, part);
+          return null;
+        }
+      });
+    }
+
+    private void waitFor(Future<?> future) throws IOException, InterruptedException {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof IOException)
+          throw (IOException) e.getCause();
+        throw new IOException(e.getCause());
+      }
+    }
+
+    @VisibleForTesting
+    void writeBuffer(String destPath, List<Pair<LogFileKey,LogFileValue>> buffer, int part) throws IOException {
       Path path = new Path(destPath, String.format("part-r-%05d", part));
       FileSystem ns = fs.getVolumeByPath(path).getFileSystem();
 
@@ -18,6 +18,7 @@ package org.apache.accumulo.tserver.metrics;
 
 import org.apache.accumulo.server.metrics.Metrics;
 import org.apache.accumulo.server.metrics.MetricsSystemHelper;
+import org.apache.accumulo.tserver.MajorCompactionExecutor;
 import org.apache.accumulo.tserver.TabletServer;
 import org.apache.hadoop.metrics2.MetricsCollector;
 import org.apache.hadoop.metrics2.MetricsRecordBuilder;
@@ -104,6 +105,14 @@ public class Metrics2TabletServerMetrics implements Metrics, MetricsSource, Tabl
     // TODO Some day, MetricsRegistry will also support the MetricsGaugeDouble or allow us to instantiate it directly
     builder.addGauge(Interns.info(FILES_PER_TABLET, "Number of files per tablet"), util.getAverageFilesPerTablet());
     builder.addGauge(Interns.info(HOLD_TIME, "Time commits held"), util.getHoldTime());
+
+    // the executors are configured per tserver, so their metrics are added by name
+    for (MajorCompactionExecutor executor : util.getMajorCompactionExecutors()) {
+      String name = executor.getName();
+      builder.addGauge(Interns.info(ACTIVE_MAJCS + "_" + name, "Number of major compactions running on executor " + name), executor.getRunning());
+      builder.addGauge(Interns.info(QUEUED_MAJCS + "_" + name, "Number of major compactions queued on executor " + name), executor.getQueued());
+      builder.addCounter(Interns.info(COMPLETED_MAJCS + "_" + name, "Number of major compactions completed by executor " + name), executor.getCompleted());
+    }
   }
 
 }
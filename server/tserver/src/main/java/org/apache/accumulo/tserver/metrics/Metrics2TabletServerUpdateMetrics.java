@@ -39,6 +39,7 @@ public class Metrics2TabletServerUpdateMetrics implements Metrics, MetricsSource
 
   private final MutableCounterLong permissionErrorsCounter, unknownTabletErrorsCounter, constraintViolationsCounter;
   private final MutableStat commitPrepStat, walogWriteTimeStat, commitTimeStat, mutationArraySizeStat;
+  private final MutableStat walogEncodeTimeStat, walogAppendTimeStat, walogSyncTimeStat, walogSyncBatchSizeStat;
 
   // Use TabletServerMetricsFactory
   Metrics2TabletServerUpdateMetrics(MetricsSystem system) {
@@ -54,6 +55,10 @@ public class Metrics2TabletServerUpdateMetrics implements Metrics, MetricsSource
     walogWriteTimeStat = registry.newStat(WALOG_WRITE_TIME, "writing mutations to WAL", "Ops", "Time", true);
     commitTimeStat = registry.newStat(COMMIT_TIME, "committing mutations", "Ops", "Time", true);
     mutationArraySizeStat = registry.newStat(MUTATION_ARRAY_SIZE, "mutation array", "ops", "Size", true);
+    walogEncodeTimeStat = registry.newStat(WALOG_ENCODE_TIME, "serializing WAL entries, in microseconds", "Ops", "Time", true);
+    walogAppendTimeStat = registry.newStat(WALOG_APPEND_TIME, "appending serialized entries to the WAL, in microseconds", "Ops", "Time", true);
+    walogSyncTimeStat = registry.newStat(WALOG_SYNC_TIME, "hflush or hsync of the WAL, in microseconds", "Ops", "Time", true);
+    walogSyncBatchSizeStat = registry.newStat(WALOG_SYNC_BATCH_SIZE, "writes made durable by one WAL hflush or hsync", "Ops", "Size", true);
   }
 
   @Override
@@ -72,6 +77,14 @@ public class Metrics2TabletServerUpdateMetrics implements Metrics, MetricsSource
       walogWriteTimeStat.add(value);
     } else if (COMMIT_TIME.equals(name)) {
       commitTimeStat.add(value);
+    } else if (WALOG_ENCODE_TIME.equals(name)) {
+      walogEncodeTimeStat.add(value);
+    } else if (WALOG_APPEND_TIME.equals(name)) {
+      walogAppendTimeStat.add(value);
+    } else if (WALOG_SYNC_TIME.equals(name)) {
+      walogSyncTimeStat.add(value);
+    } else if (WALOG_SYNC_BATCH_SIZE.equals(name)) {
+      walogSyncBatchSizeStat.add(value);
     } else {
       throw new RuntimeException("Cannot process metric with name " + name);
     }
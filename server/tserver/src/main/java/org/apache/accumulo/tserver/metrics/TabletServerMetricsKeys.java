@@ -27,6 +27,7 @@ public interface TabletServerMetricsKeys {
   String FILES_PER_TABLET = "filesPerTablet";
   String ACTIVE_MAJCS = "activeMajCs";
   String QUEUED_MAJCS = "queuedMajCs";
+  String COMPLETED_MAJCS = "completedMajCs";
   String ACTIVE_MINCS = "activeMinCs";
   String QUEUED_MINCS = "queuedMinCs";
   String ONLINE_TABLETS = "onlineTablets";
@@ -16,6 +16,9 @@
  */
 package org.apache.accumulo.tserver.metrics;
 
+import java.util.List;
+
+import org.apache.accumulo.tserver.MajorCompactionExecutor;
 import org.apache.accumulo.tserver.TabletServer;
 import org.apache.accumulo.tserver.tablet.Tablet;
 
@@ -74,6 +77,10 @@ public class TabletServerMetricsUtil {
     return result;
   }
 
+  public List<MajorCompactionExecutor> getMajorCompactionExecutors() {
+    return tserver.getMajorCompactionExecutors();
+  }
+
   public int getMinorCompactions() {
     int result = 0;
     for (Tablet tablet : tserver.getOnlineTablets()) {
@@ -148,6 +148,10 @@ public class TabletServerUpdateMetrics extends AbstractMetricsImpl implements Ta
     createMetric(CONSTRAINT_VIOLATIONS);
     createMetric(WALOG_WRITE_TIME);
     createMetric(COMMIT_TIME);
+    createMetric(WALOG_ENCODE_TIME);
+    createMetric(WALOG_APPEND_TIME);
+    createMetric(WALOG_SYNC_TIME);
+    createMetric(WALOG_SYNC_BATCH_SIZE);
   }
 
 }
@@ -28,5 +28,10 @@ public interface TabletServerUpdateMetricsKeys {
   static String CONSTRAINT_VIOLATIONS = "constraintViolations";
   static String WALOG_WRITE_TIME = "waLogWriteTime";
   static String COMMIT_TIME = "commitTime";
+  // the following times are in microseconds, unlike the times above which are in milliseconds
+  static String WALOG_ENCODE_TIME = "waLogEncodeTimeMicros";
+  static String WALOG_APPEND_TIME = "waLogAppendTimeMicros";
+  static String WALOG_SYNC_TIME = "waLogSyncTimeMicros";
+  static String WALOG_SYNC_BATCH_SIZE = "waLogSyncBatchSize";
 
 }
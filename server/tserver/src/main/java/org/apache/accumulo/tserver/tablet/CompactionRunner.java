@@ -18,6 +18,7 @@ package org.apache.accumulo.tserver.tablet;
 
 import java.util.Objects;
 
+import org.apache.accumulo.tserver.MajorCompactionExecutor;
 import org.apache.accumulo.tserver.compaction.MajorCompactionReason;
 
 final class CompactionRunner implements Runnable, Comparable<CompactionRunner> {
@@ -25,17 +26,19 @@ final class CompactionRunner implements Runnable, Comparable<CompactionRunner> {
   private final Tablet tablet;
   private final MajorCompactionReason reason;
   private final long queued;
+  private final MajorCompactionExecutor executor;
 
-  public CompactionRunner(Tablet tablet, MajorCompactionReason reason) {
+  public CompactionRunner(Tablet tablet, MajorCompactionReason reason, MajorCompactionExecutor executor) {
     this.tablet = tablet;
     queued = System.currentTimeMillis();
     this.reason = reason;
+    this.executor = executor;
   }
 
   @Override
   public void run() {
 
-    tablet.majorCompact(reason, queued);
+    tablet.majorCompact(reason, queued, executor);
 
     // if there is more work to be done, queue another major compaction
     synchronized (tablet) {
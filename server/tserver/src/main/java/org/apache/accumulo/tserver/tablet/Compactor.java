@@ -35,6 +35,7 @@ import org.apache.accumulo.core.client.IteratorSetting;
 import org.apache.accumulo.core.conf.AccumuloConfiguration;
 import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.data.impl.KeyExtent;
 import org.apache.accumulo.core.file.FileOperations;
@@ -96,6 +97,7 @@ public class Compactor implements Callable<CompactionStats> {
   private final CompactionEnv env;
   private final VolumeManager fs;
   protected final KeyExtent extent;
+  private final Range range;
   private final List<IteratorSetting> iterators;
 
   // things to report
@@ -146,6 +148,15 @@ public class Compactor implements Callable<CompactionStats> {
 
   public Compactor(AccumuloServerContext context, Tablet tablet, Map<FileRef,DataFileValue> files, InMemoryMap imm, FileRef outputFile,
       boolean propogateDeletes, CompactionEnv env, List<IteratorSetting> iterators, int reason, AccumuloConfiguration tableConfiguation) {
+    this(context, tablet, files, imm, outputFile, propogateDeletes, env, iterators, reason, tableConfiguation, tablet.getExtent().toDataRange());
+  }
+
+  /**
+   * @param range
+   *          the part of the tablet to compact. Only data within this range is written to the output file.
+   */
+  public Compactor(AccumuloServerContext context, Tablet tablet, Map<FileRef,DataFileValue> files, InMemoryMap imm, FileRef outputFile,
+      boolean propogateDeletes, CompactionEnv env, List<IteratorSetting> iterators, int reason, AccumuloConfiguration tableConfiguation, Range range) {
     this.context = context;
     this.extent = tablet.getExtent();
     this.fs = tablet.getTabletServer().getFileSystem();
@@ -157,6 +168,7 @@ public class Compactor implements Callable<CompactionStats> {
     this.env = env;
     this.iterators = iterators;
     this.reason = reason;
+    this.range = range;
 
     startTime = System.currentTimeMillis();
   }
@@ -336,7 +348,7 @@ public class Compactor implements Callable<CompactionStats> {
         iters.add(imm.compactionIterator());
       }
 
-      CountingIterator citr = new CountingIterator(new MultiIterator(iters, extent.toDataRange()), entriesRead);
+      CountingIterator citr = new CountingIterator(new MultiIterator(iters, range), entriesRead);
       DeletingIterator delIter = new DeletingIterator(citr, propogateDeletes);
       ColumnFamilySkippingIterator cfsi = new ColumnFamilySkippingIterator(delIter);
 
@@ -353,7 +365,7 @@ public class Compactor implements Callable<CompactionStats> {
       SortedKeyValueIterator<Key,Value> itr = iterEnv.getTopLevelIterator(IteratorUtil.loadIterators(env.getIteratorScope(), cfsi, extent, acuTableConf,
           iterators, iterEnv));
 
-      itr.seek(extent.toDataRange(), columnFamilies, inclusive);
+      itr.seek(range, columnFamilies, inclusive);
 
       if (!inclusive) {
         mfw.startDefaultLocalityGroup();
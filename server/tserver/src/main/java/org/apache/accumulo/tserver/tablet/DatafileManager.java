@@ -19,10 +19,13 @@ package org.apache.accumulo.tserver.tablet;
 import static org.apache.accumulo.fate.util.UtilWaitThread.sleepUninterruptibly;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -80,6 +83,9 @@ class DatafileManager {
 
   private final Set<FileRef> majorCompactingFiles = new HashSet<>();
 
+  // the files written by each partitioned major compaction, whose key ranges do not overlap each other
+  private final List<Set<FileRef>> disjointFileSets = new ArrayList<>();
+
   static void rename(VolumeManager fs, Path src, Path dst) throws IOException {
     if (!fs.rename(src, dst)) {
       throw new IOException("Rename " + src + " to " + dst + " returned false ");
@@ -491,22 +497,43 @@ class DatafileManager {
   }
 
   void bringMajorCompactionOnline(Set<FileRef> oldDatafiles, FileRef tmpDatafile, FileRef newDatafile, Long compactionId, DataFileValue dfv) throws IOException {
+    bringMajorCompactionOnline(oldDatafiles, Collections.singletonMap(newDatafile, tmpDatafile), Collections.singletonMap(newDatafile, dfv), compactionId);
+  }
+
+  /**
+   * Replaces the compacted files with all of the files produced by a major compaction at once, both in memory and in the metadata table.
+   *
+   * @param tmpDatafiles
+   *          maps each new file to the temporary file it was written to
+   * @param newDatafiles
+   *          the new files and their sizes
+   */
+  void bringMajorCompactionOnline(Set<FileRef> oldDatafiles, Map<FileRef,FileRef> tmpDatafiles, Map<FileRef,DataFileValue> newDatafiles, Long compactionId)
+      throws IOException {
     final KeyExtent extent = tablet.getExtent();
     long t1, t2;
 
+    if (extent.isRootTablet() && newDatafiles.size() != 1)
+      throw new IllegalArgumentException("Root tablet major compaction must produce one file " + newDatafiles.keySet());
+
     if (!extent.isRootTablet()) {
 
-      if (tablet.getTabletServer().getFileSystem().exists(newDatafile.path())) {
-        log.error("Target map file already exist " + newDatafile, new Exception());
-        throw new IllegalStateException("Target map file already exist " + newDatafile);
+      for (FileRef newDatafile : newDatafiles.keySet()) {
+        if (tablet.getTabletServer().getFileSystem().exists(newDatafile.path())) {
+          log.error("Target map file already exist " + newDatafile, new Exception());
+          throw new IllegalStateException("Target map file already exist " + newDatafile);
+        }
       }
 
       // rename before putting in metadata table, so files in metadata table should
       // always exist
-      rename(tablet.getTabletServer().getFileSystem(), tmpDatafile.path(), newDatafile.path());
+      for (Entry<FileRef,DataFileValue> entry : newDatafiles.entrySet()) {
+        FileRef newDatafile = entry.getKey();
+        rename(tablet.getTabletServer().getFileSystem(), tmpDatafiles.get(newDatafile).path(), newDatafile.path());
 
-      if (dfv.getNumEntries() == 0) {
-        tablet.getTabletServer().getFileSystem().deleteRecursively(newDatafile.path());
+        if (entry.getValue().getNumEntries() == 0) {
+          tablet.getTabletServer().getFileSystem().deleteRecursively(newDatafile.path());
+        }
       }
     }
 
@@ -536,11 +563,12 @@ class DatafileManager {
         // rename the compacted map file, in case
         // the system goes down
 
-        RootFiles.replaceFiles(tablet.getTableConfiguration(), tablet.getTabletServer().getFileSystem(), tablet.getLocation(), oldDatafiles, tmpDatafile,
-            newDatafile);
+        FileRef newDatafile = newDatafiles.keySet().iterator().next();
+        RootFiles.replaceFiles(tablet.getTableConfiguration(), tablet.getTabletServer().getFileSystem(), tablet.getLocation(), oldDatafiles,
+            tmpDatafiles.get(newDatafile), newDatafile);
       }
 
-      // atomically remove old files and add new file
+      // atomically remove old files and add new files
       for (FileRef oldDatafile : oldDatafiles) {
         if (!datafileSizes.containsKey(oldDatafile)) {
           log.error("file does not exist in set {}", oldDatafile);
@@ -549,16 +577,25 @@ class DatafileManager {
         majorCompactingFiles.remove(oldDatafile);
       }
 
-      if (datafileSizes.containsKey(newDatafile)) {
-        log.error("Adding file that is already in set {}", newDatafile);
-      }
+      for (Entry<FileRef,DataFileValue> entry : newDatafiles.entrySet()) {
+        if (datafileSizes.containsKey(entry.getKey())) {
+          log.error("Adding file that is already in set {}", entry.getKey());
+        }
 
-      if (dfv.getNumEntries() > 0) {
-        datafileSizes.put(newDatafile, dfv);
+        if (entry.getValue().getNumEntries() > 0) {
+          datafileSizes.put(entry.getKey(), entry.getValue());
+        }
+
+        // could be used by a follow on compaction in a multipass compaction
+        majorCompactingFiles.add(entry.getKey());
       }
 
-      // could be used by a follow on compaction in a multipass compaction
-      majorCompactingFiles.add(newDatafile);
+      if (newDatafiles.size() > 1) {
+        Set<FileRef> written = new HashSet<>(newDatafiles.keySet());
+        written.retainAll(datafileSizes.keySet());
+        if (written.size() > 1)
+          disjointFileSets.add(written);
+      }
 
       tablet.computeNumEntries();
 
@@ -572,13 +609,13 @@ class DatafileManager {
       Set<FileRef> filesInUseByScans = waitForScansToFinish(oldDatafiles, false, 10000);
       if (filesInUseByScans.size() > 0)
         log.debug("Adding scan refs to metadata {} {}", extent, filesInUseByScans);
-      MasterMetadataUtil.replaceDatafiles(tablet.getTabletServer(), extent, oldDatafiles, filesInUseByScans, newDatafile, compactionId, dfv, tablet
-          .getTabletServer().getClientAddressString(), lastLocation, tablet.getTabletServer().getLock());
+      MasterMetadataUtil.replaceDatafiles(tablet.getTabletServer(), extent, oldDatafiles, filesInUseByScans, newDatafiles, compactionId, tablet
+          .getTabletServer().getClientAddressString(), lastLocation, tablet.getTabletServer().getLock(), true);
       removeFilesAfterScan(filesInUseByScans);
     }
 
     log.debug(String.format("MajC finish lock %.2f secs", (t2 - t1) / 1000.0));
-    log.debug("TABLET_HIST {} MajC  --> {}", oldDatafiles, newDatafile);
+    log.debug("TABLET_HIST {} MajC  --> {}", oldDatafiles, newDatafiles.keySet());
   }
 
   public SortedMap<FileRef,DataFileValue> getDatafileSizes() {
@@ -588,6 +625,26 @@ class DatafileManager {
     }
   }
 
+  /**
+   * @return sets of the tablet's files whose key ranges are known not to overlap, because one partitioned major compaction wrote them
+   */
+  public List<Set<FileRef>> getDisjointFileSets() {
+    synchronized (tablet) {
+      List<Set<FileRef>> sets = new ArrayList<>(disjointFileSets.size());
+      Iterator<Set<FileRef>> iter = disjointFileSets.iterator();
+      while (iter.hasNext()) {
+        Set<FileRef> set = iter.next();
+        // forget files that were compacted away or merged into a minor compaction
+        set.retainAll(datafileSizes.keySet());
+        if (set.size() > 1)
+          sets.add(Collections.unmodifiableSet(new HashSet<>(set)));
+        else
+          iter.remove();
+      }
+      return Collections.unmodifiableList(sets);
+    }
+  }
+
   public Set<FileRef> getFiles() {
     synchronized (tablet) {
       HashSet<FileRef> files = new HashSet<>(datafileSizes.keySet());
@@ -177,7 +177,7 @@ class ScanDataSource implements DataSource {
     iters.addAll(mapfiles);
     iters.addAll(memIters);
 
-    MultiIterator multiIter = new MultiIterator(iters, tablet.getExtent());
+    MultiIterator multiIter = new MultiIterator(iters, tablet.getExtent(), fileManager.getFileAccessPool());
 
     TabletIteratorEnvironment iterEnv = new TabletIteratorEnvironment(IteratorScope.scan, tablet.getTableConfiguration(), fileManager, files,
         options.getAuthorizations(), samplerConfig);
@@ -21,6 +21,7 @@ import java.util.ArrayList;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.accumulo.core.conf.Property;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
@@ -46,6 +47,7 @@ public class Scanner {
    * Reentrant lock.
    */
   private Semaphore scannerSemaphore;
+  private volatile int batchScale = 1;
 
   Scanner(Tablet tablet, Range range, ScanOptions options) {
     this.tablet = tablet;
@@ -95,7 +97,9 @@ public class Scanner {
         iter = new SourceSwitchingIterator(dataSource, false);
       }
 
-      results = tablet.nextBatch(iter, range, options.getNum(), options.getColumnSet(), options.getBatchTimeOut(), options.isIsolated());
+      // only the memory bound grows, the client's batch size is always honored
+      long maxResultsSize = tablet.getTableConfiguration().getAsBytes(Property.TABLE_SCAN_MAXMEM) * batchScale;
+      results = tablet.nextBatch(iter, range, options.getNum(), options.getColumnSet(), options.getBatchTimeOut(), options.isIsolated(), maxResultsSize);
 
       if (results.getResults() == null) {
         range = null;
@@ -141,6 +145,16 @@ public class Scanner {
     }
   }
 
+  /**
+   * Doubles the memory that following calls to {@link #read()} may buffer, up to {@link Property#TABLE_SCAN_BATCH_GROWTH_MAX} times
+   * {@link Property#TABLE_SCAN_MAXMEM}. Called for long sequential scans, so that they need fewer round trips to the client. The number of entries in a batch
+   * is still limited by the batch size the client asked for.
+   */
+  public void growBatchSize() {
+    int max = Math.max(1, tablet.getTableConfiguration().getCount(Property.TABLE_SCAN_BATCH_GROWTH_MAX));
+    batchScale = Math.min(batchScale * 2, max);
+  }
+
   // close and read are synchronized because can not call close on the data source while it is in use
   // this could lead to the case where file iterators that are in use by a thread are returned
   // to the pool... this would be bad
@@ -42,6 +42,9 @@ import java.util.TreeMap;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
@@ -122,6 +125,7 @@ import org.apache.accumulo.server.zookeeper.ZooReaderWriter;
 import org.apache.accumulo.start.classloader.vfs.AccumuloVFSClassLoader;
 import org.apache.accumulo.tserver.ConditionCheckerContext.ConditionChecker;
 import org.apache.accumulo.tserver.InMemoryMap;
+import org.apache.accumulo.tserver.MajorCompactionExecutor;
 import org.apache.accumulo.tserver.MinorCompactionReason;
 import org.apache.accumulo.tserver.TConstraintViolationException;
 import org.apache.accumulo.tserver.TabletServer;
@@ -725,7 +729,8 @@ public class Tablet implements TabletCommitter {
     }
   }
 
-  Batch nextBatch(SortedKeyValueIterator<Key,Value> iter, Range range, int num, Set<Column> columns, long batchTimeOut, boolean isolated) throws IOException {
+  Batch nextBatch(SortedKeyValueIterator<Key,Value> iter, Range range, int num, Set<Column> columns, long batchTimeOut, boolean isolated,
+      long maxResultsSize) throws IOException {
 
     // log.info("In nextBatch..");
 
@@ -740,8 +745,6 @@ public class Tablet implements TabletCommitter {
     long resultSize = 0L;
     long resultBytes = 0L;
 
-    long maxResultsSize = tableConfiguration.getAsBytes(Property.TABLE_SCAN_MAXMEM);
-
     Key continueKey = null;
     boolean skipContinueKey = false;
 
@@ -1468,7 +1471,9 @@ public class Tablet implements TabletCommitter {
 
     majorCompactionQueued.add(reason);
 
-    getTabletResources().executeMajorCompaction(getExtent(), new CompactionRunner(this, reason));
+    MajorCompactionExecutor executor = getTabletResources().getMajorCompactionExecutor(getDatafileManager().getDatafileSizes(),
+        getDatafileManager().getDisjointFileSets(), reason);
+    getTabletResources().executeMajorCompaction(getExtent(), executor, new CompactionRunner(this, reason, executor));
 
     return false;
   }
@@ -1482,7 +1487,7 @@ public class Tablet implements TabletCommitter {
       return false;
     if (reason == MajorCompactionReason.CHOP || reason == MajorCompactionReason.USER)
       return true;
-    return getTabletResources().needsMajorCompaction(getDatafileManager().getDatafileSizes(), reason);
+    return getTabletResources().needsMajorCompaction(getDatafileManager().getDatafileSizes(), getDatafileManager().getDisjointFileSets(), reason);
   }
 
   /**
@@ -1689,7 +1694,7 @@ public class Tablet implements TabletCommitter {
     return !isClosing();
   }
 
-  private CompactionStats _majorCompact(MajorCompactionReason reason) throws IOException, CompactionCanceledException {
+  private CompactionStats _majorCompact(MajorCompactionReason reason, final MajorCompactionExecutor executor) throws IOException, CompactionCanceledException {
 
     long t1, t2, t3;
 
@@ -1719,6 +1724,7 @@ public class Tablet implements TabletCommitter {
       BlockCache ic = tabletResources.getTabletServerResourceManager().getIndexCache();
       MajorCompactionRequest request = new MajorCompactionRequest(extent, reason, getTabletServer().getFileSystem(), tableConfiguration, sc, ic);
       request.setFiles(getDatafileManager().getDatafileSizes());
+      request.setDisjointFiles(getDatafileManager().getDisjointFileSets());
       strategy.gatherInformation(request);
     }
 
@@ -1763,6 +1769,7 @@ public class Tablet implements TabletCommitter {
       } else {
         MajorCompactionRequest request = new MajorCompactionRequest(extent, reason, tableConfiguration);
         request.setFiles(allFiles);
+        request.setDisjointFiles(getDatafileManager().getDisjointFileSets());
         plan = strategy.getCompactionPlan(request);
         if (plan != null) {
           plan.validate(allFiles.keySet());
@@ -1874,12 +1881,12 @@ public class Tablet implements TabletCommitter {
 
             @Override
             public RateLimiter getReadLimiter() {
-              return getTabletServer().getMajorCompactionReadLimiter();
+              return executor.getReadLimiter();
             }
 
             @Override
             public RateLimiter getWriteLimiter() {
-              return getTabletServer().getMajorCompactionWriteLimiter();
+              return executor.getWriteLimiter();
             }
 
           };
@@ -1890,10 +1897,32 @@ public class Tablet implements TabletCommitter {
 
           copy.keySet().retainAll(smallestFiles);
 
-          log.debug("Starting MajC {} ({}) {} --> {} {}", extent, reason, copy.keySet(), compactTmpName, compactionIterators);
-
           // always propagate deletes, unless last batch
           boolean lastBatch = filesToCompact.isEmpty();
+
+          // only a compaction that produces the tablet's final file is partitioned, earlier passes of a multipass compaction are not. Partitioning a
+          // compaction of some of the tablet's files would leave the tablet with more files than it started with, so whatever the reason for the
+          // compaction, it is only partitioned when it includes all of the tablet's files. Chop compactions usually include only the files that need
+          // chopping.
+          boolean partitionable = lastBatch && !propogateDeletes;
+          List<Text> partitionRows = partitionable ? findPartitionRows(copy) : Collections.<Text> emptyList();
+          if (!partitionRows.isEmpty()) {
+            if (plan != null && plan.deleteFiles != null) {
+              smallestFiles.addAll(plan.deleteFiles);
+            }
+            CompactionStats mcs = compactPartitions(partitionRows, copy, smallestFiles, propogateDeletes, cenv, compactionIterators, reason, tableConf,
+                compactionId != null ? compactionId.getFirst() : null);
+
+            span.data("files", "" + copy.size());
+            span.data("partitions", "" + (partitionRows.size() + 1));
+            span.data("read", "" + mcs.getEntriesRead());
+            span.data("written", "" + mcs.getEntriesWritten());
+            majCStats.add(mcs);
+            continue;
+          }
+
+          log.debug("Starting MajC {} ({}) {} --> {} {}", extent, reason, copy.keySet(), compactTmpName, compactionIterators);
+
           Compactor compactor = new Compactor(tabletServer, this, copy, null, compactTmpName, lastBatch ? propogateDeletes : true, cenv, compactionIterators,
               reason.ordinal(), tableConf);
 
@@ -1929,6 +1958,126 @@ public class Tablet implements TabletCommitter {
     }
   }
 
+  /**
+   * @return the rows that divide a compaction of the given files into partitions, or an empty list if the compaction should not be partitioned
+   */
+  private List<Text> findPartitionRows(Map<FileRef,DataFileValue> files) {
+    int partitions = tableConfiguration.getCount(Property.TABLE_MAJC_PARTITIONS);
+    if (partitions <= 1 || extent.isRootTablet() || files.isEmpty())
+      return Collections.emptyList();
+
+    if (sizeOf(files.values()) < tableConfiguration.getAsBytes(Property.TABLE_MAJC_PARTITION_SIZE_MIN))
+      return Collections.emptyList();
+
+    try {
+      return FileUtil.findPartitionRows(getTabletServer().getFileSystem(), tableConfiguration, extent.getPrevEndRow(), extent.getEndRow(),
+          FileUtil.toPathStrings(files.keySet()), partitions);
+    } catch (IOException e) {
+      log.warn("Failed to find partition rows for {}, compacting into one file {}", extent, e.getMessage());
+      return Collections.emptyList();
+    }
+  }
+
+  /**
+   * Compacts each partition of the tablet into its own file, all in parallel, and then replaces the compacted files with the new files at once. The
+   * partition ending with the first row is compacted in the calling thread.
+   */
+  private CompactionStats compactPartitions(List<Text> partitionRows, Map<FileRef,DataFileValue> files, Set<FileRef> oldDatafiles, boolean propogateDeletes,
+      final CompactionEnv cenv, List<IteratorSetting> compactionIterators, MajorCompactionReason reason, AccumuloConfiguration tableConf, Long compactionId)
+      throws IOException, CompactionCanceledException {
+
+    // once one partition fails there is no reason for the others to continue
+    final AtomicBoolean failed = new AtomicBoolean(false);
+    CompactionEnv partitionEnv = new CompactionEnv() {
+      @Override
+      public boolean isCompactionEnabled() {
+        return !failed.get() && cenv.isCompactionEnabled();
+      }
+
+      @Override
+      public IteratorScope getIteratorScope() {
+        return cenv.getIteratorScope();
+      }
+
+      @Override
+      public RateLimiter getReadLimiter() {
+        return cenv.getReadLimiter();
+      }
+
+      @Override
+      public RateLimiter getWriteLimiter() {
+        return cenv.getWriteLimiter();
+      }
+    };
+
+    List<FileRef> fileNames = new ArrayList<>();
+    Map<FileRef,FileRef> tmpFileNames = new HashMap<>();
+    List<Compactor> compactors = new ArrayList<>();
+    Text prevRow = extent.getPrevEndRow();
+    for (int i = 0; i <= partitionRows.size(); i++) {
+      Text endRow = i < partitionRows.size() ? partitionRows.get(i) : extent.getEndRow();
+      FileRef fileName = getNextMapFilename(propogateDeletes ? "C" : "A");
+      FileRef tmpFileName = new FileRef(fileName.path().toString() + "_tmp");
+      fileNames.add(fileName);
+      tmpFileNames.put(fileName, tmpFileName);
+      compactors.add(new Compactor(tabletServer, this, files, null, tmpFileName, propogateDeletes, partitionEnv, compactionIterators, reason.ordinal(),
+          tableConf, new KeyExtent(extent.getTableId(), endRow, prevRow).toDataRange()));
+      prevRow = endRow;
+    }
+
+    log.debug("Starting MajC {} ({}) {} --> {} partitioned at {} {}", extent, reason, files.keySet(), fileNames, partitionRows, compactionIterators);
+
+    ExecutorService partitionPool = tabletResources.getTabletServerResourceManager().getMajorCompactionPartitionExecutor();
+    List<Future<CompactionStats>> futures = new ArrayList<>();
+    for (Compactor compactor : compactors.subList(1, compactors.size())) {
+      futures.add(partitionPool.submit(compactor));
+    }
+
+    Map<FileRef,DataFileValue> newFiles = new HashMap<>();
+    CompactionStats majCStats = new CompactionStats();
+    Exception error = null;
+    for (int i = 0; i < compactors.size(); i++) {
+      try {
+        CompactionStats mcs = i == 0 ? compactors.get(0).call() : futures.get(i - 1).get();
+        majCStats.add(mcs);
+        newFiles.put(fileNames.get(i), new DataFileValue(mcs.getFileSize(), mcs.getEntriesWritten()));
+      } catch (ExecutionException e) {
+        failed.set(true);
+        if (error == null)
+          error = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+      } catch (InterruptedException | IOException | CompactionCanceledException | RuntimeException e) {
+        failed.set(true);
+        if (error == null)
+          error = e;
+      }
+    }
+
+    if (error != null) {
+      // the partitions that failed removed their own output
+      for (FileRef fileName : newFiles.keySet()) {
+        getTabletServer().getFileSystem().deleteRecursively(tmpFileNames.get(fileName).path());
+      }
+      if (error instanceof IOException)
+        throw (IOException) error;
+      if (error instanceof CompactionCanceledException)
+        throw (CompactionCanceledException) error;
+      if (error instanceof RuntimeException)
+        throw (RuntimeException) error;
+      throw new IOException("Partitioned major compaction of " + extent + " failed", error);
+    }
+
+    getDatafileManager().bringMajorCompactionOnline(oldDatafiles, tmpFileNames, newFiles, compactionId);
+    majCStats.setFileSize(sizeOf(newFiles.values()));
+    return majCStats;
+  }
+
+  private static long sizeOf(Collection<DataFileValue> files) {
+    long size = 0;
+    for (DataFileValue dfv : files)
+      size += dfv.getSize();
+    return size;
+  }
+
   protected AccumuloConfiguration createTableConfiguration(TableConfiguration base, CompactionPlan plan) {
     if (plan == null || plan.writeParameters == null)
       return base;
@@ -1989,7 +2138,7 @@ public class Tablet implements TabletCommitter {
    * Performs a major compaction on the tablet. If needsSplit() returns true, the tablet is split and a reference to the new tablet is returned.
    */
 
-  CompactionStats majorCompact(MajorCompactionReason reason, long queued) {
+  CompactionStats majorCompact(MajorCompactionReason reason, long queued, MajorCompactionExecutor executor) {
     CompactionStats majCStats = null;
     boolean success = false;
     long start = System.currentTimeMillis();
@@ -2014,7 +2163,7 @@ public class Tablet implements TabletCommitter {
       ProbabilitySampler sampler = new ProbabilitySampler(tracePercent);
       span = Trace.on("majorCompaction", sampler);
 
-      majCStats = _majorCompact(reason);
+      majCStats = _majorCompact(reason, executor);
       if (reason == MajorCompactionReason.CHOP) {
         MetadataTableUtil.chopped(getTabletServer(), getExtent(), this.getTabletServer().getLock());
         getTabletServer().enqueueMasterMessage(new TabletStatusMessage(TabletLoadState.CHOPPED, extent));
@@ -2515,6 +2664,7 @@ public class Tablet implements TabletCommitter {
 
       MajorCompactionRequest request = new MajorCompactionRequest(extent, MajorCompactionReason.USER, tableConfiguration);
       request.setFiles(getDatafileManager().getDatafileSizes());
+      request.setDisjointFiles(getDatafileManager().getDisjointFileSets());
 
       try {
         if (strategy.shouldCompact(request)) {
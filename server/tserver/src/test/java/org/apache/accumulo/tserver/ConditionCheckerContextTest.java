@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.tserver;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.client.impl.CompressedIterators;
+import org.apache.accumulo.core.conf.DefaultConfiguration;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.data.thrift.TCMResult;
+import org.apache.accumulo.core.data.thrift.TCMStatus;
+import org.apache.accumulo.core.data.thrift.TCondition;
+import org.apache.accumulo.core.data.thrift.TConditionalMutation;
+import org.apache.accumulo.core.iterators.Combiner;
+import org.apache.accumulo.core.iterators.LongCombiner;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iterators.SortedMapIterator;
+import org.apache.accumulo.core.iterators.user.MinCombiner;
+import org.apache.accumulo.core.iterators.user.SummingCombiner;
+import org.apache.accumulo.tserver.data.ServerConditionalMutation;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConditionCheckerContextTest {
+
+  private static final IteratorSetting[] NONE = new IteratorSetting[0];
+
+  private CompressedIterators clientIters;
+  private IteratorSetting[] sum;
+  private IteratorSetting[] min;
+  private long nextId = 0;
+
+  @Before
+  public void setup() {
+    clientIters = new CompressedIterators();
+    sum = new IteratorSetting[] {combiner("sum", SummingCombiner.class)};
+    min = new IteratorSetting[] {combiner("min", MinCombiner.class)};
+  }
+
+  private static IteratorSetting combiner(String name, Class<? extends LongCombiner> clazz) {
+    IteratorSetting is = new IteratorSetting(10, name, clazz);
+    LongCombiner.setEncodingType(is, LongCombiner.Type.STRING);
+    Combiner.setColumns(is, Collections.singletonList(new IteratorSetting.Column("f")));
+    return is;
+  }
+
+  private static SortedKeyValueIterator<Key,Value> systemIter() {
+    TreeMap<Key,Value> data = new TreeMap<>();
+    for (long ts = 1; ts <= 3; ts++) {
+      data.put(new Key("r1", "f", "q", ts), new Value(Long.toString(ts).getBytes(UTF_8)));
+      data.put(new Key("r2", "f", "q", ts), new Value(Long.toString(10 * ts).getBytes(UTF_8)));
+    }
+    return new SortedMapIterator(data);
+  }
+
+  private TCondition condition(String value, IteratorSetting[] iterators) {
+    return new TCondition(ByteBuffer.wrap("f".getBytes(UTF_8)), ByteBuffer.wrap("q".getBytes(UTF_8)), ByteBuffer.wrap(new byte[0]), 0, false,
+        ByteBuffer.wrap(value.getBytes(UTF_8)), clientIters.compress(iterators));
+  }
+
+  private ServerConditionalMutation mutation(String row, TCondition... conditions) {
+    Mutation m = new Mutation(row);
+    m.put("f", "q", "x");
+    return new ServerConditionalMutation(new TConditionalMutation(Arrays.asList(conditions), m.toThrift(), nextId++));
+  }
+
+  private ConditionCheckerContext newContext() {
+    // the tablet server decompresses with the symbol table the client sent
+    return new ConditionCheckerContext(new CompressedIterators(clientIters.getSymbolTable()), DefaultConfiguration.getInstance());
+  }
+
+  @Test
+  public void testSharedAndDistinctIterators() throws Exception {
+    // each condition is checked against the top value its own iterators produce: the latest version, the sum, or the minimum of all versions
+    List<ServerConditionalMutation> mutations = Arrays.asList(mutation("r1", condition("3", NONE)), mutation("r1", condition("6", sum)),
+        mutation("r1", condition("1", min), condition("6", sum)), mutation("r2", condition("60", sum)), mutation("r2", condition("10", min)),
+        mutation("r1", condition("3", sum)), mutation("r1", condition("1", min), condition("5", sum)), mutation("r2", condition("30", NONE), condition("6", sum)),
+        mutation("r1", condition("6", sum), condition("3", NONE)));
+    List<Boolean> expected = Arrays.asList(true, true, true, true, true, false, false, false, true);
+
+    ConditionCheckerContext cc = newContext();
+    SortedKeyValueIterator<Key,Value> systemIter = systemIter();
+    Map<ByteSequence,SortedKeyValueIterator<Key,Value>> iterators = new HashMap<>();
+    List<Boolean> actual = new ArrayList<>();
+    for (ServerConditionalMutation scm : mutations) {
+      actual.add(cc.checkConditions(systemIter, scm, iterators));
+    }
+    assertEquals(expected, actual);
+
+    // one stack for each distinct iterator configuration, reused by every condition that has that configuration
+    assertEquals(3, iterators.size());
+
+    // the checker gives each mutation the same result when the mutations are checked together
+    List<ServerConditionalMutation> ok = new ArrayList<>();
+    List<TCMResult> results = new ArrayList<>();
+    newContext().newChecker(mutations, ok, results).check(systemIter());
+    for (int i = 0; i < mutations.size(); i++) {
+      ServerConditionalMutation scm = mutations.get(i);
+      if (expected.get(i)) {
+        assertTrue(ok.contains(scm));
+      } else {
+        assertTrue(results.contains(new TCMResult(scm.getID(), TCMStatus.REJECTED)));
+      }
+    }
+    assertEquals(mutations.size(), ok.size() + results.size());
+  }
+
+  @Test
+  public void testReusedStackIsReseeked() throws Exception {
+    // alternate rows with one shared stack, so a stale position from the previous condition would give the wrong sum
+    ConditionCheckerContext cc = newContext();
+    SortedKeyValueIterator<Key,Value> systemIter = systemIter();
+    Map<ByteSequence,SortedKeyValueIterator<Key,Value>> iterators = new HashMap<>();
+    for (int i = 0; i < 4; i++) {
+      assertTrue(cc.checkConditions(systemIter, mutation("r2", condition("60", sum)), iterators));
+      assertTrue(cc.checkConditions(systemIter, mutation("r1", condition("6", sum)), iterators));
+      assertFalse(cc.checkConditions(systemIter, mutation("r1", condition("60", sum)), iterators));
+    }
+    assertEquals(1, iterators.size());
+  }
+}
@@ -33,6 +33,7 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -586,6 +587,82 @@ public class InMemoryMapTest {
     // seekLocalityGroups(iter1.deepCopy(null));
   }
 
+  @Test
+  public void testConcurrentWrites() throws Exception {
+    for (boolean useLocalityGroups : new boolean[] {false, true}) {
+      ConfigurationCopy config = newConfig(tempFolder.newFolder().getAbsolutePath());
+      config.set(Property.TSERV_MEMORY_MAPS_CONCURRENT_WRITES, "true");
+      if (useLocalityGroups) {
+        config.set(Property.TABLE_LOCALITY_GROUP_PREFIX + "lg1", LocalityGroupUtil.encodeColumnFamilies(toTextSet("cf1")));
+        config.set(Property.TABLE_LOCALITY_GROUPS.getKey(), "lg1");
+      }
+      InMemoryMap imm = new InMemoryMap(config);
+
+      final int numThreads = 8;
+      final int mutationsPerThread = 500;
+      ExecutorService executor = Executors.newFixedThreadPool(numThreads + 1);
+      AtomicBoolean writing = new AtomicBoolean(true);
+
+      // every mutation writes the same two columns, so a scan that sees only one of them has seen a partial mutation
+      List<Future<?>> writers = new ArrayList<>();
+      for (int t = 0; t < numThreads; t++) {
+        int thread = t;
+        writers.add(executor.submit(() -> {
+          for (int i = 0; i < mutationsPerThread; i++) {
+            Mutation m = new Mutation(String.format("r%02d_%04d", thread, i));
+            m.put("cf1", "a", 1, "v");
+            m.put("cf2", "b", 1, "v");
+            imm.mutate(Collections.singletonList(m));
+          }
+          return null;
+        }));
+      }
+
+      Future<?> reader = executor.submit(() -> {
+        while (writing.get()) {
+          MemoryIterator iter = imm.skvIterator(null);
+          iter.seek(new Range(), Collections.emptySet(), false);
+          String lastRow = null;
+          int columns = 0;
+          while (iter.hasTop()) {
+            String row = iter.getTopKey().getRow().toString();
+            if (!row.equals(lastRow)) {
+              assertTrue("Saw partial mutation for " + lastRow, lastRow == null || columns == 2);
+              lastRow = row;
+              columns = 0;
+            }
+            columns++;
+            iter.next();
+          }
+          assertTrue("Saw partial mutation for " + lastRow, lastRow == null || columns == 2);
+          iter.close();
+        }
+        return null;
+      });
+
+      for (Future<?> writer : writers) {
+        writer.get();
+      }
+      writing.set(false);
+      reader.get();
+      executor.shutdown();
+
+      assertEquals(2 * numThreads * mutationsPerThread, imm.getNumEntries());
+
+      // all writes are visible, so the map can be compacted
+      SortedKeyValueIterator<Key,Value> iter = imm.compactionIterator();
+      iter.seek(new Range(), Collections.emptySet(), false);
+      int count = 0;
+      while (iter.hasTop()) {
+        count++;
+        iter.next();
+      }
+      assertEquals(2 * numThreads * mutationsPerThread, count);
+
+      imm.delete(0);
+    }
+  }
+
   @Test
   public void testSample() throws Exception {
 
@@ -17,12 +17,14 @@
 package org.apache.accumulo.tserver.compaction;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -169,6 +171,13 @@ public class DefaultCompactionStrategyTest {
     return new TestCompactionRequest(extent, reason, files);
   }
 
+  private static Set<FileRef> asFileRefs(String... strings) {
+    Set<FileRef> refs = new HashSet<>();
+    for (String string : strings)
+      refs.add(new FileRef("hdfs://nn1/accumulo/tables/5/t-0001/" + string));
+    return refs;
+  }
+
   private static Set<String> asSet(String... strings) {
     return asSet(Arrays.asList(strings));
   }
@@ -218,4 +227,59 @@ public class DefaultCompactionStrategyTest {
     assertEquals(asStringSet(plan.inputFiles), asSet("file1,file2,file3".split(",")));
 
   }
+
+  @Test
+  public void testDisjointFiles() throws Exception {
+    DefaultCompactionStrategy s = new DefaultCompactionStrategy();
+
+    // the files of one partitioned compaction are one run, so on their own they do not satisfy the ratio
+    MajorCompactionRequest request = createRequest(MajorCompactionReason.NORMAL, "file0", 100, "file1", 100, "file2", 100, "file3", 100);
+    request.setDisjointFiles(Collections.singletonList(asFileRefs("file0", "file1", "file2", "file3")));
+    assertFalse(s.shouldCompact(request));
+
+    request = createRequest(MajorCompactionReason.NORMAL, "file0", 100, "file1", 100, "file2", 100, "file3", 100, "file4", 10);
+    request.setDisjointFiles(Collections.singletonList(asFileRefs("file0", "file1", "file2", "file3")));
+    assertFalse(s.shouldCompact(request));
+
+    // when the run is selected, all of its files are compacted
+    request = createRequest(MajorCompactionReason.NORMAL, "file0", 10, "file1", 10, "file2", 20, "file3", 20);
+    request.setDisjointFiles(Collections.singletonList(asFileRefs("file0", "file1", "missing")));
+    assertTrue(s.shouldCompact(request));
+    CompactionPlan plan = s.getCompactionPlan(request);
+    assertEquals(asSet("file0", "file1", "file2", "file3"), asStringSet(plan.inputFiles));
+
+    // without knowing they are disjoint, equal files satisfy the ratio
+    request = createRequest(MajorCompactionReason.NORMAL, "file0", 100, "file1", 100, "file2", 100, "file3", 100);
+    assertTrue(s.shouldCompact(request));
+  }
+
+  @Test
+  public void testEstimateInputSize() throws Exception {
+    DefaultCompactionStrategy s = new DefaultCompactionStrategy();
+
+    // only the small files would be compacted
+    MajorCompactionRequest request = createRequest(MajorCompactionReason.NORMAL, "file0", 100, "file1", 10, "file2", 10, "file3", 10);
+    assertEquals(30, s.estimateInputSize(request));
+
+    // nothing would be compacted
+    request = createRequest(MajorCompactionReason.IDLE, "file1", 10, "file2", 10);
+    assertEquals(0, s.estimateInputSize(request));
+
+    request = createRequest(MajorCompactionReason.USER, "file0", 100, "file1", 10);
+    assertEquals(110, s.estimateInputSize(request));
+  }
+
+  @Test
+  public void testEstimateInputSizeDoesNotUsePlan() throws Exception {
+    // subclasses may compute their plan from what gatherInformation found, which has not run when the estimate is made
+    DefaultCompactionStrategy s = new DefaultCompactionStrategy() {
+      @Override
+      public CompactionPlan getCompactionPlan(MajorCompactionRequest request) {
+        throw new IllegalStateException("gatherInformation was not called");
+      }
+    };
+
+    MajorCompactionRequest request = createRequest(MajorCompactionReason.NORMAL, "file0", 100, "file1", 10, "file2", 10, "file3", 10);
+    assertEquals(30, s.estimateInputSize(request));
+  }
 }
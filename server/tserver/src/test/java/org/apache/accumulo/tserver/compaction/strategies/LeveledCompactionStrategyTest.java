@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.tserver.compaction.strategies;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.apache.accumulo.core.client.impl.Table;
+import org.apache.accumulo.core.conf.AccumuloConfiguration;
+import org.apache.accumulo.core.conf.ConfigurationCopy;
+import org.apache.accumulo.core.conf.DefaultConfiguration;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.impl.KeyExtent;
+import org.apache.accumulo.core.file.FileSKVIterator;
+import org.apache.accumulo.core.metadata.schema.DataFileValue;
+import org.apache.accumulo.server.fs.FileRef;
+import org.apache.accumulo.tserver.compaction.CompactionPlan;
+import org.apache.accumulo.tserver.compaction.MajorCompactionReason;
+import org.apache.accumulo.tserver.compaction.MajorCompactionRequest;
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+public class LeveledCompactionStrategyTest {
+
+  // key ranges are cached per tablet across tests, so each test uses its own table
+  private final String tableId = UUID.randomUUID().toString();
+  private final String dir = "hdfs://nn1/accumulo/tables/" + tableId + "/t-0001/";
+
+  private static class TestCompactionRequest extends MajorCompactionRequest {
+    private final Map<FileRef,String[]> ranges;
+    int filesOpened = 0;
+
+    TestCompactionRequest(String tableId, MajorCompactionReason reason, AccumuloConfiguration conf, Map<FileRef,DataFileValue> files,
+        Map<FileRef,String[]> ranges) {
+      super(new KeyExtent(Table.ID.of(tableId), null, null), reason, conf);
+      setFiles(files);
+      this.ranges = ranges;
+    }
+
+    @Override
+    public FileSKVIterator openReader(FileRef ref) throws IOException {
+      filesOpened++;
+      String[] range = ranges.get(ref);
+      FileSKVIterator reader = EasyMock.createMock(FileSKVIterator.class);
+      EasyMock.expect(reader.getFirstKey()).andReturn(range[0] == null ? null : new Key(range[0]));
+      EasyMock.expect(reader.getLastKey()).andReturn(range[1] == null ? null : new Key(range[1]));
+      reader.close();
+      EasyMock.replay(reader);
+      return reader;
+    }
+  }
+
+  /**
+   * @param objs
+   *          file name, size, first row and last row of each file
+   */
+  private TestCompactionRequest createRequest(MajorCompactionReason reason, AccumuloConfiguration conf, Object... objs) {
+    Map<FileRef,DataFileValue> files = new HashMap<>();
+    Map<FileRef,String[]> ranges = new HashMap<>();
+    for (int i = 0; i < objs.length; i += 4) {
+      FileRef ref = new FileRef(dir + objs[i]);
+      files.put(ref, new DataFileValue(((Number) objs[i + 1]).longValue(), 0));
+      ranges.put(ref, new String[] {(String) objs[i + 2], (String) objs[i + 3]});
+    }
+    return new TestCompactionRequest(tableId, reason, conf, files, ranges);
+  }
+
+  private TestCompactionRequest createRequest(Object... objs) {
+    return createRequest(MajorCompactionReason.NORMAL, DefaultConfiguration.getInstance(), objs);
+  }
+
+  private static LeveledCompactionStrategy createStrategy(String... opts) {
+    Map<String,String> options = new HashMap<>();
+    for (int i = 0; i < opts.length; i += 2)
+      options.put(opts[i], opts[i + 1]);
+    LeveledCompactionStrategy s = new LeveledCompactionStrategy();
+    s.init(options);
+    return s;
+  }
+
+  private Set<String> asSet(String... names) {
+    Set<String> result = new HashSet<>();
+    for (String name : names)
+      result.add(dir + name);
+    return result;
+  }
+
+  private static Set<String> asStringSet(CompactionPlan plan) {
+    Set<String> result = new HashSet<>();
+    for (FileRef ref : plan.inputFiles)
+      result.add(ref.path().toString());
+    return result;
+  }
+
+  private static CompactionPlan plan(LeveledCompactionStrategy s, MajorCompactionRequest request) throws IOException {
+    s.gatherInformation(request);
+    return s.getCompactionPlan(request);
+  }
+
+  @Test
+  public void testDisjointFilesNotCompacted() throws Exception {
+    LeveledCompactionStrategy s = createStrategy();
+    TestCompactionRequest request = createRequest("f1", 1000, "a", "b", "f2", 10, "c", "d", "f3", 10, "e", "f", "f4", 10, "g", "h", "f5", 10, "i", "j",
+        "f6", 10, "k", "l");
+
+    // key ranges are not known until the compaction is dequeued
+    assertTrue(s.shouldCompact(request));
+    assertTrue(plan(s, request).inputFiles.isEmpty());
+    assertEquals(6, request.filesOpened);
+
+    // now that key ranges are cached, no compaction is queued and no files are read again
+    assertFalse(s.shouldCompact(request));
+    assertTrue(plan(s, request).inputFiles.isEmpty());
+    assertEquals(6, request.filesOpened);
+  }
+
+  @Test
+  public void testNewFiles() throws Exception {
+    LeveledCompactionStrategy s = createStrategy();
+    TestCompactionRequest request = createRequest("f1", 1000, "a", "b", "f2", 10, "c", "d");
+    plan(s, request);
+    assertEquals(2, request.filesOpened);
+    assertFalse(s.shouldCompact(request));
+
+    // only a file added since the last gather queues a compaction without knowing its range, and only that file is read
+    request = createRequest("f1", 1000, "a", "b", "f2", 10, "c", "d", "f3", 10, "e", "f");
+    assertTrue(s.shouldCompact(request));
+    assertTrue(plan(s, request).inputFiles.isEmpty());
+    assertEquals(1, request.filesOpened);
+    assertFalse(s.shouldCompact(request));
+
+    // ranges of files the tablet no longer has are dropped at the next gather
+    request = createRequest("f1", 1000, "a", "b", "f3", 10, "e", "f");
+    plan(s, request);
+    assertEquals(0, request.filesOpened);
+    request = createRequest("f1", 1000, "a", "b", "f2", 10, "c", "d", "f3", 10, "e", "f");
+    assertTrue(s.shouldCompact(request));
+
+    // ranges are kept per tablet
+    TestCompactionRequest other = new TestCompactionRequest(UUID.randomUUID().toString(), MajorCompactionReason.NORMAL, DefaultConfiguration.getInstance(),
+        request.getFiles(), Collections.<FileRef,String[]> emptyMap());
+    assertTrue(s.shouldCompact(other));
+  }
+
+  @Test
+  public void testOverlappingFiles() throws Exception {
+    LeveledCompactionStrategy s = createStrategy();
+    TestCompactionRequest request = createRequest("f1", 1000, "a", "z", "f2", 10, "l", "n", "f3", 10, "k", "m", "f4", 10, "m", "p", "f5", 10, "b", "m",
+        "f6", 10, "x", "y");
+    // f1 through f5 contain m, but only the small files are compacted to bound write amplification
+    assertEquals(asSet("f2", "f3", "f4", "f5"), asStringSet(plan(s, request)));
+    assertTrue(s.shouldCompact(request));
+
+    // at most four files overlap at any key
+    request = createRequest("f1", 1000, "a", "z", "f2", 10, "l", "n", "f3", 10, "k", "m", "f4", 10, "m", "p", "f6", 10, "x", "y");
+    assertTrue(plan(s, request).inputFiles.isEmpty());
+    assertFalse(s.shouldCompact(request));
+
+    s = createStrategy(LeveledCompactionStrategy.LEVELS_MAX_OPT, "2");
+    assertEquals(asSet("f2", "f3", "f4"), asStringSet(plan(s, request)));
+  }
+
+  @Test
+  public void testRatioForced() throws Exception {
+    // no set of files meets the ratio, so the smallest files needed to get under the level limit are compacted
+    LeveledCompactionStrategy s = createStrategy();
+    TestCompactionRequest request = createRequest("f1", 1, "a", "z", "f2", 4, "a", "z", "f3", 16, "a", "z", "f4", 64, "a", "z", "f5", 256, "a", "z");
+    assertEquals(asSet("f1", "f2"), asStringSet(plan(s, request)));
+
+    s = createStrategy(LeveledCompactionStrategy.RATIO_OPT, "1.3");
+    assertEquals(asSet("f1", "f2", "f3", "f4", "f5"), asStringSet(plan(s, request)));
+  }
+
+  @Test
+  public void testMaxFiles() throws Exception {
+    ConfigurationCopy conf = new ConfigurationCopy(DefaultConfiguration.getInstance());
+    conf.set(Property.TABLE_FILE_MAX, "4");
+    LeveledCompactionStrategy s = createStrategy();
+
+    // the adjacent files with the smallest total size are compacted, so that the output does not overlap other files
+    TestCompactionRequest request = createRequest(MajorCompactionReason.NORMAL, conf, "f1", 5, "a", "b", "f2", 10, "c", "d", "f3", 1, "e", "f", "f4", 2,
+        "g", "h", "f5", 3, "i", "j", "f6", 1, "k", "l");
+    assertEquals(asSet("f3", "f4", "f5"), asStringSet(plan(s, request)));
+
+    // empty files are compacted first
+    request = createRequest(MajorCompactionReason.NORMAL, conf, "f1", 5, "a", "b", "f2", 10, "c", "d", "f3", 1, "e", "f", "f4", 2, "g", "h", "f7", 0, null,
+        null);
+    assertEquals(asSet("f7", "f3"), asStringSet(plan(s, request)));
+  }
+
+  @Test
+  public void testUserCompaction() throws Exception {
+    LeveledCompactionStrategy s = createStrategy();
+    TestCompactionRequest request = createRequest(MajorCompactionReason.USER, DefaultConfiguration.getInstance(), "f1", 1000, "a", "b", "f2", 10, "c", "d");
+    assertTrue(s.shouldCompact(request));
+    assertEquals(asSet("f1", "f2"), asStringSet(plan(s, request)));
+    assertEquals(0, request.filesOpened);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadRatio() {
+    createStrategy(LeveledCompactionStrategy.RATIO_OPT, "1");
+  }
+}
@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.tserver.log;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.accumulo.core.client.impl.Table;
+import org.apache.accumulo.core.conf.ConfigurationCopy;
+import org.apache.accumulo.core.conf.DefaultConfiguration;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.impl.KeyExtent;
+import org.apache.accumulo.core.util.Pair;
+import org.apache.accumulo.server.data.ServerMutation;
+import org.apache.accumulo.server.fs.VolumeManager;
+import org.apache.accumulo.server.fs.VolumeManagerImpl;
+import org.apache.accumulo.server.log.SortedLogState;
+import org.apache.accumulo.tserver.logger.LogEvents;
+import org.apache.accumulo.tserver.logger.LogFileKey;
+import org.apache.accumulo.tserver.logger.LogFileValue;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Text;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class LogSorterTest {
+
+  private static final int MUTATIONS = 2000;
+
+  @Rule
+  public TemporaryFolder root = new TemporaryFolder(new File(System.getProperty("user.dir") + "/target"));
+
+  private VolumeManager fs;
+  private String dir;
+  private Path walog;
+
+  @Before
+  public void setUp() throws Exception {
+    dir = root.getRoot().getAbsolutePath();
+    fs = VolumeManagerImpl.getLocal(dir);
+    walog = new Path("file://" + dir + "/walog");
+    writeLog(new File(dir, "walog"));
+  }
+
+  /**
+   * Writes an unencrypted write-ahead log whose mutations are out of order and span several tablets.
+   */
+  private static void writeLog(File file) throws IOException {
+    List<Integer> seqs = new ArrayList<>();
+    for (int i = 0; i < MUTATIONS; i++) {
+      seqs.add(i);
+    }
+    Collections.shuffle(seqs, new Random(42));
+
+    try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+      out.write(DfsLogger.LOG_FILE_HEADER_V2.getBytes(UTF_8));
+      // no crypto options
+      out.writeInt(0);
+
+      LogFileKey key = new LogFileKey();
+      key.event = LogEvents.OPEN;
+      key.tserverSession = "session";
+      key.write(out);
+      new LogFileValue().write(out);
+
+      for (int tid = 0; tid < 4; tid++) {
+        key = new LogFileKey();
+        key.event = LogEvents.DEFINE_TABLET;
+        key.seq = 0;
+        key.tid = tid;
+        key.tablet = new KeyExtent(Table.ID.of("1"), null, null);
+        key.write(out);
+        new LogFileValue().write(out);
+      }
+
+      for (int seq : seqs) {
+        key = new LogFileKey();
+        key.event = LogEvents.MUTATION;
+        key.seq = seq + 1;
+        key.tid = seq % 4;
+        key.write(out);
+
+        ServerMutation m = new ServerMutation(new Text(String.format("row%05d", seq)));
+        m.put("cf", "cq", "value" + seq);
+        m.setSystemTimestamp(seq);
+        LogFileValue value = new LogFileValue();
+        value.mutations = Collections.singletonList(m);
+        value.write(out);
+      }
+    }
+  }
+
+  private LogSorter newSorter(int threads) {
+    ConfigurationCopy conf = new ConfigurationCopy(DefaultConfiguration.getInstance());
+    // small enough that the log is sorted in many runs
+    conf.set(Property.TSERV_SORT_BUFFER_SIZE, "40K");
+    conf.set(Property.TSERV_SORT_THREADS, Integer.toString(threads));
+    return new LogSorter(null, fs, conf);
+  }
+
+  private String sort(LogSorter.LogProcessor processor, String name) {
+    String dest = "file://" + dir + "/" + name;
+    processor.sort(name, walog, dest);
+    return dest;
+  }
+
+  private int countParts(String dest) throws IOException {
+    int parts = 0;
+    for (FileStatus child : fs.listStatus(new Path(dest))) {
+      if (child.getPath().getName().startsWith("part-r-"))
+        parts++;
+    }
+    return parts;
+  }
+
+  private List<String> read(String dest) throws IOException {
+    List<String> entries = new ArrayList<>();
+    MultiReader reader = new MultiReader(fs, new Path(dest));
+    try {
+      LogFileKey key = new LogFileKey();
+      LogFileValue value = new LogFileValue();
+      while (reader.next(key, value)) {
+        entries.add(key + " " + value);
+      }
+    } finally {
+      reader.close();
+    }
+    return entries;
+  }
+
+  @Test
+  public void testParallelSortMatchesSingleThreaded() throws Exception {
+    String serial = sort(newSorter(1).new LogProcessor(), "serial");
+    String parallel = sort(newSorter(4).new LogProcessor(), "parallel");
+
+    assertTrue(fs.exists(SortedLogState.getFinishedMarkerPath(parallel)));
+    // each thread gets a smaller share of the sort buffer, so the parallel sort writes more runs
+    assertTrue(countParts(serial) > 1);
+    assertTrue(countParts(parallel) > countParts(serial));
+
+    List<String> expected = read(serial);
+    assertEquals(1 + 4 + MUTATIONS, expected.size());
+    assertEquals(expected, read(parallel));
+  }
+
+  @Test
+  public void testFailedRun() throws Exception {
+    final AtomicBoolean failed = new AtomicBoolean(false);
+    LogSorter.LogProcessor processor = newSorter(4).new LogProcessor() {
+      @Override
+      void writeBuffer(String destPath, List<Pair<LogFileKey,LogFileValue>> buffer, int part) throws IOException {
+        if (part == 2) {
+          failed.set(true);
+          throw new IOException("injected failure writing run " + part);
+        }
+        super.writeBuffer(destPath, buffer, part);
+      }
+    };
+    String dest = sort(processor, "failed");
+
+    assertTrue(failed.get());
+    assertTrue(fs.exists(SortedLogState.getFailedMarkerPath(dest)));
+    assertFalse(fs.exists(SortedLogState.getFinishedMarkerPath(dest)));
+  }
+}
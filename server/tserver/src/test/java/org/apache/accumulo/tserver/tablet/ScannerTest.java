@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.tserver.tablet;
+
+import static org.easymock.EasyMock.anyBoolean;
+import static org.easymock.EasyMock.anyLong;
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.captureLong;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.Column;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iterators.SortedMapIterator;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.accumulo.server.conf.TableConfiguration;
+import org.easymock.Capture;
+import org.easymock.CaptureType;
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+public class ScannerTest {
+
+  private static final int NUM = 1000;
+  private static final long MAXMEM = 512 * 1024;
+
+  /**
+   * Reads a batch after each call to {@link Scanner#growBatchSize()} and returns the memory bound each batch was read with.
+   */
+  private List<Long> readGrowingBatches(int growthMax, int reads) throws Exception {
+    TableConfiguration tableConf = EasyMock.createMock(TableConfiguration.class);
+    expect(tableConf.getCount(Property.TABLE_SCAN_BATCH_GROWTH_MAX)).andReturn(growthMax).anyTimes();
+    expect(tableConf.getAsBytes(Property.TABLE_SCAN_MAXMEM)).andReturn(MAXMEM).anyTimes();
+
+    Key key = new Key("r", "f", "q");
+    Batch batch = new Batch(true, new ArrayList<>(Collections.singletonList(new KVEntry(key, new Value(new byte[0])))), key, 1);
+
+    Tablet tablet = EasyMock.createNiceMock(Tablet.class);
+    expect(tablet.getTableConfiguration()).andReturn(tableConf).anyTimes();
+    Capture<Long> maxResultsSizes = Capture.newInstance(CaptureType.ALL);
+    // the client's batch size is passed through unchanged however much the memory bound grows
+    expect(tablet.nextBatch(anyObject(), anyObject(), eq(NUM), anyObject(), anyLong(), anyBoolean(), captureLong(maxResultsSizes))).andReturn(batch)
+        .anyTimes();
+    EasyMock.replay(tableConf, tablet);
+
+    ScanOptions options = new ScanOptions(NUM, Authorizations.EMPTY, new byte[0], Collections.<Column> emptySet(), null, null, new AtomicBoolean(false),
+        false, null, 0, null);
+    Scanner scanner = new Scanner(tablet, new Range(), options);
+    for (int i = 0; i < reads; i++) {
+      scanner.read();
+      scanner.growBatchSize();
+    }
+    scanner.close();
+
+    EasyMock.verify(tablet);
+    return maxResultsSizes.getValues();
+  }
+
+  @Test
+  public void testGrowthSchedule() throws Exception {
+    assertEquals(Arrays.asList(MAXMEM, 2 * MAXMEM, 4 * MAXMEM, 8 * MAXMEM, 8 * MAXMEM, 8 * MAXMEM), readGrowingBatches(8, 6));
+  }
+
+  @Test
+  public void testGrowthCap() throws Exception {
+    // a cap that is not a power of two is still reached
+    assertEquals(Arrays.asList(MAXMEM, 2 * MAXMEM, 4 * MAXMEM, 6 * MAXMEM, 6 * MAXMEM), readGrowingBatches(6, 5));
+  }
+
+  @Test
+  public void testNoGrowthByDefault() throws Exception {
+    int defaultMax = Integer.parseInt(Property.TABLE_SCAN_BATCH_GROWTH_MAX.getDefaultValue());
+    assertEquals(Arrays.asList(MAXMEM, MAXMEM, MAXMEM), readGrowingBatches(defaultMax, 3));
+    assertEquals(Arrays.asList(MAXMEM, MAXMEM), readGrowingBatches(0, 2));
+  }
+
+  private static Batch nextBatch(int entries, int num, long maxResultsSize) throws Exception {
+    TreeMap<Key,Value> data = new TreeMap<>();
+    for (int i = 0; i < entries; i++) {
+      data.put(new Key(String.format("r%04d", i), "f", "q"), new Value(new byte[100]));
+    }
+    SortedKeyValueIterator<Key,Value> iter = new SortedMapIterator(data);
+    // nextBatch uses no tablet state, so a tablet that was never constructed will do
+    Tablet tablet = EasyMock.createMockBuilder(Tablet.class).createMock();
+    return tablet.nextBatch(iter, new Range(), num, Collections.<Column> emptySet(), 0, true, maxResultsSize);
+  }
+
+  @Test
+  public void testBatchSizeBound() throws Exception {
+    // a grown memory bound never lets a batch hold more entries than the client asked for
+    Batch batch = nextBatch(100, 10, 8 * MAXMEM);
+    assertEquals(10, batch.getResults().size());
+    assertEquals(new Key("r0009", "f", "q"), batch.getContinueKey());
+
+    // the memory bound still ends a batch early
+    batch = nextBatch(100, 1000, 1000);
+    assertTrue(batch.getResults().size() < 100);
+    long size = 0;
+    for (KVEntry entry : batch.getResults().subList(0, batch.getResults().size() - 1)) {
+      size += entry.estimateMemoryUsed();
+    }
+    assertTrue(size < 1000);
+
+    // the whole tablet fits in one batch
+    batch = nextBatch(100, 1000, 8 * MAXMEM);
+    assertEquals(100, batch.getResults().size());
+    assertNull(batch.getContinueKey());
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.BatchWriterConfig;
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.impl.Table;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.impl.KeyExtent;
+import org.apache.accumulo.core.metadata.MetadataTable;
+import org.apache.accumulo.core.metadata.schema.MetadataSchema.TabletsSection.DataFileColumnFamily;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.accumulo.fate.util.UtilWaitThread;
+import org.apache.accumulo.minicluster.impl.MiniAccumuloConfigImpl;
+import org.apache.accumulo.test.functional.ConfigurableMacBase;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Test;
+
+import com.google.common.collect.Iterators;
+
+/**
+ * Runs major compactions on a tablet server with named executors, where these small compactions all run on the smallest executor.
+ */
+public class MajorCompactionExecutorIT extends ConfigurableMacBase {
+
+  @Override
+  public int defaultTimeoutSeconds() {
+    return 2 * 60;
+  }
+
+  @Override
+  public void configure(MiniAccumuloConfigImpl cfg, Configuration hadoopCoreSite) {
+    Map<String,String> siteConfig = new HashMap<>();
+    siteConfig.put(Property.TSERV_MAJC_DELAY.getKey(), "1s");
+    String prefix = Property.TSERV_MAJC_EXECUTOR_PREFIX.getKey();
+    siteConfig.put(prefix + "small.threads", "1");
+    siteConfig.put(prefix + "small.size.max", "1M");
+    siteConfig.put(prefix + "small.throughput", "10M");
+    siteConfig.put(prefix + "medium.threads", "1");
+    siteConfig.put(prefix + "medium.size.max", "100M");
+    cfg.setSiteConfig(siteConfig);
+  }
+
+  @Test
+  public void test() throws Exception {
+    Connector c = getConnector();
+    String tableName = getUniqueNames(1)[0];
+    c.tableOperations().create(tableName);
+    c.tableOperations().setProperty(tableName, Property.TABLE_MAJC_RATIO.getKey(), "1");
+
+    for (int i = 0; i < 5; i++) {
+      BatchWriter bw = c.createBatchWriter(tableName, new BatchWriterConfig());
+      Mutation m = new Mutation("row" + i);
+      m.put("cf", "cq", "value");
+      bw.addMutation(m);
+      bw.close();
+      c.tableOperations().flush(tableName, null, null, true);
+    }
+
+    while (countFiles(c, tableName) != 1) {
+      UtilWaitThread.sleep(250);
+    }
+
+    c.tableOperations().compact(tableName, null, null, true, true);
+    assertEquals(1, countFiles(c, tableName));
+    try (Scanner s = c.createScanner(tableName, Authorizations.EMPTY)) {
+      assertEquals(5, Iterators.size(s.iterator()));
+    }
+  }
+
+  private int countFiles(Connector c, String tableName) throws Exception {
+    Table.ID tableId = Table.ID.of(c.tableOperations().tableIdMap().get(tableName));
+    try (Scanner s = c.createScanner(MetadataTable.NAME, Authorizations.EMPTY)) {
+      s.setRange(new KeyExtent(tableId, null, null).toMetadataRange());
+      s.fetchColumnFamily(DataFileColumnFamily.NAME);
+      return Iterators.size(s.iterator());
+    }
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.test;
+
+import static org.apache.accumulo.fate.util.UtilWaitThread.sleepUninterruptibly;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.BatchWriterConfig;
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.impl.Table;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.data.impl.KeyExtent;
+import org.apache.accumulo.core.metadata.MetadataTable;
+import org.apache.accumulo.core.metadata.schema.MetadataSchema.TabletsSection.DataFileColumnFamily;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.accumulo.harness.AccumuloClusterHarness;
+import org.apache.accumulo.minicluster.impl.MiniAccumuloConfigImpl;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Test;
+
+public class PartitionedCompactionIT extends AccumuloClusterHarness {
+
+  @Override
+  protected int defaultTimeoutSeconds() {
+    return 2 * 60;
+  }
+
+  @Override
+  public void configureMiniCluster(MiniAccumuloConfigImpl cfg, Configuration hadoopCoreSite) {
+    Map<String,String> siteConfig = cfg.getSiteConfig();
+    siteConfig.put(Property.TSERV_MAJC_DELAY.getKey(), "1s");
+    cfg.setSiteConfig(siteConfig);
+  }
+
+  @Test
+  public void test() throws Exception {
+    Connector c = getConnector();
+    String tableName = getUniqueNames(1)[0];
+    c.tableOperations().create(tableName);
+    c.tableOperations().setProperty(tableName, Property.TABLE_MAJC_PARTITIONS.getKey(), "4");
+    c.tableOperations().setProperty(tableName, Property.TABLE_MAJC_PARTITION_SIZE_MIN.getKey(), "0");
+    c.tableOperations().setProperty(tableName, Property.TABLE_FILE_COMPRESSED_BLOCK_SIZE.getKey(), "1K");
+
+    // two overlapping files, the second deletes every tenth row
+    BatchWriter bw = c.createBatchWriter(tableName, new BatchWriterConfig());
+    for (int i = 0; i < 10000; i++) {
+      Mutation m = new Mutation(String.format("r%05d", i));
+      m.put("cf", "cq", "v" + i);
+      bw.addMutation(m);
+    }
+    bw.flush();
+    c.tableOperations().flush(tableName, null, null, true);
+    for (int i = 0; i < 10000; i += 10) {
+      Mutation m = new Mutation(String.format("r%05d", i));
+      m.putDelete("cf", "cq");
+      bw.addMutation(m);
+    }
+    bw.close();
+    c.tableOperations().flush(tableName, null, null, true);
+    assertEquals(2, countFiles(c, tableName));
+
+    c.tableOperations().compact(tableName, null, null, true, true);
+    assertEquals(4, countFiles(c, tableName));
+    verify(c, tableName);
+
+    // the partitions are about the same size, which must not look like files the compaction ratio says to compact
+    sleepUninterruptibly(5, TimeUnit.SECONDS);
+    assertEquals(4, countFiles(c, tableName));
+
+    // flush small files until the compaction ratio selects some of them, compacting just those must not partition them
+    Set<String> partitionFiles = getFiles(c, tableName);
+    bw = c.createBatchWriter(tableName, new BatchWriterConfig());
+    for (int f = 0; f < 10 && countCompactedFiles(c, tableName) == 0; f++) {
+      for (int i = 0; i < 10; i++) {
+        Mutation m = new Mutation(String.format("s%05d", f * 10 + i));
+        m.put("cf", "cq", "v" + i);
+        bw.addMutation(m);
+      }
+      bw.flush();
+      c.tableOperations().flush(tableName, null, null, true);
+      sleepUninterruptibly(2, TimeUnit.SECONDS);
+    }
+    bw.close();
+
+    sleepUninterruptibly(5, TimeUnit.SECONDS);
+    Set<String> files = getFiles(c, tableName);
+    assertTrue(files + " does not contain " + partitionFiles, files.containsAll(partitionFiles));
+    assertEquals(1, countCompactedFiles(c, tableName));
+  }
+
+  // a compaction of some of a tablet's files writes a file whose name starts with C
+  private int countCompactedFiles(Connector c, String tableName) throws Exception {
+    int count = 0;
+    for (String file : getFiles(c, tableName)) {
+      if (file.startsWith("C"))
+        count++;
+    }
+    return count;
+  }
+
+  private Set<String> getFiles(Connector c, String tableName) throws Exception {
+    Table.ID tableId = Table.ID.of(c.tableOperations().tableIdMap().get(tableName));
+    Set<String> files = new HashSet<>();
+    try (Scanner s = c.createScanner(MetadataTable.NAME, Authorizations.EMPTY)) {
+      s.setRange(new KeyExtent(tableId, null, null).toMetadataRange());
+      s.fetchColumnFamily(DataFileColumnFamily.NAME);
+      for (Entry<Key,Value> entry : s) {
+        String path = entry.getKey().getColumnQualifier().toString();
+        files.add(path.substring(path.lastIndexOf('/') + 1));
+      }
+    }
+    return files;
+  }
+
+  private void verify(Connector c, String tableName) throws Exception {
+    try (Scanner s = c.createScanner(tableName, Authorizations.EMPTY)) {
+      int expected = 1;
+      for (Entry<Key,Value> entry : s) {
+        assertEquals(String.format("r%05d", expected), entry.getKey().getRow().toString());
+        assertEquals("v" + expected, entry.getValue().toString());
+        expected++;
+        if (expected % 10 == 0)
+          expected++;
+      }
+      assertEquals(10001, expected);
+    }
+  }
+
+  private int countFiles(Connector c, String tableName) throws Exception {
+    return getFiles(c, tableName).size();
+  }
+}
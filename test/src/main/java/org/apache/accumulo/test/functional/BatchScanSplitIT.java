@@ -18,12 +18,14 @@ package org.apache.accumulo.test.functional;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.apache.accumulo.fate.util.UtilWaitThread.sleepUninterruptibly;
+import static org.junit.Assert.assertEquals;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map.Entry;
 import java.util.Random;
+import java.util.TreeMap;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.accumulo.core.client.BatchScanner;
@@ -127,4 +129,61 @@ public class BatchScanSplitIT extends AccumuloClusterHarness {
     log.info("splits : {}", splits);
   }
 
+  @Test
+  public void testOrdered() throws Exception {
+    Connector c = getConnector();
+    String tableName = getUniqueNames(1)[0];
+    c.tableOperations().create(tableName);
+
+    int numRows = 1 << 16;
+
+    BatchWriter bw = c.createBatchWriter(tableName, new BatchWriterConfig());
+
+    for (int i = 0; i < numRows; i++) {
+      Mutation m = new Mutation(new Text(String.format("%09x", i)));
+      m.put(new Text("cf1"), new Text("cq1"), new Value(String.format("%016x", numRows - i).getBytes(UTF_8)));
+      bw.addMutation(m);
+    }
+
+    bw.close();
+
+    c.tableOperations().flush(tableName, null, null, true);
+
+    c.tableOperations().setProperty(tableName, Property.TABLE_SPLIT_THRESHOLD.getKey(), "4K");
+
+    Random random = new Random(19011230);
+    TreeMap<Text,Value> expected = new TreeMap<>();
+    ArrayList<Range> ranges = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      int r = random.nextInt(numRows - 100);
+      // a mix of single rows and ranges that are likely to span tablets
+      int len = i % 10 == 0 ? 100 : 1;
+      for (int j = r; j < r + len; j++) {
+        expected.put(new Text(String.format("%09x", j)), new Value(String.format("%016x", numRows - j).getBytes(UTF_8)));
+      }
+      ranges.add(new Range(new Text(String.format("%09x", r)), true, new Text(String.format("%09x", r + len - 1)), true));
+    }
+
+    for (int i = 0; i < 10; i++) {
+      try (BatchScanner bs = c.createBatchScanner(tableName, Authorizations.EMPTY, 4)) {
+        bs.setRanges(ranges);
+        bs.setOrdered(true);
+        // small enough that every tablet fills its buffer
+        bs.setOrderedBufferSize(1024);
+
+        ArrayList<Text> rows = new ArrayList<>();
+        TreeMap<Text,Value> found = new TreeMap<>();
+        for (Entry<Key,Value> entry : bs) {
+          rows.add(entry.getKey().getRow());
+          found.put(entry.getKey().getRow(), entry.getValue());
+        }
+
+        assertEquals(expected, found);
+        assertEquals(new ArrayList<>(expected.keySet()), rows);
+      }
+    }
+
+    log.info("splits : {}", c.tableOperations().listSplits(tableName));
+  }
+
 }
@@ -33,6 +33,7 @@ import java.util.Map.Entry;
 import java.util.NoSuchElementException;
 import java.util.Random;
 import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.accumulo.core.Constants;
 import org.apache.accumulo.core.data.Key;
@@ -616,4 +617,141 @@ public class NativeMapIT {
     nm.delete();
   }
 
+  @Test
+  public void testRowSharedAcrossBatches() {
+    NativeMap nm = new NativeMap();
+
+    // the batch format only sends a row when it changes, so put enough entries in one row to span many batches
+    TreeMap<Key,Value> expected = new TreeMap<>();
+    for (int r = 0; r < 3; r++) {
+      int numCols = r == 1 ? 1000 : 3;
+      for (int c = 0; c < numCols; c++) {
+        Key k = newKey(r, 0, c, 0, 1, false);
+        Value v = newValue(c);
+        nm.put(k, v);
+        expected.put(k, v);
+      }
+    }
+
+    Iterator<Entry<Key,Value>> iter = nm.iterator();
+    for (Entry<Key,Value> entry : expected.entrySet()) {
+      assertTrue(iter.hasNext());
+      Entry<Key,Value> actual = iter.next();
+      assertEquals(entry.getKey(), actual.getKey());
+      assertEquals(entry.getValue(), actual.getValue());
+    }
+    assertFalse(iter.hasNext());
+
+    // start in the middle of the shared row, so the first batch begins mid row
+    iter = nm.iterator(newKey(1, 0, 500, 0, 1, false));
+    for (Entry<Key,Value> entry : expected.tailMap(newKey(1, 0, 500, 0, 1, false)).entrySet()) {
+      assertTrue(iter.hasNext());
+      assertEquals(entry.getKey(), iter.next().getKey());
+    }
+    assertFalse(iter.hasNext());
+
+    nm.delete();
+  }
+
+  @Test
+  public void testEntryLargerThanBatchBuffer() throws InterruptedException {
+    final NativeMap nm = new NativeMap();
+
+    // the batch buffer starts at 16K, so these force it to double and then to grow to fit a single entry
+    final int[] valueSizes = {10, 20 * 1024, 10, 100 * 1024, 100 * 1024, 10, 1024 * 1024, 10};
+    for (int i = 0; i < valueSizes.length; i++) {
+      nm.put(newKey(i), new Value(newBytes(valueSizes[i], i)));
+    }
+
+    // batch buffers are per thread, so read on a new thread to start with the initial buffer, and read twice to also reuse the grown one
+    final AtomicReference<Throwable> error = new AtomicReference<>();
+    Thread reader = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          for (int pass = 0; pass < 2; pass++) {
+            Iterator<Entry<Key,Value>> iter = nm.iterator();
+            for (int i = 0; i < valueSizes.length; i++) {
+              assertTrue(iter.hasNext());
+              Entry<Key,Value> entry = iter.next();
+              assertEquals(newKey(i), entry.getKey());
+              assertEquals(new Value(newBytes(valueSizes[i], i)), entry.getValue());
+            }
+            assertFalse(iter.hasNext());
+          }
+        } catch (Throwable t) {
+          error.set(t);
+        }
+      }
+    });
+    reader.start();
+    reader.join();
+    assertNull(error.get());
+
+    nm.delete();
+  }
+
+  @Test
+  public void testReadAheadEntryLimit() {
+    // the read ahead doubles on each fill, starting with two entries, up to sixteen entries
+    assertEquals(2, readAhead(10, 0));
+    assertEquals(4, readAhead(10, 2));
+    assertEquals(8, readAhead(10, 6));
+    assertEquals(16, readAhead(10, 14));
+    assertEquals(16, readAhead(10, 30));
+    assertEquals(16, readAhead(10, 46));
+  }
+
+  @Test
+  public void testReadAheadByteLimit() {
+    // each entry is over 1.5K, so a fill stops after the third entry takes it past 4K even though more entries are allowed
+    assertEquals(2, readAhead(1500, 0));
+    assertEquals(3, readAhead(1500, 2));
+    assertEquals(3, readAhead(1500, 5));
+    assertEquals(3, readAhead(1500, 14));
+  }
+
+  private static byte[] newBytes(int size, int seed) {
+    byte[] bytes = new byte[size];
+    new Random(seed).nextBytes(bytes);
+    return bytes;
+  }
+
+  /**
+   * Determines how many entries an iterator has read ahead after {@code consumed} calls to next(). Entries already read ahead are not affected by a
+   * concurrent put, so a put between two of them is not seen while a put after the last of them is. Probes with a new map and iterator each time.
+   */
+  private int readAhead(int valueSize, int consumed) {
+    for (int probe = consumed; probe < 100; probe++) {
+      NativeMap nm = new NativeMap();
+      try {
+        // use even rows, leaving odd ones to probe with
+        for (int i = 0; i < 100; i++) {
+          nm.put(newKey(i * 2), new Value(newBytes(valueSize, i)));
+        }
+
+        Iterator<Entry<Key,Value>> iter = nm.iterator();
+        for (int i = 0; i < consumed; i++) {
+          assertEquals(newKey(i * 2), iter.next().getKey());
+        }
+
+        Key probeKey = newKey(probe * 2 + 1);
+        nm.put(probeKey, newValue(0));
+
+        boolean seen = false;
+        while (iter.hasNext()) {
+          seen |= iter.next().getKey().equals(probeKey);
+        }
+
+        if (seen) {
+          return probe - consumed + 1;
+        }
+      } finally {
+        nm.delete();
+      }
+    }
+
+    throw new AssertionError("concurrent put was never seen");
+  }
+
 }
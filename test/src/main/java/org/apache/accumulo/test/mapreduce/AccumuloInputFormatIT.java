@@ -27,7 +27,9 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.TreeSet;
 import java.util.concurrent.TimeUnit;
 
@@ -40,6 +42,10 @@ import org.apache.accumulo.core.client.ClientConfiguration.ClientProperty;
 import org.apache.accumulo.core.client.Connector;
 import org.apache.accumulo.core.client.TableNotFoundException;
 import org.apache.accumulo.core.client.admin.NewTableConfiguration;
+import org.apache.accumulo.core.client.impl.ClientContext;
+import org.apache.accumulo.core.client.impl.Credentials;
+import org.apache.accumulo.core.client.impl.Table;
+import org.apache.accumulo.core.client.impl.TabletLocator;
 import org.apache.accumulo.core.client.mapreduce.AccumuloInputFormat;
 import org.apache.accumulo.core.client.mapreduce.RangeInputSplit;
 import org.apache.accumulo.core.client.mapreduce.impl.BatchInputSplit;
@@ -54,6 +60,7 @@ import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Mutation;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.data.impl.KeyExtent;
 import org.apache.accumulo.core.security.Authorizations;
 import org.apache.accumulo.core.util.Pair;
 import org.apache.accumulo.harness.AccumuloClusterHarness;
@@ -220,6 +227,45 @@ public class AccumuloInputFormatIT extends AccumuloClusterHarness {
     assertEquals(2, splits.size());
   }
 
+  /**
+   * Prefetching should leave the locations of all of the table's tablets in the cache, not just those of the tablets the job reads.
+   */
+  @Test
+  public void testGetSplitsWithPrefetch() throws Exception {
+    Connector conn = getConnector();
+    String table = getUniqueNames(1)[0];
+    conn.tableOperations().create(table);
+    insertData(table, currentTimeMillis());
+
+    TreeSet<Text> splitsToAdd = new TreeSet<>();
+    for (int i = 0; i < 10000; i += 1000)
+      splitsToAdd.add(new Text(String.format("%09d", i)));
+    conn.tableOperations().addSplits(table, splitsToAdd);
+
+    Job job = Job.getInstance();
+    AccumuloInputFormat.setInputTableName(job, table);
+    AccumuloInputFormat.setZooKeeperInstance(job, cluster.getClientConfig());
+    AccumuloInputFormat.setConnectorInfo(job, getAdminPrincipal(), getAdminToken());
+    AccumuloInputFormat.setRanges(job, Collections.singletonList(new Range(String.format("%09d", 1500))));
+    assertEquals(0, AccumuloInputFormat.getTabletLocationPrefetchThreads(job));
+    AccumuloInputFormat.setTabletLocationPrefetchThreads(job, 4);
+    assertEquals(4, AccumuloInputFormat.getTabletLocationPrefetchThreads(job));
+
+    List<InputSplit> splits = inputFormat.getSplits(job);
+    assertEquals(1, splits.size());
+
+    // once the table is offline, only cached locations can be found
+    conn.tableOperations().offline(table, true);
+    ClientContext context = new ClientContext(conn.getInstance(), new Credentials(getAdminPrincipal(), getAdminToken()), cluster.getClientConfig());
+    TabletLocator locator = TabletLocator.getLocator(context, Table.ID.of(conn.tableOperations().tableIdMap().get(table)));
+    Map<String,Map<KeyExtent,List<Range>>> binnedRanges = new HashMap<>();
+    assertEquals(Collections.emptyList(), locator.binRanges(context, Collections.singletonList(new Range()), binnedRanges));
+    int tablets = 0;
+    for (Map<KeyExtent,List<Range>> tserverBin : binnedRanges.values())
+      tablets += tserverBin.size();
+    assertEquals(splitsToAdd.size() + 1, tablets);
+  }
+
   private void insertData(String tableName, long ts) throws AccumuloException, AccumuloSecurityException, TableNotFoundException {
     BatchWriter bw = getConnector().createBatchWriter(tableName, null);
 
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.test.master;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.impl.ClientContext;
+import org.apache.accumulo.core.client.impl.Credentials;
+import org.apache.accumulo.core.client.security.tokens.PasswordToken;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.metadata.schema.MetadataSchema.TabletsSection;
+import org.apache.accumulo.minicluster.ServerType;
+import org.apache.accumulo.minicluster.impl.MiniAccumuloConfigImpl;
+import org.apache.accumulo.minicluster.impl.ProcessReference;
+import org.apache.accumulo.server.master.state.MetaDataTableScanner;
+import org.apache.accumulo.server.master.state.TabletLocationState;
+import org.apache.accumulo.test.functional.ConfigurableMacBase;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+
+/**
+ * The master only rescans tables that needed attention or changed state between full scans of the metadata table. Check that tablets still get assigned
+ * promptly when the full scan interval is long and most tables are quiet.
+ */
+public class QuietTableReassignmentIT extends ConfigurableMacBase {
+
+  private static final int TABLES = 4;
+  private static final int TABLETS = 10;
+  private static final long FULL_SCAN_INTERVAL = MILLISECONDS.convert(10, MINUTES);
+  private static final long MAX_WAIT = MILLISECONDS.convert(2, MINUTES);
+
+  @Override
+  protected int defaultTimeoutSeconds() {
+    return 6 * 60;
+  }
+
+  @Override
+  public void configure(MiniAccumuloConfigImpl cfg, Configuration fsConf) {
+    cfg.setProperty(Property.MASTER_METADATA_SCAN_FULL_INTERVAL, FULL_SCAN_INTERVAL + "ms");
+    cfg.setProperty(Property.INSTANCE_ZK_TIMEOUT, "5s");
+    cfg.setNumTservers(2);
+  }
+
+  @Test
+  public void offlineOnline() throws Exception {
+    Connector c = getConnector();
+    String[] tables = createTables(c);
+
+    // the other tables are quiet by now, so only a state change will get the table rescanned
+    String tableName = tables[0];
+    c.tableOperations().offline(tableName, true);
+    waitForHosted(c, tables.length - 1);
+
+    long start = System.nanoTime();
+    c.tableOperations().online(tableName, true);
+    long elapsed = MILLISECONDS.convert(System.nanoTime() - start, NANOSECONDS);
+    assertTrue("Bringing a table online took " + elapsed + "ms", elapsed < MAX_WAIT);
+    assertEquals(TABLES * TABLETS, countHosted(c));
+  }
+
+  @Test
+  public void tserverDeath() throws Exception {
+    Connector c = getConnector();
+    createTables(c);
+
+    ProcessReference tserver = getCluster().getProcesses().get(ServerType.TABLET_SERVER).iterator().next();
+    getCluster().killProcess(ServerType.TABLET_SERVER, tserver);
+
+    // tablets on the dead server should be reassigned once the master notices it is gone, not at the next full scan
+    long start = System.nanoTime();
+    while (c.instanceOperations().getTabletServers().size() != 1 || countHosted(c) != TABLES * TABLETS) {
+      long elapsed = MILLISECONDS.convert(System.nanoTime() - start, NANOSECONDS);
+      assertTrue("Tablets not reassigned after " + elapsed + "ms", elapsed < MAX_WAIT);
+      Thread.sleep(1000);
+    }
+  }
+
+  private String[] createTables(Connector c) throws Exception {
+    String[] tables = getUniqueNames(TABLES);
+    SortedSet<Text> splits = new TreeSet<>();
+    for (int i = 1; i < TABLETS; i++) {
+      splits.add(new Text(String.format("%03d", i)));
+    }
+    for (String table : tables) {
+      c.tableOperations().create(table);
+      c.tableOperations().addSplits(table, splits);
+    }
+    waitForHosted(c, tables.length);
+    // give the master a few passes to notice the tables need nothing
+    Thread.sleep(SECONDS.toMillis(10));
+    return tables;
+  }
+
+  private void waitForHosted(Connector c, int tables) throws Exception {
+    while (countHosted(c) != tables * TABLETS) {
+      Thread.sleep(500);
+    }
+  }
+
+  /**
+   * Count the user table tablets hosted on a live tablet server.
+   */
+  private int countHosted(Connector c) throws Exception {
+    Set<String> liveServers = new HashSet<>(c.instanceOperations().getTabletServers());
+    ClientContext context = new ClientContext(c.getInstance(), new Credentials("root", new PasswordToken(ROOT_PASSWORD)), getCluster().getClientConfig());
+    int count = 0;
+    try (MetaDataTableScanner scanner = new MetaDataTableScanner(context, TabletsSection.getRange())) {
+      while (scanner.hasNext()) {
+        TabletLocationState tls = scanner.next();
+        if (tls.current != null && liveServers.contains(tls.current.hostPort()))
+          count++;
+      }
+    }
+    return count;
+  }
+}